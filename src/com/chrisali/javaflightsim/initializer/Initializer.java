@@ -19,12 +19,23 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.initializer;
 
+import java.io.File;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
 import javax.swing.SwingUtilities;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.chrisali.javaflightsim.javafx.MainMenu;
+import com.chrisali.javaflightsim.simulation.HeadlessSimulationRunner;
+import com.chrisali.javaflightsim.simulation.ReplayRunner;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.telemetry.FlightRecording;
+import com.chrisali.javaflightsim.simulation.telemetry.TelemetryReplay;
 import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
 
 /**
@@ -78,6 +89,14 @@ public class Initializer {
 			logger.info(mode.toString() + " selected");
 			runNetworkApp();
 			break;
+		case HEADLESS:
+			logger.info(mode.toString() + " selected");
+			runHeadlessApp(args);
+			break;
+		case REPLAY:
+			logger.info(mode.toString() + " selected");
+			runReplayApp(args);
+			break;
 		default:
 			logger.error("Invalid run mode selected, defaulting to Swing with LWJGL!");
 			runLWJGLSwingApp();
@@ -135,6 +154,53 @@ public class Initializer {
 		return;
 	}
 	
+	/**
+	 * Runs an analysis simulation with {@link HeadlessSimulationRunner} using the saved simulation configuration, and saves its 
+	 * output to the CSV file named in the second arg, or HeadlessOutput.csv if none is given
+	 * 
+	 * @param args
+	 */
+	private static void runHeadlessApp(String[] args) {
+		File outputFile = new File(args.length > 1 ? args[1] : "HeadlessOutput.csv");
+		
+		try {
+			List<Map<SimOuts, Double>> logsOut = HeadlessSimulationRunner.run(FileUtilities.readSimulationConfiguration());
+			
+			FileUtilities.saveToCSVFile(outputFile, logsOut);
+		} catch (Exception e) {
+			logger.fatal("Error running headless simulation: ", e);
+			
+			return;
+		}
+	}
+	
+	/**
+	 * Plays back the flight recorded to the file named in the second arg with {@link ReplayRunner}, using the saved simulation 
+	 * configuration for the display and the instrument panel of the aircraft recorded
+	 * 
+	 * @param args
+	 */
+	private static void runReplayApp(String[] args) {
+		if (args.length < 2) {
+			logger.fatal("No flight recording file given to replay!");
+			
+			return;
+		}
+		
+		try {
+			List<FlightRecording> recordings = FlightRecording.openFlight(Paths.get(args[1]));
+			
+			SimulationConfiguration configuration = FileUtilities.readSimulationConfiguration();
+			configuration.setSelectedAircraft(recordings.get(0).getAircraft());
+			
+			new ReplayRunner(configuration, new TelemetryReplay(recordings)).run();
+		} catch (Exception e) {
+			logger.fatal("Error replaying flight recording: ", e);
+			
+			return;
+		}
+	}
+	
 	/**
 	 * To be implemented later; initializes network adapter for UDP packet transmission
 	 */
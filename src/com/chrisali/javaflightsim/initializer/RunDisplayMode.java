@@ -27,13 +27,18 @@ package com.chrisali.javaflightsim.initializer;
  *  <p>SWING_ONLY - Only uses the legacy Swing GUI for menus and for simulation output, administered by *controller goes here*</p>
  *  <p>JMONKEYENGINE - Uses the JMonkeyEngine implementation for menus and disply, administered by *controller goes here*</p>
  *  <p>NETWORK - Uses a TCP/UDP repeater to remotely transmit simulation data to another program such as X-Plane</p>
+ *  <p>HEADLESS - Runs an analysis simulation as fast as possible without any display or GUI, administered by {@link com.chrisali.javaflightsim.simulation.HeadlessSimulationRunner}, 
+ *  and saves its output to a CSV file</p>
+ *  <p>REPLAY - Plays back a flight recorded to file in the LWJGL out the window display, administered by {@link com.chrisali.javaflightsim.simulation.ReplayRunner}</p>
  */
 public enum RunDisplayMode {
 	LWJGL_SWING   ("LWJGL Swing"),
 	LWJGL_JAVAFX  ("LWJGL JavaFX"),
 	SWING_ONLY    ("Swing Only"),
 	JMONKEYENGINE ("JMonkeyEngine"),
-	NETWORK       ("Network");
+	NETWORK       ("Network"),
+	HEADLESS      ("Headless"),
+	REPLAY        ("Replay");
 	
 	private String displayMode;
 	
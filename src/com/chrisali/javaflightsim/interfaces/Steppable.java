@@ -19,11 +19,12 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.interfaces;
 
-import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.FrameScheduler;
+import com.chrisali.javaflightsim.simulation.setup.RateGroup;
 
 /**
- * To replace threading, this interface allows objects run at various rates slower than {@link Integrate6DOFEquations} 
- * master rate by step updating in a master loop only when the current time meets a certain window 
+ * To replace threading, this interface allows objects to run at various rates in a single master loop. Each object declares the
+ * {@link RateGroup} it belongs to, and {@link FrameScheduler} step updates it only in the frames that its group's rate allows
  * 
  * @author Christopher
  *
@@ -36,11 +37,10 @@ public interface Steppable {
 	public void step();
 	
 	/**
-	 * To emulate running synchronously at a different rate, define a modulus value here so that this object only updates every x 
-	 * times the simulation steps
+	 * To emulate running synchronously at a different rate, declare the rate group that this object belongs to here, so that it only 
+	 * updates at the rate set for that group in the simulation configuration
 	 * 
-	 * @param simTimeMS simulation time in milliseconds
-	 * @return if the implementing object can step update at this point in time
+	 * @return the rate group of the implementing object
 	 */
-	public boolean canStepNow(int simTimeMS);
+	public RateGroup getRateGroup();
 }
@@ -20,14 +20,14 @@
 package com.chrisali.javaflightsim.javafx;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
 import javax.swing.SwingUtilities;
 
 import com.chrisali.javaflightsim.simulation.integration.SimOuts;
-import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+import com.chrisali.javaflightsim.simulation.telemetry.ExportListener;
+import com.chrisali.javaflightsim.simulation.telemetry.TelemetryExporter;
 import com.chrisali.javaflightsim.swing.consoletable.ConsoleTableComponent;
 
 import org.apache.logging.log4j.LogManager;
@@ -37,11 +37,21 @@ import javafx.application.Platform;
 import javafx.embed.swing.SwingNode;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckMenuItem;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
 import javafx.scene.control.Menu;
 import javafx.scene.control.MenuBar;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.SelectionMode;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.input.KeyCombination;
+import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
@@ -51,9 +61,17 @@ public class ConsoleTable {
     
     private static final Logger logger = LogManager.getLogger(MainMenu.class);
 
+    private static final String FULL_PRECISION = "Full";
+
+    /** Decimal places selected when the export options are first shown; finer than any of the formats of {@link SimOuts} */
+    private static final int DEFAULT_DECIMAL_PLACES = 6;
+
     private Stage stage;
     ConsoleTableComponent tableComponent;
 
+    private ListView<SimOuts> channelList;
+    private ComboBox<String> precisionComboBox;
+
     public ConsoleTable(List<Map<SimOuts, Double>> logsOut) {
         try {
             stage = new Stage();
@@ -72,7 +90,7 @@ public class ConsoleTable {
         MenuBar menuBar = new MenuBar();
         Menu fileMenu = new Menu("File");
 
-        MenuItem exportItem = new MenuItem("Export to CSV...");
+        MenuItem exportItem = new MenuItem("Export...");
         exportItem.acceleratorProperty().set(KeyCombination.keyCombination("Ctrl+E"));
         exportItem.setOnAction(e -> { exportDataTable(logsOut); });
 
@@ -80,9 +98,29 @@ public class ConsoleTable {
         closeItem.acceleratorProperty().set(KeyCombination.keyCombination("Ctrl+X"));
         closeItem.setOnAction(e -> { hide(); });
         
+        Menu viewMenu = new Menu("View");
+
+        CheckMenuItem autoScrollItem = new CheckMenuItem("Auto Scroll");
+        autoScrollItem.setSelected(true);
+        autoScrollItem.acceleratorProperty().set(KeyCombination.keyCombination("Ctrl+Shift+A"));
+        autoScrollItem.setOnAction(e -> {
+            boolean autoScroll = autoScrollItem.isSelected();
+            SwingUtilities.invokeLater(() -> tableComponent.setAutoScroll(autoScroll));
+        });
+
+        CheckMenuItem freezeItem = new CheckMenuItem("Freeze");
+        freezeItem.acceleratorProperty().set(KeyCombination.keyCombination("Ctrl+F"));
+        freezeItem.setOnAction(e -> {
+            boolean frozen = freezeItem.isSelected();
+            SwingUtilities.invokeLater(() -> tableComponent.setFrozen(frozen));
+        });
+        
         fileMenu.getItems().add(exportItem);
         fileMenu.getItems().add(closeItem);
+        viewMenu.getItems().add(autoScrollItem);
+        viewMenu.getItems().add(freezeItem);
         menuBar.getMenus().add(fileMenu);
+        menuBar.getMenus().add(viewMenu);
         vbox.getChildren().add(menuBar);
 
         SwingNode swingNode = new SwingNode();
@@ -98,23 +136,93 @@ public class ConsoleTable {
         return vbox;
     }
 
+    /**
+     * Shows a dialog to select the channels to export and the number of decimal places to round their values to; selections
+     * are kept for the next export
+     * 
+     * @return if the export was confirmed with at least one channel selected
+     */
+    private boolean showExportOptions() {
+        if (channelList == null) {
+            channelList = new ListView<>(FXCollections.observableArrayList(SimOuts.values()));
+            channelList.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+            channelList.getSelectionModel().selectAll();
+            channelList.setPrefSize(250, 300);
+
+            precisionComboBox = new ComboBox<>();
+            for (int places = 0; places <= TelemetryExporter.MAX_DECIMAL_PLACES; places++)
+                precisionComboBox.getItems().add(String.valueOf(places));
+            precisionComboBox.getItems().add(FULL_PRECISION);
+            precisionComboBox.setValue(String.valueOf(DEFAULT_DECIMAL_PLACES));
+        }
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(10));
+        grid.add(new Label("Channels:"), 0, 0);
+        grid.add(channelList, 1, 0);
+        grid.add(new Label("Decimal Places:"), 0, 1);
+        grid.add(precisionComboBox, 1, 1);
+
+        Alert alert = new Alert(AlertType.CONFIRMATION);
+        alert.initOwner(stage);
+        alert.setTitle("Export Options");
+        alert.setHeaderText(null);
+        alert.getDialogPane().setContent(grid);
+
+        return alert.showAndWait().filter(button -> button == ButtonType.OK).isPresent()
+                && !channelList.getSelectionModel().getSelectedItems().isEmpty();
+    }
+
+    /**
+     * Exports the channels selected in the export options from logsOut on a background thread to the file chosen, showing its progress in the title of the stage
+     * 
+     * @param logsOut
+     */
     private void exportDataTable(List<Map<SimOuts, Double>> logsOut) {
         FileChooser fileChooser = new FileChooser();
-        fileChooser.setTitle("Export Raw Data to CSV");
+        fileChooser.setTitle("Export Raw Data");
         fileChooser.getExtensionFilters().add(new ExtensionFilter(".csv (Comma separated values) File", "*.csv"));
+        fileChooser.getExtensionFilters().add(new ExtensionFilter(".tsv (Tab separated values) File", "*.tsv"));
+        fileChooser.getExtensionFilters().add(new ExtensionFilter(".csv.gz (Compressed comma separated values) File", "*.csv.gz"));
         fileChooser.setInitialDirectory(new File(System.getProperty("user.home")));
 
         File file = fileChooser.showSaveDialog(stage);
-        if (file == null)
+        if (file == null || !showExportOptions())
             return;
 
-        try {
-            FileUtilities.saveToCSVFile(file, logsOut);
-            Dialog.showDialog("Console output successfully exported to CSV to: " + file.getAbsolutePath(), "Exported to CSV", AlertType.INFORMATION);
-        } catch (IOException e) {
-            logger.error("Unable to save CSV file!", e);
-            Dialog.showExceptionDialog(e, "An error was encountered while saving console output to CSV!", "Unable to save to CSV");
-        }
+        TelemetryExporter exporter = new TelemetryExporter(logsOut);
+        exporter.setOutputFromFileName(file);
+        exporter.setChannels(channelList.getSelectionModel().getSelectedItems().toArray(new SimOuts[0]));
+
+        String precision = precisionComboBox.getValue();
+        exporter.setPrecision(FULL_PRECISION.equals(precision) ? TelemetryExporter.FULL_PRECISION : Integer.parseInt(precision));
+
+        String title = stage.getTitle();
+
+        exporter.exportInBackground(file, new ExportListener() {
+            @Override
+            public void onExportProgress(long rowsWritten, long totalRows) {
+                Platform.runLater(() -> stage.setTitle(title + " - Exporting " + (100 * rowsWritten / totalRows) + "%"));
+            }
+
+            @Override
+            public void onExportComplete(File file, long rowsWritten) {
+                Platform.runLater(() -> {
+                    stage.setTitle(title);
+                    Dialog.showDialog("Console output successfully exported to: " + file.getAbsolutePath(), "Exported Raw Data", AlertType.INFORMATION);
+                });
+            }
+
+            @Override
+            public void onExportFailed(File file, Exception e) {
+                Platform.runLater(() -> {
+                    stage.setTitle(title);
+                    Dialog.showExceptionDialog(e, "An error was encountered while exporting console output!", "Unable to Export Raw Data");
+                });
+            }
+        });
     }
 
     /**
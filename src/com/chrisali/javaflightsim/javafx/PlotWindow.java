@@ -19,19 +19,26 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.javafx;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Set;
 
 import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.telemetry.TelemetryEnvelope;
+import com.chrisali.javaflightsim.simulation.telemetry.TelemetryStore;
 import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
 import com.chrisali.javaflightsim.swing.plotting.PlotConfiguration.SubPlotBundle;
+import com.chrisali.javaflightsim.swing.plotting.PlotConfiguration.SubPlotOptions;
 import com.chrisali.javaflightsim.swing.plotting.SimulationPlot;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jfree.chart.fx.ChartViewer;
 
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -41,31 +48,62 @@ import javafx.scene.control.MenuItem;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
 import javafx.scene.input.KeyCombination;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
+/**
+ * Plots data from the simulation in a JavaFX window, with a tab for each {@link SubPlotBundle} of the plot configuration. Bundles
+ * plotted against time are drawn as a {@link StripChart} for each subplot, sharing one {@link StripChartView} so that they pan, 
+ * zoom and show a cursor together; any others are drawn by a {@link SimulationPlot}. While the window is shown, the charts of 
+ * the selected tab are updated with the data logged since the last frame, following the newest data unless panned away from it
+ */
 public class PlotWindow {
     
     private static final Logger logger = LogManager.getLogger(PlotWindow.class);
 
+    // Rows read each frame, so that a long run is read over several frames rather than stalling one
+    private static final int MAX_ROWS_PER_FRAME = 65536;
+
+    private static final long SIMULATION_PLOT_REFRESH_NANOS = 125_000_000L;
+
     private Stage stage;
     private TabPane plotTabPane;
-    private List<Map<SimOuts, Double>> logsOut;
+    private TelemetryStore store;
+
+    private TelemetryEnvelope envelope;
+    private StripChartView view = new StripChartView();
+    private Map<Tab, List<StripChart>> stripCharts = new HashMap<>();
+    private Map<Tab, SimulationPlot> simulationPlots = new HashMap<>();
+
+    private AnimationTimer refreshTimer;
+    private long drawnChanges = -1;
+    private int drawnResets = 0;
+    private long simulationPlotRefreshNanos = 0;
 
     /**
      * Constructor that initializes the JavaFX controller and loads the stage from the associated FXML file
      */
     public PlotWindow(String aircraftName, List<Map<SimOuts, Double>> logsOut) {
-        this.logsOut = logsOut;
+        this.store = TelemetryStore.of(logsOut);
 
         try {
             Platform.runLater(() -> {
                 stage = new Stage();
                 stage.setScene(new Scene(createParent(), 900, 600));
                 stage.setTitle(aircraftName + " Plots");
-                stage.show();
+                stage.setOnShown(e -> refreshTimer.start());
+                stage.setOnHidden(e -> refreshTimer.stop());
+
+                refreshTimer = new AnimationTimer() {
+                    @Override
+                    public void handle(long now) {
+                        refreshPlots(now);
+                    }
+                };
 
                 initializePlots();
+                stage.show();
             });
         } catch (Exception e) {
             logger.error("Could not load Plot Window", e);
@@ -86,7 +124,15 @@ public class PlotWindow {
 
         MenuItem clearItem = new MenuItem("Clear");
         clearItem.acceleratorProperty().set(KeyCombination.keyCombination("Ctrl+C"));
-        clearItem.setOnAction(e -> { clearPlots();; });
+        clearItem.setOnAction(e -> { clearPlots(); });
+
+        MenuItem followItem = new MenuItem("Follow Latest");
+        followItem.acceleratorProperty().set(KeyCombination.keyCombination("Ctrl+F"));
+        followItem.setOnAction(e -> { view.setFollowing(true); });
+
+        MenuItem showAllItem = new MenuItem("Show All");
+        showAllItem.acceleratorProperty().set(KeyCombination.keyCombination("Ctrl+A"));
+        showAllItem.setOnAction(e -> { view.showAll(); });
 
         MenuItem closeItem = new MenuItem("Close");
         closeItem.acceleratorProperty().set(KeyCombination.keyCombination("Ctrl+X"));
@@ -95,11 +141,15 @@ public class PlotWindow {
         fileMenu.getItems().add(closeItem);
         plotsMenu.getItems().add(clearItem);
         plotsMenu.getItems().add(refreshItem);
+        plotsMenu.getItems().add(followItem);
+        plotsMenu.getItems().add(showAllItem);
         menuBar.getMenus().add(fileMenu);
         menuBar.getMenus().add(plotsMenu);
         vbox.getChildren().add(menuBar);
 
         plotTabPane = new TabPane();
+        plotTabPane.getSelectionModel().selectedItemProperty().addListener((obs, oldTab, newTab) -> { drawnChanges = -1; });
+        VBox.setVgrow(plotTabPane, Priority.ALWAYS);
         vbox.getChildren().add(plotTabPane);
 
         return vbox;
@@ -111,33 +161,121 @@ public class PlotWindow {
      */
     private void initializePlots() {
         plotTabPane.getTabs().clear();
+        stripCharts.clear();
+        simulationPlots.clear();
         
         Map<String, SubPlotBundle> subPlotBundles = FileUtilities.readPlotConfiguration().getSubPlotBundles();
         
-        // Copy to thread-safe ArrayList
-        CopyOnWriteArrayList<Map<SimOuts, Double>> cowLogsOut = new CopyOnWriteArrayList<>(logsOut);
-        
         try {
-            for (Map.Entry<String, SubPlotBundle> entry : subPlotBundles.entrySet()) {
-                SimulationPlot plot = new SimulationPlot(cowLogsOut, entry.getValue());
+            // All strip charts draw from one envelope of every channel they plot
+            Set<SimOuts> channels = new LinkedHashSet<>();
+            for (SubPlotBundle bundle : subPlotBundles.values()) {
+                if (isAgainstTime(bundle)) {
+                    for (SubPlotOptions options : bundle.getSubPlots())
+                        channels.addAll(options.getyData());
+                }
+            }
 
-                ChartViewer cv = new ChartViewer(plot.getChart());
-                cv.setPrefHeight(6000);
-                cv.setPrefWidth(9000);
+            envelope = new TelemetryEnvelope(store, channels.toArray(new SimOuts[channels.size()]));
+            drawnResets = envelope.getResets();
+            view.showAll();
 
-                Tab tab = new Tab(entry.getKey(), cv);
+            for (Map.Entry<String, SubPlotBundle> entry : subPlotBundles.entrySet()) {
+                Tab tab = new Tab(entry.getKey());
                 tab.setClosable(false);
 
+                if (isAgainstTime(entry.getValue())) {
+                    VBox charts = new VBox();
+                    List<StripChart> tabCharts = new ArrayList<>();
+
+                    for (SubPlotOptions options : entry.getValue().getSubPlots()) {
+                        StripChart chart = new StripChart(options, envelope, view);
+                        VBox.setVgrow(chart, Priority.ALWAYS);
+
+                        charts.getChildren().add(chart);
+                        tabCharts.add(chart);
+                    }
+
+                    tab.setContent(charts);
+                    stripCharts.put(tab, tabCharts);
+                } else {
+                    // Each plot reads the rows it needs from logsOut, so it is not copied
+                    SimulationPlot plot = new SimulationPlot(store.asList(), entry.getValue());
+
+                    tab.setContent(new ChartViewer(plot.getChart()));
+                    simulationPlots.put(tab, plot);
+                }
+
                 plotTabPane.getTabs().add(tab);
             }
         } catch (Exception ex) {
             logger.error("Error encountered when adding plots to tab panel!", ex);
             Dialog.showExceptionDialog(ex, "Error encountered when adding plots to tab panel!", "Plot Window");
         }
+
+        drawnChanges = -1;
     }
 
+    /**
+     * @param bundle
+     * @return if all subplots of the bundle are plotted against time, and so can be drawn as strip charts
+     */
+    private static boolean isAgainstTime(SubPlotBundle bundle) {
+        for (SubPlotOptions options : bundle.getSubPlots()) {
+            if (options.getxData() != SimOuts.TIME)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Called each frame to read newly logged data, follow it, and draw the charts of the selected tab if anything has changed
+     *
+     * @param nowNanos
+     */
+    private void refreshPlots(long nowNanos) {
+        if (envelope == null)
+            return;
+
+        boolean updated = envelope.update(MAX_ROWS_PER_FRAME) > 0;
+
+        // When the simulation is reset, start showing it all again
+        if (envelope.getResets() != drawnResets) {
+            drawnResets = envelope.getResets();
+            view.showAll();
+        }
+
+        view.follow(envelope.getStartTime(), envelope.getEndTime());
+
+        Tab selected = plotTabPane.getSelectionModel().getSelectedItem();
+        if (selected == null)
+            return;
+
+        List<StripChart> charts = stripCharts.get(selected);
+        if (charts != null && (updated || view.getChanges() != drawnChanges)) {
+            for (StripChart chart : charts)
+                chart.draw();
+
+            drawnChanges = view.getChanges();
+        }
+
+        SimulationPlot plot = simulationPlots.get(selected);
+        if (plot != null && nowNanos - simulationPlotRefreshNanos >= SIMULATION_PLOT_REFRESH_NANOS) {
+            plot.updateXYSeriesData();
+            simulationPlotRefreshNanos = nowNanos;
+        }
+    }
+
+    /**
+     * Clears all plots, so that only data logged afterwards is plotted
+     */
     private void clearPlots() {
-        plotTabPane.getTabs().clear();
+        if (envelope != null)
+            envelope.clear();
+
+        simulationPlots.values().forEach(SimulationPlot::clear);
+        view.showAll();
     }
 
     /**
@@ -169,4 +307,4 @@ public class PlotWindow {
         else 
             return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,423 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.javafx;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.telemetry.TelemetryEnvelope;
+import com.chrisali.javaflightsim.simulation.telemetry.TelemetrySnapshot;
+import com.chrisali.javaflightsim.simulation.telemetry.TelemetryStore;
+import com.chrisali.javaflightsim.swing.plotting.PlotConfiguration.SubPlotOptions;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Strip chart of the channels of a {@link SubPlotOptions} against time, drawn directly on a {@link Canvas}. Each frame, the span
+ * of time shown by its {@link StripChartView} is divided into pixel columns, and the least and greatest value of each channel in each
+ * column is found, either from the rows held in the {@link TelemetryStore} when zoomed in far enough, or otherwise from the level of
+ * a {@link TelemetryEnvelope} with about one bucket per column. The chart is drawn through these, so drawing takes the same time
+ * however many rows the span holds
+ *
+ * <p>Scrolling zooms in and out, dragging pans, and double clicking shows all time plotted again. Moving the mouse over the chart
+ * moves the cursor of the view, which is drawn across all charts sharing it along with the value of each channel at that time</p>
+ */
+public class StripChart extends Region {
+
+    private static final Color[] SERIES_COLORS = { Color.RED, Color.BLUE, Color.GREEN, Color.ORANGE, Color.MAGENTA, Color.CYAN,
+                                                   Color.PINK, Color.GRAY };
+
+    private static final double LEFT_MARGIN = 70;
+    private static final double RIGHT_MARGIN = 15;
+    private static final double TOP_MARGIN = 22;
+    private static final double BOTTOM_MARGIN = 28;
+
+    private static final int TIME_TICKS = 8;
+    private static final int VALUE_TICKS = 5;
+
+    // Rows are drawn from the store when there are no more than this many for each pixel column
+    private static final int RAW_ROWS_PER_COLUMN = 4;
+
+    // Change in span for each notch of the mouse wheel
+    private static final double ZOOM_PER_NOTCH = 1.2;
+    private static final double SCROLL_PER_NOTCH = 40;
+
+    private final Canvas canvas = new Canvas();
+
+    private final SubPlotOptions options;
+    private final TelemetryEnvelope envelope;
+    private final StripChartView view;
+
+    private final SimOuts[] channels;
+    private final SimOuts[] rawChannels;
+
+    // Least and greatest value of each channel in each pixel column, reused each time the chart is drawn
+    private double[][] columnMin = new double[0][0];
+    private double[][] columnMax = new double[0][0];
+    private double[] xPoints = new double[0];
+    private double[] yPoints = new double[0];
+
+    private final double[] cursorRow = new double[SimOuts.values().length];
+    private double dragX = Double.NaN;
+
+    /**
+     * @param options channels, title and axis names of the chart; channels are plotted against time
+     * @param envelope envelope of all channels of the chart
+     * @param view span of time and cursor shared by charts shown together
+     */
+    public StripChart(SubPlotOptions options, TelemetryEnvelope envelope, StripChartView view) {
+        this.options = options;
+        this.envelope = envelope;
+        this.view = view;
+
+        List<SimOuts> yData = options.getyData();
+        channels = yData.toArray(new SimOuts[yData.size()]);
+        rawChannels = Arrays.copyOf(channels, channels.length + 1);
+        rawChannels[channels.length] = SimOuts.TIME;
+
+        getChildren().add(canvas);
+        setMinHeight(120);
+
+        canvas.setOnScroll(ev -> {
+            double factor = Math.pow(ZOOM_PER_NOTCH, -ev.getDeltaY() / SCROLL_PER_NOTCH);
+            view.zoom(factor, timeAt(ev.getX()));
+        });
+        canvas.setOnMousePressed(ev -> dragX = ev.getX());
+        canvas.setOnMouseReleased(ev -> dragX = Double.NaN);
+        canvas.setOnMouseDragged(ev -> {
+            if (!Double.isNaN(dragX))
+                view.pan(timeAt(dragX) - timeAt(ev.getX()));
+
+            dragX = ev.getX();
+        });
+        canvas.setOnMouseMoved(ev -> view.setCursorTime(isInPlot(ev.getX()) ? timeAt(ev.getX()) : Double.NaN));
+        canvas.setOnMouseExited(ev -> view.setCursorTime(Double.NaN));
+        canvas.setOnMouseClicked(ev -> {
+            if (ev.getButton() == MouseButton.PRIMARY && ev.getClickCount() == 2)
+                view.showAll();
+        });
+    }
+
+    @Override
+    protected void layoutChildren() {
+        canvas.setWidth(getWidth());
+        canvas.setHeight(getHeight());
+
+        draw();
+    }
+
+    private double plotWidth() { return canvas.getWidth() - LEFT_MARGIN - RIGHT_MARGIN; }
+
+    private double plotHeight() { return canvas.getHeight() - TOP_MARGIN - BOTTOM_MARGIN; }
+
+    private boolean isInPlot(double x) { return x >= LEFT_MARGIN && x <= LEFT_MARGIN + plotWidth(); }
+
+    private double timeAt(double x) {
+        return view.getStart() + (x - LEFT_MARGIN) / plotWidth() * (view.getEnd() - view.getStart());
+    }
+
+    //================================= Drawing ==============================================================
+
+    /**
+     * Draws the chart for the current span and cursor of its view
+     */
+    public void draw() {
+        final GraphicsContext gc = canvas.getGraphicsContext2D();
+        final double width = canvas.getWidth();
+        final double height = canvas.getHeight();
+
+        gc.setFill(Color.WHITE);
+        gc.fillRect(0, 0, width, height);
+
+        final int columns = (int) plotWidth();
+        if (columns < 10 || plotHeight() < 10)
+            return;
+
+        final double start = view.getStart();
+        final double end = view.getEnd();
+
+        ensureColumns(columns);
+        for (int channel = 0; channel < channels.length; channel++) {
+            Arrays.fill(columnMin[channel], 0, columns, Double.POSITIVE_INFINITY);
+            Arrays.fill(columnMax[channel], 0, columns, Double.NEGATIVE_INFINITY);
+        }
+
+        if (!envelope.isEmpty() && !fillColumnsFromRows(columns, start, end))
+            fillColumnsFromEnvelope(columns, start, end);
+
+        // Range of values shown, with a margin above and below
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int channel = 0; channel < channels.length; channel++) {
+            for (int column = 0; column < columns; column++) {
+                if (Double.isFinite(columnMin[channel][column]))
+                    min = Math.min(min, columnMin[channel][column]);
+                if (Double.isFinite(columnMax[channel][column]))
+                    max = Math.max(max, columnMax[channel][column]);
+            }
+        }
+
+        if (min > max) {
+            min = -1.0;
+            max = 1.0;
+        } else if (max - min < 1e-9 * Math.max(1.0, Math.abs(max))) {
+            double pad = Math.max(1e-3, Math.abs(max) * 0.1);
+            min -= pad;
+            max += pad;
+        }
+
+        final double margin = (max - min) * 0.05;
+        min -= margin;
+        max += margin;
+
+        drawAxes(gc, start, end, min, max);
+
+        gc.save();
+        gc.beginPath();
+        gc.rect(LEFT_MARGIN, TOP_MARGIN, plotWidth(), plotHeight());
+        gc.clip();
+
+        for (int channel = 0; channel < channels.length; channel++)
+            drawSeries(gc, channel, columns, min, max);
+
+        gc.restore();
+
+        drawCursorAndLegend(gc, start, end);
+    }
+
+    private void ensureColumns(int columns) {
+        if (columnMin.length == channels.length && columnMin.length > 0 && columnMin[0].length >= columns)
+            return;
+
+        columnMin = new double[channels.length][columns];
+        columnMax = new double[channels.length][columns];
+        xPoints = new double[columns * 2];
+        yPoints = new double[columns * 2];
+    }
+
+    private int columnOf(double time, int columns, double start, double end) {
+        final int column = (int) ((time - start) / (end - start) * columns);
+        return Math.max(0, Math.min(columns - 1, column));
+    }
+
+    /**
+     * Fills columns from the rows in the store, if there are few enough in the span and the store still holds them all
+     *
+     * @return if columns were filled
+     */
+    private boolean fillColumnsFromRows(int columns, double start, double end) {
+        final int firstBucket = envelope.findBucket(0, start);
+        final int lastBucket = envelope.findBucket(0, end);
+
+        final long fromIndex = envelope.getFirstIndex() + firstBucket * TelemetryEnvelope.getRowsPerBucket(0);
+        final long toIndex = Math.min(envelope.getFirstIndex() + (lastBucket + 1) * TelemetryEnvelope.getRowsPerBucket(0),
+                                      envelope.getEndIndex());
+
+        if (toIndex - fromIndex > (long) columns * RAW_ROWS_PER_COLUMN)
+            return false;
+
+        final TelemetrySnapshot rows = envelope.getStore().snapshot(fromIndex, toIndex, rawChannels);
+        if (rows.getFirstIndex() != fromIndex || rows.getEndIndex() != toIndex)
+            return false;
+
+        final double[] times = rows.getColumn(SimOuts.TIME);
+        for (int channel = 0; channel < channels.length; channel++) {
+            final double[] values = rows.getColumn(channels[channel]);
+
+            for (int row = 0; row < rows.size(); row++) {
+                final int column = columnOf(times[row], columns, start, end);
+
+                if (values[row] < columnMin[channel][column])
+                    columnMin[channel][column] = values[row];
+                if (values[row] > columnMax[channel][column])
+                    columnMax[channel][column] = values[row];
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Fills columns from the finest level of the envelope that has no more buckets in the span than there are columns
+     */
+    private void fillColumnsFromEnvelope(int columns, double start, double end) {
+        final int finestBuckets = envelope.findBucket(0, end) - envelope.findBucket(0, start) + 1;
+
+        int level = 0;
+        while (level < envelope.getLevels() - 1 && (finestBuckets >> level) > columns)
+            level++;
+
+        final int firstBucket = envelope.findBucket(level, start);
+        final int lastBucket = envelope.findBucket(level, end);
+
+        for (int bucket = firstBucket; bucket <= lastBucket; bucket++) {
+            final double time = (envelope.getStartTime(level, bucket) + envelope.getEndTime(level, bucket)) / 2;
+            final int column = columnOf(time, columns, start, end);
+
+            for (int channel = 0; channel < channels.length; channel++) {
+                columnMin[channel][column] = Math.min(columnMin[channel][column], envelope.getMin(channels[channel], level, bucket));
+                columnMax[channel][column] = Math.max(columnMax[channel][column], envelope.getMax(channels[channel], level, bucket));
+            }
+        }
+    }
+
+    /**
+     * Draws a line down each column from the greatest to the least value of a channel, joined from column to column
+     */
+    private void drawSeries(GraphicsContext gc, int channel, int columns, double min, double max) {
+        final double scale = plotHeight() / (max - min);
+        final double bottom = TOP_MARGIN + plotHeight();
+
+        int points = 0;
+        for (int column = 0; column < columns; column++) {
+            if (columnMin[channel][column] > columnMax[channel][column])
+                continue;
+
+            final double x = LEFT_MARGIN + column + 0.5;
+
+            xPoints[points] = x;
+            yPoints[points++] = bottom - (columnMax[channel][column] - min) * scale;
+            xPoints[points] = x;
+            yPoints[points++] = bottom - (columnMin[channel][column] - min) * scale;
+        }
+
+        gc.setStroke(SERIES_COLORS[channel % SERIES_COLORS.length]);
+        gc.setLineWidth(1.0);
+        gc.strokePolyline(xPoints, yPoints, points);
+    }
+
+    private void drawAxes(GraphicsContext gc, double start, double end, double min, double max) {
+        final double bottom = TOP_MARGIN + plotHeight();
+
+        gc.setFont(Font.font(10));
+        gc.setLineWidth(1.0);
+        gc.setFill(Color.BLACK);
+
+        // Time ticks and grid
+        final double timeStep = niceStep(end - start, TIME_TICKS);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.TOP);
+        for (double time = Math.ceil(start / timeStep) * timeStep; time <= end; time += timeStep) {
+            final double x = LEFT_MARGIN + (time - start) / (end - start) * plotWidth();
+
+            gc.setStroke(Color.gray(0.9));
+            gc.strokeLine(x, TOP_MARGIN, x, bottom);
+            gc.fillText(formatTick(time, timeStep), x, bottom + 3);
+        }
+
+        // Value ticks and grid
+        final double valueStep = niceStep(max - min, VALUE_TICKS);
+        gc.setTextAlign(TextAlignment.RIGHT);
+        gc.setTextBaseline(VPos.CENTER);
+        for (double value = Math.ceil(min / valueStep) * valueStep; value <= max; value += valueStep) {
+            final double y = bottom - (value - min) / (max - min) * plotHeight();
+
+            gc.setStroke(Color.gray(0.9));
+            gc.strokeLine(LEFT_MARGIN, y, LEFT_MARGIN + plotWidth(), y);
+            gc.fillText(formatTick(value, valueStep), LEFT_MARGIN - 4, y);
+        }
+
+        gc.setStroke(Color.BLACK);
+        gc.strokeRect(LEFT_MARGIN, TOP_MARGIN, plotWidth(), plotHeight());
+
+        // Axis names
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.BOTTOM);
+        gc.fillText(options.getxAxisName(), LEFT_MARGIN + plotWidth() / 2, canvas.getHeight() - 1);
+
+        gc.save();
+        gc.translate(10, TOP_MARGIN + plotHeight() / 2);
+        gc.rotate(-90);
+        gc.setTextBaseline(VPos.CENTER);
+        gc.fillText(options.getyAxisName(), 0, 0);
+        gc.restore();
+    }
+
+    /**
+     * Draws the title, and a legend of the channels, with their values at the cursor if it is over the span shown
+     */
+    private void drawCursorAndLegend(GraphicsContext gc, double start, double end) {
+        final double cursorTime = view.getCursorTime();
+        boolean showValues = false;
+
+        if (cursorTime >= start && cursorTime <= end) {
+            final double x = LEFT_MARGIN + (cursorTime - start) / (end - start) * plotWidth();
+
+            gc.setStroke(Color.BLACK);
+            gc.setLineDashes(4, 4);
+            gc.strokeLine(x, TOP_MARGIN, x, TOP_MARGIN + plotHeight());
+            gc.setLineDashes(null);
+
+            final long index = envelope.findIndex(cursorTime);
+            showValues = index >= 0 && envelope.getStore().read(index, cursorRow);
+        }
+
+        gc.setFont(Font.font(11));
+        gc.setTextAlign(TextAlignment.LEFT);
+        gc.setTextBaseline(VPos.CENTER);
+        gc.setFill(Color.BLACK);
+        gc.fillText(options.getTitle(), LEFT_MARGIN, TOP_MARGIN / 2);
+
+        double x = LEFT_MARGIN + 10 + options.getTitle().length() * 7;
+        for (int channel = 0; channel < channels.length; channel++) {
+            String label = channels[channel].toString();
+            if (showValues)
+                label += " = " + String.format("%.4g", cursorRow[channels[channel].ordinal()]);
+
+            gc.setFill(SERIES_COLORS[channel % SERIES_COLORS.length]);
+            gc.fillRect(x, TOP_MARGIN / 2 - 4, 8, 8);
+            gc.setFill(Color.BLACK);
+            gc.fillText(label, x + 12, TOP_MARGIN / 2);
+
+            x += 24 + label.length() * 6;
+        }
+
+        if (showValues) {
+            gc.setTextAlign(TextAlignment.RIGHT);
+            gc.fillText(String.format("%.3f", cursorRow[SimOuts.TIME.ordinal()]), LEFT_MARGIN + plotWidth(), TOP_MARGIN / 2);
+        }
+    }
+
+    /**
+     * @param range
+     * @param ticks about the number of ticks wanted
+     * @return step of 1, 2 or 5 times a power of ten between ticks
+     */
+    private static double niceStep(double range, int ticks) {
+        final double rough = range / ticks;
+        final double magnitude = Math.pow(10, Math.floor(Math.log10(rough)));
+        final double residual = rough / magnitude;
+
+        return ((residual < 1.5) ? 1 : (residual < 3) ? 2 : (residual < 7) ? 5 : 10) * magnitude;
+    }
+
+    private static String formatTick(double value, double step) {
+        final int decimals = (int) Math.max(0, -Math.floor(Math.log10(step)));
+        return String.format("%." + decimals + "f", (Math.abs(value) < step / 2) ? 0.0 : value);
+    }
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.javafx;
+
+/**
+ * Span of time shown by a group of {@link StripChart} objects, and the time of the cursor drawn across them, so that panning,
+ * zooming or moving the cursor over any one of them moves all of them together. While following, the span ends at the newest
+ * time plotted, so that the charts scroll along as the simulation runs; panning stops following. Used only on the JavaFX
+ * application thread
+ */
+public class StripChartView {
+
+    // Narrowest span that can be zoomed into [sec]
+    private static final double MIN_SPAN = 0.05;
+
+    private double start = 0.0;
+    private double end = 1.0;
+
+    // Span kept while following [sec]; NaN to show all time plotted
+    private double span = Double.NaN;
+    private boolean following = true;
+
+    private double cursorTime = Double.NaN;
+    private long changes = 0;
+
+    /**
+     * Moves the span to end at the newest time plotted if following, showing all time plotted if not zoomed in
+     *
+     * @param firstTime time of the first row plotted [sec]
+     * @param newestTime time of the newest row plotted [sec]
+     */
+    public void follow(double firstTime, double newestTime) {
+        if (!following || Double.isNaN(firstTime) || Double.isNaN(newestTime))
+            return;
+
+        if (Double.isNaN(span))
+            setSpan(firstTime, Math.max(newestTime, firstTime + MIN_SPAN));
+        else
+            setSpan(newestTime - span, newestTime);
+    }
+
+    /**
+     * Zooms in or out, keeping the time given at the same place on the charts; while following, the newest time is kept at the
+     * end of the span instead
+     *
+     * @param factor ratio of the new span to the current span; less than 1 to zoom in
+     * @param aboutTime [sec]
+     */
+    public void zoom(double factor, double aboutTime) {
+        final double newSpan = Math.max(MIN_SPAN, (end - start) * factor);
+
+        if (following) {
+            span = newSpan;
+            setSpan(end - newSpan, end);
+        } else {
+            final double newStart = aboutTime - (aboutTime - start) * newSpan / (end - start);
+            setSpan(newStart, newStart + newSpan);
+        }
+    }
+
+    /**
+     * Moves the span by the time given, which stops following
+     *
+     * @param seconds [sec]; positive to move later
+     */
+    public void pan(double seconds) {
+        following = false;
+        setSpan(start + seconds, end + seconds);
+    }
+
+    /**
+     * Zooms out to show all time plotted, and follows the newest time
+     */
+    public void showAll() {
+        span = Double.NaN;
+        following = true;
+        changes++;
+    }
+
+    private void setSpan(double start, double end) {
+        if (start == this.start && end == this.end)
+            return;
+
+        this.start = start;
+        this.end = end;
+        changes++;
+    }
+
+    public double getStart() { return start; }
+
+    public double getEnd() { return end; }
+
+    public boolean isFollowing() { return following; }
+
+    /**
+     * @param following if the span should end at the newest time plotted, keeping the current span
+     */
+    public void setFollowing(boolean following) {
+        if (following && !this.following && Double.isNaN(span))
+            span = end - start;
+
+        this.following = following;
+        changes++;
+    }
+
+    /**
+     * @return time of the cursor drawn across the charts [sec]; NaN if none is drawn
+     */
+    public double getCursorTime() { return cursorTime; }
+
+    public void setCursorTime(double cursorTime) {
+        if (Double.compare(cursorTime, this.cursorTime) == 0)
+            return;
+
+        this.cursorTime = cursorTime;
+        changes++;
+    }
+
+    /**
+     * @return count of changes to the span or cursor, to tell if charts need to be drawn again
+     */
+    public long getChanges() { return changes; }
+}
@@ -33,6 +33,7 @@ import org.lwjgl.util.vector.Vector4f;
 import static org.lwjgl.glfw.GLFW.*;
 
 import com.chrisali.javaflightsim.interfaces.OTWWorld;
+import com.chrisali.javaflightsim.interfaces.Steppable;
 import com.chrisali.javaflightsim.lwjgl.audio.AudioMaster;
 import com.chrisali.javaflightsim.lwjgl.audio.SoundCollection;
 import com.chrisali.javaflightsim.lwjgl.entities.Camera;
@@ -63,17 +64,26 @@ import com.chrisali.javaflightsim.simulation.datatransfer.EnvironmentData;
 import com.chrisali.javaflightsim.simulation.datatransfer.EnvironmentDataListener;
 import com.chrisali.javaflightsim.simulation.datatransfer.FlightData;
 import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataListener;
+import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataSnapshot;
 import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataType;
 import com.chrisali.javaflightsim.simulation.datatransfer.InputDataListener;
 import com.chrisali.javaflightsim.simulation.datatransfer.SimulationEventListener;
+import com.chrisali.javaflightsim.simulation.datatransfer.SimulationState;
+import com.chrisali.javaflightsim.simulation.datatransfer.TripleBuffer;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
 import com.chrisali.javaflightsim.simulation.setup.CameraMode;
 import com.chrisali.javaflightsim.simulation.setup.KeyCommand;
+import com.chrisali.javaflightsim.simulation.setup.RateGroup;
 import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.telemetry.TelemetryReplay;
 import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
 
 /**
  * Out the window display for Java Flight Sim. It utilizes LWJGL to create a 3D world in OpenGL. 
- * This runs in a simulation runner thread that receives data from {@link FlightData} via {@link FlightDataListener} 
+ * This runs in a simulation runner thread that receives data from {@link FlightData} via {@link FlightDataListener}, or, when the 
+ * simulation runs on a thread of its own, reads {@link SimulationState} snapshots published by the simulation through a {@link TripleBuffer}
+ * and renders the ownship interpolated between the two most recent of them. Flight data may also come from a {@link TelemetryReplay}
+ * of a recorded flight, either in place of the simulation, or replayed beside it as a ghost aircraft
  * 
  * @author Christopher Ali
  *
@@ -84,6 +94,7 @@ public class LWJGLWorld implements FlightDataListener, OTWWorld {
 	
 	private Loader loader;
 	private MasterRenderer masterRenderer;
+	private ParticleMaster particleMaster;
 	
 	// Lighting
 	private List<Light> lights;
@@ -92,11 +103,28 @@ public class LWJGLWorld implements FlightDataListener, OTWWorld {
 	private TerrainCollection terrainCollection;
 	private EntityCollections entities;
 	private SoundCollection soundCollection;
+	private Map<FlightDataType, Double> latestFlightData;
+	
+	private final Steppable audio = new Steppable() {
+		@Override
+		public void step() {
+			if (soundCollection != null && latestFlightData != null)
+				soundCollection.update(latestFlightData);
+		}
+
+		@Override
+		public RateGroup getRateGroup() { return RateGroup.AUDIO; }
+	};
 	
 	// Ownship is the "player" that moves around the world based on data received from FlightData
 	private Ownship ownship;
 	private Camera camera;
 	
+	// Ghost is a recorded flight replayed beside the ownship in step with simulation time
+	private TelemetryReplay ghostReplay;
+	private Ownship ghost;
+	private final FlightDataSnapshot ghostSnapshot = new FlightDataSnapshot();
+	
 	// Interface
 	private SimulationTexts simTexts;
 	private Map<String, List<InterfaceTexture>> interfaceTextures;
@@ -107,6 +135,17 @@ public class LWJGLWorld implements FlightDataListener, OTWWorld {
 	private SimulationConfiguration configuration;
 	private EnvironmentData environmentData;
 	
+	// Snapshots of the simulation published by the physics thread, and the two most recent received to interpolate between
+	private TripleBuffer<SimulationState> simulationStates;
+	private final SimulationState previousState = new SimulationState();
+	private final SimulationState currentState  = new SimulationState();
+	private final double[] interpolatedValues   = new double[SimOuts.values().length];
+	private final FlightData interpolatedFlightData = new FlightData();
+	
+	// Refilled with the flight data received each frame, so that it is read without locking or allocation 
+	private final FlightDataSnapshot flightDataSnapshot = new FlightDataSnapshot();
+	private long statesReceived = 0;
+	
 	// Event Listeners
 	private List<WindowClosedListener> windowClosedListeners = new ArrayList<>();
 	private List<InputDataListener> inputDataListeners = new ArrayList<>();
@@ -123,9 +162,31 @@ public class LWJGLWorld implements FlightDataListener, OTWWorld {
 	}	
 	
 	@Override
-	public boolean canStepNow(int simTimeMS) {
-		return simTimeMS % 1 == 0;
-	}
+	public RateGroup getRateGroup() { return RateGroup.DISPLAY; }
+	
+	/**
+	 * Returns a {@link Steppable} in the {@link RateGroup#AUDIO} rate group that updates sound gains/volumes with the most recent 
+	 * flight data received, so that audio can be updated at a different rate than the display
+	 * 
+	 * @return audio updater of this world
+	 */
+	public Steppable getAudio() { return audio; }
+	
+	/**
+	 * Sets the buffer that the simulation publishes its state to each step when it runs on its own thread, which is read each 
+	 * display frame in place of flight data received through {@link FlightDataListener}
+	 * 
+	 * @param simulationStates
+	 */
+	public void setSimulationStates(TripleBuffer<SimulationState> simulationStates) { this.simulationStates = simulationStates; }
+	
+	/**
+	 * Sets a recorded flight to show as a ghost aircraft beside the ownship, which is replayed at the simulation time of each display
+	 * frame, so that it pauses and resets along with the simulation; must be set before {@link #init()}
+	 * 
+	 * @param ghostReplay
+	 */
+	public void setGhostReplay(TelemetryReplay ghostReplay) { this.ghostReplay = ghostReplay; }
 
 	/**
 	 * Main game loop of the LWJGL process, whose stepping is controlled by the {@link SimulationRunner} object's thread
@@ -133,12 +194,14 @@ public class LWJGLWorld implements FlightDataListener, OTWWorld {
 	@Override
 	public void step() {
 		try {
-			ParticleMaster.update(camera);
+			interpolateSimulationState();
+			
+			particleMaster.update(camera);
 			
 			masterRenderer.renderWholeScene(entities, terrainCollection.getTerrainTree(), 
 											lights, camera, new Vector4f(0, 1, 0, 0));
 			
-			ParticleMaster.renderParticles(camera);
+			particleMaster.renderParticles(camera);
 			
 			interfaceRenderer.render(configuration, interfaceTextures);
 
@@ -160,6 +223,42 @@ public class LWJGLWorld implements FlightDataListener, OTWWorld {
 		}
 	}
 	
+	/**
+	 * Reads the latest {@link SimulationState} published by the simulation, if any, and moves the ownship to a pose interpolated 
+	 * between the two most recent states received. The display is drawn up to one simulation step behind the simulation, as the 
+	 * pose is blended from the older state towards the newer over the time that passed between their publication 
+	 */
+	private void interpolateSimulationState() {
+		if (simulationStates == null)
+			return;
+		
+		if (simulationStates.update()) {
+			SimulationState received = simulationStates.getReadBuffer();
+			
+			previousState.set(statesReceived > 0 ? currentState : received);
+			currentState.set(received);
+			statesReceived++;
+		}
+		
+		if (statesReceived == 0)
+			return;
+		
+		long periodNanos = currentState.getPublishedNanos() - previousState.getPublishedNanos();
+		double alpha = 1.0;
+		if (periodNanos > 0) {
+			alpha = (double) (System.nanoTime() - currentState.getPublishedNanos()) / periodNanos;
+			alpha = Math.max(0.0, Math.min(1.0, alpha));
+		}
+		
+		SimulationState.interpolate(previousState, currentState, alpha, interpolatedValues);
+		interpolatedFlightData.updateData(interpolatedValues);
+		
+		if (ghostReplay != null)
+			ghostReplay.replayAt(interpolatedValues[SimOuts.TIME.ordinal()]);
+		
+		onFlightDataReceived(interpolatedFlightData);
+	}
+	
 	/**
 	 * Called just before main simulation loop runs, initializes all assets and processes
 	 */
@@ -185,7 +284,7 @@ public class LWJGLWorld implements FlightDataListener, OTWWorld {
 			logger.info("Cleaning up and closing LWJGL display...");
 			
 			AudioMaster.cleanUp();
-			ParticleMaster.cleanUp();
+			particleMaster.cleanUp();
 			TextMaster.cleanUp();
 			masterRenderer.cleanUp();
 			interfaceRenderer.cleanUp();
@@ -206,7 +305,7 @@ public class LWJGLWorld implements FlightDataListener, OTWWorld {
 	 */
 	private void startUp() {
 		logger.info("Starting up LWJGL display...");
-		DisplayManager.setFrameRateLimit(configuration.getSimulationRateHz());
+		DisplayManager.setFrameRateLimit(configuration.getRateHz(RateGroup.DISPLAY));
 		DisplayManager.setHeight(configuration.getDisplayConfiguration().getDisplayHeight());
 		DisplayManager.setWidth(configuration.getDisplayConfiguration().getDisplayWidth());
 		DisplayManager.setAaSamples(configuration.getDisplayConfiguration().isUseAntiAliasing() ? 2 : 0);
@@ -230,7 +329,7 @@ public class LWJGLWorld implements FlightDataListener, OTWWorld {
 		
 		logger.info("Loading on-screen text and particles...");
 		
-		ParticleMaster.init(loader, masterRenderer.getProjectionMatrix());
+		particleMaster = new ParticleMaster(loader, masterRenderer.getProjectionMatrix());
 		TextMaster.init(loader);
 
 		logger.info("Initializing control inputs and environment data transfer...");
@@ -274,6 +373,16 @@ public class LWJGLWorld implements FlightDataListener, OTWWorld {
 		
 		camera = new Camera(ownship, configuration.getCameraConfiguration());
 		inputDataListeners.add(camera);
+		
+		if (ghostReplay != null) {
+			logger.info("Creating ghost of recorded flight...");
+			
+			ghost = new Ownship(airplane, configuration.getInitialConditions(), 1.25f);
+			ghost.setRender(true);
+			entities.addToStaticEntities(ghost);
+			
+			ghostReplay.addFlightDataListener(flightData -> ghost.move(flightData.read(ghostSnapshot)));
+		}
 				
 		//================================= Terrain ==========================================================
 		
@@ -291,7 +400,7 @@ public class LWJGLWorld implements FlightDataListener, OTWWorld {
 		// Generates clouds at random positions along terrain map
 		Random random = new Random();
 		for (int i = -1000; i < 1000; i++)
-			new Cloud(clouds, new Vector3f(random.nextInt(800*10), 300, i*10), new Vector3f(0, 0, 0), 0, 200);
+			new Cloud(particleMaster, clouds, new Vector3f(random.nextInt(800*10), 300, i*10), new Vector3f(0, 0, 0), 0, 200);
 		
 		//=============================== Interface ==========================================================
 		
@@ -317,11 +426,12 @@ public class LWJGLWorld implements FlightDataListener, OTWWorld {
 	
 	@Override
 	public void onFlightDataReceived(FlightData flightData) {
-		Map<FlightDataType, Double> receivedFlightData = flightData.getFlightData();
+		Map<FlightDataType, Double> receivedFlightData = flightData.read(flightDataSnapshot);
 		
-		if (!receivedFlightData.containsValue(null) && receivedFlightData != null) {
-			// Update sound gains/volumes with flight data
-			soundCollection.update(receivedFlightData);
+		// Nothing to show until the simulation has published its first update
+		if (flightDataSnapshot.getSequence() > 0) {
+			// Sound gains/volumes are updated with this flight data when audio is next stepped
+			latestFlightData = receivedFlightData;
 			
 			// Ownship movement; let camera track ownhip 1-1 for now
 			ownship.move(receivedFlightData);
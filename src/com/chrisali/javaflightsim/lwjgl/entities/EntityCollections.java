@@ -20,20 +20,16 @@
 package com.chrisali.javaflightsim.lwjgl.entities;
 
 import java.awt.Color;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.TreeMap;
 
-import javax.imageio.ImageIO;
-
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.lwjgl.util.vector.Vector3f;
 
+import com.chrisali.javaflightsim.lwjgl.loader.ImageRaster;
 import com.chrisali.javaflightsim.lwjgl.loader.Loader;
 import com.chrisali.javaflightsim.lwjgl.loader.OBJLoader;
 import com.chrisali.javaflightsim.lwjgl.models.TexturedModel;
@@ -129,16 +125,21 @@ public class EntityCollections {
 	 * 
 	 * <p>Each pixel adds a new object, so they should be added to the autogen image (autogen.png) judiciously
 	 * 
+	 * <p>The autogen image is decoded once and shared by all terrains using it, and entities are added only to the terrain given,
+	 * so this can be called for different terrains on different threads at the same time
+	 * 
 	 * @param terrain
 	 * @param fileName
 	 * @param directory
 	 */
 	public static void createAutogenImageEntities(Terrain terrain, String fileName, String directory) {
 		
-		BufferedImage image = null;
+		ImageRaster image = ImageRaster.load(fileName, directory);
 		
-		try {image = ImageIO.read(new File(OTWDirectories.RESOURCES.toString() + File.separator + directory + File.separator + fileName + OTWFiles.TEXTURE_EXT.toString()));} 
-		catch (IOException e) {logger.error("Could not load autogen file: " + fileName + OTWFiles.TEXTURE_EXT.toString() + "!", e);}
+		if (image == null) {
+			logger.error("Could not load autogen file: " + fileName + OTWFiles.TEXTURE_EXT.toString() + "!");
+			return;
+		}
 		
 		float imageScale = Terrain.getSize()/image.getHeight();
 		float scaledX, scaledZ;
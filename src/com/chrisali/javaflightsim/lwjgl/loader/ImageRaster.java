@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.lwjgl.loader;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.imageio.ImageIO;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.lwjgl.utilities.OTWDirectories;
+import com.chrisali.javaflightsim.lwjgl.utilities.OTWFiles;
+
+/**
+ * Pixels of an image file decoded once into an array of packed ARGB ints, so that images read pixel by pixel to build the world,
+ * such as height maps and autogen maps, are neither decoded again for each {@link com.chrisali.javaflightsim.lwjgl.terrain.Terrain}
+ * that uses them nor read through {@link BufferedImage#getRGB(int, int)} for every pixel. Decoded images are cached by file path
+ * and can be loaded from any thread
+ *
+ * @author Christopher Ali
+ *
+ */
+public class ImageRaster {
+	
+	private static final Logger logger = LogManager.getLogger(ImageRaster.class);
+	
+	private static final Map<String, ImageRaster> cache = new ConcurrentHashMap<>();
+	
+	private final int width;
+	private final int height;
+	private final int[] pixels;
+	
+	private ImageRaster(BufferedImage image) {
+		width = image.getWidth();
+		height = image.getHeight();
+		pixels = image.getRGB(0, 0, width, height, null, 0, width);
+	}
+	
+	/**
+	 * Decodes an image file in the Resources directory, or returns the image already decoded from it
+	 *
+	 * @param fileName
+	 * @param directory (usually "Terrain" or can specify sub-directories such as "Terrain\1-1")
+	 * @return decoded image, or null if the file could not be read
+	 */
+	public static ImageRaster load(String fileName, String directory) {
+		final String path = OTWDirectories.RESOURCES.toString() + File.separator + directory + File.separator + fileName + OTWFiles.TEXTURE_EXT.toString();
+		
+		return cache.computeIfAbsent(path, key -> {
+			try {
+				BufferedImage image = ImageIO.read(new File(key));
+				
+				if (image != null)
+					return new ImageRaster(image);
+				
+				logger.error("Could not decode image: " + fileName + OTWFiles.TEXTURE_EXT.toString() + "!");
+			} catch (IOException e) {
+				logger.error("Could not load image: " + fileName + OTWFiles.TEXTURE_EXT.toString() + "!", e);
+			}
+			
+			return null;
+		});
+	}
+	
+	/**
+	 * Empties the cache of decoded images, so that images are read again from their files the next time they are loaded
+	 */
+	public static void clearCache() {
+		cache.clear();
+	}
+	
+	public int getWidth() {
+		return width;
+	}
+	
+	public int getHeight() {
+		return height;
+	}
+	
+	/**
+	 * @param x
+	 * @param y
+	 * @return packed ARGB value of the pixel, as returned by {@link BufferedImage#getRGB(int, int)}
+	 */
+	public int getRGB(int x, int y) {
+		return pixels[y * width + x];
+	}
+}
@@ -28,8 +28,8 @@ public class Cloud extends Particle {
 	private int textureIndex;
 	private int textureIndices;
 
-	public Cloud(ParticleTexture texture, Vector3f position, Vector3f velocity, float rotation, float scale) {
-		super(texture, position, velocity, 0, Float.POSITIVE_INFINITY, rotation, scale);
+	public Cloud(ParticleMaster particleMaster, ParticleTexture texture, Vector3f position, Vector3f velocity, float rotation, float scale) {
+		super(particleMaster, texture, position, velocity, 0, Float.POSITIVE_INFINITY, rotation, scale);
 		
 		Random random = new Random();
 		textureIndices = getTexture().getNumberOfAtlasRows() * getTexture().getNumberOfAtlasRows();
@@ -47,7 +47,7 @@ public class Particle {
 	
 	Vector3f change = new Vector3f();
 
-	public Particle(ParticleTexture texture, Vector3f position, Vector3f velocity, float gravityEffect, float lifeLength, float rotation, float scale) {
+	public Particle(ParticleMaster particleMaster, ParticleTexture texture, Vector3f position, Vector3f velocity, float gravityEffect, float lifeLength, float rotation, float scale) {
 		this.texture = texture;
 		this.position = position;
 		this.velocity = velocity;
@@ -55,7 +55,7 @@ public class Particle {
 		this.gravityEffect = gravityEffect;
 		this.rotation = rotation;
 		this.scale = scale;
-		ParticleMaster.addParticle(this);
+		particleMaster.addParticle(this);
 	}
 	
 	protected boolean update(Camera camera) {
@@ -32,17 +32,20 @@ import com.chrisali.javaflightsim.lwjgl.entities.Camera;
 import com.chrisali.javaflightsim.lwjgl.loader.Loader;
 import com.chrisali.javaflightsim.lwjgl.renderengine.ParticleRenderer;
 
+/**
+ * Holds, updates and renders all {@link Particle} objects of one out the window display. Each display owns its own instance, 
+ * and particles add themselves to the instance passed to them when created
+ */
 public class ParticleMaster {
 	
-	private static Map<ParticleTexture, List<Particle>> particles = new HashMap<>();
-	private static ParticleRenderer renderer;
+	private Map<ParticleTexture, List<Particle>> particles = new HashMap<>();
+	private ParticleRenderer renderer;
 	
-	public static void init(Loader loader, Matrix4f projectionMatrix) {
-		particles.clear();
+	public ParticleMaster(Loader loader, Matrix4f projectionMatrix) {
 		renderer = new ParticleRenderer(loader, projectionMatrix);
 	}
 	
-	public static void update(Camera camera) {
+	public void update(Camera camera) {
 		Iterator<Entry<ParticleTexture, List<Particle>>> mapIterator = particles.entrySet().iterator();
 		
 		while(mapIterator.hasNext()) {
@@ -68,15 +71,15 @@ public class ParticleMaster {
 		}
 	}
 	
-	public static void renderParticles(Camera camera) {
+	public void renderParticles(Camera camera) {
 		renderer.render(particles, camera);
 	}
 	
-	public static void cleanUp() {
+	public void cleanUp() {
 		renderer.cleanUp();
 	}
 	
-	public static void addParticle(Particle particle) {
+	public void addParticle(Particle particle) {
 		List<Particle> list = particles.get(particle.getTexture());
 		
 		if (list == null) {
@@ -37,16 +37,18 @@ public class ParticleSystem {
 	private float directionDeviation = 0;
 	
 	private ParticleTexture texture;
+	private ParticleMaster particleMaster;
 
 	private Random random = new Random();
 
-	public ParticleSystem(ParticleTexture texture, float pps, float speed, float gravityComplient, float lifeLength, float scale) {
+	public ParticleSystem(ParticleMaster particleMaster, ParticleTexture texture, float pps, float speed, float gravityComplient, float lifeLength, float scale) {
 		this.pps = pps;
 		this.averageSpeed = speed;
 		this.gravityComplient = gravityComplient;
 		this.averageLifeLength = lifeLength;
 		this.averageScale = scale;
 		this.texture = texture;
+		this.particleMaster = particleMaster;
 	}
 
 	/**
@@ -110,7 +112,7 @@ public class ParticleSystem {
 		velocity.scale(generateValue(averageSpeed, speedError));
 		float scale = generateValue(averageScale, scaleError);
 		float lifeLength = generateValue(averageLifeLength, lifeError);
-		new Particle(texture, new Vector3f(center), velocity, gravityComplient, lifeLength, generateRotation(), scale);
+		new Particle(particleMaster, texture, new Vector3f(center), velocity, gravityComplient, lifeLength, generateRotation(), scale);
 	}
 
 	private float generateValue(float average, float errorMargin) {
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.lwjgl.terrain;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.chrisali.javaflightsim.lwjgl.loader.ImageRaster;
+
+/**
+ * Heights of a square grid of terrain vertices, converted once from the pixels of a height map PNG file, where white is
+ * {@link Terrain#getMaxHeight()} and black is its negative. Heights are held in a single array, row by row along z, which is
+ * the order in which {@link TerrainMeshData} lays out vertices. Height maps are cached by file, so that every {@link Terrain}
+ * drawn from the same file shares one, and they can be loaded and read from any thread
+ *
+ * @author Christopher Ali
+ *
+ */
+public class HeightMap {
+	
+	private static final float MAX_PIXEL_COLOR = 256 * 256 * 256;
+	
+	private static final Map<String, HeightMap> cache = new ConcurrentHashMap<>();
+	
+	private final int size;
+	private final float[] heights;
+	
+	private HeightMap(ImageRaster image) {
+		size = Math.min(image.getWidth(), image.getHeight());
+		heights = new float[size * size];
+		
+		for (int z = 0; z < size; z++) {
+			for (int x = 0; x < size; x++) {
+				// Get RGB value and convert from white/black to +/-MAX_HEIGHT
+				float height = image.getRGB(x, z);
+				height += MAX_PIXEL_COLOR/2f;
+				height /= MAX_PIXEL_COLOR/2f;
+				height *= Terrain.getMaxHeight();
+				
+				heights[z * size + x] = height;
+			}
+		}
+	}
+	
+	/**
+	 * Converts a height map PNG file into heights, or returns the height map already converted from it
+	 *
+	 * @param fileName
+	 * @param directory (usually "Terrain" or can specify sub-directories such as "Terrain\1-1")
+	 * @return height map, or null if the file could not be read
+	 */
+	public static HeightMap load(String fileName, String directory) {
+		return cache.computeIfAbsent(directory + "/" + fileName, key -> {
+			ImageRaster image = ImageRaster.load(fileName, directory);
+			
+			return (image == null) ? null : new HeightMap(image);
+		});
+	}
+	
+	/**
+	 * Empties the cache of height maps, so that they are read again from their files the next time they are loaded
+	 */
+	public static void clearCache() {
+		cache.clear();
+	}
+	
+	/**
+	 * @return number of vertices along each side of the grid
+	 */
+	public int getSize() {
+		return size;
+	}
+	
+	/**
+	 * @param x
+	 * @param z
+	 * @return height of a terrain vertex, or 0 if it lies outside of the grid
+	 */
+	public float getHeight(int x, int z) {
+		if (x < 0 || x >= size || z < 0 || z >= size)
+			return 0;
+		
+		return heights[z * size + x];
+	}
+	
+	/**
+	 * Calculates the unit normal of a terrain vertex from the heights of its neighbors, for use with lighting or specular calculations
+	 *
+	 * @param x
+	 * @param z
+	 * @param normals array to write the x, y and z components of the normal into
+	 * @param offset index in normals to write the x component at
+	 */
+	public void calculateNormal(int x, int z, float[] normals, int offset) {
+		float heightL = getHeight(x-1, z  );
+		float heightR = getHeight(x+1, z  );
+		float heightD = getHeight(x  , z-1);
+		float heightU = getHeight(x  , z+1);
+		
+		float normalX = heightL - heightR;
+		float normalY = 2f;
+		float normalZ = heightD - heightU;
+		float scale = 1f / (float) Math.sqrt(normalX * normalX + normalY * normalY + normalZ * normalZ);
+		
+		normals[offset]   = normalX * scale;
+		normals[offset+1] = normalY * scale;
+		normals[offset+2] = normalZ * scale;
+	}
+}
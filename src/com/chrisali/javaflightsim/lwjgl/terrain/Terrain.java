@@ -19,29 +19,19 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.lwjgl.terrain;
 
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.TreeMap;
 
-import javax.imageio.ImageIO;
-
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import org.lwjgl.util.vector.Vector2f;
 import org.lwjgl.util.vector.Vector3f;
 
 import com.chrisali.javaflightsim.lwjgl.entities.Entity;
 import com.chrisali.javaflightsim.lwjgl.entities.EntityCollections;
 import com.chrisali.javaflightsim.lwjgl.entities.Ownship;
-import com.chrisali.javaflightsim.lwjgl.loader.Loader;
 import com.chrisali.javaflightsim.lwjgl.models.RawModel;
 import com.chrisali.javaflightsim.lwjgl.textures.TerrainTexture;
 import com.chrisali.javaflightsim.lwjgl.textures.TerrainTexturePack;
-import com.chrisali.javaflightsim.lwjgl.utilities.OTWDirectories;
-import com.chrisali.javaflightsim.lwjgl.utilities.OTWFiles;
 import com.chrisali.javaflightsim.lwjgl.utilities.RenderingUtilities;
 
 /**
@@ -54,11 +44,8 @@ import com.chrisali.javaflightsim.lwjgl.utilities.RenderingUtilities;
  */
 public class Terrain implements Comparable<Terrain> {
 
-	private static final Logger logger = LogManager.getLogger(Terrain.class);
-	
 	private static final float SIZE = 1600;
 	private static final float MAX_HEIGHT = 20;
-	private static final float MAX_PIXEL_COLOR = 256 * 256 * 256;
 	
 	private float x, z;
 	private RawModel model;
@@ -71,7 +58,7 @@ public class Terrain implements Comparable<Terrain> {
 	private List<Entity> staticEntities = new ArrayList<>();
 	private List<Entity> litEntities = new ArrayList<>();
 	
-	private float[][] heightArray;
+	private HeightMap heightMap;
 	
 	/**
 	 * <p>Constructor for Terrain object; uses {@link TerrainTexturePack} and {@link TerrainTexture} to
@@ -79,9 +66,10 @@ public class Terrain implements Comparable<Terrain> {
 	 * 
 	 * <p>gridX and gridZ correspond to indices in the terrain array that this object resides</p>
 	 * 
-	 * <p>fileName and Directory point to a height map .png file to give the terrain vertical modeling</p>
+	 * <p>model is a terrain mesh generated from heightMap using {@link TerrainMeshData}, which gives the terrain vertical modeling; 
+	 * both can be shared by all Terrain objects generated from the same height map file</p>
 	 * 
-	 * <p>Uses {@link EntityCollections#createAutogenImageEntities()} to generate populate this object's lists of entities
+	 * <p>This object's lists of entities are populated afterwards by {@link EntityCollections#createAutogenImageEntities(Terrain, String, String)}
 	 * using an autogen image file in Resources/Terrain/</p>
 	 * 
 	 * <p>Uses a reference to {@link Ownship} to calculate the distance the midpoint of this terrain instance is from 
@@ -89,135 +77,21 @@ public class Terrain implements Comparable<Terrain> {
 	 * 
 	 * @param gridX
 	 * @param gridZ
-	 * @param fileName
-	 * @param directory
-	 * @param loader
+	 * @param model
+	 * @param heightMap
 	 * @param texturePack
 	 * @param blendMap
 	 * @param ownship
 	 */
-	public Terrain(int gridX, int gridZ, String fileName, String directory, 
-					Loader loader, TerrainTexturePack texturePack, TerrainTexture blendMap,
-					Ownship ownship) {
+	public Terrain(int gridX, int gridZ, RawModel model, HeightMap heightMap, 
+					TerrainTexturePack texturePack, TerrainTexture blendMap, Ownship ownship) {
 		this.texturePack = texturePack;
 		this.blendMap = blendMap;
 		this.x = gridX * SIZE;
 		this.z = gridZ * SIZE;
-		this.model = generateTerrain(fileName, directory, loader);
+		this.model = model;
+		this.heightMap = heightMap;
 		this.ownship = ownship;
-		
-		// Generate all autogen objects and add them to staticEntities and litEntities
-		EntityCollections.createAutogenImageEntities(this, "autogen", directory);
-	}
-
-	/**
-	 * Gererates a terrain model using a BufferedImage height map
-	 * 
-	 * @param fileName
-	 * @param directory (usually "Terrain" or can specify sub-directories such as "Terrain\1-1")
-	 * @param loader
-	 * @return terrain model
-	 */
-	private RawModel generateTerrain(String fileName, String directory, Loader loader){
-		
-		BufferedImage image = null;
-		
-		try {image = ImageIO.read(new File(OTWDirectories.RESOURCES.toString() + File.separator + directory + File.separator + fileName + OTWFiles.TEXTURE_EXT.toString()));} 
-		catch (IOException e) {logger.error("Could not load height map: " + fileName + OTWFiles.TEXTURE_EXT.toString() + "!", e);}
-		
-		int VERTEX_COUNT = image.getHeight();
-		int count = VERTEX_COUNT * VERTEX_COUNT;
-		
-		heightArray = new float[VERTEX_COUNT][VERTEX_COUNT];
-		float[] vertices = new float[count * 3];
-		float[] normals = new float[count * 3];
-		float[] textureCoords = new float[count*2];
-		int[] indices = new int[6*(VERTEX_COUNT-1)*(VERTEX_COUNT-1)];
-		
-		int vertexPointer = 0;
-		for(int i=0;i<VERTEX_COUNT;i++){
-			for(int j=0;j<VERTEX_COUNT;j++){
-				vertices[vertexPointer*3] = (float)j/((float)VERTEX_COUNT - 1) * SIZE;
-				
-				float height = getHeightFromImage(j, i, image);
-				heightArray[j][i] = height;
-				
-				vertices[vertexPointer*3+1] = getHeightFromImage(j, i, image);
-				vertices[vertexPointer*3+2] = (float)i/((float)VERTEX_COUNT - 1) * SIZE;
-				
-				Vector3f normal = calculateNormal(j, i, image);
-				normals[vertexPointer*3]   = normal.x;
-				normals[vertexPointer*3+1] = normal.y;
-				normals[vertexPointer*3+2] = normal.z;
-				
-				textureCoords[vertexPointer*2] = (float)j/((float)VERTEX_COUNT - 1);
-				textureCoords[vertexPointer*2+1] = (float)i/((float)VERTEX_COUNT - 1);
-				
-				vertexPointer++;
-			}
-		}
-		
-		int pointer = 0;
-		for(int gz=0;gz<VERTEX_COUNT-1;gz++){
-			for(int gx=0;gx<VERTEX_COUNT-1;gx++){
-				int topLeft = (gz*VERTEX_COUNT)+gx;
-				int topRight = topLeft + 1;
-				int bottomLeft = ((gz+1)*VERTEX_COUNT)+gx;
-				int bottomRight = bottomLeft + 1;
-				
-				indices[pointer++] = topLeft;
-				indices[pointer++] = bottomLeft;
-				indices[pointer++] = topRight;
-				indices[pointer++] = topRight;
-				indices[pointer++] = bottomLeft;
-				indices[pointer++] = bottomRight;
-			}
-		}
-		
-		return loader.loadToVAO(vertices, textureCoords, normals, indices);
-	}
-	
-	/**
-	 * Calculates normal of a terrain vertex for use with lighting or specular calculations
-	 * 
-	 * @param x
-	 * @param z
-	 * @param image
-	 * @return normal vector
-	 */
-	private Vector3f calculateNormal(int x, int z, BufferedImage image) {
-		float heightL = getHeightFromImage(x-1, z  , image);
-		float heightR = getHeightFromImage(x+1, z  , image);
-		float heightD = getHeightFromImage(x  , z-1, image);
-		float heightU = getHeightFromImage(x  , z+1, image);
-		
-		Vector3f normal = new Vector3f(heightL - heightR, 2f, heightD - heightU);
-		normal.normalise();
-		
-		return normal;
-	}
-	
-	/**
-	 * Calculates the height of a terrain vertex by reading the RGB value pixel of a 
-	 * buffered image and converting it to a height value  
-	 * 
-	 * @param x
-	 * @param z
-	 * @param image
-	 * @return height of terrain vertex
-	 */
-	private float getHeightFromImage(int x, int z, BufferedImage image) {
-		// If out of terrain bounds, return 0
-		if (x < 0 || x >= image.getHeight() || z < 0 || z >= image.getWidth())
-			return 0;
-		
-		// Get RGB value and convert from white/black to +/-MAX_HEIGHT
-		float height = image.getRGB(x, z);
-		height += MAX_PIXEL_COLOR/2f;
-		height /= MAX_PIXEL_COLOR/2f;
-		height *= MAX_HEIGHT;
-		
-		return height;
 	}
 	
 	/**
@@ -233,14 +107,14 @@ public class Terrain implements Comparable<Terrain> {
 		float terrainZ = worldZ - this.z;
 		
 		// Size of each grid square
-		float gridSquareSize = SIZE / ((float)heightArray.length - 1);
+		float gridSquareSize = SIZE / ((float)heightMap.getSize() - 1);
 		
 		// Grid square that the player is located in
 		int gridX = (int) Math.floor(terrainX/gridSquareSize);
 		int gridZ = (int) Math.floor(terrainZ/gridSquareSize);
 		
 		// If outside terrain bounds return zero
-		if (gridX >= (heightArray.length - 1) || gridZ >= (heightArray.length - 1) || gridX < 0 || gridZ < 0)
+		if (gridX >= (heightMap.getSize() - 1) || gridZ >= (heightMap.getSize() - 1) || gridX < 0 || gridZ < 0)
 			return 0;
 		
 		// Location of player on a grid square
@@ -250,14 +124,14 @@ public class Terrain implements Comparable<Terrain> {
 		// Get terrain height by using barycentric coordinates
 		float terrainHeight;
 		if (xCoord <= (1-zCoord)) {
-			terrainHeight = RenderingUtilities.barycentric(new Vector3f(0, heightArray[gridX][gridZ], 0), 
-														   new Vector3f(1, heightArray[gridX + 1][gridZ], 0), 
-														   new Vector3f(0, heightArray[gridX][gridZ + 1], 1), 
+			terrainHeight = RenderingUtilities.barycentric(new Vector3f(0, heightMap.getHeight(gridX, gridZ), 0), 
+														   new Vector3f(1, heightMap.getHeight(gridX + 1, gridZ), 0), 
+														   new Vector3f(0, heightMap.getHeight(gridX, gridZ + 1), 1), 
 														   new Vector2f(xCoord, zCoord));
 		} else {
-			terrainHeight = RenderingUtilities.barycentric(new Vector3f(1, heightArray[gridX + 1][gridZ], 0), 
-														   new Vector3f(1, heightArray[gridX + 1][gridZ + 1], 1), 
-														   new Vector3f(0, heightArray[gridX][gridZ + 1], 1), 
+			terrainHeight = RenderingUtilities.barycentric(new Vector3f(1, heightMap.getHeight(gridX + 1, gridZ), 0), 
+														   new Vector3f(1, heightMap.getHeight(gridX + 1, gridZ + 1), 1), 
+														   new Vector3f(0, heightMap.getHeight(gridX, gridZ + 1), 1), 
 														   new Vector2f(xCoord, zCoord));
 		}
 		
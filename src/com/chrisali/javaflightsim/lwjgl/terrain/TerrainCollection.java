@@ -19,10 +19,22 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.lwjgl.terrain;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.lwjgl.entities.EntityCollections;
 import com.chrisali.javaflightsim.lwjgl.entities.Ownship;
+import com.chrisali.javaflightsim.lwjgl.loader.ImageRaster;
 import com.chrisali.javaflightsim.lwjgl.loader.Loader;
+import com.chrisali.javaflightsim.lwjgl.models.RawModel;
 import com.chrisali.javaflightsim.lwjgl.textures.TerrainTexture;
 import com.chrisali.javaflightsim.lwjgl.textures.TerrainTexturePack;
 import com.chrisali.javaflightsim.lwjgl.utilities.OTWDirectories;
@@ -30,18 +42,26 @@ import com.chrisali.javaflightsim.lwjgl.utilities.OTWDirectories;
 import org.lwjgl.util.vector.Vector3f;
 
 /**
- * An array of {@link Terrain} objects used to model out the world 
+ * An array of {@link Terrain} objects used to model out the world. Height maps, terrain meshes and autogen entities are generated
+ * on a pool of worker threads, leaving only the textures and the upload of each mesh to a VAO for the OpenGL thread; terrains that
+ * share a height map file share one mesh and VAO
  * 
  * @author Christopher Ali
  *
  */
 public class TerrainCollection {
 	
+	private static final Logger logger = LogManager.getLogger(TerrainCollection.class);
+	
+	private static final String HEIGHT_MAP = "heightMap";
+	private static final String AUTOGEN = "autogen";
+	
 	private TreeMap<String, Terrain> terrainTree;
 	
 	/**
 	 * Creates a TreeMao of {@link Terrain} objects, with texture blending and height maps. Each key to the tree map consists of
-	 * the string "xGrid-zGrid", which represents the terrain object's position relative to other terrains in an array fashion
+	 * the string "xGrid-zGrid", which represents the terrain object's position relative to other terrains in an array fashion.
+	 * Must be called on the OpenGL thread
 	 * 
 	 * @param numTerrains
 	 * @param loader
@@ -50,15 +70,45 @@ public class TerrainCollection {
 	public TerrainCollection(int numTerrains, Loader loader, Ownship ownship) {
 		terrainTree = new TreeMap<>();
 
-		TerrainTexturePack texturePack = createTexturePack("fields", "town", "forest", "water", loader);
-		TerrainTexture blendMap = new TerrainTexture(loader.loadTexture("blendMap", OTWDirectories.TERRAIN.toString()));
-	
-		int median = Math.abs(numTerrains/2);
+		final String directory = OTWDirectories.TERRAIN.toString();
+		final ForkJoinPool pool = new ForkJoinPool();
+		
+		try {
+			// Decode the height map and generate its mesh, and decode the autogen image, while textures are loaded below 
+			Future<TerrainMeshData> meshData = pool.submit(() -> new TerrainMeshData(HeightMap.load(HEIGHT_MAP, directory)));
+			pool.submit(() -> ImageRaster.load(AUTOGEN, directory));
+			
+			TerrainTexturePack texturePack = createTexturePack("fields", "town", "forest", "water", loader);
+			TerrainTexture blendMap = new TerrainTexture(loader.loadTexture("blendMap", OTWDirectories.TERRAIN.toString()));
+			
+			RawModel model = meshData.get().loadToVAO(loader);
+			HeightMap heightMap = HeightMap.load(HEIGHT_MAP, directory);
 		
-		for (int i = -median; i < median; i++) {
-			for (int j = -median; j < median; j++) {
-				terrainTree.put(i + "-" + j, new Terrain(i, j, "heightMap", OTWDirectories.TERRAIN.toString(), loader, texturePack, blendMap, ownship));
+			int median = Math.abs(numTerrains/2);
+			List<Callable<Void>> tasks = new ArrayList<>();
+			
+			for (int i = -median; i < median; i++) {
+				for (int j = -median; j < median; j++) {
+					Terrain terrain = new Terrain(i, j, model, heightMap, texturePack, blendMap, ownship);
+					terrainTree.put(i + "-" + j, terrain);
+					
+					// Generate all autogen objects and add them to the terrain's staticEntities and litEntities
+					tasks.add(() -> {
+						EntityCollections.createAutogenImageEntities(terrain, AUTOGEN, directory);
+						return null;
+					});
+				}
 			}
+			
+			for (Future<Void> future : pool.invokeAll(tasks))
+				future.get();
+		} catch (InterruptedException e) {
+			logger.error("Terrain generation was interrupted!", e);
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			logger.error("Error generating terrain!", e);
+		} finally {
+			pool.shutdownNow();
 		}
 	}
 	
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.lwjgl.terrain;
+
+import com.chrisali.javaflightsim.lwjgl.loader.Loader;
+import com.chrisali.javaflightsim.lwjgl.models.RawModel;
+
+/**
+ * Vertex positions, texture coordinates, normals and indices of the mesh of a {@link Terrain} tile, generated from a
+ * {@link HeightMap} relative to the tile's origin. Generating the mesh makes no OpenGL calls, so it can be done on any thread;
+ * only {@link #loadToVAO(Loader)} must be called on the thread that owns the OpenGL context
+ *
+ * @author Christopher Ali
+ *
+ */
+public class TerrainMeshData {
+	
+	private float[] vertices;
+	private float[] textureCoords;
+	private float[] normals;
+	private int[] indices;
+	
+	/**
+	 * Generates a terrain mesh with a vertex for each height of the height map
+	 *
+	 * @param heightMap
+	 */
+	public TerrainMeshData(HeightMap heightMap) {
+		final int VERTEX_COUNT = heightMap.getSize();
+		final int count = VERTEX_COUNT * VERTEX_COUNT;
+		final float size = Terrain.getSize();
+		
+		vertices = new float[count * 3];
+		normals = new float[count * 3];
+		textureCoords = new float[count*2];
+		indices = new int[6*(VERTEX_COUNT-1)*(VERTEX_COUNT-1)];
+		
+		int vertexPointer = 0;
+		for(int i=0;i<VERTEX_COUNT;i++){
+			for(int j=0;j<VERTEX_COUNT;j++){
+				vertices[vertexPointer*3] = (float)j/((float)VERTEX_COUNT - 1) * size;
+				vertices[vertexPointer*3+1] = heightMap.getHeight(j, i);
+				vertices[vertexPointer*3+2] = (float)i/((float)VERTEX_COUNT - 1) * size;
+				
+				heightMap.calculateNormal(j, i, normals, vertexPointer*3);
+				
+				textureCoords[vertexPointer*2] = (float)j/((float)VERTEX_COUNT - 1);
+				textureCoords[vertexPointer*2+1] = (float)i/((float)VERTEX_COUNT - 1);
+				
+				vertexPointer++;
+			}
+		}
+		
+		int pointer = 0;
+		for(int gz=0;gz<VERTEX_COUNT-1;gz++){
+			for(int gx=0;gx<VERTEX_COUNT-1;gx++){
+				int topLeft = (gz*VERTEX_COUNT)+gx;
+				int topRight = topLeft + 1;
+				int bottomLeft = ((gz+1)*VERTEX_COUNT)+gx;
+				int bottomRight = bottomLeft + 1;
+				
+				indices[pointer++] = topLeft;
+				indices[pointer++] = bottomLeft;
+				indices[pointer++] = topRight;
+				indices[pointer++] = topRight;
+				indices[pointer++] = bottomLeft;
+				indices[pointer++] = bottomRight;
+			}
+		}
+	}
+	
+	/**
+	 * Uploads this mesh to a VAO; must be called on the OpenGL thread
+	 *
+	 * @param loader
+	 * @return terrain model
+	 */
+	public RawModel loadToVAO(Loader loader) {
+		return loader.loadToVAO(vertices, textureCoords, normals, indices);
+	}
+	
+	public float[] getVertices() {
+		return vertices;
+	}
+	
+	public float[] getTextureCoords() {
+		return textureCoords;
+	}
+	
+	public float[] getNormals() {
+		return normals;
+	}
+	
+	public int[] getIndices() {
+		return indices;
+	}
+}
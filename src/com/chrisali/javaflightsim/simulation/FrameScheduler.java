@@ -0,0 +1,271 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.interfaces.Steppable;
+import com.chrisali.javaflightsim.simulation.setup.RateGroup;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+
+/**
+ * Multi-rate frame scheduler that step updates {@link Steppable} components at the rate of the {@link RateGroup} that each belongs to.
+ * Time is divided into minor frames at the least common multiple of all group rates, so that every group runs on a minor frame boundary;
+ * the schedule repeats every major frame, whose length is the period of the slowest common rate (the greatest common divisor of all
+ * rates). A group running slower than the minor frame rate is given a phase offset within its period, chosen so that groups with
+ * a high {@link RateGroup#getCost()} are spread across different minor frames rather than all running in the same one.
+ *
+ * <p>Each run of a group is timed, and counted as an overrun if it takes longer than its budget, which is one minor frame unless set
+ * otherwise with {@link #setBudgetNanos(RateGroup, long)}. Minor frames that take longer than their period are counted separately</p>
+ *
+ * @author Christopher Ali
+ *
+ */
+public class FrameScheduler {
+
+	private static final Logger logger = LogManager.getLogger(FrameScheduler.class);
+
+	private static final long NANOS_PER_SEC = 1000000000L;
+	private static final int TO_MILLISEC = 1000;
+
+	// Warn if the schedule needs this many minor frames to repeat, as the rates of the groups share few common factors
+	private static final int MAX_MINOR_FRAMES_PER_MAJOR_FRAME = 1000;
+
+	private final SimulationConfiguration configuration;
+	private final AtomicInteger timeMS;
+
+	private final Map<RateGroup, ScheduledGroup> groups = new EnumMap<>(RateGroup.class);
+	private final Map<RateGroup, Long> budgets = new EnumMap<>(RateGroup.class);
+
+	private ScheduledGroup[] schedule;
+	private int startTimeMS;
+	private int minorFrameRateHz;
+	private int minorFramesPerMajorFrame;
+	private long minorFrameNanos;
+
+	private long minorFrame = 0;
+	private long frameOverruns = 0;
+
+	/**
+	 * Creates a scheduler that takes the rate of each {@link RateGroup} from the simulation configuration, and keeps timeMS updated
+	 * with the simulation time of the current minor frame
+	 *
+	 * @param configuration
+	 * @param timeMS simulation time in milliseconds, shared with components that depend on it
+	 */
+	public FrameScheduler(SimulationConfiguration configuration, AtomicInteger timeMS) {
+		this.configuration = configuration;
+		this.timeMS = timeMS;
+	}
+
+	/**
+	 * Adds a component to the group declared by {@link Steppable#getRateGroup()}; components of the same group are stepped in the order
+	 * they were added
+	 *
+	 * @param component
+	 */
+	public void add(Steppable component) {
+		if (component == null)
+			return;
+
+		RateGroup rateGroup = component.getRateGroup();
+		groups.computeIfAbsent(rateGroup, group -> new ScheduledGroup(group, configuration.getRateHz(group))).add(component);
+
+		schedule = null;
+	}
+
+	/**
+	 * Sets the time that a group may take to run before it is counted as an overrun
+	 *
+	 * @param rateGroup
+	 * @param budgetNanos [ns]
+	 */
+	public void setBudgetNanos(RateGroup rateGroup, long budgetNanos) {
+		budgets.put(rateGroup, budgetNanos);
+
+		schedule = null;
+	}
+
+	/**
+	 * Calculates the minor and major frames from the rates of all groups added, and assigns each group its divisor, phase offset and
+	 * budget. Called automatically before the first minor frame is run, or after components or budgets have changed
+	 */
+	public void build() {
+		if (groups.isEmpty())
+			throw new IllegalStateException("No components have been added to the scheduler!");
+
+		long lcm = 1, gcd = 0;
+		for (ScheduledGroup group : groups.values()) {
+			lcm = lcm(lcm, group.getRateHz());
+			gcd = gcd(gcd, group.getRateHz());
+		}
+
+		minorFrameRateHz = (int) lcm;
+		minorFramesPerMajorFrame = (int) (lcm / gcd);
+		minorFrameNanos = NANOS_PER_SEC / minorFrameRateHz;
+
+		if (minorFramesPerMajorFrame > MAX_MINOR_FRAMES_PER_MAJOR_FRAME) {
+			logger.warn("Rate group rates share few common factors; schedule repeats only every " + minorFramesPerMajorFrame
+						+ " minor frames at " + minorFrameRateHz + " Hz");
+		}
+
+		for (ScheduledGroup group : groups.values()) {
+			group.setDivisor(minorFrameRateHz / group.getRateHz());
+			group.setBudgetNanos(budgets.getOrDefault(group.getRateGroup(), minorFrameNanos));
+		}
+
+		assignPhaseOffsets(groups.values());
+
+		schedule = groups.values().toArray(new ScheduledGroup[groups.size()]);
+		startTimeMS = timeMS.get();
+		minorFrame = 0;
+
+		logger.info("Scheduling " + groups.size() + " rate groups in " + minorFrameRateHz + " Hz minor frames, "
+					+ minorFramesPerMajorFrame + " minor frame(s) per major frame:");
+		for (ScheduledGroup group : schedule)
+			logger.info(group);
+	}
+
+	/**
+	 * Greedily assigns each group the phase offset whose minor frames have the lowest total cost so far, starting with the most costly
+	 * and fastest groups
+	 *
+	 * @param scheduledGroups
+	 */
+	private void assignPhaseOffsets(Collection<ScheduledGroup> scheduledGroups) {
+		final int[] frameCost = new int[minorFramesPerMajorFrame];
+
+		List<ScheduledGroup> byCost = new ArrayList<>(scheduledGroups);
+		byCost.sort(Comparator.comparingInt((ScheduledGroup group) -> -group.getRateGroup().getCost())
+							  .thenComparingInt(ScheduledGroup::getDivisor));
+
+		for (ScheduledGroup group : byCost) {
+			final int divisor = group.getDivisor();
+			int bestOffset = 0, bestCost = Integer.MAX_VALUE;
+
+			for (int offset = 0; offset < divisor; offset++) {
+				int cost = 0;
+				for (int frame = offset; frame < minorFramesPerMajorFrame; frame += divisor)
+					cost = Math.max(cost, frameCost[frame]);
+
+				if (cost < bestCost) {
+					bestCost = cost;
+					bestOffset = offset;
+				}
+			}
+
+			group.setPhaseOffset(bestOffset);
+
+			for (int frame = bestOffset; frame < minorFramesPerMajorFrame; frame += divisor)
+				frameCost[frame] += group.getRateGroup().getCost();
+		}
+	}
+
+	/**
+	 * Runs each group due in the current minor frame in {@link RateGroup} order, then advances simulation time to the next minor frame
+	 */
+	public void runMinorFrame() {
+		if (schedule == null)
+			build();
+
+		long startNanos = System.nanoTime();
+
+		try {
+			for (int i = 0; i < schedule.length; i++) {
+				ScheduledGroup group = schedule[i];
+
+				if (group.isDue(minorFrame) && group.run()) {
+					if (group.getOverruns() == 1)
+						logger.warn(group.getRateGroup() + " overran its budget of " + group.getBudgetNanos() / 1000 + " us at " + timeMS.get() + " ms");
+					else
+						logger.debug(group.getRateGroup() + " overran its budget at " + timeMS.get() + " ms");
+				}
+			}
+		} finally {
+			if (System.nanoTime() - startNanos > minorFrameNanos)
+				frameOverruns++;
+
+			minorFrame++;
+			timeMS.set(startTimeMS + (int) Math.round(minorFrame * (double) TO_MILLISEC / minorFrameRateHz));
+		}
+	}
+
+	/**
+	 * Logs the timing statistics and overrun counts of each group
+	 */
+	public void logStatistics() {
+		if (schedule == null)
+			return;
+
+		logger.info("Ran " + minorFrame + " minor frames, " + frameOverruns + " of which overran " + minorFrameNanos / 1000 + " us");
+
+		for (ScheduledGroup group : schedule) {
+			logger.info(group.getRateGroup() + ": " + group.getExecutions() + " runs, average " + (long) group.getAverageNanos() / 1000
+						+ " us, max " + group.getMaxNanos() / 1000 + " us, " + group.getOverruns() + " overruns");
+		}
+	}
+
+	private static long gcd(long a, long b) {
+		while (b != 0) {
+			long temp = b;
+			b = a % b;
+			a = temp;
+		}
+
+		return a;
+	}
+
+	private static long lcm(long a, long b) {
+		return a / gcd(a, b) * b;
+	}
+
+	/**
+	 * @return scheduled group of rateGroup, or null if no components belong to it
+	 */
+	public ScheduledGroup getGroup(RateGroup rateGroup) { return groups.get(rateGroup); }
+
+	public int getMinorFrameRateHz() { return minorFrameRateHz; }
+
+	public int getMinorFramesPerMajorFrame() { return minorFramesPerMajorFrame; }
+
+	/**
+	 * @return length of a minor frame [ns]
+	 */
+	public long getMinorFrameNanos() { return minorFrameNanos; }
+
+	/**
+	 * @return number of minor frames run
+	 */
+	public long getMinorFrame() { return minorFrame; }
+
+	/**
+	 * @return number of minor frames that took longer than their period to run
+	 */
+	public long getFrameOverruns() { return frameOverruns; }
+}
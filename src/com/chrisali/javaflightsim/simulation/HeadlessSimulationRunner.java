@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.interfaces.Steppable;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsStateManager;
+import com.chrisali.javaflightsim.simulation.flightcontrols.analysis.AnalysisControls;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.RateGroup;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.telemetry.FlightRecorder;
+import com.chrisali.javaflightsim.simulation.telemetry.TelemetryStore;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+
+/**
+ * Runs an analysis simulation from start to end time as fast as possible without any display, GUI or audio components.
+ * {@link Steppable} components are stepped in a tight loop by a {@link FrameScheduler}, as in {@link SimulationRunner},
+ * but without pausing the thread between frames, so that the run time is limited only by the physics. Intended to be used as
+ * a library entry point for batch analysis jobs via {@link HeadlessSimulationRunner#run(SimulationConfiguration)}, or from the
+ * command line with the HEADLESS run display mode
+ *
+ * @author Christopher
+ *
+ */
+public class HeadlessSimulationRunner implements Callable<List<Map<SimOuts, Double>>> {
+
+	private static final Logger logger = LogManager.getLogger(HeadlessSimulationRunner.class);
+	private static final int TO_MILLISEC = 1000;
+
+	private FlightControlsStateManager flightControlsManager;
+	private Integrate6DOFEquations simulation;
+	private FrameScheduler scheduler;
+
+	private AtomicInteger timeMS = new AtomicInteger(0);
+	private int endTimeMS;
+
+	private Consumer<double[]> outputConsumer;
+	private FlightRecorder flightRecorder;
+
+	private boolean running = false;
+
+	/**
+	 * Constructor that initializes main simulation ({@link Integrate6DOFEquations} and {@link FlightControlsStateManager}) components and
+	 * configures simulation time. A headless run has no pilot in the loop, so {@link Options#ANALYSIS_MODE} is added to the configuration's
+	 * options if not already present, and the run always ends at the configured end time
+	 *
+	 * @param configuration
+	 */
+	public HeadlessSimulationRunner(SimulationConfiguration configuration) {
+		this(new SimulationContext(configuration));
+	}
+
+	/**
+	 * Constructor that initializes main simulation components using a {@link SimulationContext}, so that many headless simulations,
+	 * each with its own context and configuration, can be run concurrently; see {@link #HeadlessSimulationRunner(SimulationConfiguration)}
+	 *
+	 * @param context
+	 */
+	public HeadlessSimulationRunner(SimulationContext context) {
+		this(context, FileUtilities.readAnalysisControls());
+	}
+
+	/**
+	 * Constructor that initializes main simulation components using a {@link SimulationContext} and the {@link AnalysisControls} 
+	 * supplied, rather than those read from the configuration file
+	 *
+	 * @param context
+	 * @param analysisControls
+	 */
+	public HeadlessSimulationRunner(SimulationContext context, AnalysisControls analysisControls) {
+		SimulationConfiguration configuration = context.getConfiguration();
+		Map<IntegratorConfig, Double> integratorConfig = configuration.getIntegratorConfig();
+		Set<Options> options = configuration.getSimulationOptions();
+
+		if (!options.contains(Options.ANALYSIS_MODE)) {
+			logger.info("Headless simulation requires Analysis Mode; enabling it...");
+			options.add(Options.ANALYSIS_MODE);
+		}
+
+		// Set up running parameters for simulation
+		timeMS = new AtomicInteger(integratorConfig.get(IntegratorConfig.STARTTIME).intValue() * TO_MILLISEC);
+		endTimeMS = integratorConfig.get(IntegratorConfig.ENDTIME).intValue() * TO_MILLISEC;
+
+		logger.info("Initializing flight controls manager...");
+		flightControlsManager = new FlightControlsStateManager(configuration, timeMS, analysisControls);
+
+		logger.info("Initializing simulation...");
+		simulation = new Integrate6DOFEquations(flightControlsManager.getControlsState(), context);
+		
+		scheduler = new FrameScheduler(configuration, timeMS);
+		scheduler.add(flightControlsManager);
+		scheduler.add(simulation);
+		
+		// Passes outputs to the output consumer right after each step of the simulation
+		scheduler.add(new Steppable() {
+			@Override
+			public void step() {
+				if (outputConsumer != null)
+					outputConsumer.accept(simulation.getSimOutValues());
+			}
+
+			@Override
+			public RateGroup getRateGroup() { return RateGroup.PHYSICS; }
+		});
+		
+		if (options.contains(Options.RECORD_FLIGHT)) {
+			flightRecorder = new FlightRecorder(configuration, simulation.getSimOutValues());
+			simulation.addGroundContactListener(flightRecorder);
+			scheduler.add(flightRecorder);
+		}
+	}
+
+	/**
+	 * Runs the simulation from start to end time, step updating each {@link Steppable} component without pausing between steps
+	 *
+	 * @return List of simulation outputs logged during the run
+	 */
+	@Override
+	public List<Map<SimOuts, Double>> call() {
+		setRunning(true);
+
+		logger.info("Running headless simulation...");
+		long startNanos = System.nanoTime();
+		
+		if (flightRecorder != null) {
+			try {
+				flightRecorder.start();
+			} catch (IOException e) {
+				logger.error("Could not start flight recorder! Continuing without recording...", e);
+			}
+		}
+
+		while (isRunning() && timeMS.get() < endTimeMS) {
+			// Step update each component whose rate group is due in this frame
+			scheduler.runMinorFrame();
+		}
+
+		setRunning(false);
+		
+		if (flightRecorder != null)
+			flightRecorder.stop();
+
+		logger.info("Headless simulation completed in " + (System.nanoTime() - startNanos) / 1000000 + " ms");
+
+		return getLogsOut();
+	}
+
+	/**
+	 * Creates and runs a headless simulation to completion on the calling thread
+	 *
+	 * @param configuration
+	 * @return List of simulation outputs logged during the run
+	 */
+	public static List<Map<SimOuts, Double>> run(SimulationConfiguration configuration) {
+		return new HeadlessSimulationRunner(configuration).call();
+	}
+
+	/**
+	 * @return List of simulation outputs during run time
+	 */
+	public List<Map<SimOuts, Double>> getLogsOut() {
+		return (simulation != null) ? simulation.getLogsOut() : null;
+	}
+	
+	/**
+	 * @return Columnar store of simulation outputs during run time
+	 */
+	public TelemetryStore getTelemetry() {
+		return (simulation != null) ? simulation.getTelemetry() : null;
+	}
+	
+	/**
+	 * @return Recorder of the flight to file if {@link Options#RECORD_FLIGHT} is enabled, otherwise null
+	 */
+	public FlightRecorder getFlightRecorder() { return flightRecorder; }
+
+	/**
+	 * @return Simulation outputs of the latest step, indexed by {@link SimOuts} ordinal
+	 */
+	public double[] getSimOutValues() {
+		return (simulation != null) ? simulation.getSimOutValues() : null;
+	}
+
+	/**
+	 * Sets a consumer that receives the simulation outputs of each step as it is completed, so that outputs can be streamed elsewhere 
+	 * instead of being kept in memory (see {@link Options#NO_LOGGING}). The array passed is indexed by {@link SimOuts} ordinal and 
+	 * is overwritten in place each step, so it must be copied if it is to be kept
+	 *
+	 * @param outputConsumer
+	 */
+	public void setOutputConsumer(Consumer<double[]> outputConsumer) { this.outputConsumer = outputConsumer; }
+
+	/**
+	 * @return If simulation is running
+	 */
+	public synchronized boolean isRunning() { return running; }
+
+	/**
+	 * Lets other objects request to stop the simulation by setting running to false
+	 *
+	 * @param running
+	 */
+	public synchronized void setRunning(boolean running) { this.running = running; }
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.lwjgl.LWJGLWorld;
+import com.chrisali.javaflightsim.simulation.clock.RealTimeClock;
+import com.chrisali.javaflightsim.simulation.clock.SimulationClock;
+import com.chrisali.javaflightsim.simulation.datatransfer.InputData;
+import com.chrisali.javaflightsim.simulation.datatransfer.InputDataListener;
+import com.chrisali.javaflightsim.simulation.setup.KeyCommand;
+import com.chrisali.javaflightsim.simulation.setup.LateFramePolicy;
+import com.chrisali.javaflightsim.simulation.setup.RateGroup;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.telemetry.TelemetryReplay;
+
+/**
+ * Runner thread that plays back a recorded flight in the out the window display, in place of running the simulation. The
+ * {@link TelemetryReplay} is stepped in the {@link RateGroup#DISPLAY} rate group just before the display, so that it publishes flight
+ * data interpolated at the display rate to the display, instrument panel and sounds, which are stepped as they are in Normal Mode of
+ * {@link SimulationRunner}
+ *
+ * <p>The key or button bound to {@link KeyCommand#PAUSE_UNPAUSE_SIM} pauses and resumes the replay, and {@link KeyCommand#RESET_SIM}
+ * moves it back to the start; speed and seeking are controlled with the replay itself</p>
+ *
+ * @author Christopher Ali
+ *
+ */
+public class ReplayRunner implements Runnable, InputDataListener {
+
+	private static final Logger logger = LogManager.getLogger(ReplayRunner.class);
+
+	private final TelemetryReplay replay;
+	private final LWJGLWorld outTheWindow;
+	private final FrameScheduler displayScheduler;
+	private final SimulationClock displayClock;
+
+	// Key commands are held while pressed, so they are acted on only when first pressed
+	private boolean pausePressed = false;
+	private boolean resetPressed = false;
+
+	private volatile boolean running = false;
+
+	/**
+	 * Sets up the out the window display to show a replay
+	 *
+	 * @param configuration configuration of the display, and of the aircraft whose instrument panel and sounds are used
+	 * @param replay
+	 */
+	public ReplayRunner(SimulationConfiguration configuration, TelemetryReplay replay) {
+		this.replay = replay;
+
+		logger.info("Instantiating LWJGL world...");
+		outTheWindow = new LWJGLWorld(configuration);
+		outTheWindow.addinputDataListener(this);
+		outTheWindow.addWindowClosedListener(() -> running = false);
+		replay.addFlightDataListener(outTheWindow);
+
+		logger.info("Initializing display frame scheduler...");
+		displayScheduler = new FrameScheduler(configuration, new AtomicInteger(0));
+		displayScheduler.add(replay);
+		displayScheduler.add(outTheWindow.getAudio());
+		displayScheduler.add(outTheWindow);
+
+		displayClock = new RealTimeClock(1.0, LateFramePolicy.SKIP);
+	}
+
+	/**
+	 * Initializes the out the window display and steps it and the replay until the display is closed or the runner is stopped
+	 */
+	@Override
+	public void run() {
+		running = true;
+
+		// Must init GLFW window from same thread as update method
+		logger.info("Initializing LWJGL world...");
+		outTheWindow.init();
+
+		displayScheduler.build();
+		displayClock.start(displayScheduler.getMinorFrameRateHz());
+
+		while (running) {
+			try {
+				displayClock.awaitNextFrame();
+
+				if (running)
+					displayScheduler.runMinorFrame();
+			} catch (InterruptedException ei) {
+				logger.warn("Replay Runner thread was interrupted! Stopping replay...");
+				Thread.currentThread().interrupt();
+
+				break;
+			} catch (Exception ez) {
+				logger.error("Exception encountered while running replay. Attempting to continue...", ez);
+			}
+		}
+
+		running = false;
+
+		displayScheduler.logStatistics();
+		logger.info("Display clock: " + displayClock.getStatistics());
+	}
+
+	@Override
+	public void onInputDataReceived(InputData inputData) {
+		List<KeyCommand> keyCommands = inputData.getKeyCommands();
+
+		boolean pause, reset;
+		synchronized (keyCommands) {
+			pause = keyCommands.contains(KeyCommand.PAUSE_UNPAUSE_SIM);
+			reset = keyCommands.contains(KeyCommand.RESET_SIM);
+		}
+
+		if (pause && !pausePressed)
+			replay.setPaused(!replay.isPaused());
+
+		if (reset && !resetPressed)
+			replay.seek(replay.getStartTime());
+
+		pausePressed = pause;
+		resetPressed = reset;
+	}
+
+	/**
+	 * @return Replay being shown, to control its speed, pausing and seeking
+	 */
+	public TelemetryReplay getReplay() { return replay; }
+
+	/**
+	 * @return If the replay is running
+	 */
+	public boolean isRunning() { return running; }
+
+	/**
+	 * Lets other objects request to stop the replay
+	 */
+	public void stop() { running = false; }
+}
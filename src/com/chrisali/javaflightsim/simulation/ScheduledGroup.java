@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.chrisali.javaflightsim.interfaces.Steppable;
+import com.chrisali.javaflightsim.simulation.setup.RateGroup;
+
+/**
+ * The {@link Steppable} components of one {@link RateGroup} as scheduled by {@link FrameScheduler}; the group runs every divisor minor
+ * frames, starting at its phase offset within the major frame. Timing statistics of each run are kept to detect when the group takes
+ * longer than its budget
+ *
+ * @author Christopher Ali
+ *
+ */
+public class ScheduledGroup {
+
+	private final RateGroup rateGroup;
+	private final int rateHz;
+	private final List<Steppable> components = new ArrayList<>();
+
+	private int divisor = 1;
+	private int phaseOffset = 0;
+	private long budgetNanos;
+
+	private long executions = 0;
+	private long overruns = 0;
+	private long totalNanos = 0;
+	private long maxNanos = 0;
+
+	ScheduledGroup(RateGroup rateGroup, int rateHz) {
+		this.rateGroup = rateGroup;
+		this.rateHz = rateHz;
+	}
+
+	/**
+	 * @param minorFrame minor frame number since the start of the run
+	 * @return if this group runs in minorFrame
+	 */
+	boolean isDue(long minorFrame) {
+		return (minorFrame - phaseOffset) % divisor == 0;
+	}
+
+	/**
+	 * Steps each component of the group in the order added, then records how long the group took to run
+	 *
+	 * @return if the group took longer than its budget
+	 */
+	boolean run() {
+		long startNanos = System.nanoTime();
+
+		for (int i = 0; i < components.size(); i++)
+			components.get(i).step();
+
+		long elapsedNanos = System.nanoTime() - startNanos;
+
+		executions++;
+		totalNanos += elapsedNanos;
+		maxNanos = Math.max(maxNanos, elapsedNanos);
+
+		if (elapsedNanos > budgetNanos) {
+			overruns++;
+			return true;
+		}
+
+		return false;
+	}
+
+	void add(Steppable component) { components.add(component); }
+
+	void setDivisor(int divisor) { this.divisor = divisor; }
+
+	void setPhaseOffset(int phaseOffset) { this.phaseOffset = phaseOffset; }
+
+	void setBudgetNanos(long budgetNanos) { this.budgetNanos = budgetNanos; }
+
+	public RateGroup getRateGroup() { return rateGroup; }
+
+	public int getRateHz() { return rateHz; }
+
+	public List<Steppable> getComponents() { return components; }
+
+	/**
+	 * @return number of minor frames between each run of this group
+	 */
+	public int getDivisor() { return divisor; }
+
+	/**
+	 * @return minor frame within each divisor minor frames that this group runs in
+	 */
+	public int getPhaseOffset() { return phaseOffset; }
+
+	/**
+	 * @return time this group may take to run before it is counted as an overrun [ns]
+	 */
+	public long getBudgetNanos() { return budgetNanos; }
+
+	public long getExecutions() { return executions; }
+
+	public long getOverruns() { return overruns; }
+
+	public long getMaxNanos() { return maxNanos; }
+
+	public double getAverageNanos() { return (executions > 0) ? totalNanos / (double) executions : 0.0; }
+
+	@Override
+	public String toString() {
+		return rateGroup + ": " + rateHz + " Hz, every " + divisor + " minor frame(s) at offset " + phaseOffset
+				+ ", " + components.size() + " component(s)";
+	}
+}
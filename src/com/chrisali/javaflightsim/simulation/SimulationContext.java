@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import com.chrisali.javaflightsim.simulation.aircraft.AccelAndMoments;
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.enviroment.Environment;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.IntegrateGroundReaction;
+import com.chrisali.javaflightsim.simulation.propulsion.Engine;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.setup.Trimming;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+
+/**
+ * Owns all of the mutable state of a single simulation run: its {@link SimulationConfiguration}, {@link Environment},
+ * {@link AccelAndMoments} and a copy of each of the aircraft's {@link Engine}(s). A context is passed to {@link Integrate6DOFEquations},
+ * {@link IntegrateGroundReaction} and {@link Trimming}, so that any number of simulations can run concurrently in one JVM, provided
+ * that each has its own context and is only stepped by one thread at a time
+ * <p>
+ * The parsed {@link Aircraft} model is treated as read-only, and may be shared by as many contexts as needed, avoiding the cost of
+ * reading and parsing its configuration files for each run
+ *
+ * @author Christopher Ali
+ *
+ */
+public class SimulationContext {
+
+	private final SimulationConfiguration configuration;
+	private final Aircraft aircraft;
+
+	private final Environment environment;
+	private final AccelAndMoments accelAndMoments;
+	private final Set<Engine> engines;
+
+	/**
+	 * Creates a context for the aircraft selected in the configuration, reading it from its configuration files
+	 *
+	 * @param configuration
+	 */
+	public SimulationContext(SimulationConfiguration configuration) {
+		this(configuration, FileUtilities.readAircraftConfiguration(configuration.getSelectedAircraft()));
+	}
+
+	/**
+	 * Creates a context that shares an already parsed {@link Aircraft} model with other contexts. Each context gets its own copy
+	 * of the aircraft's engines, as these hold the state of the engine during the run
+	 *
+	 * @param configuration
+	 * @param aircraft
+	 */
+	public SimulationContext(SimulationConfiguration configuration, Aircraft aircraft) {
+		this.configuration = configuration;
+		this.aircraft = aircraft;
+
+		environment = new Environment();
+		accelAndMoments = new AccelAndMoments(aircraft);
+
+		Set<Engine> engineCopies = new LinkedHashSet<>();
+		for (Engine engine : aircraft.getEngines())
+			engineCopies.add(engine.copy());
+
+		engines = Collections.unmodifiableSet(engineCopies);
+	}
+
+	/**
+	 * @return configuration of this run
+	 */
+	public SimulationConfiguration getConfiguration() { return configuration; }
+
+	/**
+	 * @return aircraft model, which may be shared with other contexts and must not be modified
+	 */
+	public Aircraft getAircraft() { return aircraft; }
+
+	/**
+	 * @return atmosphere and weather of this run
+	 */
+	public Environment getEnvironment() { return environment; }
+
+	/**
+	 * @return aerodynamic, engine and ground forces and moments model of this run
+	 */
+	public AccelAndMoments getAccelAndMoments() { return accelAndMoments; }
+
+	/**
+	 * @return this run's copies of the aircraft's engines
+	 */
+	public Set<Engine> getEngines() { return engines; }
+}
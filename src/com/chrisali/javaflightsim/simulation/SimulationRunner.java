@@ -19,11 +19,14 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.simulation;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -31,15 +34,32 @@ import org.apache.logging.log4j.Logger;
 import com.chrisali.javaflightsim.interfaces.Steppable;
 import com.chrisali.javaflightsim.lwjgl.LWJGLWorld;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsStateManager;
+import com.chrisali.javaflightsim.simulation.clock.ExternalClock;
+import com.chrisali.javaflightsim.simulation.clock.RealTimeClock;
+import com.chrisali.javaflightsim.simulation.clock.SimulationClock;
 import com.chrisali.javaflightsim.simulation.datatransfer.SimulationEventListener;
+import com.chrisali.javaflightsim.simulation.datatransfer.SimulationState;
+import com.chrisali.javaflightsim.simulation.datatransfer.TripleBuffer;
 import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
 import com.chrisali.javaflightsim.simulation.integration.SimOuts;
 import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.LateFramePolicy;
 import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.RateGroup;
 import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.telemetry.FlightRecorder;
+import com.chrisali.javaflightsim.simulation.telemetry.FlightRecording;
+import com.chrisali.javaflightsim.simulation.telemetry.TelemetryReplay;
+import com.chrisali.javaflightsim.simulation.telemetry.TelemetryStore;
 
 /**
- * Main runner thread for JavaFlightSimulator that combines all {@link Steppable} components into a single thread
+ * Main runner thread for JavaFlightSimulator, where all {@link Steppable} components are step updated at the rates of their 
+ * {@link RateGroup} by a {@link FrameScheduler}, with each frame paced by a {@link SimulationClock}
+ * 
+ * <p>In Analysis Mode all components run in this thread. In Normal Mode the flight controls and simulation instead run on a physics 
+ * thread of their own, so that rendering the out the window display cannot delay them; the display and audio are stepped in this thread, 
+ * at the display rate paced by real time, and read the state of the simulation from a {@link TripleBuffer} that the simulation publishes 
+ * to each step. Neither thread waits for the other</p>
  * 
  * @author Christopher
  *
@@ -52,15 +72,23 @@ public class SimulationRunner implements Runnable {
 	private FlightControlsStateManager flightControlsManager;
 	private Integrate6DOFEquations simulation;
 	private LWJGLWorld outTheWindow;
+	private FrameScheduler scheduler;
+	private SimulationClock clock;
+	private FlightRecorder flightRecorder;
+	
+	// Out the window display and audio, stepped separately from the simulation in Normal Mode
+	private FrameScheduler displayScheduler;
+	private SimulationClock displayClock;
+	private TripleBuffer<SimulationState> simulationStates;
+	private Thread physicsThread;
 
 	private List<SimulationEventListener> simulationEventListeners = new ArrayList<>();
 	
 	private AtomicInteger timeMS = new AtomicInteger(0);
-	private int frameStepMS;
+	private AtomicInteger displayTimeMS = new AtomicInteger(0);
 	private int endTimeMS;
-	private int threadPauseMS;
 	
-	private boolean running = false;
+	private volatile boolean running = false;
 	
 	/**
 	 * Constructor that initialize main simulation components, their event listeners and configures simulation run time parameters
@@ -89,12 +117,70 @@ public class SimulationRunner implements Runnable {
 			outTheWindow.addEnvironmentDataListener(simulation);
 			outTheWindow.addinputDataListener(flightControlsManager);
 			
-			simulation.addFlightDataListener(outTheWindow);
+			simulationStates = new TripleBuffer<>(SimulationState::new);
+			outTheWindow.setSimulationStates(simulationStates);
+			
+			loadGhostReplay(configuration.getGhostRecording());
+		}
+		
+		logger.info("Initializing frame scheduler...");
+		scheduler = new FrameScheduler(configuration, timeMS);
+		scheduler.add(flightControlsManager);
+		scheduler.add(simulation);
+		scheduler.add(simulation.getOutputLogger());
+		
+		if (options.contains(Options.RECORD_FLIGHT)) {
+			logger.info("Initializing flight recorder...");
+			flightRecorder = new FlightRecorder(configuration, simulation.getSimOutValues());
+			simulation.addGroundContactListener(flightRecorder);
+			scheduler.add(flightRecorder);
+		}
+		
+		// Pace frames to emulate real time operation in normal mode
+		clock = SimulationClock.create(configuration);
+		
+		if (outTheWindow != null) {
+			scheduler.add(new Steppable() {
+				@Override
+				public void step() {
+					simulationStates.getWriteBuffer().update(simulation.getSimOutValues(), System.nanoTime());
+					simulationStates.publish();
+				}
+				
+				@Override
+				public RateGroup getRateGroup() { return RateGroup.PHYSICS; }
+			});
+			
+			logger.info("Initializing display frame scheduler...");
+			displayScheduler = new FrameScheduler(configuration, displayTimeMS);
+			displayScheduler.add(outTheWindow.getAudio());
+			displayScheduler.add(outTheWindow);
+			
+			// Frames of the display are not worth catching up on once missed
+			displayClock = new RealTimeClock(1.0, LateFramePolicy.SKIP);
 		}
 	}
 	
 	/**
-	 * Sets running parameters (start/end time and frame step time) for the simulation. Time is kept as an AtomicInteger to ensure
+	 * Loads a recorded flight for the out the window display to show as a ghost beside the ownship, if one is set in the simulation 
+	 * configuration; the simulation runs without a ghost if the recording cannot be read 
+	 * 
+	 * @param ghostRecording path of any file of the recorded flight
+	 */
+	private void loadGhostReplay(String ghostRecording) {
+		if (ghostRecording == null || ghostRecording.isEmpty())
+			return;
+		
+		try {
+			logger.info("Loading ghost flight recording: " + ghostRecording + "...");
+			outTheWindow.setGhostReplay(new TelemetryReplay(FlightRecording.openFlight(Paths.get(ghostRecording))));
+		} catch (IOException | IllegalArgumentException e) {
+			logger.error("Could not load ghost flight recording! Continuing without ghost...", e);
+		}
+	}
+	
+	/**
+	 * Sets running parameters (start/end time) for the simulation. Time is kept as an AtomicInteger to ensure
 	 * atomic incrementation
 	 * 
 	 * @param options
@@ -104,10 +190,6 @@ public class SimulationRunner implements Runnable {
 		// Set up running parameters for simulation
 		timeMS = new AtomicInteger(integratorConfig.get(IntegratorConfig.STARTTIME).intValue() * TO_MILLISEC);
 		
-		// Pause thread for frameStepMS milliseconds to emulate real time operation in normal mode
-		frameStepMS = (int) (integratorConfig.get(IntegratorConfig.DT) * TO_MILLISEC);
-		threadPauseMS = (!options.contains(Options.ANALYSIS_MODE)) ? frameStepMS : 1;
-		
 		// Run forever as a pilot in the loop simulation 
 		if (!options.contains(Options.ANALYSIS_MODE) && options.contains(Options.UNLIMITED_FLIGHT))
 			endTimeMS = Integer.MAX_VALUE;
@@ -116,43 +198,102 @@ public class SimulationRunner implements Runnable {
 	}
 
 	/**
-	 * Main runner loop where {@link Steppable} components are step updated each iteration of the loop depending on the current value of time
+	 * Main runner loop, which runs the simulation in this thread in Analysis Mode. In Normal Mode the simulation is started in a 
+	 * physics thread, while this thread initializes and steps the out the window display until either the simulation ends or the 
+	 * display is closed
 	 */
 	@Override
 	public void run() {
 		running = true;
+		
+		startFlightRecorder();
 
-		// Must init GLFW window from same thread as update method
-		if (outTheWindow != null) {
+		if (outTheWindow == null) {
+			runFrames(scheduler, clock, () -> timeMS.get() < endTimeMS);
+		} else {
+			// Must init GLFW window from same thread as update method
 			logger.info("Initializing LWJGL world...");
 			outTheWindow.init();
+			
+			physicsThread = new Thread(() -> {
+				runFrames(scheduler, clock, () -> timeMS.get() < endTimeMS);
+				running = false;
+			}, "Physics");
+			physicsThread.start();
+			
+			runFrames(displayScheduler, displayClock, () -> physicsThread.isAlive());
+			
+			setRunning(false);
+			
+			try {
+				physicsThread.join();
+			} catch (InterruptedException e) {
+				logger.warn("Simulation Runner thread was interrupted while waiting for the physics thread to stop!");
+				Thread.currentThread().interrupt();
+			}
 		}
 		
-		while (running && timeMS.get() < endTimeMS) {
-			try {
-				// Step update each component if allowed to based on the current time 
-				if (flightControlsManager.canStepNow(timeMS.get()))
-					flightControlsManager.step();
-					
-				if (simulation.canStepNow(timeMS.get()))
-					simulation.step();
+		running = false;
+		
+		if (flightRecorder != null)
+			flightRecorder.stop();
+		
+		scheduler.logStatistics();
+		logger.info("Simulation clock: " + clock.getStatistics());
+		
+		if (displayScheduler != null) {
+			displayScheduler.logStatistics();
+			logger.info("Display clock: " + displayClock.getStatistics());
+		}
 
-				if (outTheWindow != null && outTheWindow.canStepNow(timeMS.get()))
-					outTheWindow.step();
+		simulationEventListeners.forEach(listener -> listener.onStopSimulation());
+	}
+	
+	/**
+	 * Starts recording the flight if {@link Options#RECORD_FLIGHT} is enabled; the simulation runs without recording if the recording 
+	 * file cannot be created
+	 */
+	private void startFlightRecorder() {
+		if (flightRecorder == null)
+			return;
+		
+		try {
+			flightRecorder.start();
+		} catch (IOException e) {
+			logger.error("Could not start flight recorder! Continuing without recording...", e);
+		}
+	}
+	
+	/**
+	 * Runs minor frames of a {@link FrameScheduler} in the current thread, each paced by a {@link SimulationClock}, which step update 
+	 * the {@link Steppable} components whose rate groups are due in each frame
+	 * 
+	 * @param frameScheduler
+	 * @param frameClock
+	 * @param isActive condition for frames to continue to run, in addition to the simulation running 
+	 */
+	private void runFrames(FrameScheduler frameScheduler, SimulationClock frameClock, BooleanSupplier isActive) {
+		frameScheduler.build();
+		frameClock.start(frameScheduler.getMinorFrameRateHz());
+		
+		while (running && isActive.getAsBoolean()) {
+			try {
+				// Wait until this frame is due, then step update each component whose rate group is due in it
+				frameClock.awaitNextFrame();
 				
-				Thread.sleep((long)(threadPauseMS));
-
-				timeMS.addAndGet(frameStepMS);
+				if (running)
+					frameScheduler.runMinorFrame();
+			} catch (InterruptedException ei) {
+				logger.warn(Thread.currentThread().getName() + " thread was interrupted! Stopping simulation...");
+				Thread.currentThread().interrupt();
+				
+				break;
 			} catch (Exception ez) {
-				logger.error("Exception encountered while running Simulation Runner thread. Attempting to continue...", ez);
+				logger.error("Exception encountered while running " + Thread.currentThread().getName() + " thread. Attempting to continue...", ez);
 				
 				continue;
 			} 
 		}
-		
-		running = false;
-
-		simulationEventListeners.forEach(listener -> listener.onStopSimulation());
 	}
 
 	/**
@@ -181,6 +322,33 @@ public class SimulationRunner implements Runnable {
 		return (simulation != null) ? simulation.getLogsOut() : null;
 	}
 	
+	/**
+	 * @return Columnar store of simulation outputs during run time
+	 */
+	public TelemetryStore getTelemetry() {
+		return (simulation != null) ? simulation.getTelemetry() : null;
+	}
+	
+	/**
+	 * @return Recorder of the flight to file if {@link Options#RECORD_FLIGHT} is enabled, otherwise null
+	 */
+	public FlightRecorder getFlightRecorder() { return flightRecorder; }
+	
+	/**
+	 * @return Frame scheduler that steps each component of the simulation
+	 */
+	public FrameScheduler getScheduler() { return scheduler; }
+	
+	/**
+	 * @return Clock that paces each frame of the simulation, such as an {@link ExternalClock} to be ticked by another thread
+	 */
+	public SimulationClock getClock() { return clock; }
+	
+	/**
+	 * @return Frame scheduler that steps the out the window display and audio in Normal Mode, otherwise null
+	 */
+	public FrameScheduler getDisplayScheduler() { return displayScheduler; }
+	
 	/**
 	 * @return If out sumulation is running
 	 */
@@ -191,5 +359,11 @@ public class SimulationRunner implements Runnable {
 	 * 
 	 * @param running
 	 */
-	public synchronized void setRunning(boolean running) { this.running = running; }
+	public synchronized void setRunning(boolean running) { 
+		this.running = running;
+		
+		// Release the simulation if it is waiting for an external clock
+		if (!running && clock != null)
+			clock.stop();
+	}
 }
@@ -50,11 +50,11 @@ public class SimulationStepper {
 
 	private FlightControlsStateManager flightControlsManager;
 	private Integrate6DOFEquations simulation;
+	private FrameScheduler scheduler;
 	
 	private List<SimulationEventListener> simulationEventListeners = new ArrayList<>();	
 
 	private AtomicInteger timeMS = new AtomicInteger(0);
-	private int frameStepMS;
 	
 	private boolean running = false;
 	
@@ -70,33 +70,30 @@ public class SimulationStepper {
 		// Set up running parameters for simulation
 		timeMS = new AtomicInteger(integratorConfig.get(IntegratorConfig.STARTTIME).intValue() * TO_MILLISEC);
 		
-		// Pause thread for frameStepMS milliseconds to emulate real time operation in normal mode
-		frameStepMS = (int) (integratorConfig.get(IntegratorConfig.DT) * TO_MILLISEC);
-		
 		logger.info("Initializing flight controls manager...");
 		flightControlsManager = new FlightControlsStateManager(configuration, timeMS);
 		
 		logger.info("Initializing simulation...");
 		simulation = new Integrate6DOFEquations(flightControlsManager.getControlsState(), configuration);;
 		//simulation.addFlightDataListener(outTheWindow);
+		
+		scheduler = new FrameScheduler(configuration, timeMS);
+		scheduler.add(flightControlsManager);
+		scheduler.add(simulation);
+		scheduler.add(simulation.getOutputLogger());
 	}
 	
 	/**
-	 * Main call where {@link Steppable} components are step updated each time this is called depending on the current value of time
+	 * Main call that runs one minor frame of the {@link FrameScheduler} each time this is called, step updating the {@link Steppable} 
+	 * components whose rate groups are due in that frame
 	 */
 	public void stepAll() {			
 		if (!running)
 			return;
 
 		try {
-			// Step update each component if allowed to based on the current time 
-			if (flightControlsManager.canStepNow(timeMS.get()))
-				flightControlsManager.step();
-				
-			if (simulation.canStepNow(timeMS.get()))
-				simulation.step();
-
-			timeMS.addAndGet(frameStepMS);
+			// Step update each component whose rate group is due in this frame
+			scheduler.runMinorFrame();
 		} catch (Exception ez) {
 			logger.error("Exception encountered while iteration of simulation. Attempting to continue...", ez);
 		} 
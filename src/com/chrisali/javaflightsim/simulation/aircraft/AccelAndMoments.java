@@ -20,11 +20,9 @@
 package com.chrisali.javaflightsim.simulation.aircraft;
 
 import java.util.Map;
-import java.util.Set;
 
-import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
-
-import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
+import com.chrisali.javaflightsim.simulation.SimulationContext;
+import com.chrisali.javaflightsim.simulation.enviroment.AtmosphereState;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
 import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
 import com.chrisali.javaflightsim.simulation.integration.IntegrateGroundReaction;
@@ -32,69 +30,87 @@ import com.chrisali.javaflightsim.simulation.propulsion.Engine;
 import com.chrisali.javaflightsim.simulation.utilities.SaturationUtilities;
 
 /**
- * Calculates total accelerations and moments experienced by the aircraft in the simulation. The init method creates an
- * {@link Aerodynamics} object to calculate aerodynamic forces and moments, which are then added to other various forces 
+ * Calculates total accelerations and moments experienced by the aircraft in the simulation. Each instance creates a
+ * {@link CompiledAerodynamics} object to calculate aerodynamic forces and moments, which are then added to other various forces 
  * (ground reaction, wind, engine, etc) to yield accelerations and moments used by {@link Integrate6DOFEquations} in its 
- * numerical integration
+ * numerical integration. {@link AccelAndMoments#calculateAeroForcesAndMoments(double[], double[], Map, double, double, Map, double, double)} should
+ * be called once each step before the accelerations and moments are calculated, as both use its result. Each simulation run owns its 
+ * own instance through {@link SimulationContext}, so that results of concurrent runs are kept apart
  * @see Source: <i>Small Unmanned Aircraft: Theory and Practice by Beard, R.W. and McLain, T.W.</i>
  */
 public class AccelAndMoments {
 	
-	private static Aerodynamics aero;
+	private final CompiledAerodynamics aero;
+	
+	private final double[] linearAccelerations = new double[3];
+	private final double[] totalMoments 	   = new double[3];
 	
-	private static double[] linearAccelerations = new double[3];
-	private static double[] totalMoments 		= new double[3];
+	// Aerodynamic forces (0-2) and moments (3-5) in the body frame, reused each step so that no allocation takes place
+	private final double[] aeroForcesAndMoments = new double[6];
 	
 	/**
-	 * Initializes {@link AccelAndMoments}. It uses the {@link Aircraft} argument to create an {@link Aerodynamics} object, 
+	 * Creates {@link AccelAndMoments}. It uses the {@link Aircraft} argument to create a {@link CompiledAerodynamics} object, 
 	 * which calculates aerodynamic forces and moments associated with the Aircraft object passed in
 	 *  
 	 * @param aircraft
 	 */
-	public static void init(Aircraft aircraft) {aero = new Aerodynamics(aircraft);}
-	
+	public AccelAndMoments(Aircraft aircraft) {aero = new CompiledAerodynamics(aircraft);}
 	
 	/**
-	 * Calculates the total linear acceleration experienced by the aircraft (ft/sec^2)
+	 * Calculates the aerodynamic forces and moments experienced by the aircraft in a single pass; the result is used by both 
+	 * {@link AccelAndMoments#calculateLinearAccelerations(Engine[], Aircraft, IntegrateGroundReaction)} and 
+	 * {@link AccelAndMoments#calculateTotalMoments(Engine[], Aircraft, IntegrateGroundReaction)}
 	 * 
 	 * @param windParameters
 	 * @param angularRates
-	 * @param environmentParameters
+	 * @param atmosphereState
+	 * @param mach
+	 * @param altitude
 	 * @param controls
 	 * @param alphaDot
-	 * @param engineList
+	 * @param heightAGL
+	 * @return aeroForcesAndMoments {Fx, Fy, Fz, L, M, N}
+	 */
+	public double[] calculateAeroForcesAndMoments(double[] windParameters,
+													   	 double[] angularRates,
+													   	 AtmosphereState atmosphereState,
+													   	 double mach,
+													   	 double altitude,
+													   	 Map<FlightControl, Double> controls,
+													   	 double alphaDot,
+													   	 double heightAGL) {
+		return aero.calculateForcesAndMoments(windParameters, angularRates, atmosphereState.getDensity(), 
+											  mach, altitude, controls, alphaDot, heightAGL, aeroForcesAndMoments);
+	}
+	
+	/**
+	 * Calculates the total linear acceleration experienced by the aircraft (ft/sec^2)
+	 * 
+	 * @param engines
 	 * @param aircraft
 	 * @param groundReaction
-	 * @param heightAGL
 	 * @return linearAccelerations
 	 */
-	public static double[] calculateLinearAccelerations(double[] windParameters,
-									         		    double[] angularRates,
-									         		    Map<EnvironmentParameters, Double> environmentParameters,
-									         		    Map<FlightControl, Double> controls,
-									         		    double alphaDot,
-									         		    Set<Engine> engineList,
+	public double[] calculateLinearAccelerations(Engine[] engines,
 									         		    Aircraft aircraft,
-									         		    IntegrateGroundReaction groundReaction,
-									         		    double heightAGL) {
+									         		    IntegrateGroundReaction groundReaction) {
+		double[] groundForces = groundReaction.getTotalGroundForces();
 		
-		Vector3D aeroForceVector = new Vector3D(aero.calculateBodyForces(windParameters, 
-																	     angularRates, 
-																	     environmentParameters, 
-																	     controls, 
-																	     alphaDot,
-																	     heightAGL));
+		for (int i = 0; i < 3; i++)
+			linearAccelerations[i] = aeroForcesAndMoments[i] + groundForces[i];
 		
-		Vector3D groundForceVector = new Vector3D(groundReaction.getTotalGroundForces());
+		// Add the thrust of each engine
+		for (Engine engine : engines) {
+			double[] engineThrust = engine.getEngineThrust();
+			
+			for (int i = 0; i < 3; i++)
+				linearAccelerations[i] += engineThrust[i];
+		}
 		
-		// Create a vector of engine force, iterate through engineList and add the thrust of each engine in list
-		Vector3D engineForceVector = Vector3D.ZERO;
-		for (Engine engine : engineList)
-			engineForceVector = engineForceVector.add(new Vector3D(engine.getEngineThrust()));
-
-		linearAccelerations = aeroForceVector.add(engineForceVector).add(groundForceVector)
-											 .scalarMultiply(1/aircraft.getMassProperty(MassProperties.TOTAL_MASS))
-											 .toArray(); 
+		double invMass = 1/aircraft.getMassProperty(MassProperties.TOTAL_MASS);
+		
+		for (int i = 0; i < 3; i++)
+			linearAccelerations[i] *= invMass;
 		
 		return SaturationUtilities.limitLinearAccelerations(linearAccelerations);
 	}
@@ -102,55 +118,35 @@ public class AccelAndMoments {
 	/**
 	 * Calculates the total moment experienced by the aircraft (lb ft)
 	 * 
-	 * @param windParameters
-	 * @param angularRates
-	 * @param environmentParameters
-	 * @param controls
-	 * @param alphaDot
-	 * @param engineList
+	 * @param engines
 	 * @param aircraft
 	 * @param groundReaction
-	 * @param heightAGL
 	 * @return totalMoments
 	 */
-	public static double[] calculateTotalMoments(double[] windParameters,
-											     double[] angularRates,
-											     Map<EnvironmentParameters, Double> environmentParameters,
-											     Map<FlightControl, Double> controls,
-											     double alphaDot,
-											     Set<Engine> engineList,
+	public double[] calculateTotalMoments(Engine[] engines,
 											     Aircraft aircraft,
-											     IntegrateGroundReaction groundReaction,
-											     double heightAGL) {
-
-		Vector3D aeroForceVector = new Vector3D(aero.calculateBodyForces(windParameters, 
-																	     angularRates, 
-																	     environmentParameters, 
-																	     controls, 
-																	     alphaDot,
-																	     heightAGL));
-		
-		// Apache Commons vector methods only accept primitive double[] arrays
-		Vector3D acVector = new Vector3D(aircraft.getAerodynamicCenter());
-		Vector3D cgVector = new Vector3D(aircraft.getCenterOfGravity());
-		
-		Vector3D aeroForceCrossProd = Vector3D.crossProduct(aeroForceVector, acVector.subtract(cgVector));
+											     IntegrateGroundReaction groundReaction) {
+		final double[] fm = aeroForcesAndMoments;
 		
-		Vector3D aeroMomentVector = new Vector3D(aero.calculateAeroMoments(windParameters, 
-																		   angularRates, 
-																		   environmentParameters, 
-																		   controls, 
-																		   alphaDot)); 
+		// Arm of aerodynamic center relative to center of gravity
+		double armX = aircraft.getWingGeometry(WingGeometry.AC_X) - aircraft.getMassProperty(MassProperties.CG_X);
+		double armY = aircraft.getWingGeometry(WingGeometry.AC_Y) - aircraft.getMassProperty(MassProperties.CG_Y);
+		double armZ = aircraft.getWingGeometry(WingGeometry.AC_Z) - aircraft.getMassProperty(MassProperties.CG_Z);
 		
-		Vector3D groundMomentVector = new Vector3D(groundReaction.getTotalGroundMoments());
+		double[] groundMoments = groundReaction.getTotalGroundMoments();
 		
-		// Create a vector of engine moment, iterate through engineList and add the moment of each engine in list
-		Vector3D engineMoment = Vector3D.ZERO;
-		for (Engine engine : engineList)
-			engineMoment = engineMoment.add(new Vector3D(engine.getEngineMoment()));
+		// Aerodynamic moments plus the cross product of aero force and arm vectors, and ground moments
+		totalMoments[0] = fm[3] + (fm[1]*armZ - fm[2]*armY) + groundMoments[0];
+		totalMoments[1] = fm[4] + (fm[2]*armX - fm[0]*armZ) + groundMoments[1];
+		totalMoments[2] = fm[5] + (fm[0]*armY - fm[1]*armX) + groundMoments[2];
 		
-		totalMoments = aeroMomentVector.add(engineMoment).add(aeroForceCrossProd).add(groundMomentVector)
-									   .toArray();
+		// Add the moment of each engine
+		for (Engine engine : engines) {
+			double[] engineMoment = engine.getEngineMoment();
+			
+			for (int i = 0; i < 3; i++)
+				totalMoments[i] += engineMoment[i];
+		}
 		
 		return SaturationUtilities.limitTotalMoments(totalMoments); 
 	}
@@ -19,14 +19,10 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.simulation.aircraft;
 
+import java.util.EnumMap;
 import java.util.Map;
 
-import org.apache.commons.math3.analysis.interpolation.PiecewiseBicubicSplineInterpolatingFunction;
-import org.apache.commons.math3.exception.OutOfRangeException;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-
-import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
+import com.chrisali.javaflightsim.simulation.enviroment.AtmosphereState;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
 import com.chrisali.javaflightsim.simulation.utilities.SixDOFUtilities;
 
@@ -39,25 +35,39 @@ import com.chrisali.javaflightsim.simulation.utilities.SixDOFUtilities;
  * @param windParameters 								
  * @param angularRates
  * @param double alphaDot
- * @param EnumMap environmentParams
+ * @param AtmosphereState atmosphereState
  *  
  * @see Aircraft
  * @see StabilityDerivatives
- * @see PiecewiseBicubicSplineInterpolatingFunction
+ * @see PiecewiseBicubicInterpolator
  * @see Source: Source: <i>Small Unmanned Aircraft: Theory and Practice by Beard, R.W. and McLain, T.W.</i>
  */
 public class Aerodynamics {
 	
-	private static final Logger logger = LogManager.getLogger(Aerodynamics.class);
-	
 	private Aircraft aircraft;
 	
+	// Copies of the aircraft's interpolating tables, so that this object can be used concurrently with others sharing the aircraft
+	private Map<StabilityDerivatives, LookupTable> interpolatingTables = new EnumMap<>(StabilityDerivatives.class);
+	
+	// Scratch arrays reused each step so that no allocation takes place
+	private double[][] w2bDCM = new double[3][3];
+	private double[] windAeroForces = new double[3];
+	
 	/**
 	 * Aerodynamics constructor. Takes the aerodynamic parameters of an {@link Aircraft} object to generate aerodynamic forces and moments
 	 * 
 	 * @param aircraft
 	 */
-	public Aerodynamics(Aircraft aircraft) {this.aircraft = aircraft;}
+	public Aerodynamics(Aircraft aircraft) {
+		this.aircraft = aircraft;
+		
+		for (StabilityDerivatives stabDer : StabilityDerivatives.values()) {
+			LookupTable lookup = aircraft.getStabilityDerivative(stabDer);
+			
+			if (lookup != null && lookup.isInterpolating())
+				interpolatingTables.put(stabDer, lookup.copy());
+		}
+	}
 	
 	/**
 	 *  Calculates the aircraft's total lift coefficient (CL)
@@ -187,20 +197,15 @@ public class Aerodynamics {
 	 * @param stabDer
 	 * @return interpStabDer
 	 */
-	public Double calculateInterpStabDer(double[] windParameters,
+	public double calculateInterpStabDer(double[] windParameters,
 			 							 Map<FlightControl, Double> controls,
 			 							 StabilityDerivatives stabDer) {
-		Double interpStabDer;		
-		LookupTable lookup = aircraft.getStabilityDerivative(stabDer);
+		LookupTable lookup = interpolatingTables.get(stabDer);
 		
-		try {
-			interpStabDer = lookup.interpolate(windParameters[2], controls.get(FlightControl.FLAPS));
-		} catch (OutOfRangeException e) {
-			logger.error("Number out of range for interpolation! Returning 0 for value.");
-			return 0.0;
-		}
+		if (lookup == null)
+			lookup = aircraft.getStabilityDerivative(stabDer);
 		
-		return interpStabDer;
+		return lookup.interpolate(windParameters[2], controls.get(FlightControl.FLAPS));
 	}
 	
 	/**
@@ -224,7 +229,7 @@ public class Aerodynamics {
 	 * 
 	 * @param windParameters
 	 * @param angularRates
-	 * @param environmentParameters
+	 * @param atmosphereState
 	 * @param controls
 	 * @param alphaDot
 	 * @param heightAGL
@@ -232,22 +237,48 @@ public class Aerodynamics {
 	 */
 	public double[] calculateBodyForces(double[] windParameters,
 									  	double[] angularRates,
-										Map<EnvironmentParameters, Double> environmentParameters,
+										AtmosphereState atmosphereState,
 									    Map<FlightControl, Double> controls,
 										double alphaDot,
 										double heightAGL) {
-		double qBar = environmentParameters.get(EnvironmentParameters.RHO)*Math.pow(windParameters[0], 2)/2;
+		return calculateBodyForces(windParameters, angularRates, atmosphereState, controls, alphaDot, heightAGL, new double[3]);
+	}
+	
+	/**
+	 * Calculates aerodynamic forces experienced by the aircraft, converted from the wind frame to the body
+	 * frame by using {@link SixDOFUtilities#wind2Body(double[], double[][])}, and writes them into the bodyForces
+	 * array supplied
+	 * 
+	 * @param windParameters
+	 * @param angularRates
+	 * @param atmosphereState
+	 * @param controls
+	 * @param alphaDot
+	 * @param heightAGL
+	 * @param bodyForces
+	 * @return bodyForces
+	 */
+	public double[] calculateBodyForces(double[] windParameters,
+									  	double[] angularRates,
+										AtmosphereState atmosphereState,
+									    Map<FlightControl, Double> controls,
+										double alphaDot,
+										double heightAGL,
+										double[] bodyForces) {
+		double qBarS = atmosphereState.getDensity()*(windParameters[0]*windParameters[0])/2
+					   *aircraft.getWingGeometry(WingGeometry.S_WING);
 		
-		double[][] w2bDCM = SixDOFUtilities.wind2Body(windParameters);
+		SixDOFUtilities.wind2Body(windParameters, w2bDCM);
 		
 		// Negative L and D to switch body directions and position in array swapped
-		double[] aeroForces = {-qBar*calculateCD(windParameters, controls, heightAGL)*aircraft.getWingGeometry(WingGeometry.S_WING),
-				   			    qBar*calculateCY(windParameters, controls)*aircraft.getWingGeometry(WingGeometry.S_WING),
-							   -qBar*calculateCL(angularRates, windParameters, controls, alphaDot, heightAGL)*aircraft.getWingGeometry(WingGeometry.S_WING)};
+		windAeroForces[0] = -qBarS*calculateCD(windParameters, controls, heightAGL);
+		windAeroForces[1] =  qBarS*calculateCY(windParameters, controls);
+		windAeroForces[2] = -qBarS*calculateCL(angularRates, windParameters, controls, alphaDot, heightAGL);
 		
-		return new double[] {aeroForces[0]*w2bDCM[0][0]+aeroForces[1]*w2bDCM[0][1]+aeroForces[2]*w2bDCM[0][2],
-							 aeroForces[0]*w2bDCM[1][0]+aeroForces[1]*w2bDCM[1][1]+aeroForces[2]*w2bDCM[1][2],
-							 aeroForces[0]*w2bDCM[2][0]+aeroForces[1]*w2bDCM[2][1]+aeroForces[2]*w2bDCM[2][2]};
+		for (int i = 0; i < 3; i++)
+			bodyForces[i] = windAeroForces[0]*w2bDCM[i][0]+windAeroForces[1]*w2bDCM[i][1]+windAeroForces[2]*w2bDCM[i][2];
+		
+		return bodyForces;
 	}
 	
 	/**
@@ -255,20 +286,43 @@ public class Aerodynamics {
 	 * 
 	 * @param windParameters
 	 * @param angularRates
-	 * @param environmentParameters
+	 * @param atmosphereState
 	 * @param controls
 	 * @param alphaDot
 	 * @return aerodynamicMoments
 	 */
 	public double[] calculateAeroMoments(double[] windParameters,
 									     double[] angularRates,
-									     Map<EnvironmentParameters, Double> environmentParameters,
+									     AtmosphereState atmosphereState,
 									     Map<FlightControl, Double> controls,
 									     double alphaDot) {
-		double qBar = environmentParameters.get(EnvironmentParameters.RHO)*Math.pow(windParameters[0], 2)/2;
+		return calculateAeroMoments(windParameters, angularRates, atmosphereState, controls, alphaDot, new double[3]);
+	}
+	
+	/**
+	 * Calculates aerodynamic moments experienced by the aircraft and writes them into the aeroMoments array supplied
+	 * 
+	 * @param windParameters
+	 * @param angularRates
+	 * @param atmosphereState
+	 * @param controls
+	 * @param alphaDot
+	 * @param aeroMoments
+	 * @return aeroMoments
+	 */
+	public double[] calculateAeroMoments(double[] windParameters,
+									     double[] angularRates,
+									     AtmosphereState atmosphereState,
+									     Map<FlightControl, Double> controls,
+									     double alphaDot,
+									     double[] aeroMoments) {
+		double qBarS = atmosphereState.getDensity()*(windParameters[0]*windParameters[0])/2
+					   *aircraft.getWingGeometry(WingGeometry.S_WING);
+		
+		aeroMoments[0] = qBarS*calculateCRoll(angularRates, windParameters, controls)*aircraft.getWingGeometry(WingGeometry.B_WING); 
+		aeroMoments[1] = qBarS*calculateCM(angularRates, windParameters, controls, alphaDot)*aircraft.getWingGeometry(WingGeometry.C_BAR); 
+		aeroMoments[2] = qBarS*calculateCN(angularRates, windParameters, controls)*aircraft.getWingGeometry(WingGeometry.B_WING);
 		
-		return new double[] {qBar*calculateCRoll(angularRates, windParameters, controls)*aircraft.getWingGeometry(WingGeometry.S_WING)*aircraft.getWingGeometry(WingGeometry.B_WING), 
-							 qBar*calculateCM(angularRates, windParameters, controls, alphaDot)*aircraft.getWingGeometry(WingGeometry.S_WING)*aircraft.getWingGeometry(WingGeometry.C_BAR), 
-						 	 qBar*calculateCN(angularRates, windParameters, controls)*aircraft.getWingGeometry(WingGeometry.S_WING)*aircraft.getWingGeometry(WingGeometry.B_WING)};					
+		return aeroMoments;
 	}
 }
@@ -184,6 +184,16 @@ public class Aircraft implements Saveable {
 		}
 	}
 	
+	/**
+	 * @return gross weight (lbf) of the aircraft, which is the sum of its empty weight and its fuel and payload weights, as
+	 * defined by their percentages of maximum fuel and payload weight
+	 */
+	public double calculateGrossWeight() {
+		return massProps.get(MassProperties.WEIGHT_EMPTY) +
+			   massProps.get(MassProperties.WEIGHT_FUEL)*massProps.get(MassProperties.MAX_WEIGHT_FUEL) +
+			   massProps.get(MassProperties.WEIGHT_PAYLOAD)*massProps.get(MassProperties.MAX_WEIGHT_PAYLOAD);
+	}
+	
 	public Map<MassProperties, Double> getMassProps() {return massProps;}
 
 	public void setMassProps(Map<MassProperties, Double> massProps) { this.massProps = massProps; }
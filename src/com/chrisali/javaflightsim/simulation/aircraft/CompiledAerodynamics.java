@@ -0,0 +1,324 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.aircraft;
+
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+
+/**
+ * "Compiled" form of {@link Aerodynamics}, built once from an {@link Aircraft} object. All constant stability derivatives and wing geometry 
+ * are flattened into primitive fields and arrays so that no {@link StabilityDerivatives} or {@link WingGeometry} EnumMap lookups take place 
+ * during the simulation. Only those derivatives whose {@link LookupTable} actually interpolates, either in two dimensions (angle of attack and 
+ * flap deflection) or in N dimensions (see {@link GriddedTable}), are evaluated on each pass; the values of all others are constant.
+ * 
+ * <p>{@link CompiledAerodynamics#calculateForcesAndMoments(double[], double[], double, double, double, Map, double, double, double[])} evaluates 
+ * all six body forces and moments in one pass, so that the wind to body transformation, dynamic pressure and interpolations are only done once 
+ * per evaluation. A batch of aircraft of the same type can be evaluated in one call from columns of their flight parameters and controls</p>
+ * 
+ * @see Aerodynamics
+ * @see AccelAndMoments
+ * @see Source: <i>Small Unmanned Aircraft: Theory and Practice by Beard, R.W. and McLain, T.W.</i>
+ */
+public class CompiledAerodynamics {
+	
+	private static final Logger logger = LogManager.getLogger(CompiledAerodynamics.class);
+	
+	// Lift
+	private static final int CL_ALPHA     = StabilityDerivatives.CL_ALPHA.ordinal();
+	private static final int CL_0         = StabilityDerivatives.CL_0.ordinal();
+	private static final int CL_Q         = StabilityDerivatives.CL_Q.ordinal();
+	private static final int CL_ALPHA_DOT = StabilityDerivatives.CL_ALPHA_DOT.ordinal();
+	private static final int CL_D_ELEV    = StabilityDerivatives.CL_D_ELEV.ordinal();
+	private static final int CL_D_FLAP    = StabilityDerivatives.CL_D_FLAP.ordinal();
+	
+	// Side Force
+	private static final int CY_BETA  = StabilityDerivatives.CY_BETA.ordinal();
+	private static final int CY_D_RUD = StabilityDerivatives.CY_D_RUD.ordinal();
+	
+	// Drag
+	private static final int CD_ALPHA  = StabilityDerivatives.CD_ALPHA.ordinal();
+	private static final int CD_0      = StabilityDerivatives.CD_0.ordinal();
+	private static final int CD_D_ELEV = StabilityDerivatives.CD_D_ELEV.ordinal();
+	private static final int CD_D_FLAP = StabilityDerivatives.CD_D_FLAP.ordinal();
+	private static final int CD_D_GEAR = StabilityDerivatives.CD_D_GEAR.ordinal();
+	
+	// Roll Moment
+	private static final int CROLL_BETA  = StabilityDerivatives.CROLL_BETA.ordinal();
+	private static final int CROLL_P     = StabilityDerivatives.CROLL_P.ordinal();
+	private static final int CROLL_R     = StabilityDerivatives.CROLL_R.ordinal();
+	private static final int CROLL_D_AIL = StabilityDerivatives.CROLL_D_AIL.ordinal();
+	private static final int CROLL_D_RUD = StabilityDerivatives.CROLL_D_RUD.ordinal();
+	
+	// Pitch Moment
+	private static final int CM_ALPHA     = StabilityDerivatives.CM_ALPHA.ordinal();
+	private static final int CM_0         = StabilityDerivatives.CM_0.ordinal();
+	private static final int CM_Q         = StabilityDerivatives.CM_Q.ordinal();
+	private static final int CM_ALPHA_DOT = StabilityDerivatives.CM_ALPHA_DOT.ordinal();
+	private static final int CM_D_ELEV    = StabilityDerivatives.CM_D_ELEV.ordinal();
+	private static final int CM_D_FLAP    = StabilityDerivatives.CM_D_FLAP.ordinal();
+	
+	// Yaw Moment
+	private static final int CN_BETA  = StabilityDerivatives.CN_BETA.ordinal();
+	private static final int CN_P     = StabilityDerivatives.CN_P.ordinal();
+	private static final int CN_R     = StabilityDerivatives.CN_R.ordinal();
+	private static final int CN_D_AIL = StabilityDerivatives.CN_D_AIL.ordinal();
+	private static final int CN_D_RUD = StabilityDerivatives.CN_D_RUD.ordinal();
+	
+	// Wing Geometry
+	private final double cBar;
+	private final double sWing;
+	private final double bWing;
+	private final double invBWing;
+	
+	// Current value of each stability derivative, indexed by StabilityDerivatives ordinal
+	private final double[] derivatives = new double[StabilityDerivatives.values().length];
+	
+	// Derivatives whose values are interpolated on each pass, and their ordinals
+	private final LookupTable[] variableTables;
+	private final int[] variableOrdinals;
+	
+	// Flight parameters used to interpolate variable derivatives, indexed by LookupParameter ordinal
+	private final double[] parameters = new double[LookupParameter.values().length];
+	
+	/**
+	 * Compiles the stability derivatives and wing geometry of an {@link Aircraft} into primitive fields. Any changes made to the 
+	 * Aircraft's aerodynamics afterwards will not be reflected in this object. Interpolating tables are copied (see {@link LookupTable#copy()}), 
+	 * so that one Aircraft can be shared by objects used concurrently on different threads
+	 * 
+	 * @param aircraft
+	 */
+	public CompiledAerodynamics(Aircraft aircraft) {
+		logger.info("Compiling aerodynamic model for " + aircraft.getName() + "...");
+		
+		cBar  	 = aircraft.getWingGeometry(WingGeometry.C_BAR);
+		sWing 	 = aircraft.getWingGeometry(WingGeometry.S_WING);
+		bWing 	 = aircraft.getWingGeometry(WingGeometry.B_WING);
+		invBWing = 1/bWing;
+		
+		int variableCount = 0;
+		LookupTable[] tables = new LookupTable[derivatives.length];
+		int[] ordinals = new int[derivatives.length];
+		
+		for (StabilityDerivatives stabDer : StabilityDerivatives.values()) {
+			LookupTable lookup = aircraft.getStabilityDerivative(stabDer);
+			
+			if (lookup == null) {
+				derivatives[stabDer.ordinal()] = 0.0;
+			} else if (lookup.isInterpolating()) {
+				tables[variableCount] = lookup.copy();
+				ordinals[variableCount++] = stabDer.ordinal();
+			} else {
+				derivatives[stabDer.ordinal()] = lookup.getValue() == null ? 0.0 : lookup.getValue();
+			}
+		}
+		
+		variableTables = new LookupTable[variableCount];
+		variableOrdinals = new int[variableCount];
+		System.arraycopy(tables, 0, variableTables, 0, variableCount);
+		System.arraycopy(ordinals, 0, variableOrdinals, 0, variableCount);
+	}
+	
+	/**
+	 * Calculates aerodynamic forces and moments experienced by the aircraft in a single pass, writing them into the
+	 * forcesAndMoments array supplied. Forces are converted from the wind frame to the body frame
+	 * 
+	 * @param windParameters {vTrue,beta,alpha}
+	 * @param angularRates
+	 * @param rho air density (slug/ft^3)
+	 * @param mach
+	 * @param altitude (ft)
+	 * @param controls
+	 * @param alphaDot
+	 * @param heightAGL
+	 * @param forcesAndMoments {Fx, Fy, Fz, L, M, N} in the body frame
+	 * @return forcesAndMoments
+	 */
+	public double[] calculateForcesAndMoments(double[] windParameters,
+											  double[] angularRates,
+											  double rho,
+											  double mach,
+											  double altitude,
+											  Map<FlightControl, Double> controls,
+											  double alphaDot,
+											  double heightAGL,
+											  double[] forcesAndMoments) {
+		return calculateForcesAndMoments(windParameters[0], windParameters[1], windParameters[2], 
+										 angularRates[0], angularRates[1], angularRates[2], 
+										 rho, mach, altitude, 
+										 controls.get(FlightControl.ELEVATOR), controls.get(FlightControl.AILERON), 
+										 controls.get(FlightControl.RUDDER), controls.get(FlightControl.FLAPS), controls.get(FlightControl.GEAR),
+										 alphaDot, heightAGL, forcesAndMoments);
+	}
+	
+	/**
+	 * Calculates aerodynamic forces and moments experienced by the aircraft in a single pass from primitive arguments, writing them 
+	 * into the forcesAndMoments array supplied. Used where the aircraft states are not held in arrays or maps, such as by
+	 * {@link com.chrisali.javaflightsim.simulation.integration.BatchIntegrate6DOFEquations}
+	 * 
+	 * @param vTrue (ft/sec)
+	 * @param beta (rad)
+	 * @param alpha (rad)
+	 * @param p (rad/sec)
+	 * @param q (rad/sec)
+	 * @param r (rad/sec)
+	 * @param rho air density (slug/ft^3)
+	 * @param mach
+	 * @param altitude (ft)
+	 * @param elevator (rad)
+	 * @param aileron (rad)
+	 * @param rudder (rad)
+	 * @param flaps (rad)
+	 * @param gear (0.0 to 1.0)
+	 * @param alphaDot
+	 * @param heightAGL
+	 * @param forcesAndMoments {Fx, Fy, Fz, L, M, N} in the body frame
+	 * @return forcesAndMoments
+	 */
+	public double[] calculateForcesAndMoments(double vTrue, double beta, double alpha,
+											  double p, double q, double r,
+											  double rho, double mach, double altitude,
+											  double elevator, double aileron, double rudder, double flaps, double gear,
+											  double alphaDot,
+											  double heightAGL,
+											  double[] forcesAndMoments) {
+		calculateForcesAndMoments(vTrue, beta, alpha, p, q, r, rho, mach, altitude, elevator, aileron, rudder, flaps, gear, 
+								  alphaDot, heightAGL, forcesAndMoments, 0, 1);
+		
+		return forcesAndMoments;
+	}
+	
+	/**
+	 * Calculates aerodynamic forces and moments experienced by each of n aircraft of this type from columns of their flight parameters 
+	 * and controls, as used by {@link com.chrisali.javaflightsim.simulation.integration.BatchIntegrate6DOFEquations}. The forces and moments 
+	 * are written into the forcesAndMoments array supplied in structure-of-arrays form: {Fx, Fy, Fz, L, M, N} component k of 
+	 * aircraft i is at index k*n + i
+	 * 
+	 * @param vTrue (ft/sec)
+	 * @param beta (rad)
+	 * @param alpha (rad)
+	 * @param p (rad/sec)
+	 * @param q (rad/sec)
+	 * @param r (rad/sec)
+	 * @param rho air density (slug/ft^3)
+	 * @param mach
+	 * @param altitude (ft)
+	 * @param elevator (rad)
+	 * @param aileron (rad)
+	 * @param rudder (rad)
+	 * @param flaps (rad)
+	 * @param gear (0.0 to 1.0)
+	 * @param alphaDot
+	 * @param heightAGL
+	 * @param n number of aircraft
+	 * @param forcesAndMoments [6*n] in the body frame
+	 * @return forcesAndMoments
+	 */
+	public double[] calculateForcesAndMoments(double[] vTrue, double[] beta, double[] alpha,
+											  double[] p, double[] q, double[] r,
+											  double[] rho, double[] mach, double[] altitude,
+											  double[] elevator, double[] aileron, double[] rudder, double[] flaps, double[] gear,
+											  double[] alphaDot,
+											  double[] heightAGL,
+											  int n,
+											  double[] forcesAndMoments) {
+		for (int i = 0; i < n; i++)
+			calculateForcesAndMoments(vTrue[i], beta[i], alpha[i], p[i], q[i], r[i], rho[i], mach[i], altitude[i], 
+									  elevator[i], aileron[i], rudder[i], flaps[i], gear[i], alphaDot[i], heightAGL[i], 
+									  forcesAndMoments, i, n);
+		
+		return forcesAndMoments;
+	}
+	
+	/**
+	 * Calculates the forces and moments of a single aircraft, writing component k of {Fx, Fy, Fz, L, M, N} into 
+	 * forcesAndMoments[offset + k*stride]
+	 */
+	private void calculateForcesAndMoments(double vTrue, double beta, double alpha,
+										   double p, double q, double r,
+										   double rho, double mach, double altitude,
+										   double elevator, double aileron, double rudder, double flaps, double gear,
+										   double alphaDot,
+										   double heightAGL,
+										   double[] forcesAndMoments,
+										   int offset,
+										   int stride) {
+		// Update derivatives that are functions of flight parameters
+		final double[] d = derivatives;
+		if (variableTables.length > 0) {
+			parameters[LookupParameter.ALPHA.ordinal()]    = alpha;
+			parameters[LookupParameter.BETA.ordinal()] 	   = beta;
+			parameters[LookupParameter.MACH.ordinal()] 	   = mach;
+			parameters[LookupParameter.ALTITUDE.ordinal()] = altitude;
+			parameters[LookupParameter.FLAPS.ordinal()]    = flaps;
+			parameters[LookupParameter.ELEVATOR.ordinal()] = elevator;
+			parameters[LookupParameter.AILERON.ordinal()]  = aileron;
+			parameters[LookupParameter.RUDDER.ordinal()]   = rudder;
+			
+			for (int i = 0; i < variableTables.length; i++)
+				d[variableOrdinals[i]] = variableTables[i].interpolate(parameters);
+		}
+		
+		final double rotaryTerm = cBar/(2*vTrue);
+		final double helixAngle = bWing/(2*vTrue);
+		final double qBarS 		= rho*(vTrue*vTrue)/2*sWing;
+		
+		// Ground effect: if aircraft is within 1 wing span length of the ground, adjust CL_alpha and CD_alpha
+		final double normalizedHeightAGL = heightAGL*invBWing;
+		final double groundEffect = normalizedHeightAGL < 1.0 ? 1 - (Math.atan(15*(normalizedHeightAGL-1)) / 10) : 1.0;
+		
+		final double CL = d[CL_ALPHA]*alpha*groundEffect + d[CL_0] 
+						+ d[CL_Q]*q*rotaryTerm + d[CL_ALPHA_DOT]*alphaDot*rotaryTerm + d[CL_D_ELEV]*elevator + d[CL_D_FLAP]*flaps;
+		
+		final double CY = d[CY_BETA]*beta + d[CY_D_RUD]*rudder;
+		
+		// Need absolute value to prevent negative drag at negative alpha
+		final double CD = d[CD_ALPHA]*Math.abs(alpha)/groundEffect + d[CD_0] 
+						+ d[CD_D_FLAP]*flaps + d[CD_D_ELEV]*elevator + d[CD_D_GEAR]*gear;
+		
+		final double CRoll = d[CROLL_BETA]*beta + d[CROLL_P]*p*helixAngle + d[CROLL_R]*r*helixAngle 
+						   + d[CROLL_D_AIL]*aileron + d[CROLL_D_RUD]*rudder;
+		
+		final double CM = d[CM_ALPHA]*alpha + d[CM_0] 
+						+ d[CM_Q]*q*rotaryTerm + d[CM_ALPHA_DOT]*alphaDot*rotaryTerm + d[CM_D_ELEV]*elevator + d[CM_D_FLAP]*flaps;
+		
+		final double CN = d[CN_BETA]*beta + d[CN_P]*p*helixAngle + d[CN_R]*r*helixAngle + d[CN_D_AIL]*aileron + d[CN_D_RUD]*rudder;
+		
+		// Negative L and D to switch body directions
+		final double windX = -qBarS*CD;
+		final double windY =  qBarS*CY;
+		final double windZ = -qBarS*CL;
+		
+		// Wind to body transformation, equivalent to SixDOFUtilities.wind2Body()
+		final double sinBeta  = Math.sin(beta),  cosBeta  = Math.cos(beta);
+		final double sinAlpha = Math.sin(alpha), cosAlpha = Math.cos(alpha);
+		
+		forcesAndMoments[offset] 		  = windX*cosBeta*cosAlpha - windY*sinBeta*cosAlpha - windZ*sinAlpha;
+		forcesAndMoments[offset + stride]   = windX*sinBeta 		 + windY*cosBeta;
+		forcesAndMoments[offset + 2*stride] = windX*cosBeta*sinAlpha - windY*sinBeta*sinAlpha + windZ*cosAlpha;
+		
+		forcesAndMoments[offset + 3*stride] = qBarS*CRoll*bWing;
+		forcesAndMoments[offset + 4*stride] = qBarS*CM*cBar;
+		forcesAndMoments[offset + 5*stride] = qBarS*CN*bWing;
+	}
+}
@@ -0,0 +1,294 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.aircraft;
+
+import java.util.List;
+
+/**
+ * N-dimensional table of values defined on a rectangular grid of breakpoints, such as the output of DATCOM, where each
+ * breakpoint axis is one of the flight parameters in {@link LookupParameter}. Values are stored in one flat, contiguous array 
+ * in row-major order (the last axis varies fastest) and are addressed by the stride of each axis. 
+ * 
+ * <p>Interpolation is either multilinear or tensor product cubic (see {@link InterpolationType}); the cubic interpolation uses the 
+ * 4 breakpoints surrounding the point on each axis, and falls back to linear on any axis with fewer than 4 breakpoints. Values 
+ * outside of the breakpoints are handled according to {@link ExtrapolationType}. The bracket found on each axis is remembered and used 
+ * as the starting point of the next search</p>
+ * 
+ * <p>All working arrays are allocated upon construction, so interpolation does not allocate; as a result, an instance should not
+ * be shared between threads. An {@link Aircraft} is shared by every simulation context made from it, so the 
+ * {@link CompiledAerodynamics} of each context interpolates tables copied with {@link LookupTable#copy()}, which gives each copy 
+ * its own working arrays while sharing the breakpoints and values</p>
+ * 
+ * @see LookupTable
+ * @author Christopher Ali
+ *
+ */
+public class GriddedTable {
+	
+	private final int dimensions;
+	
+	private final double[][] breakPoints;
+	private final int[] parameterIndices;
+	private final int[] strides;
+	private final double[] values;
+	
+	private final InterpolationType interpolation;
+	private final ExtrapolationType extrapolation;
+	
+	// Denominators of the cubic Lagrange weights for each axis, indexed by [axis][(first breakpoint * 4) + weight]
+	private final double[][] cubicDenominators;
+	
+	// Working arrays reused on each interpolation
+	private final int[] cells;
+	private final int[] starts;
+	private final int[] counts;
+	private final int[] counter;
+	private final double[][] weights;
+	
+	/**
+	 * Creates an N-dimensional table. The length of values must be the product of the number of breakpoints on each axis
+	 * 
+	 * @param axes breakpoint axes, in the order that values are stored
+	 * @param values row-major values
+	 * @param interpolation null defaults to {@link InterpolationType#LINEAR}
+	 * @param extrapolation null defaults to {@link ExtrapolationType#CLAMP}
+	 * @throws IllegalArgumentException if the axes are undefined, their breakpoints are not strictly increasing or the number of 
+	 * values does not match the axes 
+	 */
+	public GriddedTable(List<Axis> axes, double[] values, InterpolationType interpolation, ExtrapolationType extrapolation) {
+		if (axes == null || axes.isEmpty())
+			throw new IllegalArgumentException("A gridded table needs at least one axis");
+		
+		dimensions = axes.size();
+		breakPoints = new double[dimensions][];
+		parameterIndices = new int[dimensions];
+		strides = new int[dimensions];
+		cubicDenominators = new double[dimensions][];
+		
+		int expectedValues = 1;
+		for (int d = dimensions - 1; d >= 0; d--) {
+			Axis axis = axes.get(d);
+			double[] axisBreakPoints = axis.getBreakPoints();
+			
+			if (axis.getParameter() == null || axisBreakPoints == null || axisBreakPoints.length == 0)
+				throw new IllegalArgumentException("Axis " + d + " of gridded table needs a parameter and breakpoints");
+			
+			for (int i = 1; i < axisBreakPoints.length; i++) {
+				if (!(axisBreakPoints[i] > axisBreakPoints[i - 1]))
+					throw new IllegalArgumentException("Breakpoints of " + axis.getParameter() + " axis must be strictly increasing");
+			}
+			
+			breakPoints[d] = axisBreakPoints.clone();
+			parameterIndices[d] = axis.getParameter().ordinal();
+			strides[d] = expectedValues;
+			cubicDenominators[d] = calculateCubicDenominators(breakPoints[d]);
+			
+			expectedValues *= axisBreakPoints.length;
+		}
+		
+		if (values == null || values.length != expectedValues)
+			throw new IllegalArgumentException("Gridded table axes need " + expectedValues + " values, but " 
+												+ (values == null ? 0 : values.length) + " were found");
+		
+		this.values = values.clone();
+		this.interpolation = interpolation == null ? InterpolationType.LINEAR : interpolation;
+		this.extrapolation = extrapolation == null ? ExtrapolationType.CLAMP : extrapolation;
+		
+		cells   = new int[dimensions];
+		starts  = new int[dimensions];
+		counts  = new int[dimensions];
+		counter = new int[dimensions];
+		weights = new double[dimensions][4];
+	}
+	
+	/**
+	 * Creates a table sharing the breakpoints and values of another, with its own working arrays
+	 * 
+	 * @param other
+	 */
+	private GriddedTable(GriddedTable other) {
+		dimensions 		  = other.dimensions;
+		breakPoints 	  = other.breakPoints;
+		parameterIndices  = other.parameterIndices;
+		strides 		  = other.strides;
+		values 			  = other.values;
+		interpolation 	  = other.interpolation;
+		extrapolation 	  = other.extrapolation;
+		cubicDenominators = other.cubicDenominators;
+		
+		cells   = new int[dimensions];
+		starts  = new int[dimensions];
+		counts  = new int[dimensions];
+		counter = new int[dimensions];
+		weights = new double[dimensions][4];
+	}
+	
+	/**
+	 * Breakpoints and values are never modified once a table is created, but interpolation uses working arrays held by the table, 
+	 * so one table must not be interpolated concurrently by more than one thread
+	 * 
+	 * @return a copy of this table that shares its breakpoints and values, but can be interpolated independently of it
+	 */
+	public GriddedTable copy() { return new GriddedTable(this); }
+	
+	/**
+	 * @param axisBreakPoints
+	 * @return denominators of the Lagrange weights of each group of 4 consecutive breakpoints, or null if there are fewer than 4 
+	 */
+	private static double[] calculateCubicDenominators(double[] axisBreakPoints) {
+		if (axisBreakPoints.length < 4)
+			return null;
+		
+		double[] denominators = new double[(axisBreakPoints.length - 3) * 4];
+		
+		for (int start = 0; start < axisBreakPoints.length - 3; start++) {
+			for (int i = 0; i < 4; i++) {
+				double denominator = 1.0;
+				for (int j = 0; j < 4; j++) {
+					if (j != i)
+						denominator *= axisBreakPoints[start + i] - axisBreakPoints[start + j];
+				}
+				denominators[start * 4 + i] = denominator;
+			}
+		}
+		
+		return denominators;
+	}
+	
+	/**
+	 * Interpolates the table at the point described by the parameters array
+	 * 
+	 * @param parameters values of each flight parameter, indexed by {@link LookupParameter} ordinal
+	 * @return interpolated value
+	 */
+	public double interpolate(double[] parameters) {
+		for (int d = 0; d < dimensions; d++)
+			calculateWeights(d, parameters[parameterIndices[d]]);
+		
+		// Sum the weighted values of each point of the hypercube surrounding the point, stepping through them like an odometer
+		double result = 0.0;
+		for (int d = 0; d < dimensions; d++)
+			counter[d] = 0;
+		
+		while (true) {
+			double weight = 1.0;
+			int index = 0;
+			
+			for (int d = 0; d < dimensions; d++) {
+				int k = counter[d];
+				weight *= weights[d][k];
+				index  += (starts[d] + k) * strides[d];
+			}
+			
+			result += weight * values[index];
+			
+			int d = dimensions - 1;
+			while (d >= 0 && ++counter[d] == counts[d]) {
+				counter[d] = 0;
+				d--;
+			}
+			
+			if (d < 0)
+				break;
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Finds the bracket of the value on an axis and calculates the interpolation weights of the breakpoints around it
+	 * 
+	 * @param d axis
+	 * @param value
+	 */
+	private void calculateWeights(int d, double value) {
+		final double[] axisBreakPoints = breakPoints[d];
+		final double[] axisWeights = weights[d];
+		final int length = axisBreakPoints.length;
+		
+		if (length == 1) {
+			starts[d] = 0;
+			counts[d] = 1;
+			axisWeights[0] = 1.0;
+			return;
+		}
+		
+		final double clamped = value < axisBreakPoints[0] ? axisBreakPoints[0] 
+							 : (value > axisBreakPoints[length - 1] ? axisBreakPoints[length - 1] : value);
+		final int cell = PiecewiseBicubicInterpolator.hunt(axisBreakPoints, clamped, cells[d]);
+		cells[d] = cell;
+		
+		if (interpolation == InterpolationType.CUBIC && cubicDenominators[d] != null && clamped == value) {
+			final int start = Math.max(0, Math.min(cell - 1, length - 4));
+			final double[] denominators = cubicDenominators[d];
+			final double x0 = value - axisBreakPoints[start],     x1 = value - axisBreakPoints[start + 1],
+						 x2 = value - axisBreakPoints[start + 2], x3 = value - axisBreakPoints[start + 3];
+			
+			axisWeights[0] = x1 * x2 * x3 / denominators[start * 4];
+			axisWeights[1] = x0 * x2 * x3 / denominators[start * 4 + 1];
+			axisWeights[2] = x0 * x1 * x3 / denominators[start * 4 + 2];
+			axisWeights[3] = x0 * x1 * x2 / denominators[start * 4 + 3];
+			
+			starts[d] = start;
+			counts[d] = 4;
+		} else {
+			final double x = extrapolation == ExtrapolationType.LINEAR ? value : clamped;
+			final double t = (x - axisBreakPoints[cell]) / (axisBreakPoints[cell + 1] - axisBreakPoints[cell]);
+			
+			axisWeights[0] = 1.0 - t;
+			axisWeights[1] = t;
+			
+			starts[d] = cell;
+			counts[d] = 2;
+		}
+	}
+	
+	/**
+	 * @return number of breakpoint axes
+	 */
+	public int getDimensions() { return dimensions; }
+	
+	/**
+	 * Defines a breakpoint axis of a {@link GriddedTable} in an {@link Aircraft}'s JSON configuration
+	 * 
+	 * @author Christopher Ali
+	 *
+	 */
+	public static class Axis {
+		private LookupParameter parameter;
+		
+		private double[] breakPoints;
+		
+		public Axis() {}
+		
+		public Axis(LookupParameter parameter, double[] breakPoints) {
+			this.parameter = parameter;
+			this.breakPoints = breakPoints;
+		}
+		
+		public LookupParameter getParameter() { return parameter; }
+		
+		public void setParameter(LookupParameter parameter) { this.parameter = parameter; }
+		
+		public double[] getBreakPoints() { return breakPoints; }
+		
+		public void setBreakPoints(double[] breakPoints) { this.breakPoints = breakPoints; }
+	}
+}
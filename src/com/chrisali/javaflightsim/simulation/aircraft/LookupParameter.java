@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.aircraft;
+
+/**
+ * Provides Enum values to define the flight parameters that can be used as breakpoint axes of an N-dimensional 
+ * {@link GriddedTable} in an {@link Aircraft}'s stability derivatives. The values of these parameters are passed to 
+ * {@link LookupTable#interpolate(double[])} in an array indexed by each value's ordinal. Angles are in radians and
+ * altitude is in feet
+ * 
+ * @see CompiledAerodynamics
+ */
+public enum LookupParameter {
+	ALPHA 	 ("alpha"),
+	BETA 	 ("beta"),
+	MACH 	 ("mach"),
+	ALTITUDE ("altitude"),
+	FLAPS 	 ("flaps"),
+	ELEVATOR ("elevator"),
+	AILERON  ("aileron"),
+	RUDDER 	 ("rudder");
+	
+	private final String parameter;
+	
+	LookupParameter(String parameter) {this.parameter = parameter;}
+	
+	public String toString() {return parameter;}
+}
@@ -19,7 +19,8 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.simulation.aircraft;
 
-import org.apache.commons.math3.analysis.interpolation.PiecewiseBicubicSplineInterpolatingFunction;
+import java.util.List;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -30,9 +31,11 @@ import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
- * Wrapper for the Apache Commons' PiecewiseBicubicSplineInterpolatingFunction that allows a double value to be
- * interpolated for two given breakpoints. It is also capable of returning a single value if no interpolation 
- * arrays are specified upon construction
+ * Wrapper for {@link PiecewiseBicubicInterpolator} that allows a double value to be interpolated for two given 
+ * breakpoints. It is also capable of returning a single value if no interpolation arrays are specified upon construction.
+ * Alternatively, "axes" and "values" can be specified to create an N-dimensional {@link GriddedTable}, whose breakpoint axes 
+ * can be any of the flight parameters in {@link LookupParameter}. Values outside of the breakpoints are handled according to 
+ * its {@link ExtrapolationType}, which defaults to {@link ExtrapolationType#CLAMP} if not specified
  * 
  * @author Christopher
  *
@@ -53,8 +56,22 @@ public class LookupTable {
 
 	private Double value;
 	
+	private List<GriddedTable.Axis> axes;
+	
+	private double[] values;
+	
+	private InterpolationType interpolation;
+	
+	private ExtrapolationType extrapolation;
+	
 	@JsonIgnore
-	private PiecewiseBicubicSplineInterpolatingFunction pbsif;
+	private PiecewiseBicubicInterpolator interpolator;
+	
+	@JsonIgnore
+	private GriddedTable griddedTable;
+	
+	@JsonIgnore
+	private double[] parameters;
 	
 	public LookupTable() {}
 
@@ -70,51 +87,138 @@ public class LookupTable {
 		
 	/**
 	 * Creates a LookupTable capable of interpolating in two dimensions; one for an angle of deflection, the other
-	 * for deflection of a control surface
+	 * for deflection of a control surface, or in N dimensions if axes and values are specified
 	 * 
 	 * @param breakPointAngle
 	 * @param breakPointFlap
 	 * @param lookupValues
 	 * @param defaultValue
 	 * @param name
+	 * @param axes breakpoint axes of an N-dimensional table
+	 * @param values row-major values of an N-dimensional table
+	 * @param interpolation
+	 * @param extrapolation
 	 */
 	@JsonCreator
 	public LookupTable(@JsonProperty(required=false, value="breakPointAngle") double[] breakPointAngle, 
 					   @JsonProperty(required=false, value="breakPointFlap") double[] breakPointFlap, 
 					   @JsonProperty(required=false, value="lookupValues") double[][] lookupValues, 
 					   @JsonProperty(required=false, value="value") double defaultValue,
-					   @JsonProperty(required=false, value="name") String name) {
+					   @JsonProperty(required=false, value="name") String name,
+					   @JsonProperty(required=false, value="axes") List<GriddedTable.Axis> axes,
+					   @JsonProperty(required=false, value="values") double[] values,
+					   @JsonProperty(required=false, value="interpolation") InterpolationType interpolation,
+					   @JsonProperty(required=false, value="extrapolation") ExtrapolationType extrapolation) {
 		this.breakPointAngle = breakPointAngle;
 		this.breakPointFlap = breakPointFlap;
 		this.lookupValues = lookupValues;
 		this.value = defaultValue;
 		this.name = name;
+		this.axes = axes;
+		this.values = values;
+		this.interpolation = interpolation;
+		this.extrapolation = extrapolation;
 		
-		if (breakPointAngle != null && breakPointFlap != null && lookupValues != null) {
+		if (axes != null && values != null) {
+			logger.info("Creating a " + axes.size() + "-dimensional gridded lookup table for " + name + "...");
+			griddedTable = new GriddedTable(axes, values, interpolation, extrapolation);
+			parameters = new double[LookupParameter.values().length];
+		} else if (breakPointAngle != null && breakPointFlap != null && lookupValues != null) {
 			logger.info("Creating an interpolating lookup table for " + name + "...");
-			pbsif = new PiecewiseBicubicSplineInterpolatingFunction(breakPointAngle, breakPointFlap, lookupValues);
+			interpolator = new PiecewiseBicubicInterpolator(breakPointAngle, breakPointFlap, lookupValues, extrapolation);
 		}
 	}
 
+	/**
+	 * Interpolates the table for the flight parameters supplied. Two dimensional tables only use {@link LookupParameter#ALPHA} 
+	 * and {@link LookupParameter#FLAPS}
+	 * 
+	 * @param parameters values of each flight parameter, indexed by {@link LookupParameter} ordinal
+	 * @return an interpolated value if an interpolating function has been initialized, otherwise returns a constant value
+	 */
+	public double interpolate(double[] parameters) {
+		if (griddedTable != null)
+			return griddedTable.interpolate(parameters);
+		
+		return interpolate(parameters[LookupParameter.ALPHA.ordinal()], parameters[LookupParameter.FLAPS.ordinal()]);
+	}
+	
 	/**
 	 * @param angle
 	 * @param flap
-	 * @return an interpolated Double value if an interpolating function has been initialized, otherwise returns a constant value
+	 * @return an interpolated value if an interpolating function has been initialized, otherwise returns a constant value.
+	 * N-dimensional tables are interpolated with all flight parameters other than {@link LookupParameter#ALPHA} and 
+	 * {@link LookupParameter#FLAPS} set to zero
 	 */
-	public Double interpolate(double angle, double flap) {	
-		Double interp = value;
+	public double interpolate(double angle, double flap) {	
+		if (interpolator != null)
+			return interpolator.interpolate(angle, flap);
 		
-		if (pbsif != null)
-			interp = pbsif.value(angle, flap);
+		if (griddedTable != null) {
+			parameters[LookupParameter.ALPHA.ordinal()] = angle;
+			parameters[LookupParameter.FLAPS.ordinal()] = flap;
+			return griddedTable.interpolate(parameters);
+		}
 		
-		if (interp == null) {
+		if (value == null) {
 			logger.error("Null value encountered in interpolation of " + name + "! Returning 0...");			
-			interp = 0.0;
+			return 0.0;
 		}
 		
-		return interp;
+		return value;
 	}
+	
+	/**
+	 * Interpolates a batch of angle and flap values, writing the results into the out array supplied
+	 * 
+	 * @param angles
+	 * @param flaps
+	 * @param out
+	 * @return out
+	 */
+	public double[] interpolate(double[] angles, double[] flaps, double[] out) {
+		if (interpolator != null)
+			return interpolator.interpolate(angles, flaps, out);
 		
+		for (int i = 0; i < angles.length; i++)
+			out[i] = interpolate(angles[i], flaps[i]);
+		
+		return out;
+	}
+		
+	/**
+	 * Creates a copy of this table that shares its breakpoints and values, but has its own working arrays for interpolation. Tables 
+	 * are interpolated using working arrays, so an {@link Aircraft} shared by several simulations running concurrently must give each 
+	 * of them copies of its interpolating tables
+	 * 
+	 * @return copy of this table
+	 */
+	public LookupTable copy() {
+		LookupTable copy = new LookupTable();
+		
+		copy.name = name;
+		copy.breakPointFlap = breakPointFlap;
+		copy.breakPointAngle = breakPointAngle;
+		copy.lookupValues = lookupValues;
+		copy.value = value;
+		copy.axes = axes;
+		copy.values = values;
+		copy.interpolation = interpolation;
+		copy.extrapolation = extrapolation;
+		
+		copy.interpolator = (interpolator != null) ? interpolator.copy() : null;
+		copy.griddedTable = (griddedTable != null) ? griddedTable.copy() : null;
+		copy.parameters = (parameters != null) ? new double[parameters.length] : null;
+		
+		return copy;
+	}
+	
+	/**
+	 * @return true if this table was constructed with breakpoints and values to interpolate, false if it only returns a constant value
+	 */
+	@JsonIgnore
+	public boolean isInterpolating() { return interpolator != null || griddedTable != null; }
+	
 	public String getName() { return name; }
 
 	public void setName(String name) { this.name = name; }
@@ -134,6 +238,22 @@ public class LookupTable {
 
 	public void setBreakPointAngle(double[] breakPointAngle) { this.breakPointAngle = breakPointAngle; }
 
+	public List<GriddedTable.Axis> getAxes() { return axes; }
+
+	public void setAxes(List<GriddedTable.Axis> axes) { this.axes = axes; }
+
+	public double[] getValues() { return values; }
+
+	public void setValues(double[] values) { this.values = values; }
+
+	public InterpolationType getInterpolation() { return interpolation; }
+
+	public void setInterpolation(InterpolationType interpolation) { this.interpolation = interpolation; }
+
+	public ExtrapolationType getExtrapolation() { return extrapolation; }
+
+	public void setExtrapolation(ExtrapolationType extrapolation) { this.extrapolation = extrapolation; }
+
 	public double[][] getLookupValues() { return lookupValues; }
 
 	public void setLookupValues(double[][] lookUpValues) { this.lookupValues = lookUpValues; }	
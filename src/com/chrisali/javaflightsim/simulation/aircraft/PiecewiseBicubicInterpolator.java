@@ -0,0 +1,321 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.aircraft;
+
+import org.apache.commons.math3.analysis.interpolation.AkimaSplineInterpolator;
+import org.apache.commons.math3.analysis.interpolation.PiecewiseBicubicSplineInterpolatingFunction;
+
+/**
+ * Primitive, allocation-free replacement for {@link PiecewiseBicubicSplineInterpolatingFunction} that gives identical results 
+ * inside the bounds of its breakpoints. Like the Apache Commons function, a value is found by fitting a 5 point 
+ * {@link AkimaSplineInterpolator} spline along the angle axis for each of the 5 flap columns surrounding the point, and then 
+ * a second 5 point Akima spline along the flap axis through those results. The differences are:
+ * 
+ * <ul>
+ * <li>The angle axis spline coefficients of every cell are precomputed upon construction</li>
+ * <li>The last cell found on each axis is remembered and the search for the next cell starts from there, as 
+ * angle of attack and flap deflection change slowly from one step to the next</li>
+ * <li>Values outside of the breakpoints are either clamped or linearly extrapolated (see {@link ExtrapolationType}) rather
+ * than throwing an exception</li>
+ * </ul>
+ * 
+ * The remembered cells are only used as a starting guess, but are written on every interpolation, so an instance should not be 
+ * shared between threads; use {@link #copy()} to give each thread its own instance sharing the same coefficients
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class PiecewiseBicubicInterpolator {
+	
+	/** Number of points used by each Akima spline, as in {@link PiecewiseBicubicSplineInterpolatingFunction} */
+	private static final int SPLINE_POINTS = 5;
+	
+	private final double[] breakPointAngle;
+	private final double[] breakPointFlap;
+	
+	// Cubic coefficients along the angle axis, indexed by [((cell * flap columns) + column) * 4 + power]
+	private final double[] angleCoeffs;
+	
+	private final ExtrapolationType extrapolation;
+	
+	private int lastAngleCell;
+	private int lastFlapCell;
+	
+	/**
+	 * Creates an interpolator for a two dimensional table, precomputing the angle axis spline coefficients of every cell
+	 * 
+	 * @param breakPointAngle strictly increasing, at least 5 values
+	 * @param breakPointFlap strictly increasing, at least 5 values
+	 * @param lookupValues [angle][flap]
+	 * @param extrapolation behavior outside of breakpoints; null defaults to {@link ExtrapolationType#CLAMP}
+	 * @throws IllegalArgumentException if the table's dimensions do not match or breakpoints are not strictly increasing
+	 */
+	public PiecewiseBicubicInterpolator(double[] breakPointAngle, double[] breakPointFlap, double[][] lookupValues, ExtrapolationType extrapolation) {
+		checkBreakPoints(breakPointAngle, "angle");
+		checkBreakPoints(breakPointFlap, "flap");
+		
+		if (lookupValues.length != breakPointAngle.length)
+			throw new IllegalArgumentException("Lookup table has " + lookupValues.length + " rows, but " + breakPointAngle.length + " angle breakpoints");
+		
+		for (double[] row : lookupValues) {
+			if (row.length != breakPointFlap.length)
+				throw new IllegalArgumentException("Lookup table has a row of " + row.length + " values, but " + breakPointFlap.length + " flap breakpoints");
+		}
+		
+		this.breakPointAngle = breakPointAngle.clone();
+		this.breakPointFlap  = breakPointFlap.clone();
+		this.extrapolation   = extrapolation == null ? ExtrapolationType.CLAMP : extrapolation;
+		
+		final int angleCells  = breakPointAngle.length - 1;
+		final int flapColumns = breakPointFlap.length;
+		
+		angleCoeffs = new double[angleCells * flapColumns * 4];
+		
+		for (int cell = 0; cell < angleCells; cell++) {
+			int window = spline(cell, breakPointAngle.length);
+			int piece  = cell - window;
+			double w   = breakPointAngle[cell + 1] - breakPointAngle[cell];
+			
+			for (int column = 0; column < flapColumns; column++) {
+				double z0 = lookupValues[window][column],   z1 = lookupValues[window+1][column], z2 = lookupValues[window+2][column],
+					   z3 = lookupValues[window+3][column], z4 = lookupValues[window+4][column];
+				
+				double yv  = lookupValues[cell][column];
+				double yvP = lookupValues[cell + 1][column];
+				double fd  = akimaDerivative(piece,     this.breakPointAngle, window, z0, z1, z2, z3, z4);
+				double fdP = akimaDerivative(piece + 1, this.breakPointAngle, window, z0, z1, z2, z3, z4);
+				
+				int index = ((cell * flapColumns) + column) * 4;
+				angleCoeffs[index]     = yv;
+				angleCoeffs[index + 1] = fd;
+				angleCoeffs[index + 2] = hermiteC2(w, yv, yvP, fd, fdP);
+				angleCoeffs[index + 3] = hermiteC3(w, yv, yvP, fd, fdP);
+			}
+		}
+	}
+	
+	/**
+	 * Creates an interpolator sharing the breakpoints and coefficients of another, with its own record of the last cells found
+	 * 
+	 * @param other
+	 */
+	private PiecewiseBicubicInterpolator(PiecewiseBicubicInterpolator other) {
+		breakPointAngle = other.breakPointAngle;
+		breakPointFlap  = other.breakPointFlap;
+		angleCoeffs 	= other.angleCoeffs;
+		extrapolation 	= other.extrapolation;
+	}
+	
+	/**
+	 * @return a copy of this interpolator that shares its coefficients, but remembers its own last cells found, so that each copy 
+	 * can be used by a different thread
+	 */
+	public PiecewiseBicubicInterpolator copy() { return new PiecewiseBicubicInterpolator(this); }
+	
+	private static void checkBreakPoints(double[] breakPoints, String axis) {
+		if (breakPoints.length < SPLINE_POINTS)
+			throw new IllegalArgumentException("At least " + SPLINE_POINTS + " " + axis + " breakpoints are needed, but only " + breakPoints.length + " were found");
+		
+		for (int i = 1; i < breakPoints.length; i++) {
+			if (!(breakPoints[i] > breakPoints[i - 1]))
+				throw new IllegalArgumentException("The " + axis + " breakpoints must be strictly increasing");
+		}
+	}
+	
+	/**
+	 * @param angle
+	 * @param flap
+	 * @return value interpolated from the table, or extrapolated according to this interpolator's {@link ExtrapolationType}
+	 */
+	public double interpolate(double angle, double flap) {
+		final double[] xs = breakPointAngle;
+		final double[] ys = breakPointFlap;
+		final int flapColumns = ys.length;
+		
+		final double angleClamped = clamp(angle, xs[0], xs[xs.length - 1]);
+		final double flapClamped  = clamp(flap,  ys[0], ys[ys.length - 1]);
+		final boolean linear = extrapolation == ExtrapolationType.LINEAR;
+		
+		final int cellX = hunt(xs, angleClamped, lastAngleCell);
+		final int cellY = hunt(ys, flapClamped, lastFlapCell);
+		lastAngleCell = cellX;
+		lastFlapCell  = cellY;
+		
+		// Angle axis splines for the 5 flap columns surrounding the point
+		final double dx 	  = angleClamped - xs[cellX];
+		final double xOutside = linear ? angle - angleClamped : 0.0;
+		final int window 	  = spline(cellY, flapColumns);
+		final int base 		  = cellX * flapColumns;
+		
+		final double z0 = angleValue(base + window,     dx, xOutside);
+		final double z1 = angleValue(base + window + 1, dx, xOutside);
+		final double z2 = angleValue(base + window + 2, dx, xOutside);
+		final double z3 = angleValue(base + window + 3, dx, xOutside);
+		final double z4 = angleValue(base + window + 4, dx, xOutside);
+		
+		// Flap axis spline through those results
+		final int piece = cellY - window;
+		final double w 	 = ys[cellY + 1] - ys[cellY];
+		final double dy  = flapClamped - ys[cellY];
+		final double yv  = piece == 0 ? z0 : piece == 1 ? z1 : piece == 2 ? z2 : z3;
+		final double yvP = piece == 0 ? z1 : piece == 1 ? z2 : piece == 2 ? z3 : z4;
+		final double fd  = akimaDerivative(piece,     ys, window, z0, z1, z2, z3, z4);
+		final double fdP = akimaDerivative(piece + 1, ys, window, z0, z1, z2, z3, z4);
+		final double c2  = hermiteC2(w, yv, yvP, fd, fdP);
+		final double c3  = hermiteC3(w, yv, yvP, fd, fdP);
+		
+		double value = yv + dy * (fd + dy * (c2 + dy * c3));
+		
+		if (linear && flap != flapClamped)
+			value += (fd + dy * (2 * c2 + 3 * c3 * dy)) * (flap - flapClamped);
+		
+		return value;
+	}
+	
+	/**
+	 * Interpolates a batch of points, writing the results into the out array supplied
+	 * 
+	 * @param angles
+	 * @param flaps
+	 * @param out
+	 * @return out
+	 */
+	public double[] interpolate(double[] angles, double[] flaps, double[] out) {
+		for (int i = 0; i < angles.length; i++)
+			out[i] = interpolate(angles[i], flaps[i]);
+		
+		return out;
+	}
+	
+	/**
+	 * Evaluates the precomputed angle axis cubic of a cell/column, linearly extrapolating by xOutside if non-zero
+	 */
+	private double angleValue(int cellColumn, double dx, double xOutside) {
+		final int index = cellColumn * 4;
+		final double c0 = angleCoeffs[index],     c1 = angleCoeffs[index + 1], 
+					 c2 = angleCoeffs[index + 2], c3 = angleCoeffs[index + 3];
+		
+		double value = c0 + dx * (c1 + dx * (c2 + dx * c3));
+		
+		if (xOutside != 0.0)
+			value += (c1 + dx * (2 * c2 + 3 * c3 * dx)) * xOutside;
+		
+		return value;
+	}
+	
+	private static double clamp(double value, double min, double max) {
+		return value < min ? min : (value > max ? max : value);
+	}
+	
+	/**
+	 * Finds the index of the cell [breakPoints[i], breakPoints[i+1]) containing value, starting from the guess supplied. 
+	 * A value equal to the last breakpoint belongs to the last cell
+	 * 
+	 * @param breakPoints
+	 * @param value assumed to be within the bounds of breakPoints
+	 * @param guess
+	 * @return cell index
+	 */
+	static int hunt(double[] breakPoints, double value, int guess) {
+		final int lastCell = breakPoints.length - 2;
+		
+		if (guess >= 0 && guess <= lastCell) {
+			if (value >= breakPoints[guess] && value < breakPoints[guess + 1])
+				return guess;
+			if (guess < lastCell && value >= breakPoints[guess + 1] && value < breakPoints[guess + 2])
+				return guess + 1;
+			if (guess > 0 && value >= breakPoints[guess - 1] && value < breakPoints[guess])
+				return guess - 1;
+		}
+		
+		int low = 0, high = lastCell;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (breakPoints[mid] <= value)
+				low = mid;
+			else
+				high = mid - 1;
+		}
+		
+		return low;
+	}
+	
+	/**
+	 * Index of the first of the 5 breakpoints used for the spline of a cell, chosen the same way as in 
+	 * {@link PiecewiseBicubicSplineInterpolatingFunction}
+	 * 
+	 * @param cell
+	 * @param length number of breakpoints
+	 * @return first breakpoint index of the spline
+	 */
+	private static int spline(int cell, int length) {
+		return Math.max(0, Math.min(cell - 1, length - SPLINE_POINTS));
+	}
+	
+	/**
+	 * Calculates the first derivative at local point index (0 to 4) of a 5 point Akima spline, performing the same operations 
+	 * as {@link AkimaSplineInterpolator} so that the results are identical
+	 * 
+	 * @param index local point index
+	 * @param xs breakpoints
+	 * @param offset index of first breakpoint of spline
+	 * @param z0 to z4 values at each point
+	 * @return first derivative at index
+	 */
+	private static double akimaDerivative(int index, double[] xs, int offset, double z0, double z1, double z2, double z3, double z4) {
+		final double x0 = xs[offset], x1 = xs[offset + 1], x2 = xs[offset + 2], x3 = xs[offset + 3], x4 = xs[offset + 4];
+		
+		switch (index) {
+		case 0:  return differentiateThreePoint(x0 - x0, x1 - x0, x2 - x0, z0, z1, z2);
+		case 1:  return differentiateThreePoint(x1 - x0, x1 - x0, x2 - x0, z0, z1, z2);
+		case 3:  return differentiateThreePoint(x3 - x2, x3 - x2, x4 - x2, z2, z3, z4);
+		case 4:  return differentiateThreePoint(x4 - x2, x3 - x2, x4 - x2, z2, z3, z4);
+		default:
+			final double d0 = (z1 - z0) / (x1 - x0);
+			final double d1 = (z2 - z1) / (x2 - x1);
+			final double d2 = (z3 - z2) / (x3 - x2);
+			final double d3 = (z4 - z3) / (x4 - x3);
+			
+			final double wP = Math.abs(d3 - d2);
+			final double wM = Math.abs(d1 - d0);
+			
+			// Equivalent to Precision.equals(w, 0.0), which allows a difference of 1 ulp
+			if (wP <= Double.MIN_VALUE && wM <= Double.MIN_VALUE)
+				return (((x3 - x2) * d1) + ((x2 - x1) * d2)) / (x3 - x1);
+			else
+				return ((wP * d1) + (wM * d2)) / (wP + wM);
+		}
+	}
+	
+	private static double differentiateThreePoint(double t, double t1, double t2, double z0, double z1, double z2) {
+		final double a = (z2 - z0 - (t2 / t1 * (z1 - z0))) / (t2 * t2 - t1 * t2);
+		final double b = (z1 - z0 - a * t1 * t1) / t1;
+		
+		return (2 * a * t) + b;
+	}
+	
+	private static double hermiteC2(double w, double yv, double yvP, double fd, double fdP) {
+		return (3 * (yvP - yv) / w - 2 * fd - fdP) / w;
+	}
+	
+	private static double hermiteC3(double w, double yv, double yvP, double fd, double fdP) {
+		return (2 * (yv - yvP) / w + fd + fdP) / (w * w);
+	}
+}
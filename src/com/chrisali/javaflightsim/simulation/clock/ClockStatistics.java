@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.clock;
+
+/**
+ * Timing statistics of the frames paced by a {@link SimulationClock}. Jitter is how late each frame started relative to when it was
+ * due; frames that start more than a frame period late are counted as late, and frames whose deadlines were dropped to get back on
+ * schedule are counted as skipped
+ *
+ * @author Christopher Ali
+ *
+ */
+public class ClockStatistics {
+
+	private static final double NANOS_PER_SEC = 1e9;
+
+	private long startNanos;
+	private long lastFrameNanos;
+
+	private long frames = 0;
+	private long lateFrames = 0;
+	private long skippedFrames = 0;
+
+	private double sumJitterNanos = 0;
+	private double sumSquaredJitterNanos = 0;
+	private long maxJitterNanos = 0;
+
+	/**
+	 * Clears all statistics, and starts measuring the achieved frame rate from startNanos
+	 *
+	 * @param startNanos
+	 */
+	synchronized void reset(long startNanos) {
+		this.startNanos = startNanos;
+		lastFrameNanos = startNanos;
+
+		frames = lateFrames = skippedFrames = 0;
+		sumJitterNanos = sumSquaredJitterNanos = 0;
+		maxJitterNanos = 0;
+	}
+
+	/**
+	 * Records a frame that was due at deadlineNanos and started at frameNanos
+	 *
+	 * @param deadlineNanos
+	 * @param frameNanos
+	 * @param late if the frame started more than a frame period after its deadline
+	 */
+	synchronized void recordFrame(long deadlineNanos, long frameNanos, boolean late) {
+		long jitterNanos = frameNanos - deadlineNanos;
+
+		frames++;
+		lastFrameNanos = frameNanos;
+
+		sumJitterNanos += jitterNanos;
+		sumSquaredJitterNanos += (double) jitterNanos * jitterNanos;
+		maxJitterNanos = Math.max(maxJitterNanos, jitterNanos);
+
+		if (late)
+			lateFrames++;
+	}
+
+	synchronized void recordSkippedFrames(long skipped) {
+		skippedFrames += skipped;
+	}
+
+	public synchronized long getFrames() { return frames; }
+
+	public synchronized long getLateFrames() { return lateFrames; }
+
+	public synchronized long getSkippedFrames() { return skippedFrames; }
+
+	/**
+	 * @return frames run per second of wall clock time [Hz]
+	 */
+	public synchronized double getAchievedRateHz() {
+		return (lastFrameNanos > startNanos) ? frames * NANOS_PER_SEC / (lastFrameNanos - startNanos) : 0.0;
+	}
+
+	/**
+	 * @return mean time frames started after their deadlines [ns]
+	 */
+	public synchronized double getMeanJitterNanos() { return (frames > 0) ? sumJitterNanos / frames : 0.0; }
+
+	/**
+	 * @return root mean square of the time frames started after their deadlines [ns]
+	 */
+	public synchronized double getRmsJitterNanos() { return (frames > 0) ? Math.sqrt(sumSquaredJitterNanos / frames) : 0.0; }
+
+	/**
+	 * @return longest time a frame started after its deadline [ns]
+	 */
+	public synchronized long getMaxJitterNanos() { return maxJitterNanos; }
+
+	@Override
+	public synchronized String toString() {
+		return String.format("%d frames at %.2f Hz, jitter mean %.1f us, rms %.1f us, max %.1f us, %d late, %d skipped",
+							 frames, getAchievedRateHz(), getMeanJitterNanos() / 1000, getRmsJitterNanos() / 1000,
+							 maxJitterNanos / 1000.0, lateFrames, skippedFrames);
+	}
+}
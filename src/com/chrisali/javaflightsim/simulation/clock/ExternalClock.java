@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.clock;
+
+import java.util.concurrent.Semaphore;
+
+import com.chrisali.javaflightsim.simulation.setup.ClockMode;
+
+/**
+ * Runs one frame each time {@link #tick()} is called by another thread, such as a hardware synchronization signal or an external
+ * simulation ({@link ClockMode#EXTERNAL}). Ticks received while a frame is running are queued, so that no frames are lost; jitter is
+ * the time from each tick to the start of its frame
+ *
+ * @author Christopher Ali
+ *
+ */
+public class ExternalClock implements SimulationClock {
+
+	private final Semaphore ticks = new Semaphore(0);
+	private final ClockStatistics statistics = new ClockStatistics();
+
+	private volatile long lastTickNanos;
+
+	@Override
+	public void start(int frameRateHz) {
+		lastTickNanos = System.nanoTime();
+		statistics.reset(lastTickNanos);
+	}
+
+	@Override
+	public void awaitNextFrame() throws InterruptedException {
+		ticks.acquire();
+
+		long frameNanos = System.nanoTime();
+		statistics.recordFrame(Math.min(lastTickNanos, frameNanos), frameNanos, ticks.availablePermits() > 0);
+	}
+
+	/**
+	 * Signals that the next frame is due to run
+	 */
+	public void tick() {
+		lastTickNanos = System.nanoTime();
+		ticks.release();
+	}
+
+	@Override
+	public void stop() {
+		ticks.release();
+	}
+
+	@Override
+	public ClockStatistics getStatistics() { return statistics; }
+}
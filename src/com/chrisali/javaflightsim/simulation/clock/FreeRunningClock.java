@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.clock;
+
+import com.chrisali.javaflightsim.simulation.setup.ClockMode;
+
+/**
+ * Runs frames back to back as fast as possible without waiting ({@link ClockMode#FREE_RUNNING}), as in batch analysis; only the
+ * achieved frame rate is of interest, as every frame starts as soon as it is due
+ *
+ * @author Christopher Ali
+ *
+ */
+public class FreeRunningClock implements SimulationClock {
+
+	private final ClockStatistics statistics = new ClockStatistics();
+
+	@Override
+	public void start(int frameRateHz) {
+		statistics.reset(System.nanoTime());
+	}
+
+	@Override
+	public void awaitNextFrame() {
+		long frameNanos = System.nanoTime();
+		statistics.recordFrame(frameNanos, frameNanos, false);
+	}
+
+	@Override
+	public ClockStatistics getStatistics() { return statistics; }
+}
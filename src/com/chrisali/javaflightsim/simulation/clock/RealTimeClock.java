@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.clock;
+
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.simulation.setup.ClockMode;
+import com.chrisali.javaflightsim.simulation.setup.LateFramePolicy;
+
+/**
+ * Paces frames against wall clock time, optionally scaled so that simulation time runs faster or slower than real time
+ * ({@link ClockMode#REAL_TIME} and {@link ClockMode#TIME_SCALED}). The deadline of each frame is calculated from the start time and the
+ * number of frames run, rather than from the end of the previous frame, so that time spent running frames and rounding of the frame
+ * period do not accumulate into drift. The thread is parked until shortly before each deadline, then spins the rest of the way, as
+ * parking alone can overshoot by the length of an operating system scheduler tick.
+ *
+ * <p>When frames fall more than a frame period behind, the {@link LateFramePolicy} decides whether they are run back to back until the
+ * clock has caught up, or whether the missed deadlines are skipped and the schedule continues from the current time. Frames that fall
+ * too far behind to catch up in a reasonable time are always skipped</p>
+ *
+ * @author Christopher Ali
+ *
+ */
+public class RealTimeClock implements SimulationClock {
+
+	private static final Logger logger = LogManager.getLogger(RealTimeClock.class);
+
+	private static final double NANOS_PER_SEC = 1e9;
+
+	// Time before a deadline to stop parking the thread and start spinning [ns]
+	private static final long SPIN_NANOS = 1000000L;
+
+	// Frames further behind than this are skipped even when catching up [ns]
+	private static final long MAX_CATCH_UP_NANOS = 250000000L;
+
+	private final double timeScale;
+	private final LateFramePolicy lateFramePolicy;
+	private final ClockStatistics statistics = new ClockStatistics();
+
+	private double frameNanos;
+	private long startNanos;
+	private long frame;
+
+	/**
+	 * @param timeScale simulation time that passes per unit of wall clock time; 1.0 for real time
+	 * @param lateFramePolicy
+	 */
+	public RealTimeClock(double timeScale, LateFramePolicy lateFramePolicy) {
+		if (!(timeScale > 0))
+			throw new IllegalArgumentException("Time scale must be greater than 0!");
+
+		this.timeScale = timeScale;
+		this.lateFramePolicy = lateFramePolicy;
+	}
+
+	@Override
+	public void start(int frameRateHz) {
+		frameNanos = NANOS_PER_SEC / (frameRateHz * timeScale);
+		startNanos = System.nanoTime();
+		frame = 0;
+
+		statistics.reset(startNanos);
+
+		logger.info("Pacing frames at " + frameRateHz + " Hz, " + timeScale + " times real time...");
+	}
+
+	@Override
+	public void awaitNextFrame() throws InterruptedException {
+		long deadlineNanos = startNanos + Math.round(frame * frameNanos);
+		long lateNanos = System.nanoTime() - deadlineNanos;
+
+		frame++;
+
+		if (lateNanos > frameNanos) {
+			if (lateFramePolicy == LateFramePolicy.SKIP || lateNanos > MAX_CATCH_UP_NANOS) {
+				// Shift the schedule so that this frame is due now, dropping the deadlines missed
+				startNanos += lateNanos;
+				statistics.recordSkippedFrames((long) (lateNanos / frameNanos));
+
+				logger.debug("Frames " + (lateNanos / 1000000) + " ms behind schedule; skipping...");
+			}
+
+			statistics.recordFrame(deadlineNanos, System.nanoTime(), true);
+			return;
+		}
+
+		long remainingNanos;
+		while ((remainingNanos = deadlineNanos - System.nanoTime()) > SPIN_NANOS) {
+			LockSupport.parkNanos(remainingNanos - SPIN_NANOS);
+
+			if (Thread.interrupted())
+				throw new InterruptedException();
+		}
+
+		while (deadlineNanos - System.nanoTime() > 0)
+			Thread.onSpinWait();
+
+		statistics.recordFrame(deadlineNanos, System.nanoTime(), false);
+	}
+
+	@Override
+	public ClockStatistics getStatistics() { return statistics; }
+
+	public double getTimeScale() { return timeScale; }
+
+	public LateFramePolicy getLateFramePolicy() { return lateFramePolicy; }
+}
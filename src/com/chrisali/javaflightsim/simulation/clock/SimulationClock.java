@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.clock;
+
+import com.chrisali.javaflightsim.simulation.FrameScheduler;
+import com.chrisali.javaflightsim.simulation.setup.ClockMode;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+
+/**
+ * Paces the frames of a simulation loop against wall clock time. The loop calls {@link #start(int)} once before its first frame, then
+ * {@link #awaitNextFrame()} before each frame after it, which returns when that frame is due to run. How long it waits depends on the
+ * {@link ClockMode} selected in the simulation configuration. Timing of each frame is recorded in the {@link ClockStatistics} of the clock
+ *
+ * @author Christopher Ali
+ *
+ */
+public interface SimulationClock {
+
+	/**
+	 * Starts timing frames from the current time
+	 *
+	 * @param frameRateHz rate that frames are run at in simulation time, such as {@link FrameScheduler#getMinorFrameRateHz()}
+	 */
+	void start(int frameRateHz);
+
+	/**
+	 * Blocks until the next frame is due to run
+	 *
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	void awaitNextFrame() throws InterruptedException;
+
+	/**
+	 * Releases a loop waiting in {@link #awaitNextFrame()} so that it can stop; has no effect on clocks that only wait for a time
+	 */
+	default void stop() {}
+
+	/**
+	 * @return timing statistics of the frames run since the clock was started
+	 */
+	ClockStatistics getStatistics();
+
+	/**
+	 * Creates a {@link SimulationClock} of the mode selected in the simulation configuration; in {@link Options#ANALYSIS_MODE} the
+	 * simulation always runs as fast as possible with a free running clock
+	 *
+	 * @param configuration
+	 * @return new SimulationClock
+	 */
+	static SimulationClock create(SimulationConfiguration configuration) {
+		ClockMode mode = configuration.getSimulationOptions().contains(Options.ANALYSIS_MODE) ? ClockMode.FREE_RUNNING
+																							   : configuration.getClockMode();
+
+		switch (mode) {
+		case TIME_SCALED:
+			return new RealTimeClock(configuration.getTimeScale(), configuration.getLateFramePolicy());
+		case EXTERNAL:
+			return new ExternalClock();
+		case FREE_RUNNING:
+			return new FreeRunningClock();
+		case REAL_TIME:
+		default:
+			return new RealTimeClock(1.0, configuration.getLateFramePolicy());
+		}
+	}
+}
@@ -19,75 +19,160 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.simulation.datatransfer;
 
-import java.util.Collections;
-import java.util.EnumMap;
+import java.lang.invoke.VarHandle;
 import java.util.Map;
 
 import com.chrisali.javaflightsim.simulation.integration.SimOuts;
 import com.chrisali.javaflightsim.simulation.utilities.SixDOFUtilities;
 
 /**
- *	Passes converted flight data from the simulation to any registered listeners. Relatively thread safe.
+ *	Passes converted flight data from the simulation to any registered listeners. Values are held as primitives indexed by 
+ *	{@link FlightDataType#ordinal()}, and are published with a sequence counter (a seqlock) rather than under a lock: the counter is 
+ *	odd while the simulation is writing, and readers copy the values and retry if the counter was odd or changed while they did so. 
+ *	Readers therefore never block the simulation, nor each other, and always receive values from a single update. Only one thread 
+ *	may call {@link #updateData(double[])}
  */
 public class FlightData {
+	
+	private static final int SIZE = FlightDataType.values().length;
 
-	private Map<FlightDataType, Double> flightData = Collections.synchronizedMap(new EnumMap<FlightDataType, Double>(FlightDataType.class));
+	private final double[] flightData = new double[SIZE];
+	
+	private volatile long sequence = 0;
 	
 	public FlightData() {}
 	
 	/**
-	 * Polls simOut for data, and assigns and converts the values needed to the flightData EnumMap  
+	 * Polls simOutValues (indexed by {@link SimOuts#ordinal()}) for data, and assigns and converts the values needed to the flightData 
+	 * array, indexed by {@link FlightDataType#ordinal()}  
 	 * 
-	 * @param simOut
+	 * @param simOutValues
 	 */
-	public void updateData(Map<SimOuts, Double> simOut) {
-		final Double TAS_TO_IAS = 1/(1+((simOut.get(SimOuts.ALT)/1000)*0.02));
+	public void updateData(double[] simOutValues) {
+		final double TAS_TO_IAS = 1/(1+((simOutValues[SimOuts.ALT.ordinal()]/1000)*0.02));
+		final long start = sequence;
 		
-		synchronized (flightData) {
-			flightData.put(FlightDataType.IAS, SixDOFUtilities.toKnots(simOut.get(SimOuts.TAS)*TAS_TO_IAS));
-			flightData.put(FlightDataType.TAS, SixDOFUtilities.toKnots(simOut.get(SimOuts.TAS)));
-			
-			flightData.put(FlightDataType.VERT_SPEED, simOut.get(SimOuts.ALT_DOT));
-			
-			flightData.put(FlightDataType.ALTITUDE, simOut.get(SimOuts.ALT));
-			
-			flightData.put(FlightDataType.ROLL, Math.toDegrees(simOut.get(SimOuts.PHI)));
-			flightData.put(FlightDataType.PITCH, Math.toDegrees(simOut.get(SimOuts.THETA)));
-			
-			flightData.put(FlightDataType.HEADING, Math.toDegrees(simOut.get(SimOuts.PSI)));
-			
-			flightData.put(FlightDataType.TURN_RATE, Math.toDegrees(simOut.get(SimOuts.PSI_DOT)));
-			flightData.put(FlightDataType.TURN_COORD, simOut.get(SimOuts.AN_Y));
-			
-			flightData.put(FlightDataType.GFORCE, simOut.get(SimOuts.AN_Z));
-			
-			flightData.put(FlightDataType.LATITUDE, Math.toDegrees(simOut.get(SimOuts.LAT)));
-			flightData.put(FlightDataType.LONGITUDE, Math.toDegrees(simOut.get(SimOuts.LON)));
-			
-			flightData.put(FlightDataType.NORTH, simOut.get(SimOuts.NORTH));
-			flightData.put(FlightDataType.EAST, simOut.get(SimOuts.EAST));
+		// Odd sequence tells readers that an update is in progress; fence keeps the writes below from moving ahead of it 
+		sequence = start + 1;
+		VarHandle.storeStoreFence();
+		
+		put(FlightDataType.IAS, SixDOFUtilities.toKnots(simOutValues[SimOuts.TAS.ordinal()]*TAS_TO_IAS));
+		put(FlightDataType.TAS, SixDOFUtilities.toKnots(simOutValues[SimOuts.TAS.ordinal()]));
+		
+		put(FlightDataType.VERT_SPEED, simOutValues[SimOuts.ALT_DOT.ordinal()]);
+		
+		put(FlightDataType.ALTITUDE, simOutValues[SimOuts.ALT.ordinal()]);
+		
+		put(FlightDataType.ROLL, Math.toDegrees(simOutValues[SimOuts.PHI.ordinal()]));
+		put(FlightDataType.PITCH, Math.toDegrees(simOutValues[SimOuts.THETA.ordinal()]));
+		
+		put(FlightDataType.HEADING, Math.toDegrees(simOutValues[SimOuts.PSI.ordinal()]));
+		
+		put(FlightDataType.TURN_RATE, Math.toDegrees(simOutValues[SimOuts.PSI_DOT.ordinal()]));
+		put(FlightDataType.TURN_COORD, simOutValues[SimOuts.AN_Y.ordinal()]);
+		
+		put(FlightDataType.GFORCE, simOutValues[SimOuts.AN_Z.ordinal()]);
+		
+		put(FlightDataType.LATITUDE, Math.toDegrees(simOutValues[SimOuts.LAT.ordinal()]));
+		put(FlightDataType.LONGITUDE, Math.toDegrees(simOutValues[SimOuts.LON.ordinal()]));
+		
+		put(FlightDataType.NORTH, simOutValues[SimOuts.NORTH.ordinal()]);
+		put(FlightDataType.EAST, simOutValues[SimOuts.EAST.ordinal()]);
+		
+		put(FlightDataType.RPM_1, simOutValues[SimOuts.RPM_1.ordinal()]);
+		put(FlightDataType.RPM_2, simOutValues[SimOuts.RPM_2.ordinal()]);
+		put(FlightDataType.RPM_3, simOutValues[SimOuts.RPM_3.ordinal()]);
+		put(FlightDataType.RPM_4, simOutValues[SimOuts.RPM_4.ordinal()]);
+		
+		put(FlightDataType.GEAR, simOutValues[SimOuts.GEAR.ordinal()]);
+		put(FlightDataType.FLAPS, Math.toDegrees(simOutValues[SimOuts.FLAPS.ordinal()]));
+		
+		put(FlightDataType.AOA, Math.abs(simOutValues[SimOuts.ALPHA.ordinal()]));
+		
+		put(FlightDataType.PITCH_RATE, Math.toDegrees(simOutValues[SimOuts.Q.ordinal()]));
+		
+		// Even sequence publishes the update; as a volatile write, none of the writes above can move past it 
+		sequence = start + 2;
+	}
+	
+	private void put(FlightDataType type, double value) { flightData[type.ordinal()] = value; }
+	
+	/**
+	 * Copies a consistent snapshot of the flight data, all from the same update, without locking
+	 * 
+	 * @param destination array indexed by {@link FlightDataType#ordinal()} to copy values to
+	 * @return sequence number of the update copied, which increases by 2 with each update; 0 if never updated
+	 */
+	public long read(double[] destination) {
+		while (true) {
+			final long before = sequence;
 			
-			flightData.put(FlightDataType.RPM_1, simOut.get(SimOuts.RPM_1));
-			flightData.put(FlightDataType.RPM_2, simOut.get(SimOuts.RPM_2));
+			if ((before & 1) == 0) {
+				System.arraycopy(flightData, 0, destination, 0, SIZE);
+				
+				// Keep the copy above from moving past the second read of the sequence
+				VarHandle.loadLoadFence();
+				
+				if (sequence == before)
+					return before;
+			}
 			
-			flightData.put(FlightDataType.GEAR, simOut.get(SimOuts.GEAR));
-			flightData.put(FlightDataType.FLAPS, Math.toDegrees(simOut.get(SimOuts.FLAPS)));
+			Thread.onSpinWait();
+		}
+	}
+	
+	/**
+	 * Refills a snapshot with the latest flight data, from a single update
+	 * 
+	 * @param snapshot
+	 * @return snapshot
+	 */
+	public FlightDataSnapshot read(FlightDataSnapshot snapshot) {
+		snapshot.setSequence(read(snapshot.getValues()));
+		
+		return snapshot;
+	}
+	
+	/**
+	 * @param type
+	 * @return latest value of the flight data type
+	 */
+	public double get(FlightDataType type) {
+		while (true) {
+			final long before = sequence;
 			
-			flightData.put(FlightDataType.AOA, Math.abs(simOut.get(SimOuts.ALPHA)));
+			if ((before & 1) == 0) {
+				double value = flightData[type.ordinal()];
+				VarHandle.loadLoadFence();
+				
+				if (sequence == before)
+					return value;
+			}
 			
-			flightData.put(FlightDataType.PITCH_RATE, Math.toDegrees(simOut.get(SimOuts.Q)));
+			Thread.onSpinWait();
 		}
 	}
+	
+	/**
+	 * @return sequence number of the latest update, which increases by 2 with each update; odd while an update is in progress
+	 */
+	public long getSequence() { return sequence; }
 
+	/**
+	 * Adapter for listeners that read flight data as a Map; each call returns a new {@link FlightDataSnapshot}, so where flight data is
+	 * read every frame, prefer refilling a snapshot with {@link #read(FlightDataSnapshot)}
+	 * 
+	 * @return read-only snapshot of the latest flight data
+	 */
 	public Map<FlightDataType, Double> getFlightData() {
-		return flightData;
+		return read(new FlightDataSnapshot());
 	}
 
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
 		
-		for (Map.Entry<FlightDataType, Double> entry : flightData.entrySet()) {
+		for (Map.Entry<FlightDataType, Double> entry : getFlightData().entrySet()) {
 			 sb.append(entry.getKey().toString()).append(": ").append(entry.getValue())
 			   .append(" ").append(entry.getKey().getUnit()).append("\n");
 		}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.datatransfer;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Consistent copy of the values of {@link FlightData} taken at a single step of the simulation, stored as primitives indexed by 
+ * {@link FlightDataType#ordinal()}. Values can be read directly with {@link #getValue(FlightDataType)}, or through the read-only 
+ * Map interface that {@link FlightDataListener} objects have always used; a snapshot is owned by the thread that reads it, and can 
+ * be refilled in place with {@link FlightData#read(FlightDataSnapshot)} each frame rather than reallocated 
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class FlightDataSnapshot extends AbstractMap<FlightDataType, Double> {
+	
+	private static final FlightDataType[] TYPES = FlightDataType.values();
+	
+	private final double[] values = new double[TYPES.length];
+	private long sequence;
+	
+	private final Set<Entry<FlightDataType, Double>> entrySet = new AbstractSet<Entry<FlightDataType, Double>>() {
+		@Override
+		public Iterator<Entry<FlightDataType, Double>> iterator() {
+			return new Iterator<Entry<FlightDataType, Double>>() {
+				private int index = 0;
+				
+				@Override
+				public boolean hasNext() { return index < TYPES.length; }
+
+				@Override
+				public Entry<FlightDataType, Double> next() {
+					if (!hasNext())
+						throw new NoSuchElementException();
+					
+					FlightDataType type = TYPES[index];
+					return new SimpleImmutableEntry<>(type, values[index++]);
+				}
+			};
+		}
+
+		@Override
+		public int size() { return TYPES.length; }
+	};
+	
+	/**
+	 * @param type
+	 * @return value of the flight data type in this snapshot
+	 */
+	public double getValue(FlightDataType type) { return values[type.ordinal()]; }
+	
+	/**
+	 * @return values of this snapshot indexed by {@link FlightDataType#ordinal()}
+	 */
+	public double[] getValues() { return values; }
+	
+	/**
+	 * @return sequence number of the update of {@link FlightData} that this snapshot was copied from; 0 if never updated 
+	 */
+	public long getSequence() { return sequence; }
+	
+	void setSequence(long sequence) { this.sequence = sequence; }
+	
+	@Override
+	public Double get(Object key) {
+		return (key instanceof FlightDataType) ? values[((FlightDataType) key).ordinal()] : null;
+	}
+	
+	@Override
+	public boolean containsKey(Object key) { return key instanceof FlightDataType; }
+	
+	@Override
+	public int size() { return TYPES.length; }
+
+	@Override
+	public Set<Entry<FlightDataType, Double>> entrySet() { return entrySet; }
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.datatransfer;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+
+/**
+ * Snapshot of the simulation outputs at the end of a step of the simulation, indexed by {@link SimOuts#ordinal()}. Snapshots are 
+ * handed from the physics thread to the display through a {@link TripleBuffer}, and are overwritten in place rather than reallocated 
+ * each step; the display interpolates between the two most recent snapshots using {@link #interpolate(SimulationState, SimulationState, double, double[])}
+ * so that motion appears smooth when it renders at a different rate than the simulation runs
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class SimulationState {
+	
+	private static final double TWO_PI = 2*Math.PI;
+	
+	// Outputs interpolated linearly between snapshots; all others are held at their most recent values 
+	private static final SimOuts[] LINEAR_OUTS  = {SimOuts.TIME, SimOuts.NORTH, SimOuts.EAST, SimOuts.ALT};
+	private static final SimOuts[] ANGULAR_OUTS = {SimOuts.PHI, SimOuts.THETA, SimOuts.PSI};
+	
+	private final double[] simOutValues = new double[SimOuts.values().length];
+	private long publishedNanos;
+	
+	/**
+	 * Copies simulation outputs into this snapshot
+	 * 
+	 * @param simOutValues outputs indexed by {@link SimOuts#ordinal()}
+	 * @param publishedNanos time that the outputs were produced, from {@link System#nanoTime()}
+	 */
+	public void update(double[] simOutValues, long publishedNanos) {
+		System.arraycopy(simOutValues, 0, this.simOutValues, 0, this.simOutValues.length);
+		this.publishedNanos = publishedNanos;
+	}
+	
+	/**
+	 * Copies the contents of another snapshot into this one
+	 * 
+	 * @param other
+	 */
+	public void set(SimulationState other) {
+		update(other.simOutValues, other.publishedNanos);
+	}
+	
+	/**
+	 * Blends two snapshots of the simulation, interpolating position and attitude; attitude is interpolated along the shortest way 
+	 * between the two angles, so that heading passing through north does not swing the wrong way around, and all other outputs take 
+	 * the values of the more recent snapshot
+	 * 
+	 * @param previous older snapshot
+	 * @param current newer snapshot
+	 * @param alpha fraction of the way from previous to current, between 0 and 1
+	 * @param result outputs indexed by {@link SimOuts#ordinal()} to write the blended values to
+	 * @return result
+	 */
+	public static double[] interpolate(SimulationState previous, SimulationState current, double alpha, double[] result) {
+		System.arraycopy(current.simOutValues, 0, result, 0, current.simOutValues.length);
+		
+		for (SimOuts out : LINEAR_OUTS) {
+			int i = out.ordinal();
+			result[i] = previous.simOutValues[i] + alpha * (current.simOutValues[i] - previous.simOutValues[i]); 
+		}
+		
+		for (SimOuts out : ANGULAR_OUTS) {
+			int i = out.ordinal();
+			result[i] = previous.simOutValues[i] + alpha * Math.IEEEremainder(current.simOutValues[i] - previous.simOutValues[i], TWO_PI); 
+		}
+		
+		// Keep heading between 0 and 2*pi, as it is in the simulation
+		int psi = SimOuts.PSI.ordinal();
+		result[psi] = ((result[psi] % TWO_PI) + TWO_PI) % TWO_PI;
+		
+		return result;
+	}
+	
+	/**
+	 * @return simulation outputs indexed by {@link SimOuts#ordinal()}
+	 */
+	public double[] getSimOutValues() { return simOutValues; }
+	
+	public double getTime() { return simOutValues[SimOuts.TIME.ordinal()]; }
+	
+	public long getPublishedNanos() { return publishedNanos; }
+}
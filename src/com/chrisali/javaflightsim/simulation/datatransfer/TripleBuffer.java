@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.datatransfer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free handoff of data from one writer thread to one reader thread, so that neither thread ever waits for the other. Three 
+ * instances of the data are allocated up front: the writer fills its write buffer and calls {@link #publish()}, which swaps it 
+ * with a shared middle buffer; the reader calls {@link #update()}, which swaps its read buffer with the middle buffer if anything new 
+ * has been published since it last did so. The reader therefore always sees the most recently published data, complete and unchanged 
+ * until its next update, while the writer goes on to fill a buffer that the reader is not looking at. Data published faster than it is 
+ * read is dropped, rather than queued 
+ * 
+ * <p>Only one thread may write and only one thread may read, and each must only use the buffer most recently returned to it</p>
+ * 
+ * @author Christopher Ali
+ *
+ * @param <T> type of data handed off, which is reused rather than reallocated
+ */
+public class TripleBuffer<T> {
+	
+	// Index of the middle buffer is kept in the lower bits of the state, with a flag set when it holds data not yet read 
+	private static final int INDEX_MASK = 0b011;
+	private static final int FRESH      = 0b100;
+	
+	private final Object[] buffers = new Object[3];
+	private final AtomicInteger state = new AtomicInteger(1);
+	
+	private int writeIndex = 0;
+	private int readIndex  = 2;
+	
+	/**
+	 * @param factory creates each of the three buffers
+	 */
+	public TripleBuffer(Supplier<T> factory) {
+		for (int i = 0; i < buffers.length; i++)
+			buffers[i] = factory.get();
+	}
+	
+	/**
+	 * @return buffer that the writer thread can fill before calling {@link #publish()}
+	 */
+	@SuppressWarnings("unchecked")
+	public T getWriteBuffer() { return (T) buffers[writeIndex]; }
+	
+	/**
+	 * Makes the contents of the write buffer available to the reader thread, and gives the writer a different buffer to fill
+	 */
+	public void publish() {
+		writeIndex = state.getAndSet(writeIndex | FRESH) & INDEX_MASK;
+	}
+	
+	/**
+	 * Swaps the read buffer for the most recently published one, if one has been published since the last update
+	 * 
+	 * @return if the read buffer now holds newly published data
+	 */
+	public boolean update() {
+		if ((state.get() & FRESH) == 0)
+			return false;
+		
+		readIndex = state.getAndSet(readIndex) & INDEX_MASK;
+		
+		return true;
+	}
+	
+	/**
+	 * @return buffer holding the data published most recently as of the last {@link #update()} by the reader thread 
+	 */
+	@SuppressWarnings("unchecked")
+	public T getReadBuffer() { return (T) buffers[readIndex]; }
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.enviroment;
+
+/**
+ * Holds the atmospheric parameters and wind components at the aircraft's current altitude as primitives. An {@link Environment}
+ * owns a single instance, which it updates in place each time {@link Environment#getAndUpdateAtmosphereState(double[])} is called,
+ * so consumers that need to keep values from an earlier update should take a copy with {@link #AtmosphereState(AtmosphereState)}
+ */
+public class AtmosphereState {
+	private double temperature;
+	private double pressure;
+	private double density;
+	private double speedOfSound;
+	private double gravity;
+	
+	private double windSpeedN;
+	private double windSpeedE;
+	private double windSpeedD;
+	
+	public AtmosphereState() {}
+	
+	/**
+	 * Copy constructor
+	 * 
+	 * @param other
+	 */
+	public AtmosphereState(AtmosphereState other) {
+		temperature  = other.temperature;
+		pressure     = other.pressure;
+		density      = other.density;
+		speedOfSound = other.speedOfSound;
+		gravity      = other.gravity;
+		windSpeedN   = other.windSpeedN;
+		windSpeedE   = other.windSpeedE;
+		windSpeedD   = other.windSpeedD;
+	}
+	
+	void setAtmosphere(double temperature, double pressure, double density, double speedOfSound, double gravity) {
+		this.temperature  = temperature;
+		this.pressure     = pressure;
+		this.density      = density;
+		this.speedOfSound = speedOfSound;
+		this.gravity      = gravity;
+	}
+	
+	void setWind(double windSpeedN, double windSpeedE, double windSpeedD) {
+		this.windSpeedN = windSpeedN;
+		this.windSpeedE = windSpeedE;
+		this.windSpeedD = windSpeedD;
+	}
+	
+	/**
+	 * Gets a parameter by its {@link EnvironmentParameters} key, for consumers such as plots and displays that iterate over parameters
+	 * 
+	 * @param parameter
+	 * @return value of the parameter, or 0.0 if not modeled
+	 */
+	public double get(EnvironmentParameters parameter) {
+		switch (parameter) {
+			case GRAVITY:      return gravity;
+			case T:            return temperature;
+			case P:            return pressure;
+			case RHO:          return density;
+			case A:            return speedOfSound;
+			case WIND_SPEED_N: return windSpeedN;
+			case WIND_SPEED_E: return windSpeedE;
+			case WIND_SPEED_D: return windSpeedD;
+			default:           return 0.0;
+		}
+	}
+
+	/**
+	 * @return temperature (deg R), including the difference from ISA
+	 */
+	public double getTemperature() { return temperature; }
+
+	/**
+	 * @return pressure (lbf/ft^2)
+	 */
+	public double getPressure() { return pressure; }
+
+	/**
+	 * @return density (slug/ft^3)
+	 */
+	public double getDensity() { return density; }
+
+	/**
+	 * @return speed of sound (ft/sec)
+	 */
+	public double getSpeedOfSound() { return speedOfSound; }
+
+	/**
+	 * @return gravitational acceleration (ft/sec^2)
+	 */
+	public double getGravity() { return gravity; }
+
+	/**
+	 * @return north component of wind speed (ft/sec)
+	 */
+	public double getWindSpeedN() { return windSpeedN; }
+
+	/**
+	 * @return east component of wind speed (ft/sec)
+	 */
+	public double getWindSpeedE() { return windSpeedE; }
+
+	/**
+	 * @return down component of wind speed (ft/sec)
+	 */
+	public double getWindSpeedD() { return windSpeedD; }
+
+	@Override
+	public String toString() {
+		return "T: " + temperature + " R, P: " + pressure + " lbf/ft^2, rho: " + density + " slug/ft^3, a: " + speedOfSound 
+				+ " ft/sec, g: " + gravity + " ft/sec^2, wind: [" + windSpeedN + ", " + windSpeedE + ", " + windSpeedD + "] ft/sec";
+	}
+}
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.enviroment;
+
+/**
+ * Precomputed table of the 1976 NASA Standard Atmosphere used by {@link Environment}, sampled at a fine altitude resolution so that 
+ * each lookup is a linear interpolation between two samples instead of calls to {@link Math#pow(double, double)} and {@link Math#sqrt(double)}. 
+ * Pressure, density and gravity do not depend on the temperature difference from ISA, so those samples are computed once and shared by 
+ * all tables; only temperature and speed of sound are computed for each temperature difference. Altitudes outside of the table, and 
+ * those within the sample interval containing the tropopause, where the model's pressure and density are discontinuous, are calculated 
+ * directly with the methods of {@link Environment}. Tables are immutable, so a single table can be shared between threads
+ */
+public class AtmosphereTable {
+	
+	/** Altitude of the first sample (ft) */
+	public static final double MIN_ALTITUDE = -2000;
+	
+	/** Altitude of the last sample (ft) */
+	public static final double MAX_ALTITUDE = 100000;
+	
+	/** Altitude between samples (ft) */
+	public static final double RESOLUTION = 10;
+	
+	private static final int SAMPLES = (int) ((MAX_ALTITUDE - MIN_ALTITUDE) / RESOLUTION) + 1;
+	
+	private static final int TROPOPAUSE_INTERVAL = (int) ((Environment.HT_TROP - MIN_ALTITUDE) / RESOLUTION);
+	
+	private static final double[] PRESSURE = new double[SAMPLES];
+	private static final double[] DENSITY  = new double[SAMPLES];
+	private static final double[] GRAVITY  = new double[SAMPLES];
+	
+	static {
+		for (int i = 0; i < SAMPLES; i++) {
+			double altitude = MIN_ALTITUDE + i * RESOLUTION;
+			
+			PRESSURE[i] = Environment.calculatePressure(altitude);
+			DENSITY[i]  = Environment.calculateDensity(altitude);
+			GRAVITY[i]  = Environment.calculateGravity(altitude);
+		}
+	}
+	
+	private static final AtmosphereTable STANDARD = new AtmosphereTable(0.0);
+	
+	private final double deltaIsa;
+	private final double[] temperature  = new double[SAMPLES];
+	private final double[] speedOfSound = new double[SAMPLES];
+	
+	private AtmosphereTable(double deltaIsa) {
+		this.deltaIsa = deltaIsa;
+		
+		for (int i = 0; i < SAMPLES; i++) {
+			double altitude = MIN_ALTITUDE + i * RESOLUTION;
+			
+			temperature[i]  = Environment.calculateTemperature(altitude, deltaIsa);
+			speedOfSound[i] = Environment.calculateSpeedOfSound(altitude, deltaIsa);
+		}
+	}
+	
+	/**
+	 * Gets a table for a temperature difference from ISA; the standard day table is built once and shared
+	 * 
+	 * @param deltaIsa difference in temperature from ISA (deg F)
+	 * @return atmosphere table
+	 */
+	public static AtmosphereTable forDeltaIsa(double deltaIsa) {
+		return (deltaIsa == 0.0) ? STANDARD : new AtmosphereTable(deltaIsa);
+	}
+	
+	/**
+	 * Interpolates temperature, pressure, density, speed of sound and gravity at an altitude, and writes them into the state supplied
+	 * 
+	 * @param altitude (ft)
+	 * @param state
+	 * @return state
+	 */
+	public AtmosphereState lookup(double altitude, AtmosphereState state) {
+		double position = (altitude - MIN_ALTITUDE) / RESOLUTION;
+		int i = (int) position;
+		
+		if (!isTabulated(altitude, i)) {
+			state.setAtmosphere(Environment.calculateTemperature(altitude, deltaIsa),
+								Environment.calculatePressure(altitude),
+								Environment.calculateDensity(altitude),
+								Environment.calculateSpeedOfSound(altitude, deltaIsa),
+								Environment.calculateGravity(altitude));
+			return state;
+		}
+		
+		double fraction = position - i;
+		
+		state.setAtmosphere(interpolate(temperature,  i, fraction),
+							interpolate(PRESSURE,     i, fraction),
+							interpolate(DENSITY,      i, fraction),
+							interpolate(speedOfSound, i, fraction),
+							interpolate(GRAVITY,      i, fraction));
+		return state;
+	}
+	
+	/**
+	 * Interpolates density and speed of sound at the altitudes of n aircraft, writing them into the columns supplied
+	 * 
+	 * @param altitudes (ft)
+	 * @param densities (slug/ft^3)
+	 * @param speedsOfSound (ft/sec)
+	 * @param n number of aircraft
+	 */
+	public void lookup(double[] altitudes, double[] densities, double[] speedsOfSound, int n) {
+		for (int j = 0; j < n; j++) {
+			double altitude = altitudes[j];
+			double position = (altitude - MIN_ALTITUDE) / RESOLUTION;
+			int i = (int) position;
+			
+			if (!isTabulated(altitude, i)) {
+				densities[j] 	 = Environment.calculateDensity(altitude);
+				speedsOfSound[j] = Environment.calculateSpeedOfSound(altitude, deltaIsa);
+				continue;
+			}
+			
+			double fraction = position - i;
+			
+			densities[j] 	 = interpolate(DENSITY,      i, fraction);
+			speedsOfSound[j] = interpolate(speedOfSound, i, fraction);
+		}
+	}
+	
+	/**
+	 * @param altitude (ft)
+	 * @return density (slug/ft^3) at altitude
+	 */
+	public double getDensity(double altitude) {
+		double position = (altitude - MIN_ALTITUDE) / RESOLUTION;
+		int i = (int) position;
+		
+		if (!isTabulated(altitude, i))
+			return Environment.calculateDensity(altitude);
+		
+		return interpolate(DENSITY, i, position - i);
+	}
+	
+	/**
+	 * @param altitude (ft)
+	 * @return speed of sound (ft/sec) at altitude
+	 */
+	public double getSpeedOfSound(double altitude) {
+		double position = (altitude - MIN_ALTITUDE) / RESOLUTION;
+		int i = (int) position;
+		
+		if (!isTabulated(altitude, i))
+			return Environment.calculateSpeedOfSound(altitude, deltaIsa);
+		
+		return interpolate(speedOfSound, i, position - i);
+	}
+	
+	/**
+	 * @return difference in temperature from ISA (deg F) that this table was built for
+	 */
+	public double getDeltaIsa() { return deltaIsa; }
+	
+	private static boolean isTabulated(double altitude, int interval) {
+		return altitude >= MIN_ALTITUDE && altitude < MAX_ALTITUDE && interval != TROPOPAUSE_INTERVAL;
+	}
+	
+	private static double interpolate(double[] samples, int i, double fraction) {
+		return samples[i] + (samples[i + 1] - samples[i]) * fraction;
+	}
+}
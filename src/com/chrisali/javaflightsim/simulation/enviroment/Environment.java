@@ -19,15 +19,16 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.simulation.enviroment;
 
-import java.util.EnumMap;
-import java.util.Map;
-
 import com.chrisali.javaflightsim.simulation.utilities.SaturationUtilities;
 import com.chrisali.javaflightsim.simulation.utilities.SixDOFUtilities;
 
 /**
  * This class calculates atmospheric parameters as a function of height, and the gravitational acceleration constant.
- * It uses the 1976 NASA Standard Atmosphere model, and assumes that gravity is constant in the Z direction.
+ * It uses the 1976 NASA Standard Atmosphere model, and assumes that gravity is constant in the Z direction. Weather (wind and 
+ * temperature difference from ISA) is held by each instance, so that each simulation run can have its own environment; 
+ * those calculations that do not depend on weather are static. Atmospheric parameters are looked up each step from an 
+ * {@link AtmosphereTable}, which is only rebuilt when the temperature difference from ISA changes, and wind components are 
+ * only recalculated when the wind speed or direction changes
  */
 public class Environment {
 	private static final double RADIUS_EARTH = 3959*5280;
@@ -39,63 +40,117 @@ public class Environment {
 	private static final double T_SSL = 518.67;
 	private static final double GRAVITY = 32.17;
 	
-	private static final double HT_TROP = 36089;
+	static final double HT_TROP = 36089;
 	private static final double P_TROP = 472.6758;
 	private static final double RHO_TROP = 0.000706115;
 	
 	private static final double ENV_CONST_TROP = 0.0000068755;
 	private static final double ENV_CONST_STRAT = -0.0000480637;
 	
-	private static Map<EnvironmentParameters, Double> environmentParams = new EnumMap<>(EnvironmentParameters.class);
+	private final AtmosphereState atmosphereState = new AtmosphereState();
+	private AtmosphereTable atmosphereTable = AtmosphereTable.forDeltaIsa(0.0);
+	
+	private double windSpeed = 0.0;
+	private double windDir   = 0.0;
+	private double deltaIsa  = 0.0;
 	
-	private static double windSpeed = 0.0;
-	private static double windDir   = 0.0;
-	private static double deltaIsa  = 0.0;
+	private double windSpeedN = 0.0;
+	private double windSpeedE = 0.0;
 
 	/**
-	 * Calculates the temperature (R), presssure (lb/ft^2), density (slug/ft^3), speed of sound (ft/sec) and gravity (ft/sec^2)
-	 * for a given height above Earth, then calculates the wind speed components for a given speed and direction,
-	 *  and then places that data into an EnumMap with {@link EnvironmentParameters} as the keys 
+	 * Looks up the temperature (R), presssure (lb/ft^2), density (slug/ft^3), speed of sound (ft/sec) and gravity (ft/sec^2)
+	 * for a given height above Earth, along with the wind speed components for the current speed and direction, and writes them
+	 * into this environment's {@link AtmosphereState}. The same state object is updated in place and returned on every call
 	 * 
 	 * @param NEDPosition
-	 * @return EnumMap of environment parameters
+	 * @return atmosphere state at the altitude of NEDPosition
 	 */
-	public static Map<EnvironmentParameters, Double> getAndUpdateEnvironmentParams(double[] NEDPosition) {
-		double temp, rho, p, a, g, windN, windE, windD;
-		
-		// Troposphere
-		if (NEDPosition[2] < HT_TROP) {
-			temp = T_SSL-(0.003566*NEDPosition[2]) + deltaIsa;                   // (deg R)
-			p = P_SSL*Math.pow((1-(ENV_CONST_TROP*NEDPosition[2])),5.2559);      // (lbf/ft^2)
-			rho = RHO_SSL*Math.pow((1-(ENV_CONST_TROP*NEDPosition[2])),4.2559);  // (slug/ft^3) 												
-		}
-		// Stratosphere
-		else {
-			temp = 389.97 + deltaIsa; 											 // (degR)
-			p = P_TROP*Math.exp(ENV_CONST_STRAT*(NEDPosition[2]-HT_TROP)); 		 // (lbf/ft^2)
-			rho = RHO_TROP*Math.exp(ENV_CONST_STRAT*(NEDPosition[2]-HT_TROP));   // (slug/ft^3)			
-		}
-		
-		a = Math.sqrt(GAMMA*R*temp);     									 // (ft/sec)
-		
-		g = GRAVITY*(RADIUS_EARTH/(RADIUS_EARTH+NEDPosition[2]));
-		
-		windN = windSpeed*Math.cos(windDir);
-		windE = windSpeed*Math.sin(windDir);
-		windD = 0.0;
+	public AtmosphereState getAndUpdateAtmosphereState(double[] NEDPosition) {
+		atmosphereTable.lookup(NEDPosition[2], atmosphereState);
+		atmosphereState.setWind(windSpeedN, windSpeedE, 0.0);
 		
-		environmentParams.put(EnvironmentParameters.T,       	   temp);
-		environmentParams.put(EnvironmentParameters.P,       		  p);
-		environmentParams.put(EnvironmentParameters.RHO,     		rho);
-		environmentParams.put(EnvironmentParameters.A,       	  	  a);
-		environmentParams.put(EnvironmentParameters.GRAVITY, 	  	  g);
-		environmentParams.put(EnvironmentParameters.WIND_SPEED_N, windN);
-		environmentParams.put(EnvironmentParameters.WIND_SPEED_E, windE);
-		environmentParams.put(EnvironmentParameters.WIND_SPEED_D, windD);
-		
-		return environmentParams;
+		return atmosphereState;
+	}
+	
+	/**
+	 * @return atmosphere state as of the last call to {@link #getAndUpdateAtmosphereState(double[])}
+	 */
+	public AtmosphereState getAtmosphereState() { return atmosphereState; }
+	
+	/**
+	 * @return table of atmospheric parameters for this environment's temperature difference from ISA
+	 */
+	public AtmosphereTable getAtmosphereTable() { return atmosphereTable; }
+	
+	/**
+	 * @param altitude (ft)
+	 * @return temperature (deg R) at altitude, including the difference from ISA
+	 */
+	public double calculateTemperature(double altitude) { return calculateTemperature(altitude, deltaIsa); }
+	
+	/**
+	 * @param altitude (ft)
+	 * @param deltaIsa difference in temperature from ISA (deg F)
+	 * @return temperature (deg R) at altitude, including the difference from ISA
+	 */
+	public static double calculateTemperature(double altitude, double deltaIsa) {
+		if (altitude < HT_TROP)
+			return T_SSL-(0.003566*altitude) + deltaIsa;   // Troposphere
+		else
+			return 389.97 + deltaIsa; 					   // Stratosphere
+	}
+	
+	/**
+	 * @param altitude (ft)
+	 * @return pressure (lbf/ft^2) at altitude
+	 */
+	public static double calculatePressure(double altitude) {
+		if (altitude < HT_TROP)
+			return P_SSL*Math.pow((1-(ENV_CONST_TROP*altitude)),5.2559);   // Troposphere
+		else
+			return P_TROP*Math.exp(ENV_CONST_STRAT*(altitude-HT_TROP));    // Stratosphere
 	}
 	
+	/**
+	 * @param altitude (ft)
+	 * @return density (slug/ft^3) at altitude
+	 */
+	public static double calculateDensity(double altitude) {
+		if (altitude < HT_TROP)
+			return RHO_SSL*Math.pow((1-(ENV_CONST_TROP*altitude)),4.2559);  // Troposphere
+		else
+			return RHO_TROP*Math.exp(ENV_CONST_STRAT*(altitude-HT_TROP));   // Stratosphere
+	}
+	
+	/**
+	 * @param altitude (ft)
+	 * @return speed of sound (ft/sec) at altitude
+	 */
+	public double calculateSpeedOfSound(double altitude) {return calculateSpeedOfSound(altitude, deltaIsa);}
+	
+	/**
+	 * @param altitude (ft)
+	 * @param deltaIsa difference in temperature from ISA (deg F)
+	 * @return speed of sound (ft/sec) at altitude
+	 */
+	public static double calculateSpeedOfSound(double altitude, double deltaIsa) {return Math.sqrt(GAMMA*R*calculateTemperature(altitude, deltaIsa));}
+	
+	/**
+	 * @param altitude (ft)
+	 * @return gravitational acceleration (ft/sec^2) at altitude
+	 */
+	public static double calculateGravity(double altitude) {return GRAVITY*(RADIUS_EARTH/(RADIUS_EARTH+altitude));}
+	
+	/**
+	 * @return north component of wind speed (ft/sec)
+	 */
+	public double getWindSpeedNorth() {return windSpeedN;}
+	
+	/**
+	 * @return east component of wind speed (ft/sec)
+	 */
+	public double getWindSpeedEast() {return windSpeedE;}
+	
 	/**
 	 * @return Gravity (ft/sec^2) as a double array vector
 	 */
@@ -106,8 +161,9 @@ public class Environment {
 	 * 
 	 * @param windSpeed
 	 */
-	public static void setWindSpeed(double windSpeed) {
-		Environment.windSpeed = (windSpeed > 100) ? SixDOFUtilities.toFtPerSec(100) : SixDOFUtilities.toFtPerSec(windSpeed);
+	public void setWindSpeed(double windSpeed) {
+		this.windSpeed = (windSpeed > 100) ? SixDOFUtilities.toFtPerSec(100) : SixDOFUtilities.toFtPerSec(windSpeed);
+		updateWindComponents();
 	}
 	
 	/**
@@ -115,13 +171,25 @@ public class Environment {
 	 * 
 	 * @param windDir
 	 */
-	public static void setWindDir(double windDir) {Environment.windDir = SaturationUtilities.twoPiBounding(Math.toRadians(windDir)-Math.PI);}
+	public void setWindDir(double windDir) {
+		this.windDir = SaturationUtilities.twoPiBounding(Math.toRadians(windDir)-Math.PI);
+		updateWindComponents();
+	}
 
 	/**
 	 * Sets the difference in temperature from ISA (59 F, 15 C at Standard Sea Level)
 	 * 
 	 * @param deltaIsa
 	 */
-	public static void setDeltaIsa(double deltaIsa) {Environment.deltaIsa = deltaIsa;}
+	public void setDeltaIsa(double deltaIsa) {
+		if (deltaIsa != this.deltaIsa)
+			atmosphereTable = AtmosphereTable.forDeltaIsa(deltaIsa);
+		
+		this.deltaIsa = deltaIsa;
+	}
 	
+	private void updateWindComponents() {
+		windSpeedN = windSpeed*Math.cos(windDir);
+		windSpeedE = windSpeed*Math.sin(windDir);
+	}
 }
@@ -20,7 +20,7 @@
 package com.chrisali.javaflightsim.simulation.enviroment;
 
 /**
- * Used in {@link Environment} as the key to the environmentParameters EnumMap
+ * Used as the key to parameters of {@link AtmosphereState}, calculated by {@link Environment}
  */
 public enum EnvironmentParameters {
 	GRAVITY		   ("gravity"),
@@ -19,7 +19,8 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.simulation.flightcontrols;
 
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
@@ -37,6 +38,7 @@ import com.chrisali.javaflightsim.simulation.flightcontrols.analysis.AnalysisCon
 import com.chrisali.javaflightsim.simulation.flightcontrols.analysis.AnalysisControls;
 import com.chrisali.javaflightsim.simulation.setup.KeyCommand;
 import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.RateGroup;
 import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
 import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
 
@@ -45,6 +47,10 @@ import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
  * {@link InputDataListener}. Also contains {@link AnalysisControlInput} functionality when simulation runs 
  * in Analysis Mode
  * 
+ * <p>Input data is received on the display thread, while the controls are stepped on the simulation thread. Inputs received are 
+ * therefore held until the next step, when they are applied to the controls on the simulation thread, so that the flight controls 
+ * state is only ever changed by the thread that reads it</p>
+ * 
  * @author Christopher Ali
  *
  */
@@ -58,8 +64,28 @@ public class FlightControlsStateManager implements Steppable, InputDataListener
 
 	private EnumSet<Options> options;
 	private AtomicInteger simTimeMS;
+	
+	// Inputs received since the last step, guarded by their own locks
+	private final List<KeyCommand> pendingKeyCommands = new ArrayList<>();
+	private final Map<FlightControl, Float> pendingJoystickInputs = new EnumMap<>(FlightControl.class);
+	
+	// Inputs being applied during a step, reused each step 
+	private final List<KeyCommand> stepKeyCommands = new ArrayList<>();
+	private final Map<FlightControl, Float> stepJoystickInputs = new EnumMap<>(FlightControl.class);
 
 	public FlightControlsStateManager(SimulationConfiguration configuration, AtomicInteger simTimeMS) {
+		this(configuration, simTimeMS, FileUtilities.readAnalysisControls());
+	}
+	
+	/**
+	 * Creates a flight controls manager using the {@link AnalysisControls} supplied, rather than those read from the
+	 * configuration file, so that each simulation run can have its own analysis inputs
+	 * 
+	 * @param configuration
+	 * @param simTimeMS
+	 * @param analysisControls
+	 */
+	public FlightControlsStateManager(SimulationConfiguration configuration, AtomicInteger simTimeMS, AnalysisControls analysisControls) {
 		logger.info("Initializing flight controls...");
 
 		options = configuration.getSimulationOptions();
@@ -68,7 +94,7 @@ public class FlightControlsStateManager implements Steppable, InputDataListener
 
 		this.simTimeMS = simTimeMS;
 
-		analysisControls = FileUtilities.readAnalysisControls();
+		this.analysisControls = analysisControls;
 		if (analysisControls != null) {
 			logger.info(analysisControls.getAnalysisInputs().size() + " analysis flight control inputs found:");
 			logger.info(analysisControls.toString());
@@ -84,42 +110,72 @@ public class FlightControlsStateManager implements Steppable, InputDataListener
 			if (options.contains(Options.RESET))
 				actuator.resetTrimTabs();
 			
+			applyPendingInputs();
+			
 			limitControls(controlsState);
 		} catch (Exception e) {
 			logger.error("Flight controls encountered an error!", e);
 		}
 	}
 
+	/**
+	 * Holds the key commands and joystick inputs received until the controls are next stepped. Each key command received is applied 
+	 * once per input received, even if several are received before the next step, while only the most recent value of each joystick 
+	 * axis is applied 
+	 */
 	@Override
 	public void onInputDataReceived(InputData inputData) {
 		try {
-			List<KeyCommand> keyCommands = Collections.synchronizedList(inputData.getKeyCommands());
-			Map<FlightControl, Float> joystickInputs = Collections.synchronizedMap(inputData.getJoystickInputs());
+			List<KeyCommand> keyCommands = inputData.getKeyCommands();
+			Map<FlightControl, Float> joystickInputs = inputData.getJoystickInputs();
 
 			synchronized (keyCommands) {
-				Iterator<KeyCommand> i = keyCommands.iterator();
-				while (i.hasNext()) {
-					actuator.handleParameterChange(i.next(), 1.0f);
+				synchronized (pendingKeyCommands) {
+					pendingKeyCommands.addAll(keyCommands);
 				}
 			}
 
-			Set<FlightControl> s = joystickInputs.keySet();
 			synchronized (joystickInputs) {
-				Iterator<FlightControl> i = s.iterator();
-				while (i.hasNext()) {
-					FlightControl axis = i.next();
-					actuator.handleParameterChange(axis, joystickInputs.get(axis));
+				synchronized (pendingJoystickInputs) {
+					pendingJoystickInputs.putAll(joystickInputs);
 				}
 			}
 		} catch (Exception e) {
 			logger.error("Flight controls encountered an error!", e);
 		}
 	}
+	
+	/**
+	 * Applies inputs received since the last step to the flight controls using the {@link FlightControlActuator}
+	 */
+	private void applyPendingInputs() {
+		synchronized (pendingKeyCommands) {
+			stepKeyCommands.addAll(pendingKeyCommands);
+			pendingKeyCommands.clear();
+		}
+		
+		synchronized (pendingJoystickInputs) {
+			stepJoystickInputs.putAll(pendingJoystickInputs);
+			pendingJoystickInputs.clear();
+		}
+		
+		Iterator<KeyCommand> i = stepKeyCommands.iterator();
+		while (i.hasNext())
+			actuator.handleParameterChange(i.next(), 1.0f);
+
+		Set<FlightControl> s = stepJoystickInputs.keySet();
+		Iterator<FlightControl> j = s.iterator();
+		while (j.hasNext()) {
+			FlightControl axis = j.next();
+			actuator.handleParameterChange(axis, stepJoystickInputs.get(axis));
+		}
+		
+		stepKeyCommands.clear();
+		stepJoystickInputs.clear();
+	}
 
 	@Override
-	public boolean canStepNow(int timeMS) {
-		return timeMS % 1 == 0;
-	}
+	public RateGroup getRateGroup() { return RateGroup.CONTROLS; }
 
 	public void setSimTimeMS(AtomicInteger simTimeMS) {
 		this.simTimeMS = simTimeMS;
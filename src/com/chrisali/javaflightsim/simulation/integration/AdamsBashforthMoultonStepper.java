@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.integration;
+
+import org.apache.commons.math3.ode.FirstOrderDifferentialEquations;
+
+/**
+ * Fixed step, fourth-order Adams-Bashforth-Moulton predictor-corrector integrator. Each step predicts the new state with the
+ * Adams-Bashforth formula from the derivatives of the last four steps, evaluates the equations once at the predicted state and
+ * corrects it with the Adams-Moulton formula (PECE, where the final evaluation at the corrected state is left to the caller). 
+ * When the caller supplies the derivatives at the start of the step, as {@link Integrate6DOFEquations} does from its evaluation 
+ * at the end of the previous step, the stepper evaluates the equations once per step, so each step costs two evaluations in all, 
+ * compared to four (three stages plus the caller's) for {@link ClassicalRungeKuttaStepper}
+ * <p>
+ * Created without the corrector, the stepper only applies the Adams-Bashforth formula and evaluates nothing itself; its history 
+ * is built from the derivatives the caller supplies at the start of each step, so each step costs only the caller's single 
+ * evaluation. The predictor alone is less accurate and has a smaller region of stability than the predictor-corrector
+ * <p>
+ * The first three steps after creation or {@link #reset()}, or after any change in time step, are taken with
+ * {@link ClassicalRungeKuttaStepper} to build up the history of derivatives
+ *
+ * @see <i>Source: Numerical Methods for Ordinary Differential Equations, Butcher, J.C.</i>
+ *
+ * @author Christopher Ali
+ *
+ */
+public class AdamsBashforthMoultonStepper implements StepIntegrator {
+
+	private static final int STEPS = 4;
+
+	private final int dimension;
+
+	private final ClassicalRungeKuttaStepper starter;
+
+	// If false, only the Adams-Bashforth predictor is applied
+	private final boolean correct;
+
+	// Derivatives of the last four steps, newest at index historyStart
+	private final double[][] history;
+	private int historyStart = 0;
+	private int historySize  = 0;
+
+	private final double[] yDot0;
+	private final double[] yDotPredicted;
+	private final double[] yPredicted;
+
+	private double lastH = Double.NaN;
+	private double lastT = Double.NaN;
+
+	/**
+	 * Creates a predictor-corrector stepper whose history arrays are sized to the dimension of the equations it will integrate
+	 *
+	 * @param dimension
+	 */
+	public AdamsBashforthMoultonStepper(int dimension) {
+		this(dimension, true);
+	}
+
+	/**
+	 * Creates a stepper whose history arrays are sized to the dimension of the equations it will integrate
+	 *
+	 * @param dimension
+	 * @param correct if false, only the Adams-Bashforth predictor is applied, so that the stepper does not evaluate the equations
+	 */
+	public AdamsBashforthMoultonStepper(int dimension, boolean correct) {
+		this.dimension = dimension;
+		this.correct   = correct;
+
+		starter 	  = new ClassicalRungeKuttaStepper(dimension);
+		history 	  = new double[STEPS][dimension];
+		yDot0 		  = new double[dimension];
+		yDotPredicted = new double[dimension];
+		yPredicted    = new double[dimension];
+	}
+
+	@Override
+	public double[] singleStep(FirstOrderDifferentialEquations equations, double t0, double[] y0, double t, double[] y) {
+		equations.computeDerivatives(t0, y0, yDot0);
+
+		return singleStep(equations, t0, y0, yDot0, t, y);
+	}
+
+	@Override
+	public double[] singleStep(FirstOrderDifferentialEquations equations, double t0, double[] y0, double[] yDot0, double t, double[] y) {
+		final double h = t - t0;
+
+		// History is only valid for equally spaced, contiguous steps; allow for rounding in the caller's time arithmetic
+		final double tolerance = Math.abs(h)*1e-9;
+		if (!(Math.abs(h - lastH) <= tolerance && Math.abs(t0 - lastT) <= tolerance))
+			reset();
+
+		pushHistory(yDot0);
+
+		lastH = h;
+		lastT = t;
+
+		if (historySize < STEPS)
+			return starter.singleStep(equations, t0, y0, yDot0, t, y);
+
+		final double[] f0 = history[historyStart];
+		final double[] f1 = history[(historyStart + 1) % STEPS];
+		final double[] f2 = history[(historyStart + 2) % STEPS];
+		final double[] f3 = history[(historyStart + 3) % STEPS];
+
+		// Predict
+		if (!correct) {
+			for (int i = 0; i < dimension; i++)
+				y[i] = y0[i] + (h/24)*(55*f0[i] - 59*f1[i] + 37*f2[i] - 9*f3[i]);
+
+			return y;
+		}
+
+		for (int i = 0; i < dimension; i++)
+			yPredicted[i] = y0[i] + (h/24)*(55*f0[i] - 59*f1[i] + 37*f2[i] - 9*f3[i]);
+
+		// Evaluate
+		equations.computeDerivatives(t, yPredicted, yDotPredicted);
+
+		// Correct
+		for (int i = 0; i < dimension; i++)
+			y[i] = y0[i] + (h/24)*(9*yDotPredicted[i] + 19*f0[i] - 5*f1[i] + f2[i]);
+
+		return y;
+	}
+
+	/**
+	 * Copies the derivatives at the start of this step into the newest position of the history ring
+	 *
+	 * @param yDot
+	 */
+	private void pushHistory(double[] yDot) {
+		historyStart = (historyStart + STEPS - 1) % STEPS;
+		System.arraycopy(yDot, 0, history[historyStart], 0, dimension);
+
+		if (historySize < STEPS)
+			historySize++;
+	}
+
+	@Override
+	public void reset() {
+		historySize = 0;
+		lastH = Double.NaN;
+		lastT = Double.NaN;
+	}
+
+	@Override
+	public int getDimension() { return dimension; }
+}
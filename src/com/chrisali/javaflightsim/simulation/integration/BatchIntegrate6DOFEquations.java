@@ -0,0 +1,464 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.integration;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.aircraft.CompiledAerodynamics;
+import com.chrisali.javaflightsim.simulation.aircraft.MassProperties;
+import com.chrisali.javaflightsim.simulation.aircraft.WingGeometry;
+import com.chrisali.javaflightsim.simulation.enviroment.AtmosphereTable;
+import com.chrisali.javaflightsim.simulation.enviroment.Environment;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.propulsion.Engine;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.utilities.SaturationUtilities;
+import com.chrisali.javaflightsim.simulation.utilities.SixDOFUtilities;
+
+/**
+ * Integrates the 14 (12 6DOF + 2 lat/lon) equations of motion for a batch of N aircraft of the same type at once, for use
+ * in Monte Carlo runs, parameter sweeps and other offline studies where many independent states are propagated together.
+ * <p>
+ * States are held in structure-of-arrays form: each of the 14 states is a single double[N] column (indexed by the
+ * constants {@link #U} through {@link #LON}), as are the controls of each aircraft (indexed by {@link FlightControl} ordinal)
+ * and every intermediate quantity. Each evaluation of the derivatives is a sequence of passes over the whole batch: saturation 
+ * of the states, wind parameters, alphaDot, atmosphere (from the {@link AtmosphereTable} of the batch's {@link Environment}), 
+ * aerodynamics (via {@link CompiledAerodynamics}), engine thrust, and finally the derivatives themselves with 
+ * {@link SixDOFUtilities#calculateDerivatives(double[][], double[][], double[][], double[], double, double, double, double, double[][], int)}, 
+ * the same equations that {@link Integrate6DOFEquations} integrates. The passes are simple loops over contiguous columns; those without 
+ * trigonometric calls or table lookups, such as the Runge-Kutta updates, are candidates for HotSpot's auto-vectorizer. Forces and moments 
+ * are recalculated at each of the four Runge-Kutta stages and alphaDot lags by one step, also as in {@link Integrate6DOFEquations} with 
+ * {@link ClassicalRungeKuttaStepper}, and Euler angles are bounded with {@link SaturationUtilities#piBounding(double[], double[])} after 
+ * each step. Everything is preallocated at construction, so stepping the batch does not allocate
+ * <p>
+ * Ground reaction is not modeled, so heightAGL only affects ground effect in the aerodynamic model
+ *
+ * @see Integrate6DOFEquations
+ * @see ClassicalRungeKuttaStepper
+ */
+public class BatchIntegrate6DOFEquations {
+	//Logging
+	private static final Logger logger = LogManager.getLogger(BatchIntegrate6DOFEquations.class);
+
+	// Indices of each state column, ordered the same way as InitialConditions
+	public static final int U 	  = 0;
+	public static final int V 	  = 1;
+	public static final int W 	  = 2;
+	public static final int N 	  = 3;
+	public static final int E 	  = 4;
+	public static final int D 	  = 5;
+	public static final int PHI   = 6;
+	public static final int THETA = 7;
+	public static final int PSI   = 8;
+	public static final int P 	  = 9;
+	public static final int Q 	  = 10;
+	public static final int R 	  = 11;
+	public static final int LAT   = 12;
+	public static final int LON   = 13;
+
+	public static final int DIMENSION = 14;
+
+	private static final FlightControl[] FLIGHT_CONTROLS = FlightControl.values();
+	private static final FlightControl[] THROTTLES = {null, FlightControl.THROTTLE_1, FlightControl.THROTTLE_2,
+													  FlightControl.THROTTLE_3, FlightControl.THROTTLE_4};
+
+	private final int size;
+
+	// Integrator Fields ([state][aircraft])
+	private final double[][] y;
+	private final double[][] yTmp;
+	private final double[][] k1;
+	private final double[][] k2;
+	private final double[][] k3;
+	private final double[][] k4;
+
+	// Simulation Controls ([FlightControl ordinal][aircraft])
+	private final double[][] controls;
+
+	// Wind parameters and mach of each aircraft calculated by the last derivative evaluation
+	private final double[] vTrue;
+	private final double[] beta;
+	private final double[] alpha;
+	private final double[] mach;
+	private final double[] terrainHeight;
+
+	// Columns of intermediate quantities of each derivative evaluation
+	private final double[][] limitedStates;	  // [state][aircraft], only the velocity, altitude and angular rate rows are used
+	private final double[] alphaDot;
+	private final double[] rho;
+	private final double[] speedOfSound;
+	private final double[] heightAGL;
+	private final double[] forcesAndMoments;  // [6*aircraft], see CompiledAerodynamics
+	private final double[][] linearAccelerations;
+	private final double[][] totalMoments;
+
+	// Scratch arrays holding a single aircraft, used to bound Euler angles after each step
+	private final double[] eulerAngles			= new double[3];
+	private final double[] angularRates 		= new double[3];
+
+	// Aircraft Properties
+	private final CompiledAerodynamics aero;
+	private final Engine[] engines;
+	private final int[] engineThrottles;
+	private final double invMass;
+	private final double armX, armY, armZ;
+	private final double[] inertiaCoeffs = new double[9];
+
+	// Weather shared by every aircraft in the batch
+	private final Environment environment = new Environment();
+	private final double gravity 		  = Environment.getGravity();
+
+	// Time Properties (sec)
+	private final double dt;
+	private double t;
+
+	/**
+	 * Creates a batch of size aircraft of the type specified, each starting at the same initial conditions and controls.
+	 * States and controls of individual aircraft can then be varied using {@link #setState(int, int, double)} and
+	 * {@link #setControl(FlightControl, int, double)}
+	 *
+	 * @param aircraft
+	 * @param initialConditions
+	 * @param initialControls
+	 * @param size number of aircraft in the batch
+	 * @param startTime (sec)
+	 * @param dt time step (sec)
+	 */
+	public BatchIntegrate6DOFEquations(Aircraft aircraft,
+									   Map<InitialConditions, Double> initialConditions,
+									   Map<FlightControl, Double> initialControls,
+									   int size,
+									   double startTime,
+									   double dt) {
+		if (size < 1)
+			throw new IllegalArgumentException("Batch must contain at least one aircraft!");
+
+		logger.info("Setting up batch of " + size + " aircraft for 6DOF calculations...");
+
+		this.size = size;
+		this.t    = startTime;
+		this.dt   = dt;
+
+		y 	 = new double[DIMENSION][size];
+		yTmp = new double[DIMENSION][size];
+		k1 	 = new double[DIMENSION][size];
+		k2 	 = new double[DIMENSION][size];
+		k3 	 = new double[DIMENSION][size];
+		k4 	 = new double[DIMENSION][size];
+
+		for (InitialConditions ic : InitialConditions.values()) {
+			Double value = initialConditions.get(ic);
+			if (value != null)
+				Arrays.fill(y[ic.ordinal()], value);
+		}
+
+		controls = new double[FLIGHT_CONTROLS.length][size];
+		for (FlightControl fc : FLIGHT_CONTROLS) {
+			Double value = initialControls.get(fc);
+			if (value != null)
+				Arrays.fill(controls[fc.ordinal()], value);
+		}
+
+		vTrue 		  = new double[size];
+		beta 		  = new double[size];
+		alpha 		  = new double[size];
+		mach 		  = new double[size];
+		terrainHeight = new double[size];
+
+		limitedStates 		= new double[DIMENSION][size];
+		alphaDot 			= new double[size];
+		rho 				= new double[size];
+		speedOfSound 		= new double[size];
+		heightAGL 			= new double[size];
+		forcesAndMoments 	= new double[6*size];
+		linearAccelerations = new double[3][size];
+		totalMoments 		= new double[3][size];
+
+		aero = new CompiledAerodynamics(aircraft);
+
+		engines = aircraft.getEngines().toArray(new Engine[0]);
+		engineThrottles = new int[engines.length];
+		for (int i = 0; i < engines.length; i++)
+			engineThrottles[i] = THROTTLES[engines[i].getEngineNumber()].ordinal();
+
+		invMass = 1/aircraft.getMassProperty(MassProperties.TOTAL_MASS);
+
+		// Arm of aerodynamic center relative to center of gravity
+		armX = aircraft.getWingGeometry(WingGeometry.AC_X) - aircraft.getMassProperty(MassProperties.CG_X);
+		armY = aircraft.getWingGeometry(WingGeometry.AC_Y) - aircraft.getMassProperty(MassProperties.CG_Y);
+		armZ = aircraft.getWingGeometry(WingGeometry.AC_Z) - aircraft.getMassProperty(MassProperties.CG_Z);
+
+		SixDOFUtilities.calculateInertiaCoeffs(aircraft.getInertiaValues(), inertiaCoeffs);
+	}
+
+	/**
+	 * Advances every aircraft in the batch by a single time step of dt using fourth-order Runge-Kutta integration
+	 */
+	public void step() {
+		final double h = dt;
+
+		computeDerivatives(y, k1);
+
+		advance(y, k1, h/2, yTmp);
+		computeDerivatives(yTmp, k2);
+
+		advance(y, k2, h/2, yTmp);
+		computeDerivatives(yTmp, k3);
+
+		advance(y, k3, h, yTmp);
+		computeDerivatives(yTmp, k4);
+
+		for (int s = 0; s < DIMENSION; s++) {
+			final double[] ys = y[s], k1s = k1[s], k2s = k2[s], k3s = k3[s], k4s = k4[s];
+
+			for (int i = 0; i < size; i++)
+				ys[i] += (h/6)*(k1s[i] + 2*k2s[i] + 2*k3s[i] + k4s[i]);
+		}
+
+		boundEulerAngles();
+
+		t += h;
+	}
+
+	/**
+	 * Steps the batch until the simulation time reaches endTime
+	 *
+	 * @param endTime (sec)
+	 */
+	public void integrate(double endTime) {
+		while (t + dt <= endTime + dt*1e-9)
+			step();
+	}
+
+	/**
+	 * yOut = y0 + h*yDot over every state column
+	 */
+	private void advance(double[][] y0, double[][] yDot, double h, double[][] yOut) {
+		for (int s = 0; s < DIMENSION; s++) {
+			final double[] y0s = y0[s], yDots = yDot[s], yOuts = yOut[s];
+
+			for (int i = 0; i < size; i++)
+				yOuts[i] = y0s[i] + h*yDots[i];
+		}
+	}
+
+	/**
+	 * Keeps the Euler angles of every aircraft within the bounds of {@link SaturationUtilities#piBounding(double[], double[])}
+	 */
+	private void boundEulerAngles() {
+		for (int i = 0; i < size; i++) {
+			eulerAngles[0] = y[PHI][i];
+			eulerAngles[1] = y[THETA][i];
+			eulerAngles[2] = y[PSI][i];
+
+			angularRates[0] = y[P][i];
+			angularRates[1] = y[Q][i];
+			angularRates[2] = y[R][i];
+
+			SaturationUtilities.piBounding(eulerAngles, angularRates);
+
+			y[PHI][i]   = eulerAngles[0];
+			y[THETA][i] = eulerAngles[1];
+			y[PSI][i]   = eulerAngles[2];
+		}
+	}
+
+	/**
+	 * Calculates the 14 state derivatives of every aircraft in the batch from the states in ys, writing them into yDot
+	 *
+	 * @param ys [state][aircraft]
+	 * @param yDot [state][aircraft]
+	 */
+	private void computeDerivatives(double[][] ys, double[][] yDot) {
+		final int n = size;
+		final double[][] limited = limitedStates;
+
+		// Implement saturation to keep states within realistic limits
+		for (int s = 0; s < 3; s++) {
+			System.arraycopy(ys[U + s], 0, limited[U + s], 0, n);
+			System.arraycopy(ys[P + s], 0, limited[P + s], 0, n);
+		}
+		System.arraycopy(ys[D], 0, limited[D], 0, n);
+
+		SaturationUtilities.limitLinearVelocities(limited[U], limited[V], limited[W], n);
+		SaturationUtilities.limitNEDPosition(limited[D], terrainHeight, n);
+		SaturationUtilities.limitAngularRates(limited[P], limited[Q], limited[R], n);
+
+		SixDOFUtilities.calculateWindParameters(limited[U], limited[V], limited[W], vTrue, beta, alpha, n);
+
+		// alphaDot uses the first stage derivatives; until they are overwritten below, those of the last step
+		SixDOFUtilities.calculateAlphaDot(limited[U], limited[W], k1[U], k1[W], alphaDot, n);
+
+		environment.getAtmosphereTable().lookup(limited[D], rho, speedOfSound, n);
+
+		final double[] altitude = limited[D];
+		for (int i = 0; i < n; i++) {
+			mach[i] 	 = vTrue[i]/speedOfSound[i];
+			heightAGL[i] = altitude[i] - terrainHeight[i];
+		}
+
+		final double[][] c = controls;
+		aero.calculateForcesAndMoments(vTrue, beta, alpha, limited[P], limited[Q], limited[R], rho, mach, altitude,
+									   c[FlightControl.ELEVATOR.ordinal()], c[FlightControl.AILERON.ordinal()],
+									   c[FlightControl.RUDDER.ordinal()], c[FlightControl.FLAPS.ordinal()],
+									   c[FlightControl.GEAR.ordinal()], alphaDot, heightAGL, n, forcesAndMoments);
+
+		sumForcesAndMoments();
+
+		SixDOFUtilities.calculateDerivatives(ys, linearAccelerations, totalMoments, inertiaCoeffs, gravity,
+											 environment.getWindSpeedNorth(), environment.getWindSpeedEast(), 0.0, yDot, n);
+	}
+
+	/**
+	 * Combines the aerodynamic forces and moments of every aircraft with the thrust of its engines to yield its linear accelerations and 
+	 * total moments
+	 */
+	private void sumForcesAndMoments() {
+		final int n = size;
+		final double[] fm = forcesAndMoments;
+		final double[] a_x = linearAccelerations[0], a_y = linearAccelerations[1], a_z = linearAccelerations[2];
+		final double[] l = totalMoments[0], m = totalMoments[1], nn = totalMoments[2];
+
+		// Aerodynamic moments plus the cross product of aero force and arm vectors
+		for (int i = 0; i < n; i++) {
+			final double fx = fm[i], fy = fm[n + i], fz = fm[2*n + i];
+
+			a_x[i] = fx;
+			a_y[i] = fy;
+			a_z[i] = fz;
+
+			l[i]  = fm[3*n + i] + (fy*armZ - fz*armY);
+			m[i]  = fm[4*n + i] + (fz*armX - fx*armZ);
+			nn[i] = fm[5*n + i] + (fx*armY - fy*armX);
+		}
+
+		// Engines only produce thrust along their x axis, so their moment reduces to {0, -T_x*z, T_x*y}
+		for (int j = 0; j < engines.length; j++) {
+			final Engine engine = engines[j];
+			final double[] throttle = controls[engineThrottles[j]];
+			final double[] position = engine.getEnginePosition();
+
+			for (int i = 0; i < n; i++) {
+				final double thrust = engine.calculateThrust(throttle[i], rho[i], vTrue[i]);
+
+				a_x[i] += thrust;
+				m[i]   -= thrust*position[2];
+				nn[i]  += thrust*position[1];
+			}
+		}
+
+		for (int i = 0; i < n; i++) {
+			a_x[i] *= invMass;
+			a_y[i] *= invMass;
+			a_z[i] *= invMass;
+		}
+
+		SaturationUtilities.limitLinearAccelerations(a_x, a_y, a_z, n);
+		SaturationUtilities.limitTotalMoments(l, m, nn, n);
+	}
+
+	/**
+	 * @return environment whose weather (wind and temperature difference from ISA) applies to every aircraft in the batch
+	 */
+	public Environment getEnvironment() { return environment; }
+
+	/**
+	 * @return number of aircraft in the batch
+	 */
+	public int getSize() { return size; }
+
+	/**
+	 * @return current simulation time (sec)
+	 */
+	public double getTime() { return t; }
+
+	/**
+	 * @return time step (sec)
+	 */
+	public double getDt() { return dt; }
+
+	/**
+	 * Returns the live column of a state for every aircraft in the batch; it is updated in place each step
+	 *
+	 * @param state one of {@link #U} through {@link #LON}
+	 * @return double[N] column of state
+	 */
+	public double[] getState(int state) { return y[state]; }
+
+	/**
+	 * @param state one of {@link #U} through {@link #LON}
+	 * @param index aircraft in the batch
+	 * @return value of state of aircraft at index
+	 */
+	public double getState(int state, int index) { return y[state][index]; }
+
+	/**
+	 * @param state one of {@link #U} through {@link #LON}
+	 * @param index aircraft in the batch
+	 * @param value
+	 */
+	public void setState(int state, int index, double value) { y[state][index] = value; }
+
+	/**
+	 * Returns the live column of a control for every aircraft in the batch, which can be modified in place between steps
+	 *
+	 * @param control
+	 * @return double[N] column of control
+	 */
+	public double[] getControl(FlightControl control) { return controls[control.ordinal()]; }
+
+	/**
+	 * @param control
+	 * @param index aircraft in the batch
+	 * @param value
+	 */
+	public void setControl(FlightControl control, int index, double value) { controls[control.ordinal()][index] = value; }
+
+	/**
+	 * @return true airspeed (ft/sec) of each aircraft calculated by the last stage of the last step
+	 */
+	public double[] getTrueAirspeed() { return vTrue; }
+
+	/**
+	 * @return angle of sideslip (rad) of each aircraft calculated by the last stage of the last step
+	 */
+	public double[] getBeta() { return beta; }
+
+	/**
+	 * @return angle of attack (rad) of each aircraft calculated by the last stage of the last step
+	 */
+	public double[] getAlpha() { return alpha; }
+
+	/**
+	 * @return mach number of each aircraft calculated by the last stage of the last step
+	 */
+	public double[] getMach() { return mach; }
+
+	/**
+	 * @param index aircraft in the batch
+	 * @param terrainHeight height of terrain (ft) below aircraft at index
+	 */
+	public void setTerrainHeight(int index, double terrainHeight) { this.terrainHeight[index] = terrainHeight; }
+}
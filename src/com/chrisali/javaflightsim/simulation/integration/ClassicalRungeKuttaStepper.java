@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.integration;
+
+import org.apache.commons.math3.ode.FirstOrderDifferentialEquations;
+import org.apache.commons.math3.ode.nonstiff.ClassicalRungeKuttaIntegrator;
+
+/**
+ * Fixed step, fourth-order Runge-Kutta integrator equivalent to {@link ClassicalRungeKuttaIntegrator#singleStep(FirstOrderDifferentialEquations, double, double[], double)},
+ * but which keeps all of its stage arrays as preallocated fields and writes its result into an array supplied by the caller.
+ * This allows {@link Integrate6DOFEquations} to run each step of integration without any heap allocation. All four stages
+ * evaluate the equations at their own intermediate state, so forces and moments must be recalculated by the equations each stage
+ * for the method to be fourth-order accurate
+ *
+ * @author Christopher Ali
+ *
+ */
+public class ClassicalRungeKuttaStepper implements StepIntegrator {
+
+	private final int dimension;
+
+	private final double[] k1;
+	private final double[] k2;
+	private final double[] k3;
+	private final double[] k4;
+	private final double[] yTmp;
+
+	/**
+	 * Creates a stepper whose stage arrays are sized to the dimension of the equations it will integrate
+	 *
+	 * @param dimension
+	 */
+	public ClassicalRungeKuttaStepper(int dimension) {
+		this.dimension = dimension;
+
+		k1   = new double[dimension];
+		k2   = new double[dimension];
+		k3   = new double[dimension];
+		k4   = new double[dimension];
+		yTmp = new double[dimension];
+	}
+
+	@Override
+	public double[] singleStep(FirstOrderDifferentialEquations equations, double t0, double[] y0, double t, double[] y) {
+		equations.computeDerivatives(t0, y0, k1);
+
+		return step(equations, t0, y0, t, y);
+	}
+
+	@Override
+	public double[] singleStep(FirstOrderDifferentialEquations equations, double t0, double[] y0, double[] yDot0, double t, double[] y) {
+		System.arraycopy(yDot0, 0, k1, 0, dimension);
+
+		return step(equations, t0, y0, t, y);
+	}
+
+	/**
+	 * Runs the remaining three stages of integration once k1 has been assigned
+	 */
+	private double[] step(FirstOrderDifferentialEquations equations, double t0, double[] y0, double t, double[] y) {
+		final double h = t - t0;
+
+		for (int i = 0; i < dimension; i++)
+			yTmp[i] = y0[i] + (h/2)*k1[i];
+		equations.computeDerivatives(t0 + h/2, yTmp, k2);
+
+		for (int i = 0; i < dimension; i++)
+			yTmp[i] = y0[i] + (h/2)*k2[i];
+		equations.computeDerivatives(t0 + h/2, yTmp, k3);
+
+		for (int i = 0; i < dimension; i++)
+			yTmp[i] = y0[i] + h*k3[i];
+		equations.computeDerivatives(t, yTmp, k4);
+
+		for (int i = 0; i < dimension; i++)
+			y[i] = y0[i] + (h/6)*(k1[i] + 2*k2[i] + 2*k3[i] + k4[i]);
+
+		return y;
+	}
+
+	/**
+	 * Single step method; keeps no history between steps
+	 */
+	@Override
+	public void reset() {}
+
+	@Override
+	public int getDimension() { return dimension; }
+}
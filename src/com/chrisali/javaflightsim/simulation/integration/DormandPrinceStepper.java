@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.integration;
+
+import org.apache.commons.math3.ode.FirstOrderDifferentialEquations;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Adaptive step, embedded Runge-Kutta integrator using the 5(4) coefficients of Dormand and Prince. Each call to
+ * {@link #singleStep(FirstOrderDifferentialEquations, double, double[], double, double[])} integrates from t0 to t in as many
+ * internal steps as are needed to keep the local error estimate within the absolute and relative tolerances, carrying the step
+ * size over from one call to the next. This lets analysis runs use a large time step where the dynamics are smooth while still
+ * resolving fast transients. The last stage of each accepted step is reused as the first stage of the next ("first same as last")
+ * <p>
+ * Internal steps smaller than {@link #MIN_STEP_FRACTION} of the requested interval are accepted regardless of error so that
+ * discontinuities in the equations (saturation limits, gear contact) cannot stall the integrator
+ *
+ * @see <i>Source: Dormand, J.R. and Prince, P.J., A family of embedded Runge-Kutta formulae</i>
+ *
+ * @author Christopher Ali
+ *
+ */
+public class DormandPrinceStepper implements StepIntegrator {
+	//Logging
+	private static final Logger logger = LogManager.getLogger(DormandPrinceStepper.class);
+
+	public static final double DEFAULT_ABSOLUTE_TOLERANCE = 1e-8;
+	public static final double DEFAULT_RELATIVE_TOLERANCE = 1e-6;
+
+	private static final double MIN_STEP_FRACTION = 1e-6;
+
+	// Step size controller
+	private static final double SAFETY 	   = 0.9;
+	private static final double MIN_FACTOR = 0.2;
+	private static final double MAX_FACTOR = 5.0;
+
+	// Butcher tableau
+	private static final double C2 = 1.0/5.0, C3 = 3.0/10.0, C4 = 4.0/5.0, C5 = 8.0/9.0;
+
+	private static final double A21 = 1.0/5.0;
+	private static final double A31 = 3.0/40.0, 	  A32 = 9.0/40.0;
+	private static final double A41 = 44.0/45.0, 	  A42 = -56.0/15.0, 	 A43 = 32.0/9.0;
+	private static final double A51 = 19372.0/6561.0, A52 = -25360.0/2187.0, A53 = 64448.0/6561.0, A54 = -212.0/729.0;
+	private static final double A61 = 9017.0/3168.0,  A62 = -355.0/33.0, 	 A63 = 46732.0/5247.0, A64 = 49.0/176.0, A65 = -5103.0/18656.0;
+	private static final double A71 = 35.0/384.0, 	  A73 = 500.0/1113.0, 	 A74 = 125.0/192.0,    A75 = -2187.0/6784.0, A76 = 11.0/84.0;
+
+	// Difference between fifth and fourth order weights, used to estimate error
+	private static final double E1 = 71.0/57600.0, E3 = -71.0/16695.0, E4 = 71.0/1920.0, E5 = -17253.0/339200.0, E6 = 22.0/525.0, E7 = -1.0/40.0;
+
+	private final int dimension;
+
+	private final double absoluteTolerance;
+	private final double relativeTolerance;
+
+	private double[] k1;
+	private final double[] k2;
+	private final double[] k3;
+	private final double[] k4;
+	private final double[] k5;
+	private final double[] k6;
+	private double[] k7;
+	private final double[] yTmp;
+	private double[] yCurrent;
+	private double[] yNext;
+
+	// Internal step size carried over between calls
+	private double h = Double.NaN;
+
+	private int acceptedSteps = 0;
+	private int rejectedSteps = 0;
+
+	/**
+	 * Creates a stepper using {@link #DEFAULT_ABSOLUTE_TOLERANCE} and {@link #DEFAULT_RELATIVE_TOLERANCE}
+	 *
+	 * @param dimension
+	 */
+	public DormandPrinceStepper(int dimension) {
+		this(dimension, DEFAULT_ABSOLUTE_TOLERANCE, DEFAULT_RELATIVE_TOLERANCE);
+	}
+
+	/**
+	 * Creates a stepper whose stage arrays are sized to the dimension of the equations it will integrate
+	 *
+	 * @param dimension
+	 * @param absoluteTolerance
+	 * @param relativeTolerance
+	 */
+	public DormandPrinceStepper(int dimension, double absoluteTolerance, double relativeTolerance) {
+		this.dimension = dimension;
+		this.absoluteTolerance = absoluteTolerance;
+		this.relativeTolerance = relativeTolerance;
+
+		k1 		 = new double[dimension];
+		k2 		 = new double[dimension];
+		k3 		 = new double[dimension];
+		k4 		 = new double[dimension];
+		k5 		 = new double[dimension];
+		k6 		 = new double[dimension];
+		k7 		 = new double[dimension];
+		yTmp 	 = new double[dimension];
+		yCurrent = new double[dimension];
+		yNext 	 = new double[dimension];
+	}
+
+	@Override
+	public double[] singleStep(FirstOrderDifferentialEquations equations, double t0, double[] y0, double t, double[] y) {
+		equations.computeDerivatives(t0, y0, k1);
+
+		return integrate(equations, t0, y0, t, y);
+	}
+
+	@Override
+	public double[] singleStep(FirstOrderDifferentialEquations equations, double t0, double[] y0, double[] yDot0, double t, double[] y) {
+		System.arraycopy(yDot0, 0, k1, 0, dimension);
+
+		return integrate(equations, t0, y0, t, y);
+	}
+
+	/**
+	 * Integrates from t0 to t in adaptive internal steps once k1 has been assigned
+	 */
+	private double[] integrate(FirstOrderDifferentialEquations equations, double t0, double[] y0, double t, double[] y) {
+		final double interval = t - t0;
+		final double minStep  = interval*MIN_STEP_FRACTION;
+
+		if (!(h > 0))
+			h = interval;
+
+		System.arraycopy(y0, 0, yCurrent, 0, dimension);
+		double tCurrent = t0;
+
+		while (tCurrent < t) {
+			final boolean lastStep = tCurrent + h >= t;
+			final double step = lastStep ? t - tCurrent : h;
+
+			final double error = attemptStep(equations, tCurrent, step);
+
+			final double factor = error == 0 ? MAX_FACTOR :
+								  Math.min(MAX_FACTOR, Math.max(MIN_FACTOR, SAFETY*Math.pow(error, -0.2)));
+
+			if (error <= 1.0 || step <= minStep) {
+				tCurrent = lastStep ? t : tCurrent + step;
+
+				// Swap references so that the end of this step becomes the start of the next
+				double[] swap = yCurrent;
+				yCurrent = yNext;
+				yNext = swap;
+
+				swap = k1;
+				k1 = k7;
+				k7 = swap;
+
+				acceptedSteps++;
+
+				// Do not let a step shortened to land on t shrink the step size carried into the next call
+				h = lastStep ? Math.max(h, step*factor) : step*factor;
+			} else {
+				h = step*Math.min(1.0, factor);
+
+				rejectedSteps++;
+			}
+		}
+
+		System.arraycopy(yCurrent, 0, y, 0, dimension);
+
+		return y;
+	}
+
+	/**
+	 * Runs the stages of a single internal step from yCurrent, writing the fifth-order solution into yNext and the derivatives
+	 * at that point into k7
+	 *
+	 * @return RMS of the error estimate scaled by the tolerances; the step is acceptable if this is no greater than 1
+	 */
+	private double attemptStep(FirstOrderDifferentialEquations equations, double t0, double h) {
+		final double[] y0 = yCurrent;
+
+		for (int i = 0; i < dimension; i++)
+			yTmp[i] = y0[i] + h*(A21*k1[i]);
+		equations.computeDerivatives(t0 + C2*h, yTmp, k2);
+
+		for (int i = 0; i < dimension; i++)
+			yTmp[i] = y0[i] + h*(A31*k1[i] + A32*k2[i]);
+		equations.computeDerivatives(t0 + C3*h, yTmp, k3);
+
+		for (int i = 0; i < dimension; i++)
+			yTmp[i] = y0[i] + h*(A41*k1[i] + A42*k2[i] + A43*k3[i]);
+		equations.computeDerivatives(t0 + C4*h, yTmp, k4);
+
+		for (int i = 0; i < dimension; i++)
+			yTmp[i] = y0[i] + h*(A51*k1[i] + A52*k2[i] + A53*k3[i] + A54*k4[i]);
+		equations.computeDerivatives(t0 + C5*h, yTmp, k5);
+
+		for (int i = 0; i < dimension; i++)
+			yTmp[i] = y0[i] + h*(A61*k1[i] + A62*k2[i] + A63*k3[i] + A64*k4[i] + A65*k5[i]);
+		equations.computeDerivatives(t0 + h, yTmp, k6);
+
+		for (int i = 0; i < dimension; i++)
+			yNext[i] = y0[i] + h*(A71*k1[i] + A73*k3[i] + A74*k4[i] + A75*k5[i] + A76*k6[i]);
+		equations.computeDerivatives(t0 + h, yNext, k7);
+
+		double sumSq = 0;
+		for (int i = 0; i < dimension; i++) {
+			final double errorEstimate = h*(E1*k1[i] + E3*k3[i] + E4*k4[i] + E5*k5[i] + E6*k6[i] + E7*k7[i]);
+			final double scale = absoluteTolerance + relativeTolerance*Math.max(Math.abs(y0[i]), Math.abs(yNext[i]));
+			final double ratio = errorEstimate/scale;
+
+			sumSq += ratio*ratio;
+		}
+
+		return Math.sqrt(sumSq/dimension);
+	}
+
+	/**
+	 * Forgets the internal step size carried over from previous calls
+	 */
+	@Override
+	public void reset() {
+		logger.debug("Resetting Dormand-Prince integrator after " + acceptedSteps + " accepted and " + rejectedSteps + " rejected steps");
+
+		h = Double.NaN;
+	}
+
+	@Override
+	public int getDimension() { return dimension; }
+
+	/**
+	 * @return number of internal steps accepted since creation
+	 */
+	public int getAcceptedSteps() { return acceptedSteps; }
+
+	/**
+	 * @return number of internal steps rejected since creation
+	 */
+	public int getRejectedSteps() { return rejectedSteps; }
+}
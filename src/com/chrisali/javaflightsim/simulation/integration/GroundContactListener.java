@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.integration;
+
+import java.util.EventListener;
+
+import com.chrisali.javaflightsim.simulation.aircraft.LandingGear;
+
+/**
+ * Receives touchdown and liftoff events of each landing gear detected by {@link IntegrateGroundReaction}
+ */
+public interface GroundContactListener extends EventListener {
+	
+	/**
+	 * Called when a landing gear touches down on or lifts off of the ground
+	 * 
+	 * @param gear
+	 * @param touchdown true if the gear touched down, false if it lifted off
+	 * @param time simulation time of the event, interpolated within the step for touchdowns (sec)
+	 * @param verticalSpeed vertical speed of the gear relative to the ground, negative when descending (ft/sec)
+	 */
+	public void onGroundContact(LandingGear gear, boolean touchdown, double time, double verticalSpeed);
+}
@@ -20,20 +20,17 @@
 package com.chrisali.javaflightsim.simulation.integration;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.math3.ode.FirstOrderDifferentialEquations;
-import org.apache.commons.math3.ode.nonstiff.ClassicalRungeKuttaIntegrator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.chrisali.javaflightsim.interfaces.Steppable;
+import com.chrisali.javaflightsim.simulation.SimulationContext;
 import com.chrisali.javaflightsim.simulation.aircraft.AccelAndMoments;
 import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
 import com.chrisali.javaflightsim.simulation.datatransfer.EnvironmentData;
@@ -42,32 +39,35 @@ import com.chrisali.javaflightsim.simulation.datatransfer.EnvironmentDataType;
 import com.chrisali.javaflightsim.simulation.datatransfer.FlightData;
 import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataListener;
 import com.chrisali.javaflightsim.simulation.enviroment.Environment;
-import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
+import com.chrisali.javaflightsim.simulation.enviroment.AtmosphereState;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsState;
 import com.chrisali.javaflightsim.simulation.propulsion.Engine;
 import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.RateGroup;
 import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
-import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+import com.chrisali.javaflightsim.simulation.telemetry.TelemetryStore;
 import com.chrisali.javaflightsim.simulation.utilities.SaturationUtilities;
 import com.chrisali.javaflightsim.simulation.utilities.SixDOFUtilities;
 
 /**
  * This class integrates all 12 6DOF (plus 2 latitude/longitude) equations numerically to obtain the aircraft's states.
- * The {@link ClassicalRungeKuttaIntegrator} is used to integrate over a period of time defined in {@link Integrate6DOFEquations#integratorConfig}.
- * The class outputs at each step using {@link Integrate6DOFEquations#logData(double)} to 
- * generate a {@link Integrate6DOFEquations#logsOut} ArrayList of {@link Integrate6DOFEquations#simOut} EnumMaps containing simulation outputs.
- * These can be obtained using the proper getters for {@link Integrate6DOFEquations#logsOut} and {@link Integrate6DOFEquations#simOut}. Options are passed into the class to
+ * The {@link StepIntegrator} selected by {@link SimulationConfiguration#getIntegratorType()} is used to integrate over a period of time defined in 
+ * {@link Integrate6DOFEquations#integratorConfig}. Forces and moments are recalculated each time the integrator evaluates the equations, so that 
+ * multi-stage and multistep methods achieve their full order of accuracy.
+ * The class outputs at each step using {@link Integrate6DOFEquations#logData()} to 
+ * append a row of simulation outputs to a columnar {@link TelemetryStore}. These can be obtained using {@link Integrate6DOFEquations#getTelemetry()}, 
+ * or as a List of {@link SimOuts} Maps using {@link Integrate6DOFEquations#getLogsOut()}. Options are passed into the class to
  * allow the user to choose between various run-time options 
  * 
  * @param  AircraftBuilder builtAircraft
  * @param  EnumSet runOptions
  *      
- * @return EnumMap simOut
- * @return ArrayList logsOut
+ * @return TelemetryStore telemetry
+ * @return List logsOut
  *      
  * @see FirstOrderDifferentialEquations 
- * @see ClassicalRungeKuttaIntegrator
+ * @see StepIntegrator
  * @see AircraftBuilder
  * @see Options
  */
@@ -82,7 +82,8 @@ public class Integrate6DOFEquations implements Steppable, EnvironmentDataListene
 	private double[] angularRates     		= new double[3];
 	
 	// Environment and Wind Parameters
-	private Map<EnvironmentParameters, Double> environmentParameters;
+	private Environment environment;
+	private AtmosphereState atmosphereState;
 	private double   gravity			    = Environment.getGravity();
 	private double[] windParameters   		= new double[3];	
 	private double   alphaDot 				= 0.0f;
@@ -90,9 +91,11 @@ public class Integrate6DOFEquations implements Steppable, EnvironmentDataListene
 	
 	// Ground Reaction
 	private IntegrateGroundReaction groundReaction;
-	private double   terrainHeight			= 0.0f;
+	// Received from the display thread
+	private volatile double terrainHeight	= 0.0f;
 	
 	// Forces and Moments
+	private AccelAndMoments accelAndMoments;
 	private double[] linearAccelerations    = new double[3];
 	private double[] totalMoments     		= new double[3];
 	
@@ -101,23 +104,41 @@ public class Integrate6DOFEquations implements Steppable, EnvironmentDataListene
 	private Map<FlightControl, Double> controlsMap;
 	
 	// Integrator Fields
-	private ClassicalRungeKuttaIntegrator integrator;
+	private StepIntegrator integrator;
+	private SixDOFEquations sixDOFEquations = new SixDOFEquations();
 	private double[] sixDOFDerivatives		= new double[14];
 	private double[] y					    = new double[14];
 	private double[] initialConditions      = new double[14];
 	private double[] resetInitialConditions = new double[14]; 
 	
+	// Scratch arrays used to calculate derivatives without allocating each step; states, accelerations and moments are passed to 
+	// SixDOFUtilities as single element columns, so that this aircraft integrates the same equations as BatchIntegrate6DOFEquations
+	private double[]   inertiaCoeffs		= new double[9];
+	private double[][] yColumns				= new double[14][1];
+	private double[][] yDotColumns			= new double[14][1];
+	private double[][] accelColumns			= new double[3][1];
+	private double[][] momentColumns		= new double[3][1];
+	
 	// Time Properties (sec for calculations in this object, millisec elsewhere)
 	private double[] integratorConfig 		= new double[3];
 	private double t;
 		
 	// Aircraft Properties
 	private Aircraft aircraft;
-	private Set<Engine> engineList;
+	// Array rather than Set, so that iterating over engines each evaluation does not allocate an iterator
+	private Engine[] engines;
 	
 	// Output Logging
-	private List<Map<SimOuts, Double>> logsOut = Collections.synchronizedList(new ArrayList<Map<SimOuts, Double>>());
-	private Map<SimOuts, Double> simOut;
+	private TelemetryStore telemetry		= new TelemetryStore();
+	private static final SimOuts[] SIM_OUTS 	  = SimOuts.values();
+	private double[] simOutValues			= new double[SIM_OUTS.length];
+	private Steppable outputLogger;
+	private boolean outputsPending			= false;
+	
+	// SimOuts keys for each engine, indexed by engine number, so that they need not be looked up by name each step
+	private static final SimOuts[] THRUST_OUTS	  = {null, SimOuts.THRUST_1, SimOuts.THRUST_2, SimOuts.THRUST_3, SimOuts.THRUST_4};
+	private static final SimOuts[] RPM_OUTS		  = {null, SimOuts.RPM_1, SimOuts.RPM_2, SimOuts.RPM_3, SimOuts.RPM_4};
+	private static final SimOuts[] FUEL_FLOW_OUTS = {null, SimOuts.FUEL_FLOW_1, SimOuts.FUEL_FLOW_2, SimOuts.FUEL_FLOW_3, SimOuts.FUEL_FLOW_4};
 	
 	// Options
 	private EnumSet<Options> options;
@@ -128,25 +149,44 @@ public class Integrate6DOFEquations implements Steppable, EnvironmentDataListene
 	
 	/**
 	 * Creates the {@link Integrate6DOFEquations} object with references to {@link FlightControlsState} and {@link SimulationConfiguration}
-	 * objects
+	 * objects, reading the selected aircraft into a new {@link SimulationContext}
 	 * 
 	 * @param flightControls
 	 * @param configuration
 	 */
 	public Integrate6DOFEquations(FlightControlsState flightControls, SimulationConfiguration configuration) {
+		this(flightControls, new SimulationContext(configuration));
+	}
+	
+	/**
+	 * Creates the {@link Integrate6DOFEquations} object with references to {@link FlightControlsState} and the {@link SimulationContext}
+	 * that holds the environment, forces and moments and engines of this run, so that it does not share any mutable state with other 
+	 * simulations 
+	 * 
+	 * @param flightControls
+	 * @param context
+	 */
+	public Integrate6DOFEquations(FlightControlsState flightControls, SimulationContext context) {
+		SimulationConfiguration configuration = context.getConfiguration();
+		
 		this.flightControls = flightControls;
 		
 	    controlsMap 	    = flightControls.getFlightControls();
-		aircraft 		    = FileUtilities.readAircraftConfiguration(configuration.getSelectedAircraft());
-		engineList   	    = aircraft.getEngines();
+		aircraft 		    = context.getAircraft();
+		engines   	    	= context.getEngines().toArray(new Engine[0]);
 		options		        = configuration.getSimulationOptions();
+		environment			= context.getEnvironment();
+		accelAndMoments		= context.getAccelAndMoments();
 		
 		flightData			= new FlightData();
 		flightDataListeners = new ArrayList<>();
 		
 		// Use Apache Commons Lang to convert EnumMap values into primitive double[]
-		initialConditions = resetInitialConditions = ArrayUtils.toPrimitive(configuration.getInitialConditions().values()
-																.toArray(new Double[initialConditions.length]));
+		initialConditions = ArrayUtils.toPrimitive(configuration.getInitialConditions().values()
+													.toArray(new Double[initialConditions.length]));
+		
+		// Keep a separate copy, as initialConditions is overwritten in place each step
+		resetInitialConditions = initialConditions.clone();
 				
 		integratorConfig  = ArrayUtils.toPrimitive(configuration.getIntegratorConfig().values()
 				   												.toArray(new Double[integratorConfig.length]));
@@ -154,9 +194,12 @@ public class Integrate6DOFEquations implements Steppable, EnvironmentDataListene
 		// Initial time
 		t = integratorConfig[0];
 				
-		// Use fourth-order Runge-Kutta numerical integration with time step of dt
-		logger.info("Setting up Runge Kutta Integrator for 6DOF calculations...");
-		integrator = new ClassicalRungeKuttaIntegrator(integratorConfig[1]);
+		// Use the selected numerical integration method with time step of dt
+		logger.info("Setting up " + configuration.getIntegratorType() + " integrator for 6DOF calculations...");
+		integrator = StepIntegrator.create(configuration.getIntegratorType(), sixDOFEquations.getDimension());
+		
+		// Inertia does not change over the course of a run, so its coefficients only need calculating once
+		SixDOFUtilities.calculateInertiaCoeffs(aircraft.getInertiaValues(), inertiaCoeffs);
 		
 		// Set up ground reaction integration
 		logger.info("Initializing ground reaction model...");
@@ -168,41 +211,42 @@ public class Integrate6DOFEquations implements Steppable, EnvironmentDataListene
 													 windParameters,
 													 sixDOFDerivatives,
 													 integratorConfig, 
-													 aircraft, 
+													 context, 
 													 controlsMap);
 		
-		// Initialize accelerations and moments, and calculate initial data members' values
-		AccelAndMoments.init(aircraft);
-		
+		// Calculate initial data members' values and derivatives at the initial conditions
+		System.arraycopy(initialConditions, 0, y, 0, y.length);
 		updateDataMembers();
 	}
 	
 	/**
-	 * Creates the 14 (12 6DOF + 2 lat/lon) state derivatives that {@link Integrate6DOFEquations#integrator} uses to numerically integrate. It loops through {@link Integrate6DOFEquations#sixDOFDerivatives} to
-	 * assign values to yDot[], which is used in the single step {@link Integrate6DOFEquations#integrator} in {@link Integrate6DOFEquations#run()}
+	 * Creates the 14 (12 6DOF + 2 lat/lon) state derivatives that {@link Integrate6DOFEquations#integrator} uses to numerically integrate. Each evaluation
+	 * recalculates the environment, engine states, and aerodynamic accelerations and moments at the state y[] passed in by the integrator before assigning 
+	 * the derivatives to yDot[]. Ground reaction forces are held constant over each step, as the ground reaction model is integrated separately once per step 
 	 * @see FirstOrderDifferentialEquations 
 	 * @see Integrate6DOFEquations
-	 * @see ClassicalRungeKuttaIntegrator
+	 * @see StepIntegrator
 	 */
 	private class SixDOFEquations implements FirstOrderDifferentialEquations {		
 		private SixDOFEquations() {}
 
 		public void computeDerivatives(double t, double[] y, double[] yDot) {
-			for (int i = 0; i < yDot.length; i++) 
-				yDot[i] = sixDOFDerivatives[i];
+			updateStates(y);
+			
+			calculateAccelerationsAndMoments();
+			
+			updateDerivatives(y, yDot);
 		}
 
 		public int getDimension() {return 14;}
 	}
 	
 	@Override
-	public boolean canStepNow(int simTimeMS) {
-		return simTimeMS % 1 == 0;
-	}
+	public RateGroup getRateGroup() { return RateGroup.PHYSICS; }
 
 	/**
 	 * Runs {@link Integrate6DOFEquations} integration process by calling 
-	 * {@link ClassicalRungeKuttaIntegrator#singleStep(FirstOrderDifferentialEquations, double, double[], double)}
+	 * {@link StepIntegrator#singleStep(FirstOrderDifferentialEquations, double, double[], double[], double, double[])}
 	 * method on each invocation as long as {@link Options#PAUSED} isn't enabled 
 	 */
 	@Override
@@ -210,29 +254,36 @@ public class Integrate6DOFEquations implements Steppable, EnvironmentDataListene
 		try {	
 			// If paused and reset selected, reset initialConditions to saved values in configuration
 			if (options.contains(Options.PAUSED) && options.contains(Options.RESET)) {
-				initialConditions = resetInitialConditions;
+				System.arraycopy(resetInitialConditions, 0, initialConditions, 0, initialConditions.length);
 				flightControls.reset();
+				
+				// Derivatives and integrator history no longer correspond to the state being integrated
+				System.arraycopy(initialConditions, 0, y, 0, y.length);
+				updateDataMembers();
+				integrator.reset();
 			}
 							
 			// If paused, skip the integration and update process
 			if (!options.contains(Options.PAUSED)) {
 				// Run a single step of integration each step of the loop
-				y = integrator.singleStep(new SixDOFEquations(),  // derivatives
-										  t, 		  			  // start time
-										  initialConditions, 	  // initial conditions
-										  t+integratorConfig[1]); // end time (t+dt)
+				integrator.singleStep(sixDOFEquations,  	  // derivatives
+									  t, 		  			  // start time
+									  initialConditions, 	  // initial conditions
+									  sixDOFDerivatives,	  // derivatives at initial conditions
+									  t+integratorConfig[1],  // end time (t+dt)
+									  y);					  // result
 														
 				// Update data members' values
 				updateDataMembers();
 				
 				// Update initial conditions for next step of integration
-				initialConditions = y;
+				System.arraycopy(y, 0, initialConditions, 0, y.length);
 				
 				// Update output log
 				logData();
 
 				// Update flight data for any listeners
-				flightData.updateData(simOut);
+				flightData.updateData(simOutValues);
 				fireFlightDataArrived();
 
 				// Increment time
@@ -244,43 +295,56 @@ public class Integrate6DOFEquations implements Steppable, EnvironmentDataListene
 	}
 	
 	/**
-	 * Recalculates the 14 (12 6DOF + 2 lat/lon) state derivatives based on the newly calculated accelerations and moments accomplished in {@link Integrate6DOFEquations#updateDataMembers(double[], double)}.
-	 * The equations are calculated with the help of methods in {@link SixDOFUtilities} to convert coordinate frames and calculate inertia parameters
+	 * Recalculates the 14 (12 6DOF + 2 lat/lon) state derivatives at state y[] based on the accelerations and moments last calculated by 
+	 * {@link Integrate6DOFEquations#calculateAccelerationsAndMoments()}, writing them into yDot[].
+	 * The equations are calculated by {@link SixDOFUtilities#calculateDerivatives(double[][], double[][], double[][], double[], double, double, double, double, double[][], int)} 
+	 * as a batch of one aircraft
 	 * @see Source: <i>Small Unmanned Aircraft: Theory and Practice by Beard, R.W. and McLain, T.W.</i>
 	 */
-	private void updateDerivatives(double[] y) {
-		double[][] dirCosMat     = SixDOFUtilities.body2Ned(new double[]{y[6], y[7], y[8]});      // create DCM for NED equations ([column][row])
-		double[]   inertiaCoeffs = SixDOFUtilities.calculateInertiaCoeffs(aircraft.getInertiaValues());
-		double[]   ned2LLA       = SixDOFUtilities.ned2LLA(y);
-		double[]   windSpdNED    = new double[]{environmentParameters.get(EnvironmentParameters.WIND_SPEED_N),
-												environmentParameters.get(EnvironmentParameters.WIND_SPEED_E),
-												environmentParameters.get(EnvironmentParameters.WIND_SPEED_D)};
-		
-		sixDOFDerivatives[0]  = (y[11]*y[1])-(y[10]*y[2])-(gravity*Math.sin(y[7]))               +linearAccelerations[0];    // u (ft/sec)
-		sixDOFDerivatives[1]  = (y[9]* y[2])-(y[11]*y[0])+(gravity*Math.sin(y[6])*Math.cos(y[7]))+linearAccelerations[1];    // v (ft/sec)
-		sixDOFDerivatives[2]  = (y[10]*y[0])-(y[9]* y[1])+(gravity*Math.cos(y[6])*Math.cos(y[7]))+linearAccelerations[2];    // w (ft/sec)
-		
-		sixDOFDerivatives[3]  =    (y[0]*dirCosMat[0][0]+y[1]*dirCosMat[0][1]+y[2]*dirCosMat[0][2])+windSpdNED[0];    // N (ft)
-		sixDOFDerivatives[4]  =    (y[0]*dirCosMat[1][0]+y[1]*dirCosMat[1][1]+y[2]*dirCosMat[1][2])+windSpdNED[1];    // E (ft)
-		sixDOFDerivatives[5]  = -1*(y[0]*dirCosMat[2][0]+y[1]*dirCosMat[2][1]+y[2]*dirCosMat[2][2])+windSpdNED[2];    // D (ft)
-		
-		sixDOFDerivatives[6]  =   y[9]+(Math.tan(y[7])*((y[10]*Math.sin(y[6]))+(y[11]*Math.cos(y[6])))); // phi (rad)
-		sixDOFDerivatives[7]  =  (y[10]*Math.cos(y[6]))-(y[11]*Math.sin(y[6]));     			         // theta (rad)
-		sixDOFDerivatives[8]  = ((y[10]*Math.sin(y[6]))+(y[11]*Math.cos(y[6])))/Math.cos(y[7]);          // psi (rad)
-		
-		sixDOFDerivatives[9]  = ((inertiaCoeffs[1]*y[9]*y[10]) - (inertiaCoeffs[0]*y[10])*y[11]) + (inertiaCoeffs[2]*totalMoments[0])+(inertiaCoeffs[3]*totalMoments[2]);     // p (rad/sec)
-		sixDOFDerivatives[10] =  (inertiaCoeffs[4]*y[9]*y[11]) - (inertiaCoeffs[5]*((y[9]*y[9])-(y[11]*y[11])))                      +(inertiaCoeffs[6]*totalMoments[1]);     // q (rad/sec)
-		sixDOFDerivatives[11] = ((inertiaCoeffs[7]*y[9]*y[10]) - (inertiaCoeffs[1]*y[10]*y[11])) + (inertiaCoeffs[3]*totalMoments[0])+(inertiaCoeffs[8]*totalMoments[2]);     // r (rad/sec)
-		
-		sixDOFDerivatives[12] = sixDOFDerivatives[3]*ned2LLA[0]; // Latitude  (rad)
-		sixDOFDerivatives[13] = sixDOFDerivatives[4]*ned2LLA[1]; // Longitude (rad)
+	private void updateDerivatives(double[] y, double[] yDot) {
+		for (int i = 0; i < y.length; i++)
+			yColumns[i][0] = y[i];
+		
+		for (int i = 0; i < 3; i++) {
+			accelColumns[i][0]  = linearAccelerations[i];
+			momentColumns[i][0] = totalMoments[i];
+		}
+		
+		SixDOFUtilities.calculateDerivatives(yColumns, accelColumns, momentColumns, inertiaCoeffs, gravity, 
+											 atmosphereState.getWindSpeedN(), atmosphereState.getWindSpeedE(), atmosphereState.getWindSpeedD(), 
+											 yDotColumns, 1);
+		
+		for (int i = 0; i < yDot.length; i++)
+			yDot[i] = yDotColumns[i][0];
 	}
 	
 	/**
-	 *  Runs various helper methods to update data members in {@link Integrate6DOFEquations}. It updates the 6DOF states, environment parameters, controls, engine state, and finally 
-	 *  calculates accelerations and moments to be used in {@link Integrate6DOFEquations#updateDerivatives(double[])} 
+	 *  Runs various helper methods to update data members in {@link Integrate6DOFEquations} after each step of integration. It updates the 6DOF states, 
+	 *  environment parameters, controls, engine state, integrates a step of ground reaction, and finally calculates accelerations and moments to be used 
+	 *  in {@link Integrate6DOFEquations#updateDerivatives(double[], double[])} 
 	 */
 	private void updateDataMembers() {
+		updateStates(y);
+		
+		// Integrate another step of ground reaction only if within 100 ft of ground
+		if (NEDPosition[2] - terrainHeight < 100)
+			groundReaction.integrateStep(terrainHeight);
+		
+		//System.out.println(groundReaction);
+		
+		calculateAccelerationsAndMoments();
+				
+		// Recalculates derivatives for next step
+		updateDerivatives(y, sixDOFDerivatives);
+	}
+	
+	/**
+	 *  Assigns the state y[] to the 6DOF state data members, applying saturation limits, and updates the wind parameters, environment, 
+	 *  engine states, alphaDot and mach that depend on them
+	 *  
+	 *  @param y
+	 */
+	private void updateStates(double[] y) {
 		// Assign indices in yTemp array to 6DOF state arrays
 		for (int i=0; i<linearVelocities.length; i++) {
 			linearVelocities[i] = y[i];
@@ -296,189 +360,254 @@ public class Integrate6DOFEquations implements Steppable, EnvironmentDataListene
 		angularRates     = SaturationUtilities.limitAngularRates(angularRates);
 		
 		// Update wind parameters
-		windParameters = SixDOFUtilities.calculateWindParameters(linearVelocities);
+		SixDOFUtilities.calculateWindParameters(linearVelocities, windParameters);
 		
 		// Update environment		
-		environmentParameters = Environment.getAndUpdateEnvironmentParams(NEDPosition);
+		atmosphereState = environment.getAndUpdateAtmosphereState(NEDPosition);
 		
 		// Update all engines in engine list
-		for(Engine engine : engineList)
-			 engine.updateEngineState(controlsMap, environmentParameters, windParameters);
+		for(Engine engine : engines)
+			 engine.updateEngineState(controlsMap, atmosphereState, windParameters);
 		
-		// Update alphaDot
+		// Update alphaDot using the derivatives of the last step
 		alphaDot = SixDOFUtilities.calculateAlphaDot(linearVelocities, sixDOFDerivatives);
 		
 		// Update mach
-		mach = SixDOFUtilities.calculateMach(windParameters, environmentParameters);
-		
-		// Integrate another step of ground reaction only if within 100 ft of ground
-		double heightAGL = NEDPosition[2] - terrainHeight;
-		if (heightAGL < 100)
-			groundReaction.integrateStep(terrainHeight);
-		
-		//System.out.println(groundReaction);
+		mach = SixDOFUtilities.calculateMach(windParameters, atmosphereState);
+	}
+	
+	/**
+	 *  Calculates aerodynamic forces and moments at the current states, and combines them with engine and ground reaction forces and 
+	 *  moments to yield the total linear accelerations and moments 
+	 */
+	private void calculateAccelerationsAndMoments() {
+		// Update aerodynamic forces and moments once for both accelerations and moments
+		accelAndMoments.calculateAeroForcesAndMoments(windParameters,
+													  angularRates,
+													  atmosphereState,
+													  mach,
+													  NEDPosition[2],
+													  controlsMap,
+													  alphaDot,
+													  NEDPosition[2] - terrainHeight);
 		
 		// Update accelerations
-		linearAccelerations = AccelAndMoments.calculateLinearAccelerations(windParameters,
-																		   angularRates,
-																		   environmentParameters,
-																		   controlsMap,
-																		   alphaDot,
-																		   engineList,
-																		   aircraft,
-																		   groundReaction,
-																		   heightAGL);
+		linearAccelerations = accelAndMoments.calculateLinearAccelerations(engines, aircraft, groundReaction);
+		
 		// Update moments
-		totalMoments = AccelAndMoments.calculateTotalMoments(windParameters,
-														 	 angularRates,
-															 environmentParameters,
-															 controlsMap,
-															 alphaDot,
-															 engineList,
-															 aircraft,
-															 groundReaction,
-															 heightAGL);
-				
-		// Recalculates derivatives for next step
-		updateDerivatives(y);
+		totalMoments = accelAndMoments.calculateTotalMoments(engines, aircraft, groundReaction);
 	}
 	
 	/**
-	 *  Adds simulation data to the ArrayList {@link Integrate6DOFEquations#getLogsOut()} after each successful step of integration 
-	 *  for plotting, outputs to the console, etc
+	 *  Assigns simulation data to the primitive {@link Integrate6DOFEquations#simOutValues} array (indexed by {@link SimOuts} ordinal), 
+	 *  and then appends a copy of it to {@link Integrate6DOFEquations#getTelemetry()} after each successful step of integration 
+	 *  for plotting, outputs to the console, etc. If {@link Options#NO_LOGGING} is enabled, only the primitive array is updated, 
+	 *  so that the step path does not allocate. If outputs are logged by {@link Integrate6DOFEquations#getOutputLogger()}, the copy 
+	 *  is left to it
 	 */
 	private void logData() {
-		// Need to initialize within logData(), otherwise plots won't display correctly
-		simOut = Collections.synchronizedMap(new EnumMap<SimOuts, Double>(SimOuts.class));
+		final double[] out = simOutValues;
 		
-		synchronized (simOut) {
-			// Assign EnumMap with data members from integration
-			simOut.put(SimOuts.TIME, 		t);
-			
-			//6DOF States
-			simOut.put(SimOuts.U, 		 	linearVelocities[0]);
-			simOut.put(SimOuts.V, 		 	linearVelocities[1]);
-			simOut.put(SimOuts.W, 		 	linearVelocities[2]);
-			simOut.put(SimOuts.NORTH, 	 	NEDPosition[0]);
-			simOut.put(SimOuts.EAST, 		NEDPosition[1]);
-			simOut.put(SimOuts.ALT, 		NEDPosition[2]);
-			simOut.put(SimOuts.PHI, 		eulerAngles[0]);
-			simOut.put(SimOuts.THETA, 	 	eulerAngles[1]);
-			simOut.put(SimOuts.PSI, 		eulerAngles[2]);
-			simOut.put(SimOuts.P, 		 	angularRates[0]);
-			simOut.put(SimOuts.Q, 		 	angularRates[1]);
-			simOut.put(SimOuts.R, 		 	angularRates[2]);
-			
-			// Earth Position/Velocity
-			simOut.put(SimOuts.LAT, 		y[12]);
-			simOut.put(SimOuts.LAT_DOT, 	sixDOFDerivatives[12]);
-			simOut.put(SimOuts.LON, 		y[13]);
-			simOut.put(SimOuts.LON_DOT,		sixDOFDerivatives[13]);
-			
-			// Wind Parameters
-			simOut.put(SimOuts.TAS, 		windParameters[0]);
-			simOut.put(SimOuts.BETA, 		windParameters[1]);
-			simOut.put(SimOuts.ALPHA, 	 	windParameters[2]*-1);
-			
-			simOut.put(SimOuts.ALPHA_DOT,   alphaDot);
-			simOut.put(SimOuts.MACH, 		mach);
-			
-			// Accelerations
-			simOut.put(SimOuts.A_X, 		linearAccelerations[0]);
-			simOut.put(SimOuts.A_Y, 		linearAccelerations[1]);
-			simOut.put(SimOuts.A_Z, 		linearAccelerations[2]);
-			
-			simOut.put(SimOuts.AN_X, 	   (sixDOFDerivatives[0]/gravity));
-			simOut.put(SimOuts.AN_Y, 	   (sixDOFDerivatives[1]/gravity));
-			simOut.put(SimOuts.AN_Z, 	  ((sixDOFDerivatives[2]/gravity)+1.0));
-			
-			// Moments
-			simOut.put(SimOuts.L, 		 	totalMoments[0]);
-			simOut.put(SimOuts.M, 		 	totalMoments[1]);
-			simOut.put(SimOuts.N, 		 	totalMoments[2]);
-			
-			// 6DOF Derivatives
-			simOut.put(SimOuts.U_DOT, 	    sixDOFDerivatives[0]);
-			simOut.put(SimOuts.V_DOT, 	    sixDOFDerivatives[1]);
-			simOut.put(SimOuts.W_DOT, 	    sixDOFDerivatives[2]);
-			simOut.put(SimOuts.NORTH_DOT,   sixDOFDerivatives[3]);
-			simOut.put(SimOuts.EAST_DOT, 	sixDOFDerivatives[4]);
-			simOut.put(SimOuts.ALT_DOT,    (sixDOFDerivatives[5]*60));
-			simOut.put(SimOuts.PHI_DOT, 	sixDOFDerivatives[6]);
-			simOut.put(SimOuts.THETA_DOT,   sixDOFDerivatives[7]);
-			simOut.put(SimOuts.PSI_DOT, 	sixDOFDerivatives[8]);
-			simOut.put(SimOuts.P_DOT, 	 	sixDOFDerivatives[9]);
-			simOut.put(SimOuts.Q_DOT, 	 	sixDOFDerivatives[10]);
-			simOut.put(SimOuts.R_DOT, 	 	sixDOFDerivatives[11]);
-	
-			// Engine(s)
-			simOut.put(SimOuts.THRUST_1, 	0.0);
-			simOut.put(SimOuts.RPM_1, 	 	0.0);
-			simOut.put(SimOuts.FUEL_FLOW_1, 0.0);
-			simOut.put(SimOuts.THRUST_2, 	0.0);
-			simOut.put(SimOuts.RPM_2, 	 	0.0);
-			simOut.put(SimOuts.FUEL_FLOW_2, 0.0);
-			simOut.put(SimOuts.THRUST_3, 	0.0);
-			simOut.put(SimOuts.RPM_3, 	 	0.0);
-			simOut.put(SimOuts.FUEL_FLOW_3, 0.0);
-			simOut.put(SimOuts.THRUST_4, 	0.0);
-			simOut.put(SimOuts.RPM_4, 	 	0.0);
-			simOut.put(SimOuts.FUEL_FLOW_4, 0.0);
-	
-			for (Engine engine : engineList) {
-				int engineNumber = engine.getEngineNumber();
-				
-				simOut.put(Enum.valueOf(SimOuts.class, "THRUST_" + engineNumber), 	 engine.getEngineThrust()[0]);
-				simOut.put(Enum.valueOf(SimOuts.class, "RPM_" + engineNumber), 	 	 engine.getRPM());
-				simOut.put(Enum.valueOf(SimOuts.class, "FUEL_FLOW_" + engineNumber), engine.getFuelFlow());
-			}
+		out[SimOuts.TIME.ordinal()] 		= t;
+		
+		//6DOF States
+		out[SimOuts.U.ordinal()] 			= linearVelocities[0];
+		out[SimOuts.V.ordinal()] 			= linearVelocities[1];
+		out[SimOuts.W.ordinal()] 			= linearVelocities[2];
+		out[SimOuts.NORTH.ordinal()] 		= NEDPosition[0];
+		out[SimOuts.EAST.ordinal()] 		= NEDPosition[1];
+		out[SimOuts.ALT.ordinal()] 			= NEDPosition[2];
+		out[SimOuts.PHI.ordinal()] 			= eulerAngles[0];
+		out[SimOuts.THETA.ordinal()] 		= eulerAngles[1];
+		out[SimOuts.PSI.ordinal()] 			= eulerAngles[2];
+		out[SimOuts.P.ordinal()] 			= angularRates[0];
+		out[SimOuts.Q.ordinal()] 			= angularRates[1];
+		out[SimOuts.R.ordinal()] 			= angularRates[2];
+		
+		// Earth Position/Velocity
+		out[SimOuts.LAT.ordinal()] 			= y[12];
+		out[SimOuts.LAT_DOT.ordinal()] 		= sixDOFDerivatives[12];
+		out[SimOuts.LON.ordinal()] 			= y[13];
+		out[SimOuts.LON_DOT.ordinal()] 		= sixDOFDerivatives[13];
+		
+		// Wind Parameters
+		out[SimOuts.TAS.ordinal()] 			= windParameters[0];
+		out[SimOuts.BETA.ordinal()] 		= windParameters[1];
+		out[SimOuts.ALPHA.ordinal()] 		= windParameters[2]*-1;
+		
+		out[SimOuts.ALPHA_DOT.ordinal()] 	= alphaDot;
+		out[SimOuts.MACH.ordinal()] 		= mach;
+		
+		// Accelerations
+		out[SimOuts.A_X.ordinal()] 			= linearAccelerations[0];
+		out[SimOuts.A_Y.ordinal()] 			= linearAccelerations[1];
+		out[SimOuts.A_Z.ordinal()] 			= linearAccelerations[2];
+		
+		out[SimOuts.AN_X.ordinal()] 		= (sixDOFDerivatives[0]/gravity);
+		out[SimOuts.AN_Y.ordinal()] 		= (sixDOFDerivatives[1]/gravity);
+		out[SimOuts.AN_Z.ordinal()] 		= ((sixDOFDerivatives[2]/gravity)+1.0);
+		
+		// Moments
+		out[SimOuts.L.ordinal()] 			= totalMoments[0];
+		out[SimOuts.M.ordinal()] 			= totalMoments[1];
+		out[SimOuts.N.ordinal()] 			= totalMoments[2];
+		
+		// 6DOF Derivatives
+		out[SimOuts.U_DOT.ordinal()] 		= sixDOFDerivatives[0];
+		out[SimOuts.V_DOT.ordinal()] 		= sixDOFDerivatives[1];
+		out[SimOuts.W_DOT.ordinal()] 		= sixDOFDerivatives[2];
+		out[SimOuts.NORTH_DOT.ordinal()] 	= sixDOFDerivatives[3];
+		out[SimOuts.EAST_DOT.ordinal()] 	= sixDOFDerivatives[4];
+		out[SimOuts.ALT_DOT.ordinal()] 		= (sixDOFDerivatives[5]*60);
+		out[SimOuts.PHI_DOT.ordinal()] 		= sixDOFDerivatives[6];
+		out[SimOuts.THETA_DOT.ordinal()] 	= sixDOFDerivatives[7];
+		out[SimOuts.PSI_DOT.ordinal()] 		= sixDOFDerivatives[8];
+		out[SimOuts.P_DOT.ordinal()] 		= sixDOFDerivatives[9];
+		out[SimOuts.Q_DOT.ordinal()] 		= sixDOFDerivatives[10];
+		out[SimOuts.R_DOT.ordinal()] 		= sixDOFDerivatives[11];
+
+		// Engine(s)
+		for (int i = 1; i < THRUST_OUTS.length; i++) {
+			out[THRUST_OUTS[i].ordinal()] 	 = 0.0;
+			out[RPM_OUTS[i].ordinal()] 		 = 0.0;
+			out[FUEL_FLOW_OUTS[i].ordinal()] = 0.0;
+		}
+
+		for (Engine engine : engines) {
+			int engineNumber = engine.getEngineNumber();
 			
-			// Controls
-			simOut.put(SimOuts.ELEVATOR,    controlsMap.get(FlightControl.ELEVATOR));
-			simOut.put(SimOuts.AILERON, 	controlsMap.get(FlightControl.AILERON));
-			simOut.put(SimOuts.RUDDER, 	 	controlsMap.get(FlightControl.RUDDER));
-			simOut.put(SimOuts.THROTTLE_1, 	controlsMap.get(FlightControl.THROTTLE_1));
-			simOut.put(SimOuts.THROTTLE_2, 	controlsMap.get(FlightControl.THROTTLE_2));
-			simOut.put(SimOuts.THROTTLE_3, 	controlsMap.get(FlightControl.THROTTLE_3));
-			simOut.put(SimOuts.THROTTLE_4, 	controlsMap.get(FlightControl.THROTTLE_4));
-			simOut.put(SimOuts.PROPELLER_1, controlsMap.get(FlightControl.PROPELLER_1));
-			simOut.put(SimOuts.PROPELLER_2, controlsMap.get(FlightControl.PROPELLER_2));
-			simOut.put(SimOuts.PROPELLER_3, controlsMap.get(FlightControl.PROPELLER_3));
-			simOut.put(SimOuts.PROPELLER_4, controlsMap.get(FlightControl.PROPELLER_4));
-			simOut.put(SimOuts.MIXTURE_1, 	controlsMap.get(FlightControl.MIXTURE_1));
-			simOut.put(SimOuts.MIXTURE_2, 	controlsMap.get(FlightControl.MIXTURE_2));
-			simOut.put(SimOuts.MIXTURE_3, 	controlsMap.get(FlightControl.MIXTURE_3));
-			simOut.put(SimOuts.MIXTURE_4, 	controlsMap.get(FlightControl.MIXTURE_4));
-			simOut.put(SimOuts.FLAPS, 	 	controlsMap.get(FlightControl.FLAPS));
-			simOut.put(SimOuts.GEAR, 	 	controlsMap.get(FlightControl.GEAR));
+			out[THRUST_OUTS[engineNumber].ordinal()] 	= engine.getEngineThrust()[0];
+			out[RPM_OUTS[engineNumber].ordinal()] 		= engine.getRPM();
+			out[FUEL_FLOW_OUTS[engineNumber].ordinal()] = engine.getFuelFlow();
 		}
 		
-		synchronized (logsOut) {
-			// Removes the first entry in logsOut to keep a maximum of 100 sec of flight data in UNLIMITED_FLIGHT
-			if (options.contains(Options.UNLIMITED_FLIGHT) & t >= 100 & logsOut.size() > 0)
-				logsOut.remove(0);
-				
-			// Add output step to logging arrayList
-			logsOut.add(simOut);	
-		}
+		// Controls
+		out[SimOuts.ELEVATOR.ordinal()] 	= controlsMap.get(FlightControl.ELEVATOR);
+		out[SimOuts.AILERON.ordinal()] 		= controlsMap.get(FlightControl.AILERON);
+		out[SimOuts.RUDDER.ordinal()] 		= controlsMap.get(FlightControl.RUDDER);
+		out[SimOuts.THROTTLE_1.ordinal()] 	= controlsMap.get(FlightControl.THROTTLE_1);
+		out[SimOuts.THROTTLE_2.ordinal()] 	= controlsMap.get(FlightControl.THROTTLE_2);
+		out[SimOuts.THROTTLE_3.ordinal()] 	= controlsMap.get(FlightControl.THROTTLE_3);
+		out[SimOuts.THROTTLE_4.ordinal()] 	= controlsMap.get(FlightControl.THROTTLE_4);
+		out[SimOuts.PROPELLER_1.ordinal()] 	= controlsMap.get(FlightControl.PROPELLER_1);
+		out[SimOuts.PROPELLER_2.ordinal()] 	= controlsMap.get(FlightControl.PROPELLER_2);
+		out[SimOuts.PROPELLER_3.ordinal()] 	= controlsMap.get(FlightControl.PROPELLER_3);
+		out[SimOuts.PROPELLER_4.ordinal()] 	= controlsMap.get(FlightControl.PROPELLER_4);
+		out[SimOuts.MIXTURE_1.ordinal()] 	= controlsMap.get(FlightControl.MIXTURE_1);
+		out[SimOuts.MIXTURE_2.ordinal()] 	= controlsMap.get(FlightControl.MIXTURE_2);
+		out[SimOuts.MIXTURE_3.ordinal()] 	= controlsMap.get(FlightControl.MIXTURE_3);
+		out[SimOuts.MIXTURE_4.ordinal()] 	= controlsMap.get(FlightControl.MIXTURE_4);
+		out[SimOuts.FLAPS.ordinal()] 		= controlsMap.get(FlightControl.FLAPS);
+		out[SimOuts.GEAR.ordinal()] 		= controlsMap.get(FlightControl.GEAR);
+		
+		if (outputLogger == null)
+			recordOutputs();
+		else
+			outputsPending = true;
+	}
+	
+	/**
+	 * Appends a copy of {@link Integrate6DOFEquations#simOutValues} to {@link Integrate6DOFEquations#getTelemetry()}, unless
+	 * {@link Options#NO_LOGGING} is enabled
+	 */
+	private void recordOutputs() {
+		final double[] out = simOutValues;
+		
+		if (options.contains(Options.NO_LOGGING))
+			return;
+		
+		// Evicts the oldest outputs to keep a maximum of 100 sec of flight data in UNLIMITED_FLIGHT
+		if (options.contains(Options.UNLIMITED_FLIGHT))
+			telemetry.evictOlderThan(out[SimOuts.TIME.ordinal()] - 100);
+		
+		telemetry.append(out);
 	}
 	
 	//================================= Simulation Logging =====================================================
 	
 	/**
-	 * Returns an ArrayList of {@link Integrate6DOFEquations#getSimOut()} objects; acts as a logging method, which can be used to plot simulation data
-	 * or output it to a file
+	 * Returns the columnar store of simulation outputs logged each step, from which ranges of outputs can be copied without locking to 
+	 * plot simulation data or output it to a file
+	 * 
+	 * @return telemetry
+	 */
+	public TelemetryStore getTelemetry() { return telemetry; }
+	
+	/**
+	 * Returns a live, read-only view of {@link Integrate6DOFEquations#getTelemetry()} as a List of {@link SimOuts} Maps; acts as a logging 
+	 * method, which can be used to plot simulation data or output it to a file
 	 * 
 	 * @return logsOut
 	 */
-	public synchronized List<Map<SimOuts, Double>> getLogsOut() { return Collections.unmodifiableList(logsOut); }
+	public List<Map<SimOuts, Double>> getLogsOut() { return telemetry.asList(); }
+	
+	/**
+	 * Clears logged outputs of past data in preparation for recording a new maneuver 
+	 * 
+	 * @return If any logged outputs were deleted
+	 */
+	public boolean clearLogsOut() { 
+		boolean hadOutputs = telemetry.size() > 0;
+		telemetry.clear();
+		
+		return hadOutputs; 
+	}
+	
+	/**
+	 * Returns the simulation outputs of the most recent step of integration as a primitive array indexed by 
+	 * {@link SimOuts#ordinal()}. This array is overwritten in place each step
+	 * 
+	 * @return simOutValues
+	 */
+	public double[] getSimOutValues() { return simOutValues; }
 	
 	/**
-	 * Clears logsOut list of past data in preparation for recording a new maneuver 
+	 * Returns a {@link Steppable} in the {@link RateGroup#LOGGING} rate group that adds the outputs of the most recent step of 
+	 * integration to {@link Integrate6DOFEquations#getLogsOut()} each time it is stepped, so that outputs can be logged at a lower 
+	 * rate than the simulation runs. Once this has been called, outputs are no longer logged by each step of integration
 	 * 
-	 * @return If logsOut list was successfully deleted
+	 * @return output logger of this simulation
 	 */
-	public synchronized boolean clearLogsOut() { return logsOut.removeAll(logsOut); }
+	public synchronized Steppable getOutputLogger() {
+		if (outputLogger == null) {
+			outputLogger = new Steppable() {
+				@Override
+				public void step() {
+					// Log only steps that have not been logged yet, such as while paused
+					if (outputsPending) {
+						outputsPending = false;
+						recordOutputs();
+					}
+				}
+
+				@Override
+				public RateGroup getRateGroup() { return RateGroup.LOGGING; }
+			};
+		}
+		
+		return outputLogger;
+	}
+	
+	/**
+	 * Evaluates the 14 state derivatives at an arbitrary state y[] and the current flight controls, writing them into yDot[], without 
+	 * integrating. Used to numerically linearize the equations of motion about a trim point. Ground reaction forces and alphaDot are 
+	 * held at their values from the last step, and the states, engines and environment of this object are left at y[], so this should 
+	 * only be called on a simulation that is not being stepped
+	 * 
+	 * @param y states ordered as in {@link com.chrisali.javaflightsim.simulation.setup.InitialConditions}
+	 * @param yDot
+	 * @return yDot
+	 */
+	public double[] calculateDerivatives(double[] y, double[] yDot) {
+		sixDOFEquations.computeDerivatives(t, y, yDot);
+		
+		return yDot;
+	}
+	
+	/**
+	 * @return states of the most recent step of integration, ordered as in {@link com.chrisali.javaflightsim.simulation.setup.InitialConditions}
+	 */
+	public double[] getStates() { return initialConditions.clone(); }
 	
 	//========================================= Time ============================================================
 	
@@ -497,10 +626,10 @@ public class Integrate6DOFEquations implements Steppable, EnvironmentDataListene
 	 * @param temperature
 	 */
 	public void setWeather(double windSpeed, double windDir, double temperature) {
-		Environment.setWindDir(windDir);
-		Environment.setWindSpeed(windSpeed);
+		environment.setWindDir(windDir);
+		environment.setWindSpeed(windSpeed);
 		// Subtract standard temperature from argument to get deviation from standard, then convert C deg to F deg 
-		Environment.setDeltaIsa((temperature-15)*9/5);
+		environment.setDeltaIsa((temperature-15)*9/5);
 	}
 
 	//==================================== Events ==========================================================
@@ -525,10 +654,21 @@ public class Integrate6DOFEquations implements Steppable, EnvironmentDataListene
 		}
 	}
 
+	/**
+	 * Adds a {@link GroundContactListener} to be notified of touchdowns and liftoffs of the landing gear 
+	 * 
+	 * @param groundContactListener
+	 */
+	public void addGroundContactListener(GroundContactListener groundContactListener) {
+		groundReaction.addGroundContactListener(groundContactListener);
+	}
+
 	/**
 	 * Lets registered listeners know that data has arrived so that they can use it as needed
 	 */
 	private void fireFlightDataArrived() {
-		flightDataListeners.forEach(listener -> listener.onFlightDataReceived(flightData));
+		// Indexed loop, as a lambda capturing flightData would be allocated on every step
+		for (int i = 0; i < flightDataListeners.size(); i++)
+			flightDataListeners.get(i).onFlightDataReceived(flightData);
 	}
 }
@@ -20,28 +20,41 @@
 package com.chrisali.javaflightsim.simulation.integration;
 
 import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
-import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
-import org.apache.commons.math3.ode.FirstOrderDifferentialEquations;
-import org.apache.commons.math3.ode.nonstiff.ClassicalRungeKuttaIntegrator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.chrisali.javaflightsim.simulation.SimulationContext;
 import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
 import com.chrisali.javaflightsim.simulation.aircraft.GroundReaction;
+import com.chrisali.javaflightsim.simulation.aircraft.LandingGear;
 import com.chrisali.javaflightsim.simulation.aircraft.MassProperties;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.setup.GroundReactionSolver;
 import com.chrisali.javaflightsim.simulation.utilities.SixDOFUtilities;
 
 /**
  * This class contains calculations needed to model the force and moment reactions between the aircraft
- * and its landing gear. It uses a spring-mass-damper system which is modeled as three second order 
- * differential equations integrated simultaneously, converted to first order equations by use of 
- * state-space methods so that {@link ClassicalRungeKuttaIntegrator} can be used. The integration runs
- * as single steps inside of {@link Integrate6DOFEquations} own integration, and the calculated forces 
- * and moments are fed back into the 6DOF integrator to calculate the total accelerations and moments for
- * the aircraft. 
+ * and its landing gear, using a spring-mass-damper model of each gear. The calculations run once per step 
+ * inside of {@link Integrate6DOFEquations} own integration, and the calculated forces and moments are fed back 
+ * into the 6DOF integrator to calculate the total accelerations and moments for the aircraft. 
+ * 
+ * <p>The {@link GroundReactionSolver} selected in the simulation configuration determines how strut forces are calculated:</p>
+ * <ul>
+ * <li>{@link GroundReactionSolver#EXPLICIT} uses the spring-damper derivatives at the start of each step, which 
+ * is only stable for small time steps</li>
+ * <li>{@link GroundReactionSolver#BACKWARD_EULER} calculates the strut force at the end of each step, accounting for
+ * the motion the force itself will cause over the step, which is unconditionally stable for the stiff gear dynamics and 
+ * allows large time steps to be taken on the ground. Touchdowns part way through a step are detected by projecting the
+ * height of each gear over the step, and only the fraction of the step spent in contact is applied</li>
+ * </ul>
+ * 
+ * <p>Gear geometry and properties are read into per-gear arrays indexed by {@link LandingGear} ordinal when constructed, 
+ * so that no map lookups or allocations are needed each step. Touchdown and liftoff of each gear are sent to any 
+ * registered {@link GroundContactListener}</p>
  * 
  * <p> Equations and theory used in this class can be found in: <i>Principles of Flight Simulation, Allerton, D.</i></p>
  * 
@@ -52,37 +65,72 @@ public class IntegrateGroundReaction {
 	//Logging
 	private static final Logger logger = LogManager.getLogger(IntegrateGroundReaction.class);
 	
+	private static final int GEARS = LandingGear.values().length;
+	private static final int NOSE = LandingGear.NOSE.ordinal();
+	
 	// Tire Properties
 	private static final double TIRE_STATIC_FRICTION  = 0.5;
 	private static final double TIRE_ROLLING_FRICTION = 0.06;
 	
+	// Strut force limit [lbf]
+	private static final double MAX_STRUT_FORCE = 10000;
+	
+	// Tire speeds below which friction and braking forces taper off linearly to zero [ft/sec]; forward speed is 
+	// limited to a minimum of STATIONARY_VELOCITY by SaturationUtilities, so it is taken as stand still
+	private static final double STATIONARY_VELOCITY = 0.5;
+	private static final double ROLLING_VELOCITY  = 1.0;
+	private static final double BRAKING_VELOCITY  = 2.0;
+	private static final double SIDESLIP_VELOCITY = 1.0;
+	
+	// Nosewheel steering angle at full rudder deflection [rad]
+	private static final double MAX_NOSEWHEEL_STEERING = Math.toRadians(20);
+	
 	// Aircraft Properties
 	private double mass;
 	private Map<FlightControl, Double> controls;
-	private Map<GroundReaction, Double> groundReaction;
 	private boolean weightOnWheels = false;
+	private GroundReactionSolver solver;
+	
+	// Gear Properties [gear]
+	private final double[][] gearPosition = new double[GEARS][3]; //{x, y, z} relative to CG [ft]
+	private final double[][] momentArm    = new double[GEARS][3]; //{x, y, z} scaled arms used by the explicit model [ft]
+	private final double[]   gearSpring   = new double[GEARS];
+	private final double[]   gearDamping  = new double[GEARS];
+	private double 			 brakingForce;
 	
 	// Positions
 	private double   terrainHeight			   = 0.0;
 	
-	private double[] tirePosition			   = new double[3]; //{nose, left, right} [ft]
-	private double[] tireVelocity			   = new double[3]; //{nose, left, right} [ft/sec]
+	private double[] tirePosition			   = new double[GEARS]; //{nose, left, right} [ft]
+	private double[] tireVelocity			   = new double[GEARS]; //{nose, left, right} [ft/sec]
+	private double[][] tireBodyVelocity		   = new double[GEARS][3]; //{u, v, w} of each tire [ft/sec]
+	private double[][] dirCosMat			   = new double[3][3];
 	
 	// Forces and Moments
-	private double[] noseGroundForces 		   = new double[3]; //{Fx, Fy, Fz} [lbf]
-	private double[] leftGroundForces 		   = new double[3]; //{Fx, Fy, Fz} [lbf]
-	private double[] rightGroundForces 		   = new double[3]; //{Fx, Fy, Fz} [lbf]
+	private double[][] gearForces			   = new double[GEARS][3]; //{Fx, Fy, Fz} of each gear [lbf]
+	private double[]   normalForces			   = new double[GEARS];	   // [lbf]
+	private boolean[]  gearContact			   = new boolean[GEARS];
+	
+	// Backward Euler Solver
+	private double[]   inertiaCoeffs		   = new double[9];
+	private double[][] gearArm				   = new double[GEARS][3];	   //cross product of gear position and upward unit vector [ft]
+	private double[]   tireAcceleration		   = new double[GEARS];	   //{nose, left, right} [ft/sec^2]
+	private double[][] tireMobility			   = new double[GEARS][GEARS]; // [ft/sec^2/lbf]
+	private double[]   contactFraction		   = new double[GEARS];
+	private boolean[]  solverContact		   = new boolean[GEARS];
+	private double[][] strutMatrix			   = new double[GEARS][GEARS + 1];
+	private double[]   strutForces			   = new double[GEARS];	   // [lbf]
+	private double[]   rollingMobility		   = new double[GEARS];	   //along body x axis [ft/sec^2/lbf]
+	private double[]   sideMobility			   = new double[GEARS];	   //along body y axis [ft/sec^2/lbf]
 	
 	private double[] totalGroundForces 		   = new double[3]; //{Fx, Fy, Fz} [lbf]
-	private double[] totalGroundMoments		   = new double[3]; //{Fx, Fy, Fz} [lbf]
+	private double[] totalGroundMoments		   = new double[3]; //{L, M, N} [lbf ft]
 	
 	// Integrator Fields
-	private ClassicalRungeKuttaIntegrator integrator;
 	private double   t;
 	private double[] integratorConfig		   = new double[3];
-	private double[] groundReactionDerivatives = new double[6];
-	private double[] y					       = new double[6];
-	private double[] y0					       = new double[6];
+	private double[] groundReactionDerivatives = new double[2*GEARS];
+	private double[] tireStates				   = new double[2*GEARS];
 	
 	// 6DOF Integration Results
 	private double[] linearVelocities 		   = new double[3];
@@ -94,6 +142,8 @@ public class IntegrateGroundReaction {
 	
 	private double[] sixDOFDerivatives		   = new double[14];
 	
+	private List<GroundContactListener> groundContactListeners = new ArrayList<>();
+	
 	/**
 	 * Constructor for ground reaction integrator; uses references to integrated states from 
 	 * {@link Integrate6DOFEquations} as well as terrain height received from the 
@@ -104,7 +154,7 @@ public class IntegrateGroundReaction {
 	 * @param angularRates
 	 * @param sixDOFDerivatives
 	 * @param integratorConfig
-	 * @param aircraft
+	 * @param context simulation run whose {@link Aircraft} gear properties and {@link GroundReactionSolver} are used
 	 * @param controls
 	 */
 	public IntegrateGroundReaction(double[] linearVelocities,
@@ -114,7 +164,7 @@ public class IntegrateGroundReaction {
 								   double[] windParameters,
 								   double[] sixDOFDerivatives,
 								   double[] integratorConfig,
-								   Aircraft aircraft,
+								   SimulationContext context,
 								   Map<FlightControl, Double> controls) {
 		
 		this.NEDPosition = NEDPosition;
@@ -126,45 +176,59 @@ public class IntegrateGroundReaction {
 		this.sixDOFDerivatives = sixDOFDerivatives;
 		
 		this.controls = controls;
-		this.groundReaction = aircraft.getGroundReaction();
+		Aircraft aircraft = context.getAircraft();
+		
 		this.mass = aircraft.getMassProps().get(MassProperties.TOTAL_MASS);
+		SixDOFUtilities.calculateInertiaCoeffs(aircraft.getInertiaValues(), inertiaCoeffs);
+		this.solver = context.getConfiguration().getGroundReactionSolver();
 		
 		this.integratorConfig = integratorConfig;
 		
-		// "Initial conditions" are zeroed for now; on ground trimming needs pre-loading of gear
-		for (int i = 0; i < y0.length/2; i++) {
-			y0[2*i] = -3.0;
-			y0[2*i+1] = 0.0;
-		}
+		readGearProperties(aircraft.getGroundReaction());
 		
-		logger.info("Setting up Runge Kutta Integrator for 6DOF calculations...");
+		logger.info("Using " + solver + " solver for ground reaction calculations...");
 		
-		integrator = new ClassicalRungeKuttaIntegrator(integratorConfig[2]);
 		t = integratorConfig[0];
 		
-		updateDerivatives(y);
+		updateDerivatives(tireStates);
 	}
 	
 	/**
-	 * Ground reaction derivatives integrated to determine ground forces and moments; 
-	 * {@link IntegrateGroundReaction#updateDerivatives(double[])} is called in each step of
-	 * integration to recalculate derivatives, which are then passed into the yDot[] array 
-	 * programmatically
+	 * Reads the position, spring and damping properties of each landing gear into arrays indexed by {@link LandingGear} ordinal
 	 * 
-	 * @author Christopher Ali
-	 *
+	 * @param groundReaction
 	 */
-	private class GroundReactionEquations implements FirstOrderDifferentialEquations {
-		@Override
-		public void computeDerivatives(double t, double[] y, double[] yDot) {
-			for (int i = 0; i < groundReactionDerivatives.length; i++)
-				yDot[i] = groundReactionDerivatives[i];			
+	private void readGearProperties(Map<GroundReaction, Double> groundReaction) {
+		GroundReaction[][] keys = {{GroundReaction.NOSE_X,  GroundReaction.NOSE_Y,  GroundReaction.NOSE_Z,  GroundReaction.NOSE_SPRING,  GroundReaction.NOSE_DAMPING},
+								   {GroundReaction.LEFT_X,  GroundReaction.LEFT_Y,  GroundReaction.LEFT_Z,  GroundReaction.LEFT_SPRING,  GroundReaction.LEFT_DAMPING},
+								   {GroundReaction.RIGHT_X, GroundReaction.RIGHT_Y, GroundReaction.RIGHT_Z, GroundReaction.RIGHT_SPRING, GroundReaction.RIGHT_DAMPING}};
+		
+		for (int i = 0; i < GEARS; i++) {
+			for (int j = 0; j < 3; j++)
+				gearPosition[i][j] = groundReaction.get(keys[i][j]);
+			
+			gearSpring[i]  = groundReaction.get(keys[i][3]);
+			gearDamping[i] = groundReaction.get(keys[i][4]);
+			
+			// Scale down moments by scaling the arm lengths (negative sign produces realistic braking moments)
+			momentArm[i][0] =  gearPosition[i][0];
+			momentArm[i][1] =  gearPosition[i][1] * ((i == NOSE) ? 1.0 : 0.25);
+			momentArm[i][2] = -gearPosition[i][2] * 0.125;
+		}
+		
+		brakingForce = groundReaction.get(GroundReaction.BRAKING_FORCE);
+		
+		// Acceleration of each tire along the body x and y axes per unit force along them, through both the mass and inertia of the aircraft
+		for (int i = 0; i < GEARS; i++) {
+			final double x = gearPosition[i][0], y = gearPosition[i][1], z = gearPosition[i][2];
+			
+			rollingMobility[i] = 1/mass + inertiaCoeffs[6]*z*z + inertiaCoeffs[8]*y*y;
+			sideMobility[i]    = 1/mass + inertiaCoeffs[2]*z*z - 2*inertiaCoeffs[3]*z*x + inertiaCoeffs[8]*x*x;
 		}
-
-		@Override
-		public int getDimension() {return 6;}
 	}
 	
+	//=============================== Explicit Solver ========================================================
+	
 	/**
 	 * Recalculates the derivatives for each landing gear using second order simple spring-mass-damper
 	 * ODEs converted to first order ODEs in state space form 
@@ -173,49 +237,36 @@ public class IntegrateGroundReaction {
 	 */
 	private void updateDerivatives(double[] y) {
 		// If tire position > 0, tire is still airborne and no forces should be applied 
-		// i=0 (nose), i=1 (left main), i=2 (right main)
-		for (int i = 0; i < tirePosition.length; i++) {
+		for (int i = 0; i < GEARS; i++) {
 			if (tirePosition[i] > 0.01) { 
 				groundReactionDerivatives[2*i+1] = y[2*i+1] = 0;
 				groundReactionDerivatives[2*i]   = y[2*i]   = 0;
 				
-				switch(i) {
-				case 0:
-					for(int j = 0; j < noseGroundForces.length; j++)
-						noseGroundForces[j] = 0;
-					break;
-				case 1:
-					for(int j = 0; j < leftGroundForces.length; j++)
-						leftGroundForces[j] = 0;
-					break;
-				case 2:
-					for(int j = 0; j < rightGroundForces.length; j++)
-						rightGroundForces[j] = 0;
-					break;
-				}
+				for (int j = 0; j < 3; j++)
+					gearForces[i][j] = 0;
+				
 				weightOnWheels = false;
 			} else {
 				weightOnWheels = true;
 			}
 		}
 		
-		// Nose
-		groundReactionDerivatives[0] = y[1];
-		groundReactionDerivatives[1] =  (- groundReaction.get(GroundReaction.NOSE_DAMPING)/mass * y[1]) 
-									 	- (groundReaction.get(GroundReaction.NOSE_SPRING)/mass * y[0])
-									 	+ noseGroundForces[2]/mass;
-		
-		// Left Main
-		groundReactionDerivatives[2] = y[3];
-		groundReactionDerivatives[3] =  (- groundReaction.get(GroundReaction.LEFT_DAMPING)/mass * y[3]) 
-									 	- (groundReaction.get(GroundReaction.LEFT_SPRING)/mass * y[2])
-									 	+ leftGroundForces[2]/mass;
-		
-		// Right Main
-		groundReactionDerivatives[4] = y[5];
-		groundReactionDerivatives[5] =  (- groundReaction.get(GroundReaction.RIGHT_DAMPING)/mass * y[5]) 
-									 	- (groundReaction.get(GroundReaction.RIGHT_SPRING)/mass * y[4])
-									 	+ rightGroundForces[2]/mass;
+		calculateDerivatives(y, groundReactionDerivatives);
+	}
+	
+	/**
+	 * Calculates the spring-mass-damper derivatives of each landing gear at state y[], writing them into yDot[]
+	 * 
+	 * @param y {nose position, nose velocity, left position, left velocity, right position, right velocity}
+	 * @param yDot
+	 */
+	private void calculateDerivatives(double[] y, double[] yDot) {
+		for (int i = 0; i < GEARS; i++) {
+			yDot[2*i]   = y[2*i+1];
+			yDot[2*i+1] =  (- gearDamping[i]/mass * y[2*i+1]) 
+						   - (gearSpring[i]/mass * y[2*i])
+						   + gearForces[i][2]/mass;
+		}
 	}
 	
 	/**
@@ -223,32 +274,10 @@ public class IntegrateGroundReaction {
 	 * calculate ground reaction derivatives and forces 
 	 */
 	private void calculateTirePositionsAndVelocities() {
-		double[][] dirCosMat = SixDOFUtilities.body2Ned(eulerAngles);
-		double[] gearRelativeCG; // Position of {nose, left, right} gear relative to CG position
+		SixDOFUtilities.body2Ned(eulerAngles[0], eulerAngles[1], eulerAngles[2], dirCosMat);
 		
-		// i=0 (nose), i=1 (left main), i=2 (right main)
-		for (int i = 0; i < 3; i++) {
-			// Assign body gear positions depending on stage of loop
-			switch(i) {
-			case 0:
-				gearRelativeCG = new double[]{groundReaction.get(GroundReaction.NOSE_X),
-											  groundReaction.get(GroundReaction.NOSE_Y),
-											  groundReaction.get(GroundReaction.NOSE_Z)};
-				break;
-			case 1:
-				gearRelativeCG = new double[]{groundReaction.get(GroundReaction.LEFT_X),
-											  groundReaction.get(GroundReaction.LEFT_Y),
-											  groundReaction.get(GroundReaction.LEFT_Z)};
-				break;
-			case 2:
-				gearRelativeCG = new double[]{groundReaction.get(GroundReaction.RIGHT_X),
-											  groundReaction.get(GroundReaction.RIGHT_Y),
-											  groundReaction.get(GroundReaction.RIGHT_Z)};
-				break;
-			default:
-				gearRelativeCG = new double[]{0, 0, 0};
-				break;
-			}
+		for (int i = 0; i < GEARS; i++) {
+			final double[] gearRelativeCG = gearPosition[i]; // Position of gear relative to CG position
 			
 			// 3rd row of body2Ned matrix (D) plus (altitude minus terrain height) is the height of the landing gear above ground
 			tirePosition[i]  = (gearRelativeCG[0]*dirCosMat[2][0]+gearRelativeCG[1]*dirCosMat[2][1]+gearRelativeCG[2]*dirCosMat[2][2]) + (NEDPosition[2]-terrainHeight);   // eq 3.134
@@ -261,9 +290,12 @@ public class IntegrateGroundReaction {
 			// Saturate tire positions/velocities from compressing/moving too far/fast
 			tirePosition[i] = (tirePosition[i] < -gearRelativeCG[2]) ? -gearRelativeCG[2] : tirePosition[i];
 			
-			tireVelocity[i] = (tireVelocity[i] >  30) ? tireVelocity[i] =  30 : 
-							  (tireVelocity[i] < -30) ? tireVelocity[i] = -30 : 
+			tireVelocity[i] = (tireVelocity[i] >  30) ?  30 : 
+							  (tireVelocity[i] < -30) ? -30 : 
 							   tireVelocity[i];
+			
+			tireStates[2*i]   = tirePosition[i];
+			tireStates[2*i+1] = tireVelocity[i];
 		}
 	}
 	
@@ -272,55 +304,46 @@ public class IntegrateGroundReaction {
 	 * ground reaction derivatives and moments. Uses equations 3.137-143 in Principles of Flight Simulation (Allerton) 
 	 */
 	private void calculateTotalGroundForces() {
-		// Z Forces (Landing Gear Struts)
-		// Limit strut forces
-		noseGroundForces[2]  = (noseGroundForces[2] >  10000) ?  10000 : 
-							   (noseGroundForces[2] < -10000) ? -10000 : 
-							   - (groundReactionDerivatives[1] * mass) * (1 + eulerAngles[1]);
-		
-		leftGroundForces[2]  = (leftGroundForces[2] >  10000) ?  10000 : 
-							   (leftGroundForces[2] < -10000) ? -10000 : 
-							   - (groundReactionDerivatives[3] * mass) * (1 + eulerAngles[1]);
-		
-		rightGroundForces[2] = (rightGroundForces[2] >  10000) ?  10000 : 
-							   (rightGroundForces[2] < -10000) ? -10000 : 
-							   - (groundReactionDerivatives[5] * mass) * (1 + eulerAngles[1]);
-		
-		// X Forces
-		// Use static coefficient of friction if near stand still; taper force off as forward velocity nears 0 
-		if (linearVelocities[0] < 5) {
-			noseGroundForces[0]  = noseGroundForces[2]  * (TIRE_STATIC_FRICTION * linearVelocities[0]/5 + eulerAngles[1]);
-			leftGroundForces[0]  = leftGroundForces[2]  * (TIRE_STATIC_FRICTION * linearVelocities[0]/5 + eulerAngles[1]);
-			rightGroundForces[0] = rightGroundForces[2] * (TIRE_STATIC_FRICTION * linearVelocities[0]/5 + eulerAngles[1]);
-		} else {
-			noseGroundForces[0]  = noseGroundForces[2]  * (TIRE_ROLLING_FRICTION + eulerAngles[1]);
-			leftGroundForces[0]  = leftGroundForces[2]  * (TIRE_ROLLING_FRICTION + eulerAngles[1]);
-			rightGroundForces[0] = rightGroundForces[2] * (TIRE_ROLLING_FRICTION + eulerAngles[1]);
-		}
-		
-		// Braking
-		// Taper force off as forward velocity nears 0 
-		if (linearVelocities[0] < 2) {
-			leftGroundForces[0]  -= groundReaction.get(GroundReaction.BRAKING_FORCE) * controls.get(FlightControl.BRAKE_L) * linearVelocities[0]/2;
-			rightGroundForces[0] -= groundReaction.get(GroundReaction.BRAKING_FORCE) * controls.get(FlightControl.BRAKE_R) * linearVelocities[0]/2;
-		} else {
-			leftGroundForces[0]  -= groundReaction.get(GroundReaction.BRAKING_FORCE) * controls.get(FlightControl.BRAKE_L);
-			rightGroundForces[0] -= groundReaction.get(GroundReaction.BRAKING_FORCE) * controls.get(FlightControl.BRAKE_R);
+		for (int i = 0; i < GEARS; i++) {
+			final double[] gearForce = gearForces[i];
+			
+			// Z Forces (Landing Gear Struts)
+			// Limit strut forces
+			gearForce[2] = (gearForce[2] >  MAX_STRUT_FORCE) ?  MAX_STRUT_FORCE : 
+						   (gearForce[2] < -MAX_STRUT_FORCE) ? -MAX_STRUT_FORCE : 
+						   - (groundReactionDerivatives[2*i+1] * mass) * (1 + eulerAngles[1]);
+			
+			// X Forces
+			// Use static coefficient of friction if near stand still; taper force off as forward velocity nears 0 
+			if (linearVelocities[0] < 5)
+				gearForce[0] = gearForce[2] * (TIRE_STATIC_FRICTION * linearVelocities[0]/5 + eulerAngles[1]);
+			else
+				gearForce[0] = gearForce[2] * (TIRE_ROLLING_FRICTION + eulerAngles[1]);
+			
+			// Braking on main gear
+			// Taper force off as forward velocity nears 0 
+			if (i != NOSE) {
+				double brake = controls.get((i == LandingGear.LEFT_MAIN.ordinal()) ? FlightControl.BRAKE_L : FlightControl.BRAKE_R);
+				
+				if (linearVelocities[0] < 2)
+					gearForce[0] -= brakingForce * brake * linearVelocities[0]/2;
+				else
+					gearForce[0] -= brakingForce * brake;
+			}
 		}
 		
 		// Y Forces
 		// Nosewheel steering friction force based on a fraction of the rudder deflection to the maximum deflection
 		if (linearVelocities[0] > 20) {
-			noseGroundForces[1]  =   Math.abs(noseGroundForces[2]) * TIRE_ROLLING_FRICTION 
+			gearForces[NOSE][1] =   Math.abs(gearForces[NOSE][2]) * TIRE_ROLLING_FRICTION 
 								  * (controls.get(FlightControl.RUDDER)/FlightControl.RUDDER.getMaximum())/10;
-									// Create side force to yaw aircraft in direction of velocity vector
-			leftGroundForces[1]  = - Math.abs(leftGroundForces[2])  * TIRE_STATIC_FRICTION * windParameters[1]; 
-			rightGroundForces[1] =   Math.abs(rightGroundForces[2]) * TIRE_STATIC_FRICTION * windParameters[1];
+			
+			// Create side force to yaw aircraft in direction of velocity vector
+			gearForces[LandingGear.LEFT_MAIN.ordinal()][1]  = - Math.abs(gearForces[LandingGear.LEFT_MAIN.ordinal()][2])  * TIRE_STATIC_FRICTION * windParameters[1]; 
+			gearForces[LandingGear.RIGHT_MAIN.ordinal()][1] =   Math.abs(gearForces[LandingGear.RIGHT_MAIN.ordinal()][2]) * TIRE_STATIC_FRICTION * windParameters[1];
 		}
 		
-		// Summation of Forces
-		for (int i = 0; i < 3; i ++)
-			totalGroundForces[i] = leftGroundForces[i] + rightGroundForces[i] + noseGroundForces[i];
+		sumGearForces();
 	}
 	
 	/**
@@ -328,91 +351,361 @@ public class IntegrateGroundReaction {
 	 * to the center of gravity and ground reaction forces
 	 */
 	private void calculateTotalGroundMoments() {
-		double[] tempTotalGroundMoments = new double[]{0, 0, 0};
-		Vector3D forceVector;
-		Vector3D gearRelativeCGVector;
+		double l = 0, m = 0, n = 0;
 		
-		// i=0 (nose), i=1 (left main), i=2 (right main)
-		for (int i = 0; i < 3; i++) {
-			// Assign body gear force and arm vectors depending on stage of loop
-			// Scale down moments by scaling the arm lengths (negative sign produces realistic braking moments)
-			switch(i) {
-			case 0:
-				gearRelativeCGVector = new Vector3D(new double[]{groundReaction.get(GroundReaction.NOSE_X),
-																 groundReaction.get(GroundReaction.NOSE_Y),
-																-groundReaction.get(GroundReaction.NOSE_Z)*0.125});
-				forceVector = new Vector3D(noseGroundForces);
-				break;
-			case 1:
-				gearRelativeCGVector = new Vector3D(new double[]{groundReaction.get(GroundReaction.LEFT_X),
-																 groundReaction.get(GroundReaction.LEFT_Y)*0.25,
-																-groundReaction.get(GroundReaction.LEFT_Z)*0.125});
-				forceVector = new Vector3D(leftGroundForces);
-				break;
-			case 2:
-				gearRelativeCGVector = new Vector3D(new double[]{groundReaction.get(GroundReaction.RIGHT_X),
-																 groundReaction.get(GroundReaction.RIGHT_Y)*0.25,
-																-groundReaction.get(GroundReaction.RIGHT_Z)*0.125});
-				forceVector = new Vector3D(rightGroundForces);
-				break;
-			default:
-				gearRelativeCGVector = new Vector3D(new double[]{0, 0, 0});
-				forceVector = new Vector3D(new double[]{0, 0, 0});
+		// Take the cross product of force and scaled arm vectors and add them to total moments 
+		for (int i = 0; i < GEARS; i++) {
+			final double[] f = gearForces[i], r = momentArm[i];
+			
+			l += f[1]*r[2] - f[2]*r[1];
+			m += f[2]*r[0] - f[0]*r[2];
+			n += f[0]*r[1] - f[1]*r[0];
+		}
+		
+		// Saturate ground moments if forward speed is less than 10 ft/sec
+		if (linearVelocities[0] < 10) {
+			l = (l >  100) ?  100 : (l < -100) ? -100 : l;
+			m = (m >  100) ?  100 : (m < -100) ? -100 : m;
+			n = m;
+		}
+		
+		totalGroundMoments[0] = l;
+		totalGroundMoments[1] = m;
+		totalGroundMoments[2] = n;
+	}
+	
+	//=============================== Backward Euler Solver ==================================================
+	
+	/**
+	 * Calculates the height above ground and rate of change of height of each tire, and the velocity of each tire in the 
+	 * body frame, from the position of the aircraft and the velocity of each gear due to the aircraft's linear and angular velocities
+	 */
+	private void calculateContactPoints() {
+		SixDOFUtilities.body2Ned(eulerAngles[0], eulerAngles[1], eulerAngles[2], dirCosMat);
+		
+		final double p = angularRates[0], q = angularRates[1], r = angularRates[2];
+		final double[] down = dirCosMat[2];
+		
+		for (int i = 0; i < GEARS; i++) {
+			final double[] gear = gearPosition[i], velocity = tireBodyVelocity[i];
+			
+			// Linear velocity plus cross product of angular rates and gear position
+			velocity[0] = linearVelocities[0] + (q*gear[2] - r*gear[1]);
+			velocity[1] = linearVelocities[1] + (r*gear[0] - p*gear[2]);
+			velocity[2] = linearVelocities[2] + (p*gear[1] - q*gear[0]);
+			
+			tirePosition[i] = (NEDPosition[2] - terrainHeight) - (gear[0]*down[0] + gear[1]*down[1] + gear[2]*down[2]);
+			tireVelocity[i] = -(velocity[0]*down[0] + velocity[1]*down[1] + velocity[2]*down[2]);
+		}
+	}
+	
+	/**
+	 * Calculates the upward acceleration (ft/sec^2) of each tire in the NED frame from the derivatives of the last step, and the mobility 
+	 * of the tires; the upward acceleration of tire i caused by a unit upward force on tire j, through both the mass and inertia of the aircraft 
+	 */
+	private void calculateTireAccelerations() {
+		final double[] down = dirCosMat[2];
+		final double u = linearVelocities[0], v = linearVelocities[1], w = linearVelocities[2];
+		final double p = angularRates[0], q = angularRates[1], r = angularRates[2];
+		final double pDot = sixDOFDerivatives[9], qDot = sixDOFDerivatives[10], rDot = sixDOFDerivatives[11];
+		
+		// Inertial acceleration of the aircraft in the body frame 
+		final double aX = sixDOFDerivatives[0] + (q*w - r*v);
+		final double aY = sixDOFDerivatives[1] + (r*u - p*w);
+		final double aZ = sixDOFDerivatives[2] + (p*v - q*u);
+		
+		for (int i = 0; i < GEARS; i++) {
+			final double[] gear = gearPosition[i], arm = gearArm[i];
+			
+			// Acceleration of the tire is that of the aircraft plus the cross product of angular acceleration and gear position
+			double tireX = aX + (qDot*gear[2] - rDot*gear[1]);
+			double tireY = aY + (rDot*gear[0] - pDot*gear[2]);
+			double tireZ = aZ + (pDot*gear[1] - qDot*gear[0]);
+			
+			tireAcceleration[i] = -(tireX*down[0] + tireY*down[1] + tireZ*down[2]);
+			
+			// Cross product of gear position and upward unit vector, in the body frame
+			arm[0] = -(gear[1]*down[2] - gear[2]*down[1]);
+			arm[1] = -(gear[2]*down[0] - gear[0]*down[2]);
+			arm[2] = -(gear[0]*down[1] - gear[1]*down[0]);
+		}
+		
+		for (int i = 0; i < GEARS; i++) {
+			final double[] arm = gearArm[i];
+			
+			// Product of the inverse of the inertia matrix and the arm of tire i
+			double angularX = inertiaCoeffs[2]*arm[0] + inertiaCoeffs[3]*arm[2];
+			double angularY = inertiaCoeffs[6]*arm[1];
+			double angularZ = inertiaCoeffs[3]*arm[0] + inertiaCoeffs[8]*arm[2];
+			
+			for (int j = 0; j < GEARS; j++)
+				tireMobility[i][j] = 1/mass + angularX*gearArm[j][0] + angularY*gearArm[j][1] + angularZ*gearArm[j][2];
+		}
+	}
+	
+	/**
+	 * Calculates the strut force of each gear at the end of the step with the linearly implicit (backward) Euler method. With the height 
+	 * of tire i above ground h, its rate of change hDot, its vertical acceleration during the last step a, and the strut forces of the 
+	 * last step F0, the strut forces F at the end of a step dt satisfy
+	 * 
+	 * <p>F_i = -k_i*(h_i + dt*hDot_i') - c_i*hDot_i', where hDot_i' = hDot_i + dt*(a_i + sum_j(W_ij*(F_j - F0_j)))</p>
+	 * 
+	 * <p>and W is the mobility of the tires (see {@link #calculateTireAccelerations()}), which couples the gears through the pitch and roll 
+	 * of the aircraft. The equations are linear in F, so they are solved directly as a small linear system. The ground can only push, so 
+	 * any gear with a negative result lifts off and the system is solved again without it. If a gear is airborne at the start of the step 
+	 * but would pass below the ground by the end of it, the touchdown time is found by linear interpolation, and the force of the remaining 
+	 * fraction of the step is averaged over the whole step</p>
+	 */
+	private void calculateImplicitGroundForces() {
+		final double dt = integratorConfig[1];
+		final double[] down = dirCosMat[2];
+		
+		final double steering = controls.get(FlightControl.RUDDER)/FlightControl.RUDDER.getMaximum() * MAX_NOSEWHEEL_STEERING;
+		
+		calculateTireAccelerations();
+		
+		// Event detection; find the fraction of this step that each gear is in contact with the ground 
+		for (int i = 0; i < GEARS; i++) {
+			final double h = tirePosition[i], hDot = tireVelocity[i];
+			
+			if (h <= 0)
+				contactFraction[i] = 1.0;
+			else if (h + hDot*dt < 0)
+				contactFraction[i] = -(h + hDot*dt)/(-hDot*dt);
+			else
+				contactFraction[i] = 0.0;
+			
+			solverContact[i] = contactFraction[i] > 0;
+		}
+		
+		// Remove any gear pulled into the ground from the system until all strut forces are positive
+		for (int iteration = 0; iteration < GEARS; iteration++) {
+			solveStrutForces(dt);
+			
+			boolean liftoff = false;
+			for (int i = 0; i < GEARS; i++) {
+				if (solverContact[i] && strutForces[i] < 0) {
+					solverContact[i] = false;
+					liftoff = true;
+				}
+			}
+			
+			if (!liftoff)
 				break;
+		}
+		
+		weightOnWheels = false;
+		
+		for (int i = 0; i < GEARS; i++) {
+			final double fraction = contactFraction[i];
+			double normalForce = solverContact[i] ? strutForces[i] : 0.0;
+			
+			normalForce = (normalForce < 0) ? 0 : (normalForce > MAX_STRUT_FORCE) ? MAX_STRUT_FORCE : normalForce;
+			normalForce *= fraction;
+			
+			normalForces[i] = normalForce;
+			
+			boolean contact = normalForce > 0;
+			if (contact != gearContact[i]) {
+				gearContact[i] = contact;
+				fireGroundContact(LandingGear.values()[i], contact, contact ? t + (1 - fraction)*dt : t, tireVelocity[i]);
 			}
+			weightOnWheels |= contact;
+			
+			final double[] gearForce = gearForces[i], velocity = tireBodyVelocity[i];
+			
+			// Rolling friction and braking along the body x axis, tapered off as tire speed nears 0 
+			double rollingSpeed = Math.signum(velocity[0]) * Math.max(0, Math.abs(velocity[0]) - STATIONARY_VELOCITY);
+			double rollingForce = frictionForce(normalForce * TIRE_ROLLING_FRICTION, rollingSpeed, ROLLING_VELOCITY, rollingMobility[i], dt);
+			
+			if (i != NOSE) {
+				double brake = controls.get((i == LandingGear.LEFT_MAIN.ordinal()) ? FlightControl.BRAKE_L : FlightControl.BRAKE_R);
+				rollingForce += frictionForce(Math.min(brakingForce * brake, normalForce * TIRE_STATIC_FRICTION), rollingSpeed, BRAKING_VELOCITY, rollingMobility[i], dt);
+			}
+			
+			// Side force opposes sideslip of the tire, relative to the steering angle for the nose wheel
+			double sideslip = velocity[1] - ((i == NOSE) ? velocity[0]*steering : 0);
+			double sideForce = frictionForce(normalForce * TIRE_STATIC_FRICTION, sideslip, SIDESLIP_VELOCITY, sideMobility[i], dt);
+			
+			// Normal force acts upwards in the NED frame; convert to the body frame with the 3rd row of body2Ned matrix (D)
+			gearForce[0] = -rollingForce - normalForce*down[0];
+			gearForce[1] = -sideForce    - normalForce*down[1];
+			gearForce[2] = 				 - normalForce*down[2];
+		}
+		
+		sumGearForces();
+	}
+	
+	/**
+	 * Builds and solves the linear system of strut forces for the gears in contact by Gaussian elimination with partial pivoting; 
+	 * the strut force of a gear out of contact is 0
+	 * 
+	 * @param dt
+	 */
+	private void solveStrutForces(double dt) {
+		final double[][] a = strutMatrix;
 		
-			// Take the cross product of force and arm vectors and add them to total moments 
-			for (int j = 0; j < tempTotalGroundMoments.length; j ++)
-				tempTotalGroundMoments[j] += Vector3D.crossProduct(forceVector, gearRelativeCGVector).toArray()[j];
+		for (int i = 0; i < GEARS; i++) {
+			for (int j = 0; j < GEARS; j++)
+				a[i][j] = 0.0;
+			
+			if (!solverContact[i]) {
+				a[i][i] = 1.0;
+				a[i][GEARS] = 0.0;
+				continue;
+			}
+			
+			final double dtContact = contactFraction[i]*dt;
+			final double compression = (tirePosition[i] < 0) ? tirePosition[i] : 0.0;
+			final double stiffness = gearSpring[i]*dtContact + gearDamping[i];
+			
+			double velocity = tireVelocity[i] + dtContact*tireAcceleration[i];
+			for (int j = 0; j < GEARS; j++) {
+				velocity -= dtContact*tireMobility[i][j]*normalForces[j];
+				
+				if (solverContact[j])
+					a[i][j] = stiffness*dtContact*tireMobility[i][j];
+			}
+			
+			a[i][i] += 1.0;
+			a[i][GEARS] = -gearSpring[i]*compression - stiffness*velocity;
 		}
 		
-		// Saturate ground moments if forward speed is less than 10 ft/sec
-		if (linearVelocities[0] < 10) {
-			tempTotalGroundMoments[0] = (tempTotalGroundMoments[0] >  100) ?  100 : 
-								   		(tempTotalGroundMoments[0] < -100) ? -100 : 
-									     tempTotalGroundMoments[0];
-
-			tempTotalGroundMoments[1] = (tempTotalGroundMoments[1] >  100) ?  100 : 
-								   		(tempTotalGroundMoments[1] < -100) ? -100 : 
-									     tempTotalGroundMoments[1];
+		for (int col = 0; col < GEARS; col++) {
+			int pivot = col;
+			for (int row = col + 1; row < GEARS; row++) {
+				if (Math.abs(a[row][col]) > Math.abs(a[pivot][col]))
+					pivot = row;
+			}
+			
+			double[] temp = a[col];
+			a[col] = a[pivot];
+			a[pivot] = temp;
 			
-			tempTotalGroundMoments[2] = (tempTotalGroundMoments[1] >  100) ?  100 : 
-								   		(tempTotalGroundMoments[1] < -100) ? -100 : 
-								   		 tempTotalGroundMoments[1];
+			for (int row = col + 1; row < GEARS; row++) {
+				double factor = a[row][col]/a[col][col];
+				for (int k = col; k <= GEARS; k++)
+					a[row][k] -= factor*a[col][k];
+			}
 		}
 		
-		totalGroundMoments = tempTotalGroundMoments;
+		for (int row = GEARS - 1; row >= 0; row--) {
+			double sum = a[row][GEARS];
+			for (int k = row + 1; k < GEARS; k++)
+				sum -= a[row][k]*strutForces[k];
+			
+			strutForces[row] = sum/a[row][row];
+		}
 	}
 	
 	/**
-	 * Calculates the positions and velocities of each landing gear on the aircraft, calculates derivatives for
-	 * the next step of integration, runs the next step of integration and then calculates ground forces and moments
-	 * based on the results 
+	 * Calculates the total ground moments about the center of gravity as the cross product of each gear position and force  
 	 */
-	public void integrateStep(double terrainHeight) {
-		this.terrainHeight = terrainHeight;
+	private void calculateImplicitGroundMoments() {
+		double l = 0, m = 0, n = 0;
 		
-		calculateTirePositionsAndVelocities();
+		for (int i = 0; i < GEARS; i++) {
+			final double[] r = gearPosition[i], f = gearForces[i];
+			
+			l += r[1]*f[2] - r[2]*f[1];
+			m += r[2]*f[0] - r[0]*f[2];
+			n += r[0]*f[1] - r[1]*f[0];
+		}
 		
-		updateDerivatives(new double[] {tirePosition[0],tireVelocity[0],
-										tirePosition[1],tireVelocity[1],
-										tirePosition[2],tireVelocity[2]});
-		// Run a single step of integration
-		y = integrator.singleStep(new GroundReactionEquations(), // derivatives
-								  t, 		  					 // start time
-								  y0, 		  					 // initial conditions
-								  t+integratorConfig[1]);   	 // end time (t+dt)
+		totalGroundMoments[0] = l;
+		totalGroundMoments[1] = m;
+		totalGroundMoments[2] = n;
+	}
+	
+	/**
+	 * Calculates a friction force that tapers off linearly to 0 as the tire speed nears 0. Below the reference speed, friction acts as a 
+	 * damper on the tire's speed, which is stiff for the large forces on the ground; it is made implicit by widening the taper by how 
+	 * much the force itself would change the tire's speed over the step, so that the force cannot reverse the tire's motion in one step
+	 * 
+	 * @param maxForce friction force at or above the reference speed [lbf]
+	 * @param speed tire speed [ft/sec]
+	 * @param referenceSpeed speed below which friction tapers off [ft/sec]
+	 * @param mobility acceleration of the tire per unit force along the direction of friction [ft/sec^2/lbf]
+	 * @param dt
+	 * @return friction force, opposing speed [lbf]
+	 */
+	private static double frictionForce(double maxForce, double speed, double referenceSpeed, double mobility, double dt) {
+		double ratio = speed/(referenceSpeed + maxForce*mobility*dt*GEARS);
 		
-		calculateTotalGroundForces();
-		calculateTotalGroundMoments();
+		return maxForce * ((ratio > 1) ? 1 : (ratio < -1) ? -1 : ratio);
+	}
+	//========================================================================================================
+	
+	private void sumGearForces() {
+		for (int j = 0; j < 3; j++) {
+			totalGroundForces[j] = 0;
+			
+			for (int i = 0; i < GEARS; i++)
+				totalGroundForces[j] += gearForces[i][j];
+		}
+	}
+	
+	/**
+	 * Calculates the positions and velocities of each landing gear on the aircraft, then calculates ground forces and moments
+	 * for the next step of integration with the selected {@link GroundReactionSolver}
+	 */
+	public void integrateStep(double terrainHeight) {
+		this.terrainHeight = terrainHeight;
+		
+		switch (solver) {
+		case BACKWARD_EULER:
+			calculateContactPoints();
+			calculateImplicitGroundForces();
+			calculateImplicitGroundMoments();
+			break;
+		case EXPLICIT:
+		default:
+			calculateTirePositionsAndVelocities();
+			updateDerivatives(tireStates);
+			calculateTotalGroundForces();
+			calculateTotalGroundMoments();
+			break;
+		}
 		
 		t += integratorConfig[1];
 	}
 	
+	/**
+	 * Adds a {@link GroundContactListener} to be notified of touchdowns and liftoffs of each landing gear; events are only 
+	 * detected by the {@link GroundReactionSolver#BACKWARD_EULER} solver
+	 * 
+	 * @param listener
+	 */
+	public void addGroundContactListener(GroundContactListener listener) {
+		if (listener != null) {
+			logger.info("Adding ground contact listener: " + listener.getClass());
+			groundContactListeners.add(listener);
+		}
+	}
+	
+	private void fireGroundContact(LandingGear gear, boolean touchdown, double time, double verticalSpeed) {
+		logger.debug(gear + (touchdown ? " touchdown" : " liftoff") + " at " + time + " sec, vertical speed: " + verticalSpeed + " ft/sec");
+		
+		for (int i = 0; i < groundContactListeners.size(); i++)
+			groundContactListeners.get(i).onGroundContact(gear, touchdown, time, verticalSpeed);
+	}
+	
 	/**
 	 * @return If aircraft is on ground
 	 */
 	public boolean isWeightOnWheels() {return weightOnWheels;}
+	
+	/**
+	 * @param gear
+	 * @return If a landing gear was in contact with the ground during the last step
+	 */
+	public boolean isInContact(LandingGear gear) {return gearContact[gear.ordinal()];}
+	
+	/**
+	 * @param gear
+	 * @return Strut force normal to the ground of a landing gear (lbf); only calculated by the {@link GroundReactionSolver#BACKWARD_EULER} solver
+	 */
+	public double getNormalForce(LandingGear gear) {return normalForces[gear.ordinal()];}
 
 	/**
 	 * @return Array of total forces due to ground reaction  
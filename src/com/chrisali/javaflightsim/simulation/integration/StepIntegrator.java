@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.integration;
+
+import org.apache.commons.math3.ode.FirstOrderDifferentialEquations;
+
+import com.chrisali.javaflightsim.simulation.setup.IntegratorType;
+
+/**
+ * Integrates a set of {@link FirstOrderDifferentialEquations} one step at a time, writing the result into an array supplied by
+ * the caller so that no allocation takes place. Implementations keep any stage or history arrays they need as preallocated fields.
+ * The integrator used by {@link Integrate6DOFEquations} is selected by the {@link IntegratorType} in the simulation configuration
+ *
+ * @author Christopher Ali
+ *
+ */
+public interface StepIntegrator {
+
+	/**
+	 * Integrates a single step of the equations from t0 to t, starting at y0 and writing the result into y. y0 and y may
+	 * refer to the same array
+	 *
+	 * @param equations
+	 * @param t0 start time
+	 * @param y0 initial state
+	 * @param t end time
+	 * @param y state at end time
+	 * @return y
+	 */
+	double[] singleStep(FirstOrderDifferentialEquations equations, double t0, double[] y0, double t, double[] y);
+
+	/**
+	 * Integrates a single step of the equations from t0 to t, starting at y0 and writing the result into y. The caller supplies
+	 * the derivatives yDot0 already calculated at (t0, y0), which saves an evaluation of the equations each step. y0 and y may
+	 * refer to the same array
+	 *
+	 * @param equations
+	 * @param t0 start time
+	 * @param y0 initial state
+	 * @param yDot0 derivatives at t0 and y0
+	 * @param t end time
+	 * @param y state at end time
+	 * @return y
+	 */
+	double[] singleStep(FirstOrderDifferentialEquations equations, double t0, double[] y0, double[] yDot0, double t, double[] y);
+
+	/**
+	 * Discards any history kept from previous steps; must be called whenever the state is changed outside of the integrator
+	 * (simulation reset, etc)
+	 */
+	void reset();
+
+	/**
+	 * @return number of states this integrator integrates
+	 */
+	int getDimension();
+
+	/**
+	 * Creates a {@link StepIntegrator} of the type specified, sized to the dimension of the equations it will integrate
+	 *
+	 * @param type
+	 * @param dimension
+	 * @return new StepIntegrator
+	 */
+	static StepIntegrator create(IntegratorType type, int dimension) {
+		switch (type) {
+		case ADAMS_BASHFORTH_MOULTON:
+			return new AdamsBashforthMoultonStepper(dimension);
+		case ADAMS_BASHFORTH:
+			return new AdamsBashforthMoultonStepper(dimension, false);
+		case DORMAND_PRINCE:
+			return new DormandPrinceStepper(dimension);
+		case RUNGE_KUTTA_4:
+		default:
+			return new ClassicalRungeKuttaStepper(dimension);
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.linear;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+
+/**
+ * State space model x_dot = Ax + Bu of the aircraft's equations of motion, linearized by {@link Linearization} about a trim point. 
+ * States are the 14 states of the equations of motion, ordered as in {@link InitialConditions}, and controls are the 
+ * {@link FlightControl}s perturbed during linearization. Both are perturbations from their trim values
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class LinearModel {
+	
+	private final double[][] a;
+	private final double[][] b;
+	private final List<FlightControl> controls;
+	
+	private final double[] trimStates;
+	private final double[] trimControls;
+	private final double[] trimDerivatives;
+	
+	private List<Mode> modes;
+	
+	/**
+	 * @param a state matrix
+	 * @param b control matrix, with a column for each control
+	 * @param controls
+	 * @param trimStates states about which the model was linearized
+	 * @param trimControls control values about which the model was linearized
+	 * @param trimDerivatives state derivatives at the trim point, which are close to zero for a well trimmed aircraft 
+	 */
+	public LinearModel(double[][] a, double[][] b, List<FlightControl> controls, 
+					   double[] trimStates, double[] trimControls, double[] trimDerivatives) {
+		this.a = a;
+		this.b = b;
+		this.controls = Collections.unmodifiableList(controls);
+		this.trimStates = trimStates;
+		this.trimControls = trimControls;
+		this.trimDerivatives = trimDerivatives;
+	}
+	
+	/**
+	 * @return state matrix (14 x 14)
+	 */
+	public double[][] getA() { return a; }
+	
+	/**
+	 * @return control matrix (14 x number of controls)
+	 */
+	public double[][] getB() { return b; }
+	
+	/**
+	 * @param state
+	 * @param wrt
+	 * @return partial derivative of a state's derivative with respect to a state
+	 */
+	public double getA(InitialConditions state, InitialConditions wrt) { return a[state.ordinal()][wrt.ordinal()]; }
+	
+	/**
+	 * @param state
+	 * @param wrt
+	 * @return partial derivative of a state's derivative with respect to a control, or NaN if the control was not perturbed
+	 */
+	public double getB(InitialConditions state, FlightControl wrt) { 
+		int column = controls.indexOf(wrt);
+		
+		return column < 0 ? Double.NaN : b[state.ordinal()][column]; 
+	}
+	
+	public List<FlightControl> getControls() { return controls; }
+	
+	public double[] getTrimStates() { return trimStates; }
+	
+	public double[] getTrimControls() { return trimControls; }
+	
+	public double[] getTrimDerivatives() { return trimDerivatives; }
+	
+	/**
+	 * @return modes of motion of the model, found by {@link ModalAnalysis} the first time they are requested
+	 */
+	public synchronized List<Mode> getModes() {
+		if (modes == null)
+			modes = ModalAnalysis.findModes(this);
+		
+		return modes;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		
+		sb.append("A:\n");
+		appendMatrix(sb, a);
+		sb.append("\nB: ").append(controls).append("\n");
+		appendMatrix(sb, b);
+		sb.append("\n");
+		
+		for (Mode mode : getModes())
+			sb.append(mode).append("\n");
+		
+		return sb.toString();
+	}
+	
+	private static void appendMatrix(StringBuilder sb, double[][] matrix) {
+		InitialConditions[] states = InitialConditions.values();
+		
+		for (int i = 0; i < matrix.length; i++) {
+			sb.append(String.format("%-10s", states[i]));
+			
+			for (double value : matrix[i])
+				sb.append(String.format("%14.6g", value));
+			
+			sb.append("\n");
+		}
+	}
+}
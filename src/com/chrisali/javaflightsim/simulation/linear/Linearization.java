@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.linear;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.simulation.SimulationContext;
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsState;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.setup.Trimming;
+
+/**
+ * Numerically linearizes the equations of motion of {@link Integrate6DOFEquations} about the initial conditions and initial controls
+ * of a configuration, which should first be trimmed with {@link Trimming}. Each column of the A and B matrices of the resulting
+ * {@link LinearModel} is found by central differences, perturbing one state or control at a time. Columns are independent of each other,
+ * so they are evaluated in parallel on a {@link ForkJoinPool}, each worker thread using its own {@link Integrate6DOFEquations} and
+ * {@link SimulationContext}
+ *
+ * @author Christopher Ali
+ *
+ */
+public class Linearization {
+
+	private static final Logger logger = LogManager.getLogger(Linearization.class);
+
+	private static final int STATES = InitialConditions.values().length;
+
+	// Perturbation relative to the magnitude of a state or control, with a floor for those whose trim value is near zero
+	private static final double PERTURBATION = 1e-4;
+
+	private static final List<FlightControl> DEFAULT_CONTROLS = Arrays.asList(FlightControl.ELEVATOR, FlightControl.AILERON,
+																			  FlightControl.RUDDER, FlightControl.THROTTLE_1);
+
+	private static final FlightControl[] THROTTLES = {FlightControl.THROTTLE_1, FlightControl.THROTTLE_2,
+													  FlightControl.THROTTLE_3, FlightControl.THROTTLE_4};
+
+	private final SimulationConfiguration configuration;
+	private final Aircraft aircraft;
+
+	private List<FlightControl> controls = DEFAULT_CONTROLS;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Creates a linearization about the initial conditions and initial controls of a trimmed configuration
+	 *
+	 * @param configuration
+	 * @param aircraft aircraft model, which may be shared with other linearizations and simulations
+	 */
+	public Linearization(SimulationConfiguration configuration, Aircraft aircraft) {
+		this.configuration = configuration;
+		this.aircraft = aircraft;
+	}
+
+	/**
+	 * Creates a linearization about the trimmed initial conditions and initial controls of a {@link SimulationContext}
+	 *
+	 * @param context
+	 */
+	public Linearization(SimulationContext context) {
+		this(context.getConfiguration(), context.getAircraft());
+	}
+
+	/**
+	 * Evaluates the A and B matrices, blocking until all columns have been evaluated
+	 *
+	 * @return linear model about the trim point
+	 */
+	public LinearModel linearize() {
+		logger.info("Linearizing equations of motion about trim using " + parallelism + " threads...");
+
+		final ThreadLocal<Evaluator> evaluators = ThreadLocal.withInitial(Evaluator::new);
+		final Evaluator nominal = evaluators.get();
+
+		final double[] trimStates = nominal.trimStates.clone();
+		final double[] trimControls = new double[controls.size()];
+		for (int j = 0; j < trimControls.length; j++)
+			trimControls[j] = nominal.controlsState.get(controls.get(j));
+
+		final double[] trimDerivatives = nominal.equations.calculateDerivatives(trimStates, new double[STATES]);
+
+		final double[][] a = new double[STATES][STATES];
+		final double[][] b = new double[STATES][controls.size()];
+
+		// A task for each column of A, followed by each column of B
+		List<Callable<Void>> tasks = new ArrayList<>(STATES + controls.size());
+		for (int j = 0; j < STATES + controls.size(); j++) {
+			final int column = j;
+
+			tasks.add(() -> {
+				Evaluator evaluator = evaluators.get();
+
+				if (column < STATES)
+					evaluator.perturbState(column, a);
+				else
+					evaluator.perturbControl(controls.get(column - STATES), trimControls[column - STATES], column - STATES, b);
+
+				return null;
+			});
+		}
+
+		if (parallelism > 1) {
+			ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+			try {
+				for (Future<Void> future : pool.invokeAll(tasks))
+					future.get();
+			} catch (InterruptedException e) {
+				logger.error("Linearization was interrupted!", e);
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				logger.error("Error evaluating linear model!", e);
+			} finally {
+				pool.shutdownNow();
+			}
+		} else {
+			try {
+				for (Callable<Void> task : tasks)
+					task.call();
+			} catch (Exception e) {
+				logger.error("Error evaluating linear model!", e);
+			}
+		}
+
+		logger.info("...done!");
+
+		return new LinearModel(a, b, new ArrayList<>(controls), trimStates, trimControls, trimDerivatives);
+	}
+
+	/**
+	 * Evaluates the derivatives of the equations of motion with its own {@link Integrate6DOFEquations}, as they hold the states of the
+	 * aircraft at the last evaluation
+	 */
+	private class Evaluator {
+		private final FlightControlsState controlsState;
+		private final Integrate6DOFEquations equations;
+		private final double[] trimStates;
+
+		private final double[] y;
+		private final double[] yDotPlus  = new double[STATES];
+		private final double[] yDotMinus = new double[STATES];
+
+		private Evaluator() {
+			controlsState = new FlightControlsState(configuration);
+			equations = new Integrate6DOFEquations(controlsState, new SimulationContext(configuration, aircraft));
+			trimStates = equations.getStates();
+			y = trimStates.clone();
+		}
+
+		/**
+		 * Central difference of the derivatives with respect to a state, written into column j of a[][]
+		 */
+		private void perturbState(int j, double[][] a) {
+			final double h = PERTURBATION * Math.max(1.0, Math.abs(trimStates[j]));
+
+			y[j] = trimStates[j] + h;
+			equations.calculateDerivatives(y, yDotPlus);
+
+			y[j] = trimStates[j] - h;
+			equations.calculateDerivatives(y, yDotMinus);
+
+			y[j] = trimStates[j];
+
+			for (int i = 0; i < STATES; i++)
+				a[i][j] = (yDotPlus[i] - yDotMinus[i]) / (2 * h);
+		}
+
+		/**
+		 * Central difference of the derivatives with respect to a control, written into column j of b[][]. The throttles of all engines
+		 * are perturbed together if the control is {@link FlightControl#THROTTLE_1}
+		 */
+		private void perturbControl(FlightControl control, double trimValue, int j, double[][] b) {
+			final double h = PERTURBATION * Math.max(1.0, Math.abs(trimValue));
+
+			evaluateControl(control, trimValue + h, yDotPlus);
+			evaluateControl(control, trimValue - h, yDotMinus);
+
+			for (int i = 0; i < STATES; i++)
+				b[i][j] = (yDotPlus[i] - yDotMinus[i]) / (2 * h);
+		}
+
+		/**
+		 * Evaluates derivatives at the trim states with a control set to a value other than its trim value
+		 */
+		private void evaluateControl(FlightControl control, double value, double[] yDot) {
+			FlightControl[] perturbed = (control == FlightControl.THROTTLE_1) ? THROTTLES : new FlightControl[] {control};
+			double[] trimValues = new double[perturbed.length];
+
+			for (int i = 0; i < perturbed.length; i++) {
+				trimValues[i] = controlsState.get(perturbed[i]);
+				controlsState.set(perturbed[i], value);
+			}
+
+			try {
+				equations.calculateDerivatives(trimStates, yDot);
+			} finally {
+				for (int i = 0; i < perturbed.length; i++)
+					controlsState.set(perturbed[i], trimValues[i]);
+			}
+		}
+	}
+
+	public List<FlightControl> getControls() { return controls; }
+
+	/**
+	 * @param controls controls to perturb to find the columns of the B matrix; defaults to elevator, aileron, rudder and throttle
+	 */
+	public void setControls(List<FlightControl> controls) { this.controls = new ArrayList<>(controls); }
+
+	public int getParallelism() { return parallelism; }
+
+	/**
+	 * @param parallelism maximum number of columns to evaluate at the same time; with 1, all columns are evaluated on the calling thread
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be at least 1!");
+
+		this.parallelism = parallelism;
+	}
+}
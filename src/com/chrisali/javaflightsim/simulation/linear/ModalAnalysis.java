@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.linear;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.EigenDecomposition;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+
+/**
+ * Finds the modes of motion of a {@link LinearModel} from the eigenvalues and eigenvectors of its state matrix. Position, heading
+ * and latitude/longitude do not affect the forces and moments on the aircraft, so only the eight states that do (body velocities,
+ * bank and pitch angles and body rates) are analyzed. Each mode is identified as longitudinal or lateral-directional by which states
+ * dominate its eigenvector, then by whether it is oscillatory and by its natural frequency
+ *
+ * @author Christopher Ali
+ *
+ */
+public class ModalAnalysis {
+
+	private static final Logger logger = LogManager.getLogger(ModalAnalysis.class);
+
+	private static final InitialConditions[] DYNAMIC_STATES = {InitialConditions.INITU, InitialConditions.INITV, InitialConditions.INITW,
+															   InitialConditions.INITPHI, InitialConditions.INITTHETA,
+															   InitialConditions.INITP, InitialConditions.INITQ, InitialConditions.INITR};
+
+	private static final InitialConditions[] VELOCITIES = {InitialConditions.INITU, InitialConditions.INITV, InitialConditions.INITW};
+
+	private static final InitialConditions[] LONGITUDINAL_STATES = {InitialConditions.INITU, InitialConditions.INITW,
+																	InitialConditions.INITTHETA, InitialConditions.INITQ};
+
+	// A longitudinal oscillation slower than this is taken to be the phugoid if the short period is not oscillatory (rad/sec)
+	private static final double PHUGOID_MAX_FREQUENCY = 0.5;
+
+	/**
+	 * Calculates the eigenvalues and eigenvectors of the dynamic states of a linear model and identifies the mode each corresponds to
+	 *
+	 * @param model
+	 * @return list of modes, ordered by type
+	 */
+	public static List<Mode> findModes(LinearModel model) {
+		final int n = DYNAMIC_STATES.length;
+		final double[][] a = model.getA();
+
+		double[][] reduced = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++)
+				reduced[i][j] = a[DYNAMIC_STATES[i].ordinal()][DYNAMIC_STATES[j].ordinal()];
+		}
+
+		// Velocities are scaled by airspeed to be comparable with angles and rates when comparing eigenvector components
+		double[] trimStates = model.getTrimStates();
+		double trueAirspeed = Math.sqrt(trimStates[0]*trimStates[0] + trimStates[1]*trimStates[1] + trimStates[2]*trimStates[2]);
+
+		EigenDecomposition eigen = new EigenDecomposition(new Array2DRowRealMatrix(reduced, false));
+		double[] real = eigen.getRealEigenvalues();
+		double[] imaginary = eigen.getImagEigenvalues();
+
+		List<Mode> longitudinalOscillatory = new ArrayList<>();
+		List<Mode> longitudinal = new ArrayList<>();
+		List<Mode> lateralOscillatory = new ArrayList<>();
+		List<Mode> lateral = new ArrayList<>();
+
+		for (int i = 0; i < n; i++) {
+			double[] eigenvector = eigen.getEigenvector(i).toArray();
+			boolean oscillatory = imaginary[i] != 0;
+
+			// A complex conjugate pair is stored as its real and imaginary parts in consecutive eigenvectors
+			double[] imaginaryPart = oscillatory ? eigen.getEigenvector(i + 1).toArray() : new double[n];
+
+			Map<InitialConditions, Double> modeShape = new EnumMap<>(InitialConditions.class);
+			double largest = 0.0;
+			for (int j = 0; j < n; j++) {
+				double scale = isVelocity(DYNAMIC_STATES[j]) ? 1 / trueAirspeed : 1.0;
+				double magnitude = Math.hypot(eigenvector[j], imaginaryPart[j]) * scale;
+
+				modeShape.put(DYNAMIC_STATES[j], magnitude);
+				largest = Math.max(largest, magnitude);
+			}
+
+			double longitudinalParticipation = 0.0, lateralParticipation = 0.0;
+			for (Map.Entry<InitialConditions, Double> entry : modeShape.entrySet()) {
+				entry.setValue(entry.getValue() / largest);
+
+				if (isLongitudinal(entry.getKey()))
+					longitudinalParticipation += entry.getValue() * entry.getValue();
+				else
+					lateralParticipation += entry.getValue() * entry.getValue();
+			}
+
+			Mode mode = new Mode(ModeType.UNCLASSIFIED, real[i], imaginary[i], modeShape);
+
+			if (longitudinalParticipation >= lateralParticipation)
+				(oscillatory ? longitudinalOscillatory : longitudinal).add(mode);
+			else
+				(oscillatory ? lateralOscillatory : lateral).add(mode);
+
+			// Skip the other half of a conjugate pair
+			if (oscillatory)
+				i++;
+		}
+
+		List<Mode> modes = new ArrayList<>();
+
+		// Short period is the faster of the longitudinal oscillations, and the phugoid the slower
+		longitudinalOscillatory.sort(Comparator.comparingDouble(Mode::getNaturalFrequency));
+		for (int i = 0; i < longitudinalOscillatory.size(); i++) {
+			Mode mode = longitudinalOscillatory.get(i);
+			boolean slowest = i == 0, fastest = i == longitudinalOscillatory.size() - 1;
+			ModeType type = ModeType.UNCLASSIFIED;
+
+			if (longitudinalOscillatory.size() == 1)
+				type = mode.getNaturalFrequency() < PHUGOID_MAX_FREQUENCY ? ModeType.PHUGOID : ModeType.SHORT_PERIOD;
+			else if (fastest)
+				type = ModeType.SHORT_PERIOD;
+			else if (slowest)
+				type = ModeType.PHUGOID;
+
+			modes.add(classify(mode, type));
+		}
+
+		for (Mode mode : longitudinal)
+			modes.add(mode);
+
+		// Dutch roll is the lateral-directional oscillation
+		lateralOscillatory.sort(Comparator.comparingDouble(Mode::getNaturalFrequency).reversed());
+		for (int i = 0; i < lateralOscillatory.size(); i++)
+			modes.add(classify(lateralOscillatory.get(i), i == 0 ? ModeType.DUTCH_ROLL : ModeType.UNCLASSIFIED));
+
+		// Roll subsidence is the fastest non-oscillatory lateral-directional mode, and the spiral the slowest
+		lateral.sort(Comparator.comparingDouble(mode -> -Math.abs(mode.getReal())));
+		for (int i = 0; i < lateral.size(); i++) {
+			ModeType type = (i == 0) ? ModeType.ROLL : (i == lateral.size() - 1) ? ModeType.SPIRAL : ModeType.UNCLASSIFIED;
+			modes.add(classify(lateral.get(i), type));
+		}
+
+		modes.sort(Comparator.comparing(Mode::getType));
+
+		for (Mode mode : modes)
+			logger.debug(mode);
+
+		return modes;
+	}
+
+	private static Mode classify(Mode mode, ModeType type) {
+		return new Mode(type, mode.getReal(), mode.getImaginary(), mode.getModeShape());
+	}
+
+	private static boolean isVelocity(InitialConditions state) {
+		for (InitialConditions velocity : VELOCITIES) {
+			if (state == velocity)
+				return true;
+		}
+
+		return false;
+	}
+
+	private static boolean isLongitudinal(InitialConditions state) {
+		for (InitialConditions longitudinal : LONGITUDINAL_STATES) {
+			if (state == longitudinal)
+				return true;
+		}
+
+		return false;
+	}
+}
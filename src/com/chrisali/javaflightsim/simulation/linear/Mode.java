@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.linear;
+
+import java.util.Map;
+
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+
+/**
+ * A mode of motion of a {@link LinearModel}: an eigenvalue (or complex conjugate pair of eigenvalues) of its state matrix, and the 
+ * magnitude of each state's participation in the mode from the corresponding eigenvector
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class Mode {
+	
+	private final ModeType type;
+	private final double real;
+	private final double imaginary;
+	private final Map<InitialConditions, Double> modeShape;
+	
+	/**
+	 * @param type
+	 * @param real real part of the eigenvalue (1/sec)
+	 * @param imaginary imaginary part of the eigenvalue (rad/sec), which is zero for a non-oscillatory mode
+	 * @param modeShape magnitude of each state's eigenvector component, normalized so that the largest is 1
+	 */
+	public Mode(ModeType type, double real, double imaginary, Map<InitialConditions, Double> modeShape) {
+		this.type = type;
+		this.real = real;
+		this.imaginary = Math.abs(imaginary);
+		this.modeShape = modeShape;
+	}
+	
+	public ModeType getType() { return type; }
+	
+	public double getReal() { return real; }
+	
+	public double getImaginary() { return imaginary; }
+	
+	/**
+	 * @return if the mode is a damped or divergent oscillation
+	 */
+	public boolean isOscillatory() { return imaginary > 0; }
+	
+	/**
+	 * @return if the mode decays with time
+	 */
+	public boolean isStable() { return real < 0; }
+	
+	/**
+	 * @return undamped natural frequency (rad/sec)
+	 */
+	public double getNaturalFrequency() { return Math.hypot(real, imaginary); }
+	
+	/**
+	 * @return damping ratio, which is negative for a divergent mode
+	 */
+	public double getDampingRatio() { return -real / getNaturalFrequency(); }
+	
+	/**
+	 * @return period of oscillation (sec), or infinity for a non-oscillatory mode
+	 */
+	public double getPeriod() { return isOscillatory() ? 2 * Math.PI / imaginary : Double.POSITIVE_INFINITY; }
+	
+	/**
+	 * @return time to halve amplitude (sec) for a stable mode, or to double it for an unstable one
+	 */
+	public double getTimeToHalfOrDouble() { return Math.log(2) / Math.abs(real); }
+	
+	public Map<InitialConditions, Double> getModeShape() { return modeShape; }
+	
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(type.toString()).append(": ");
+		
+		if (isOscillatory())
+			sb.append(String.format("%.4f +/- %.4fi, wn: %.4f rad/sec, zeta: %.4f, period: %.2f sec", 
+									real, imaginary, getNaturalFrequency(), getDampingRatio(), getPeriod()));
+		else
+			sb.append(String.format("%.4f, time to %s: %.2f sec", real, isStable() ? "half" : "double", getTimeToHalfOrDouble()));
+		
+		return sb.toString();
+	}
+}
@@ -20,12 +20,9 @@
 package com.chrisali.javaflightsim.simulation.propulsion;
 
 import java.util.Arrays;
-import java.util.EnumMap;
 import java.util.Map;
 
-import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
-
-import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
+import com.chrisali.javaflightsim.simulation.enviroment.AtmosphereState;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
@@ -70,7 +67,7 @@ public abstract class Engine {
 	@JsonIgnore
 	protected double[] engineThrust   = {0, 0, 0};	// {T_x,T_y,T_z}	    (lbf)			
 	@JsonIgnore
-	protected double[] engineMoment;				// {M_x,M_y,M_z}        (lbf)
+	protected double[] engineMoment   = {0, 0, 0};	// {M_x,M_y,M_z}        (lbf)
 		
 	//TODO need engine model properties (etaP, advance ratio, bhp curves) for lookup tables
 	//TODO etaP needs to vary
@@ -79,22 +76,41 @@ public abstract class Engine {
 	 * Calculates all parameters of the engine given the input parameters specified below
 	 * 
 	 * @param controls
-	 * @param environmentParameters
+	 * @param atmosphereState
 	 * @param windParameters
 	 */
 	public abstract void updateEngineState(Map<FlightControl, Double> controls,				
-										   Map<EnvironmentParameters, Double> environmentParameters,
+										   AtmosphereState atmosphereState,
 										   double[] windParameters);
 	
+	/**
+	 * Calculates the thrust (lbf) that the engine produces along its x axis for the given inputs, without updating 
+	 * the state of this engine. Used where thrust needs to be calculated for many aircraft states using a single engine object
+	 * 
+	 * @param throttle (0.0 to 1.0)
+	 * @param rho air density (slug/ft^3)
+	 * @param vTrue true airspeed (ft/sec)
+	 * @return thrust (lbf)
+	 */
+	public abstract double calculateThrust(double throttle, double rho, double vTrue);
+	
+	/**
+	 * Engines hold their state (thrust, RPM, etc) as the simulation runs, so each simulation sharing an aircraft model
+	 * needs its own copy of that aircraft's engines
+	 * 
+	 * @return a copy of this engine's parameters, with its state reset
+	 */
+	public abstract Engine copy();
+	
 	/**
 	 * Calculates the moment generated by the engine as a function of its thrust and location
-	 * relative to the aircraft's center of gravity. Used in {@link Engine#updateEngineState(EnumMap, EnumMap, double[])}
+	 * relative to the aircraft's center of gravity. Used in {@link Engine#updateEngineState(Map, AtmosphereState, double[])}
 	 */
 	protected void calculateEngMoments() {
-		Vector3D forceVector = new Vector3D(engineThrust);
-		Vector3D armVector   = new Vector3D(enginePosition);
-		
-		this.engineMoment = Vector3D.crossProduct(forceVector, armVector).toArray();
+		// Cross product of force and arm vectors, written in place to avoid allocating each step
+		engineMoment[0] = engineThrust[1]*enginePosition[2] - engineThrust[2]*enginePosition[1];
+		engineMoment[1] = engineThrust[2]*enginePosition[0] - engineThrust[0]*enginePosition[2];
+		engineMoment[2] = engineThrust[0]*enginePosition[1] - engineThrust[1]*enginePosition[0];
 	}
 	
 	/**
@@ -22,7 +22,7 @@ package com.chrisali.javaflightsim.simulation.propulsion;
 import java.util.Arrays;
 import java.util.Map;
 
-import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
+import com.chrisali.javaflightsim.simulation.enviroment.AtmosphereState;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
 import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
 
@@ -73,12 +73,31 @@ public class FixedPitchPropEngine extends Engine {
 		this.enginePosition = enginePosition;
 		this.engineNumber   = engineNumber;
 	}
+	
+	/**
+	 * Creates a {@link FixedPitchPropEngine} with the same parameters as another, but without its state
+	 * 
+	 * @param other
+	 */
+	private FixedPitchPropEngine(FixedPitchPropEngine other) {
+		this.engineName		= other.engineName;
+		this.maxBHP 		= other.maxBHP;
+		this.maxRPM 		= other.maxRPM;
+		this.propDiameter   = other.propDiameter;
+		this.propArea 		= other.propArea;
+		this.propEfficiency = other.propEfficiency;
+		this.enginePosition = other.enginePosition.clone();
+		this.engineNumber   = other.engineNumber;
+	}
+	
+	@Override
+	public Engine copy() { return new FixedPitchPropEngine(this); }
 		
 	/**
 	 * Updates all fields of engine; called by {@link Integrate6DOFEquations} to recalculate thrust, moment, fuel flow and RPM for this engine
 	 */
 	public void updateEngineState(Map<FlightControl, Double> controls,				
-								  Map<EnvironmentParameters, Double> environmentParameters,
+								  AtmosphereState atmosphereState,
 								  double[] windParameters) {		//{vTrue,beta,alpha}
 		// Assign engine controls depending on engine number specified
 		switch (engineNumber) {
@@ -100,7 +119,7 @@ public class FixedPitchPropEngine extends Engine {
 				break;
 		}
 		
-		calculateThrust(environmentParameters, windParameters);
+		calculateThrust(atmosphereState, windParameters);
 		
 		calculateEngMoments();
 		
@@ -113,18 +132,23 @@ public class FixedPitchPropEngine extends Engine {
 	/**
 	 * Calculates thrust of the engine
 	 * 
-	 * @param environmentParameters
+	 * @param atmosphereState
 	 * @param windParameters
 	 * 
 	 * @return Double array vector of engine force (lbf)
 	 */
-	private void calculateThrust(Map<EnvironmentParameters, Double> environmentParameters, 
+	private void calculateThrust(AtmosphereState atmosphereState, 
 								 double[] windParameters) {		 
+		this.engineThrust[0] = calculateThrust(throttle, atmosphereState.getDensity(), windParameters[0]);
+	}
+	
+	@Override
+	public double calculateThrust(double throttle, double rho, double vTrue) {
 		// Consider static thrust case at low speeds
-		if (windParameters[0] <= 65)
-			this.engineThrust[0] = Math.pow((throttle*maxBHP*HP_2_FTLBS), 0.6667)*Math.pow((2*environmentParameters.get(EnvironmentParameters.RHO)*propArea), 0.3333);			
+		if (vTrue <= 65)
+			return Math.pow((throttle*maxBHP*HP_2_FTLBS), 0.6667)*Math.pow((2*rho*propArea), 0.3333);			
 		else
-			this.engineThrust[0] = (throttle*maxBHP*HP_2_FTLBS)*((A_P*environmentParameters.get(EnvironmentParameters.RHO)/RHO_SSL)-B_P)*(propEfficiency/windParameters[0]);
+			return (throttle*maxBHP*HP_2_FTLBS)*((A_P*rho/RHO_SSL)-B_P)*(propEfficiency/vTrue);
 	}
 	
 	/**
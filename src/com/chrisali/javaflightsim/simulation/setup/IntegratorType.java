@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.setup;
+
+/**
+ *	Numerical integration methods that can be selected in {@link SimulationConfiguration} to integrate the 6DOF equations of motion
+ */
+public enum IntegratorType {
+	RUNGE_KUTTA_4 			("Runge-Kutta 4th Order"),
+	ADAMS_BASHFORTH_MOULTON ("Adams-Bashforth-Moulton 4th Order"),
+	ADAMS_BASHFORTH 		("Adams-Bashforth 4th Order"),
+	DORMAND_PRINCE 			("Dormand-Prince 5(4) Adaptive");
+	
+	private final String integratorType;
+	
+	IntegratorType(String integratorType) {this.integratorType = integratorType;}
+	
+	public String toString() {return integratorType;}
+}
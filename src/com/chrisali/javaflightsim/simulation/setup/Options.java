@@ -31,6 +31,10 @@ import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
  *	<p>RESET - Resets the integration to initial conditions using {@link IntegrationSetup#gatherInitialConditions(String)}</p>
  *	<p>CONSOLE_DISPLAY - Displays every data parameter from {@link Integrate6DOFEquations} in the console for each step of integration</p>
  *  <p>DEBUG_MODE - Displays extra logging and telemetry for debugging purposes</p>
+ *  <p>NO_LOGGING - Skips recording each step of integration in {@link Integrate6DOFEquations#getLogsOut()} so that the simulation runs without 
+ *  heap allocation; the latest outputs remain available from {@link Integrate6DOFEquations#getSimOutValues()}</p>
+ *  <p>RECORD_FLIGHT - Streams every step of integration to binary flight recording files, so that long sessions can be analyzed later 
+ *  without being simulated again</p>
  */
 public enum Options {
 	ANALYSIS_MODE     ("Analysis Mode"),
@@ -38,7 +42,9 @@ public enum Options {
 	PAUSED			  ("Paused"),
 	RESET			  ("Reset"),
 	CONSOLE_DISPLAY	  ("Console Display"),
-	DEBUG_MODE		  ("Debug Mode");
+	DEBUG_MODE		  ("Debug Mode"),
+	NO_LOGGING		  ("No Logging"),
+	RECORD_FLIGHT	  ("Record Flight");
 	
 	private String option;
 	
@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.setup;
+
+import com.chrisali.javaflightsim.interfaces.Steppable;
+import com.chrisali.javaflightsim.simulation.FrameScheduler;
+
+/**
+ *	Groups of {@link Steppable} components that are run together at the same rate by {@link FrameScheduler}. The rate of each group 
+ *	is set in {@link SimulationConfiguration}, except for PHYSICS, whose rate is set by the integration time step. Groups run in the
+ *	order declared here within a frame, and their relative cost is used to spread heavy groups across different frames
+ */
+public enum RateGroup {
+	CONTROLS ("Flight Controls", 1),
+	PHYSICS  ("Physics", 4),
+	LOGGING  ("Logging", 1),
+	AUDIO    ("Audio", 1),
+	DISPLAY  ("Out the Window Display", 4);
+	
+	private final String rateGroup;
+	private final int cost;
+	
+	RateGroup(String rateGroup, int cost) {
+		this.rateGroup = rateGroup;
+		this.cost = cost;
+	}
+	
+	/**
+	 * @return relative computational cost of one step of this group
+	 */
+	public int getCost() { return cost; }
+	
+	public String toString() {return rateGroup;}
+}
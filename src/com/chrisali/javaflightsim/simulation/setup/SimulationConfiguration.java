@@ -28,6 +28,14 @@ public class SimulationConfiguration implements Saveable {
 	private EnumSet<Options> simulationOptions;
 	private EnumMap<InitialConditions, Double> initialConditions;
 	private EnumMap<IntegratorConfig, Double> integratorConfig;
+	private IntegratorType integratorType = IntegratorType.RUNGE_KUTTA_4;
+	private GroundReactionSolver groundReactionSolver = GroundReactionSolver.EXPLICIT;
+	private EnumMap<RateGroup, Integer> rateGroupRates = defaultRateGroupRates();
+	private ClockMode clockMode = ClockMode.REAL_TIME;
+	private double timeScale = 1.0;
+	private LateFramePolicy lateFramePolicy = LateFramePolicy.CATCH_UP;
+	private int recorderFileSizeMB = 256;
+	private String ghostRecording;
 	private EnumMap<FlightControl, Double> initialControls; 
 	private String selectedAircraft;
 
@@ -65,9 +73,75 @@ public class SimulationConfiguration implements Saveable {
 	
 	public void setIntegratorConfig(EnumMap<IntegratorConfig, Double> integratorConfig) { this.integratorConfig = integratorConfig;	}
 
+	public IntegratorType getIntegratorType() { return integratorType; }
+	
+	public void setIntegratorType(IntegratorType integratorType) { this.integratorType = integratorType; }
+
+	public GroundReactionSolver getGroundReactionSolver() { return groundReactionSolver; }
+	
+	public void setGroundReactionSolver(GroundReactionSolver groundReactionSolver) { this.groundReactionSolver = groundReactionSolver; }
+
+	public ClockMode getClockMode() { return clockMode; }
+	
+	public void setClockMode(ClockMode clockMode) { this.clockMode = clockMode; }
+
+	/**
+	 * @return simulation time that passes per unit of wall clock time when using {@link ClockMode#TIME_SCALED}
+	 */
+	public double getTimeScale() { return timeScale; }
+	
+	public void setTimeScale(double timeScale) { this.timeScale = timeScale; }
+
+	public LateFramePolicy getLateFramePolicy() { return lateFramePolicy; }
+	
+	public void setLateFramePolicy(LateFramePolicy lateFramePolicy) { this.lateFramePolicy = lateFramePolicy; }
+
+	/**
+	 * @return size that each flight recording file grows to before recording rolls over to a new file when using {@link Options#RECORD_FLIGHT} [MB]
+	 */
+	public int getRecorderFileSizeMB() { return recorderFileSizeMB; }
+	
+	public void setRecorderFileSizeMB(int recorderFileSizeMB) { this.recorderFileSizeMB = recorderFileSizeMB; }
+	
+	/**
+	 * @return path of a flight recording file whose aircraft is shown as a ghost beside the ownship in Normal Mode, replayed in step 
+	 * with simulation time; null or empty for no ghost
+	 */
+	public String getGhostRecording() { return ghostRecording; }
+	
+	public void setGhostRecording(String ghostRecording) { this.ghostRecording = ghostRecording; }
+
+	public EnumMap<RateGroup, Integer> getRateGroupRates() { return rateGroupRates; }
+
+	public void setRateGroupRates(EnumMap<RateGroup, Integer> rateGroupRates) { this.rateGroupRates = rateGroupRates; }
+	
+	/**
+	 * Returns the rate that a {@link RateGroup} is stepped at; the physics rate is always the simulation rate set by the integration 
+	 * time step, and any group without a rate of its own also runs at the simulation rate
+	 * 
+	 * @param rateGroup
+	 * @return rate of rateGroup [Hz]
+	 */
+	@JsonIgnore
+	public int getRateHz(RateGroup rateGroup) {
+		Integer rateHz = (rateGroup != RateGroup.PHYSICS && rateGroupRates != null) ? rateGroupRates.get(rateGroup) : null;
+		
+		return (rateHz != null && rateHz > 0) ? rateHz : getSimulationRateHz();
+	}
+	
+	private static EnumMap<RateGroup, Integer> defaultRateGroupRates() {
+		EnumMap<RateGroup, Integer> rates = new EnumMap<>(RateGroup.class);
+		rates.put(RateGroup.CONTROLS, 60);
+		rates.put(RateGroup.LOGGING,  30);
+		rates.put(RateGroup.AUDIO,    30);
+		rates.put(RateGroup.DISPLAY,  60);
+		
+		return rates;
+	}
+
 	@JsonIgnore
 	public int getSimulationRateHz() {
-		return (int)(1/integratorConfig.get(IntegratorConfig.DT));
+		return (int) Math.round(1/integratorConfig.get(IntegratorConfig.DT));
 	}
 
 	@JsonIgnore
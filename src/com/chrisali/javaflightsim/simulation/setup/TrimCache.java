@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.setup;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.interfaces.Saveable;
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.aircraft.MassProperties;
+import com.chrisali.javaflightsim.simulation.enviroment.Environment;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+import com.chrisali.javaflightsim.simulation.utilities.SimDirectories;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Persistent store of {@link TrimPoint}s found by {@link TrimSolver}, keyed by aircraft, altitude, airspeed, flaps, gear, weight and 
+ * the flight path angle and turn rate trimmed for (see {@link TrimCache#createKey(Aircraft, SimulationConfiguration, double, double)}). 
+ * Starting the simulation or running a sweep case at a condition already trimmed for skips the solver entirely. Saved as 
+ * SimConfig/TrimCache.json; may be used by several threads at once
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class TrimCache implements Saveable {
+	
+	@JsonIgnore
+	private static final Logger logger = LogManager.getLogger(TrimCache.class);
+	
+	private Map<String, TrimPoint> trimPoints = new ConcurrentHashMap<>();
+	
+	@JsonIgnore
+	private volatile boolean modified = false;
+	
+	public TrimCache() { }
+	
+	/**
+	 * Creates a key identifying a trim condition. Values are rounded so that conditions which differ only by numerical noise 
+	 * share a key
+	 * 
+	 * @param aircraft
+	 * @param configuration
+	 * @param flightPathAngle (rad)
+	 * @param turnRate (rad/sec)
+	 * @return key of the trim condition
+	 */
+	public static String createKey(Aircraft aircraft, SimulationConfiguration configuration, double flightPathAngle, double turnRate) {
+		Map<InitialConditions, Double> initialConditions = configuration.getInitialConditions();
+		Map<FlightControl, Double> initialControls = configuration.getInitialControls();
+		
+		double trueAirspeed = Math.sqrt(Math.pow(initialConditions.get(InitialConditions.INITU), 2) +
+										Math.pow(initialConditions.get(InitialConditions.INITV), 2) +
+										Math.pow(initialConditions.get(InitialConditions.INITW), 2));
+		
+		return String.format(Locale.US, "%s|alt=%.0f|vt=%.2f|flaps=%.4f|gear=%.2f|weight=%.1f|gamma=%.4f|turnRate=%.4f", 
+							 aircraft.getName(),
+							 initialConditions.get(InitialConditions.INITD),
+							 trueAirspeed,
+							 initialControls.get(FlightControl.FLAPS),
+							 initialControls.get(FlightControl.GEAR),
+							 aircraft.getMassProperty(MassProperties.TOTAL_MASS) * Environment.getGravity(),
+							 flightPathAngle,
+							 turnRate);
+	}
+	
+	/**
+	 * @param key
+	 * @return trim point stored for the key, or null if the condition has not been trimmed for
+	 */
+	public TrimPoint get(String key) { return trimPoints.get(key); }
+	
+	/**
+	 * Stores a trim point; only converged trim points are kept
+	 * 
+	 * @param key
+	 * @param trimPoint
+	 */
+	public void put(String key, TrimPoint trimPoint) {
+		if (!trimPoint.isConverged())
+			return;
+		
+		trimPoints.put(key, trimPoint);
+		modified = true;
+	}
+	
+	/**
+	 * @return if trim points were added since the cache was read or last saved
+	 */
+	@JsonIgnore
+	public boolean isModified() { return modified; }
+	
+	@Override
+	public synchronized void save() {
+		logger.info("Saving " + trimPoints.size() + " trim points...");
+		
+		FileUtilities.serializeJson(SimDirectories.SIM_CONFIG.toString(), this.getClass().getSimpleName(), this);
+		modified = false;
+	}
+
+	public Map<String, TrimPoint> getTrimPoints() { return trimPoints; }
+
+	public void setTrimPoints(Map<String, TrimPoint> trimPoints) { this.trimPoints = new ConcurrentHashMap<>(trimPoints); }
+}
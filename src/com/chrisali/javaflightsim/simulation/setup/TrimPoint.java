@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.setup;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+
+/**
+ * Trim states and controls found by {@link TrimSolver}, which can be applied to the initial conditions and initial controls of a
+ * {@link SimulationConfiguration}, and stored in a {@link TrimCache}
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class TrimPoint {
+	
+	private EnumMap<InitialConditions, Double> initialConditions = new EnumMap<>(InitialConditions.class);
+	private EnumMap<FlightControl, Double> initialControls = new EnumMap<>(FlightControl.class);
+	
+	private boolean converged;
+	
+	public TrimPoint() { }
+	
+	/**
+	 * Puts the trim states and controls into a configuration's initial conditions and initial controls
+	 * 
+	 * @param configuration
+	 * @return if any initial condition or initial control of the configuration was changed
+	 */
+	public boolean applyTo(SimulationConfiguration configuration) {
+		boolean changed = false;
+		
+		for (Map.Entry<InitialConditions, Double> entry : initialConditions.entrySet())
+			changed |= isChanged(entry.getValue(), configuration.getInitialConditions().put(entry.getKey(), entry.getValue()));
+		
+		for (Map.Entry<FlightControl, Double> entry : initialControls.entrySet())
+			changed |= isChanged(entry.getValue(), configuration.getInitialControls().put(entry.getKey(), entry.getValue()));
+		
+		return changed;
+	}
+
+	private static boolean isChanged(double value, Double previousValue) {
+		return previousValue == null || previousValue.doubleValue() != value;
+	}
+
+	public EnumMap<InitialConditions, Double> getInitialConditions() { return initialConditions; }
+
+	public void setInitialConditions(EnumMap<InitialConditions, Double> initialConditions) { this.initialConditions = initialConditions; }
+
+	public EnumMap<FlightControl, Double> getInitialControls() { return initialControls; }
+
+	public void setInitialControls(EnumMap<FlightControl, Double> initialControls) { this.initialControls = initialControls; }
+
+	/**
+	 * @return if the solver met its tolerances; if not, the states and controls are those closest to trim that could be found
+	 */
+	public boolean isConverged() { return converged; }
+
+	public void setConverged(boolean converged) { this.converged = converged; }
+	
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		
+		for (Map.Entry<InitialConditions, Double> entry : initialConditions.entrySet())
+			sb.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+		
+		for (Map.Entry<FlightControl, Double> entry : initialControls.entrySet())
+			sb.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+		
+		return sb.toString();
+	}
+}
@@ -0,0 +1,403 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.setup;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.LUDecomposition;
+import org.apache.commons.math3.linear.SingularMatrixException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.simulation.SimulationContext;
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.aircraft.CompiledAerodynamics;
+import com.chrisali.javaflightsim.simulation.aircraft.MassProperties;
+import com.chrisali.javaflightsim.simulation.aircraft.WingGeometry;
+import com.chrisali.javaflightsim.simulation.enviroment.Environment;
+import com.chrisali.javaflightsim.simulation.enviroment.AtmosphereState;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.propulsion.Engine;
+import com.chrisali.javaflightsim.simulation.utilities.SixDOFUtilities;
+
+/**
+ * Trims an aircraft in all six degrees of freedom by solving for angle of attack, sideslip, elevator, aileron, rudder and throttle
+ * together with Newton-Raphson iteration, so that the body accelerations (u, v, w, p, q, r derivatives) of the equations of motion
+ * in {@link Integrate6DOFEquations} are zero. Besides wings-level flight, the aircraft can be trimmed for a steady climb or descent
+ * along a flight path angle, and for a steady coordinated turn at a turn rate. Bank and pitch angles, and body angular rates, follow
+ * from the trim variables through the turn coordination and rate of climb constraints
+ * <p>
+ * Forces and moments are calculated with {@link CompiledAerodynamics} and the engines of the {@link SimulationContext}, and the
+ * Jacobian of the accelerations is found by finite differences
+ *
+ * @see Source: <i>Aircraft Control and Simulation by Stevens, B.L. and Lewis, F.L. (pp 192-200)</i>
+ * @author Christopher Ali
+ *
+ */
+public class TrimSolver {
+
+	private static final Logger logger = LogManager.getLogger(TrimSolver.class);
+
+	private static final int MAX_ITERATIONS = 50;
+	private static final int MAX_STEP_HALVINGS = 10;
+	private static final double PERTURBATION = 1e-6;
+
+	// Tolerances on linear (ft/sec^2) and angular (rad/sec^2) accelerations
+	private static final double LINEAR_TOLERANCE  = 1e-5;
+	private static final double ANGULAR_TOLERANCE = 1e-6;
+
+	// Trim variables
+	private static final int ALPHA    = 0;
+	private static final int BETA     = 1;
+	private static final int ELEVATOR = 2;
+	private static final int AILERON  = 3;
+	private static final int RUDDER   = 4;
+	private static final int THROTTLE = 5;
+	private static final int TRIM_VARIABLES = 6;
+
+	private static final double[] MINIMUM = {Math.toRadians(-20), Math.toRadians(-20),
+											 FlightControl.ELEVATOR.getMinimum(), FlightControl.AILERON.getMinimum(),
+											 FlightControl.RUDDER.getMinimum(), FlightControl.THROTTLE_1.getMinimum()};
+	private static final double[] MAXIMUM = {Math.toRadians(20), Math.toRadians(20),
+											 FlightControl.ELEVATOR.getMaximum(), FlightControl.AILERON.getMaximum(),
+											 FlightControl.RUDDER.getMaximum(), FlightControl.THROTTLE_1.getMaximum()};
+
+	private static final double[] TOLERANCES = {LINEAR_TOLERANCE, LINEAR_TOLERANCE, LINEAR_TOLERANCE,
+												ANGULAR_TOLERANCE, ANGULAR_TOLERANCE, ANGULAR_TOLERANCE};
+
+	private final SimulationConfiguration configuration;
+	private final Aircraft aircraft;
+	private final Set<Engine> engines;
+	private final CompiledAerodynamics aero;
+
+	private final AtmosphereState atmosphereState;
+	private final EnumMap<FlightControl, Double> controls;
+
+	private final double gravity = Environment.getGravity();
+	private final double trueAirspeed;
+	private final double altitude;
+	private final double mass;
+	private final double[] inertiaCoeffs = new double[9];
+	private final double[] aeroCenterArm = new double[3];
+
+	private double flightPathAngle = 0.0;
+	private double turnRate = 0.0;
+
+	// States at the last evaluation of the accelerations
+	private double phi, theta, p, q, r;
+	private final double[] windParameters = new double[3];
+	private final double[] forcesAndMoments = new double[6];
+
+	private int iterations;
+
+	/**
+	 * Creates a solver that trims the aircraft of a context at the true airspeed (from initial u, v and w velocities), altitude, flaps and
+	 * gear of the context's configuration
+	 *
+	 * @param context
+	 */
+	public TrimSolver(SimulationContext context) {
+		configuration = context.getConfiguration();
+		aircraft = context.getAircraft();
+		engines = context.getEngines();
+		aero = new CompiledAerodynamics(aircraft);
+
+		Map<InitialConditions, Double> initialConditions = configuration.getInitialConditions();
+
+		trueAirspeed = Math.sqrt(Math.pow(initialConditions.get(InitialConditions.INITU), 2) +
+								 Math.pow(initialConditions.get(InitialConditions.INITV), 2) +
+								 Math.pow(initialConditions.get(InitialConditions.INITW), 2));
+		altitude = initialConditions.get(InitialConditions.INITD);
+
+		// Copied, as the environment updates its state in place each time it is called
+		atmosphereState = new AtmosphereState(context.getEnvironment().getAndUpdateAtmosphereState(new double[]{0, 0, altitude}));
+		controls = new EnumMap<>(configuration.getInitialControls());
+
+		mass = aircraft.getMassProperty(MassProperties.TOTAL_MASS);
+		SixDOFUtilities.calculateInertiaCoeffs(aircraft.getInertiaValues(), inertiaCoeffs);
+
+		aeroCenterArm[0] = aircraft.getWingGeometry(WingGeometry.AC_X) - aircraft.getMassProperty(MassProperties.CG_X);
+		aeroCenterArm[1] = aircraft.getWingGeometry(WingGeometry.AC_Y) - aircraft.getMassProperty(MassProperties.CG_Y);
+		aeroCenterArm[2] = aircraft.getWingGeometry(WingGeometry.AC_Z) - aircraft.getMassProperty(MassProperties.CG_Z);
+	}
+
+	/**
+	 * Solves for trim, starting from the angle of attack and controls of the configuration
+	 *
+	 * @return trim states and controls found; if the solver did not converge, those closest to trim
+	 */
+	public TrimPoint solve() {
+		Map<InitialConditions, Double> initialConditions = configuration.getInitialConditions();
+
+		double[] x = new double[TRIM_VARIABLES];
+		x[ALPHA]    = Math.atan2(initialConditions.get(InitialConditions.INITW), initialConditions.get(InitialConditions.INITU));
+		x[BETA]     = 0.0;
+		x[ELEVATOR] = controls.get(FlightControl.ELEVATOR);
+		x[AILERON]  = controls.get(FlightControl.AILERON);
+		x[RUDDER]   = controls.get(FlightControl.RUDDER);
+		x[THROTTLE] = controls.get(FlightControl.THROTTLE_1) > 0 ? controls.get(FlightControl.THROTTLE_1) : 0.5;
+		limit(x);
+
+		double[] residuals = new double[TRIM_VARIABLES];
+		double[] trialResiduals = new double[TRIM_VARIABLES];
+		double[] trial = new double[TRIM_VARIABLES];
+		double[][] jacobian = new double[TRIM_VARIABLES][TRIM_VARIABLES];
+
+		calculateResiduals(x, residuals);
+		double cost = calculateCost(residuals);
+		boolean converged = cost <= 1.0;
+
+		logger.info("Solving for trim at " + String.format("%.1f ft/sec and %.0f ft", trueAirspeed, altitude) + "...");
+
+		for (iterations = 0; iterations < MAX_ITERATIONS && !converged; iterations++) {
+			calculateJacobian(x, residuals, jacobian);
+
+			double[] step;
+			try {
+				step = new LUDecomposition(new Array2DRowRealMatrix(jacobian, false)).getSolver()
+																					 .solve(new ArrayRealVector(residuals, false))
+																					 .toArray();
+			} catch (SingularMatrixException e) {
+				logger.error("Trim Jacobian is singular; unable to continue trimming!", e);
+				break;
+			}
+
+			// Take the full Newton step if it reduces the residuals, otherwise halve it until it does
+			double fraction = 1.0;
+			double trialCost = Double.MAX_VALUE;
+			for (int halving = 0; halving <= MAX_STEP_HALVINGS; halving++, fraction /= 2) {
+				for (int i = 0; i < TRIM_VARIABLES; i++)
+					trial[i] = x[i] - fraction*step[i];
+				limit(trial);
+
+				calculateResiduals(trial, trialResiduals);
+				trialCost = calculateCost(trialResiduals);
+
+				if (trialCost < cost)
+					break;
+			}
+
+			if (!(trialCost < cost)) {
+				logger.error("Trim solver stalled; unable to reduce accelerations further!");
+				break;
+			}
+
+			System.arraycopy(trial, 0, x, 0, TRIM_VARIABLES);
+			System.arraycopy(trialResiduals, 0, residuals, 0, TRIM_VARIABLES);
+			cost = trialCost;
+			converged = cost <= 1.0;
+		}
+
+		// Make sure that states correspond to the solution
+		calculateResiduals(x, residuals);
+
+		if (converged)
+			logger.info("...done in " + iterations + " iterations!");
+		else
+			logger.error("Unable to trim aircraft for given conditions!");
+
+		return createTrimPoint(x, converged);
+	}
+
+	/**
+	 * Calculates the body accelerations {u_dot, v_dot, w_dot, p_dot, q_dot, r_dot} at the trim variables x[], using the same equations
+	 * of motion as {@link Integrate6DOFEquations}
+	 *
+	 * @param x
+	 * @param residuals
+	 */
+	private void calculateResiduals(double[] x, double[] residuals) {
+		final double alpha = x[ALPHA], beta = x[BETA];
+
+		phi   = calculateBankAngle(alpha, beta);
+		theta = calculatePitchAngle(alpha, beta, phi);
+
+		// Body rates in a steady turn about the vertical axis
+		p = -turnRate * Math.sin(theta);
+		q =  turnRate * Math.sin(phi) * Math.cos(theta);
+		r =  turnRate * Math.cos(phi) * Math.cos(theta);
+
+		final double u = trueAirspeed * Math.cos(alpha) * Math.cos(beta);
+		final double v = trueAirspeed * Math.sin(beta);
+		final double w = trueAirspeed * Math.sin(alpha) * Math.cos(beta);
+
+		controls.put(FlightControl.ELEVATOR, x[ELEVATOR]);
+		controls.put(FlightControl.AILERON,  x[AILERON]);
+		controls.put(FlightControl.RUDDER,   x[RUDDER]);
+		controls.put(FlightControl.THROTTLE_1, x[THROTTLE]);
+		controls.put(FlightControl.THROTTLE_2, x[THROTTLE]);
+		controls.put(FlightControl.THROTTLE_3, x[THROTTLE]);
+		controls.put(FlightControl.THROTTLE_4, x[THROTTLE]);
+
+		windParameters[0] = trueAirspeed;
+		windParameters[1] = beta;
+		windParameters[2] = alpha;
+
+		final double mach = trueAirspeed / atmosphereState.getSpeedOfSound();
+
+		final double[] fm = aero.calculateForcesAndMoments(trueAirspeed, beta, alpha, p, q, r,
+														   atmosphereState.getDensity(), mach, altitude,
+														   x[ELEVATOR], x[AILERON], x[RUDDER],
+														   controls.get(FlightControl.FLAPS), controls.get(FlightControl.GEAR),
+														   0.0, altitude, forcesAndMoments);
+
+		double fx = fm[0], fy = fm[1], fz = fm[2];
+		double l = fm[3] + (fm[1]*aeroCenterArm[2] - fm[2]*aeroCenterArm[1]);
+		double m = fm[4] + (fm[2]*aeroCenterArm[0] - fm[0]*aeroCenterArm[2]);
+		double n = fm[5] + (fm[0]*aeroCenterArm[1] - fm[1]*aeroCenterArm[0]);
+
+		for (Engine engine : engines) {
+			engine.updateEngineState(controls, atmosphereState, windParameters);
+
+			double[] thrust = engine.getEngineThrust();
+			double[] moment = engine.getEngineMoment();
+
+			fx += thrust[0]; fy += thrust[1]; fz += thrust[2];
+			l  += moment[0]; m  += moment[1]; n  += moment[2];
+		}
+
+		residuals[0] = (r*v)-(q*w)-(gravity*Math.sin(theta))               + fx/mass;
+		residuals[1] = (p*w)-(r*u)+(gravity*Math.sin(phi)*Math.cos(theta)) + fy/mass;
+		residuals[2] = (q*u)-(p*v)+(gravity*Math.cos(phi)*Math.cos(theta)) + fz/mass;
+
+		residuals[3] = ((inertiaCoeffs[1]*p*q) - (inertiaCoeffs[0]*q)*r) + (inertiaCoeffs[2]*l)+(inertiaCoeffs[3]*n);
+		residuals[4] =  (inertiaCoeffs[4]*p*r) - (inertiaCoeffs[5]*((p*p)-(r*r)))   + (inertiaCoeffs[6]*m);
+		residuals[5] = ((inertiaCoeffs[7]*p*q) - (inertiaCoeffs[1]*q*r)) + (inertiaCoeffs[3]*l)+(inertiaCoeffs[8]*n);
+	}
+
+	/**
+	 * Bank angle of a coordinated turn at {@link #turnRate}, which is zero in wings-level flight
+	 */
+	private double calculateBankAngle(double alpha, double beta) {
+		if (turnRate == 0.0)
+			return 0.0;
+
+		final double G = turnRate * trueAirspeed / gravity;
+		final double a = 1 - G * Math.tan(alpha) * Math.sin(beta);
+		final double b = Math.sin(flightPathAngle) / Math.cos(beta);
+		final double c = 1 + G*G * Math.cos(beta)*Math.cos(beta);
+		final double tanAlpha = Math.tan(alpha);
+
+		return Math.atan(G * (Math.cos(beta) / Math.cos(alpha))
+						   * ((a - b*b) + b * tanAlpha * Math.sqrt(c * (1 - b*b) + G*G * Math.sin(beta)*Math.sin(beta)))
+						   / (a*a - b*b * (1 + c * tanAlpha*tanAlpha)));
+	}
+
+	/**
+	 * Pitch angle that satisfies the rate of climb constraint for {@link #flightPathAngle}
+	 */
+	private double calculatePitchAngle(double alpha, double beta, double phi) {
+		final double a = Math.cos(alpha) * Math.cos(beta);
+		final double b = Math.sin(phi) * Math.sin(beta) + Math.cos(phi) * Math.sin(alpha) * Math.cos(beta);
+		final double sinGamma = Math.sin(flightPathAngle);
+
+		return Math.atan((a*b + sinGamma * Math.sqrt(a*a - sinGamma*sinGamma + b*b)) / (a*a - sinGamma*sinGamma));
+	}
+
+	/**
+	 * Forward difference Jacobian of the residuals with respect to each trim variable
+	 */
+	private void calculateJacobian(double[] x, double[] residuals, double[][] jacobian) {
+		double[] perturbed = x.clone();
+		double[] perturbedResiduals = new double[TRIM_VARIABLES];
+
+		for (int j = 0; j < TRIM_VARIABLES; j++) {
+			// Perturb away from a limit so that the Jacobian is not evaluated outside of the control's range
+			double h = (x[j] + PERTURBATION > MAXIMUM[j]) ? -PERTURBATION : PERTURBATION;
+			perturbed[j] = x[j] + h;
+
+			calculateResiduals(perturbed, perturbedResiduals);
+
+			for (int i = 0; i < TRIM_VARIABLES; i++)
+				jacobian[i][j] = (perturbedResiduals[i] - residuals[i]) / h;
+
+			perturbed[j] = x[j];
+		}
+	}
+
+	/**
+	 * @return sum of squares of the residuals scaled by their tolerances; trim is converged once this is no greater than 1
+	 */
+	private static double calculateCost(double[] residuals) {
+		double cost = 0;
+
+		for (int i = 0; i < TRIM_VARIABLES; i++) {
+			double scaled = residuals[i] / TOLERANCES[i];
+			cost += scaled*scaled;
+		}
+
+		return cost;
+	}
+
+	private static void limit(double[] x) {
+		for (int i = 0; i < TRIM_VARIABLES; i++)
+			x[i] = Math.max(MINIMUM[i], Math.min(MAXIMUM[i], x[i]));
+	}
+
+	private TrimPoint createTrimPoint(double[] x, boolean converged) {
+		TrimPoint trimPoint = new TrimPoint();
+		trimPoint.setConverged(converged);
+
+		EnumMap<InitialConditions, Double> initialConditions = trimPoint.getInitialConditions();
+		initialConditions.put(InitialConditions.INITU, trueAirspeed * Math.cos(x[ALPHA]) * Math.cos(x[BETA]));
+		initialConditions.put(InitialConditions.INITV, trueAirspeed * Math.sin(x[BETA]));
+		initialConditions.put(InitialConditions.INITW, trueAirspeed * Math.sin(x[ALPHA]) * Math.cos(x[BETA]));
+		initialConditions.put(InitialConditions.INITPHI, phi);
+		initialConditions.put(InitialConditions.INITTHETA, theta);
+		initialConditions.put(InitialConditions.INITP, p);
+		initialConditions.put(InitialConditions.INITQ, q);
+		initialConditions.put(InitialConditions.INITR, r);
+
+		EnumMap<FlightControl, Double> initialControls = trimPoint.getInitialControls();
+		initialControls.put(FlightControl.ELEVATOR, x[ELEVATOR]);
+		initialControls.put(FlightControl.AILERON, x[AILERON]);
+		initialControls.put(FlightControl.RUDDER, x[RUDDER]);
+		initialControls.put(FlightControl.THROTTLE_1, x[THROTTLE]);
+		initialControls.put(FlightControl.THROTTLE_2, x[THROTTLE]);
+		initialControls.put(FlightControl.THROTTLE_3, x[THROTTLE]);
+		initialControls.put(FlightControl.THROTTLE_4, x[THROTTLE]);
+
+		return trimPoint;
+	}
+
+	/**
+	 * @return number of Newton iterations taken by the last call to {@link #solve()}
+	 */
+	public int getIterations() { return iterations; }
+
+	public double getFlightPathAngle() { return flightPathAngle; }
+
+	/**
+	 * @param flightPathAngle climb (positive) or descent (negative) angle to trim for (rad)
+	 */
+	public void setFlightPathAngle(double flightPathAngle) { this.flightPathAngle = flightPathAngle; }
+
+	public double getTurnRate() { return turnRate; }
+
+	/**
+	 * @param turnRate rate of a steady coordinated turn to trim for, positive to the right (rad/sec)
+	 */
+	public void setTurnRate(double turnRate) { this.turnRate = turnRate; }
+}
@@ -19,208 +19,124 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.simulation.setup;
 
-import java.util.EnumMap;
 import java.util.Map;
-import java.util.Set;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import com.chrisali.javaflightsim.simulation.aircraft.Aerodynamics;
+import com.chrisali.javaflightsim.simulation.SimulationContext;
 import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
-import com.chrisali.javaflightsim.simulation.aircraft.MassProperties;
-import com.chrisali.javaflightsim.simulation.aircraft.StabilityDerivatives;
-import com.chrisali.javaflightsim.simulation.aircraft.WingGeometry;
-import com.chrisali.javaflightsim.simulation.enviroment.Environment;
-import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
-import com.chrisali.javaflightsim.simulation.propulsion.Engine;
 import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
 
 /**
- * Simple rudimentary method of longitudinally trimming an aircraft by statically equating forces and moments.
- * This calculates trim deflections of throttle and elevator needed for level flight. For trim pitch, flight path
- * angle and angle of attack are considered by using the following equation:
- * 
- *  <p>Angle of Attack = Pitch Angle + Flight Path Angle</p>
+ * Trims an aircraft for steady flight at the airspeed and altitude of its initial conditions using {@link TrimSolver}, which 
+ * finds the angles of attack and sideslip, elevator, aileron, rudder and throttle that zero all six body accelerations. Trim 
+ * points found are stored in a {@link TrimCache}, so that the solver only runs the first time that a condition is trimmed for
  * 
  * @author Christopher Ali
- * @see Principles of Flight Simulation - David Allerton (pp 170-1)
+ * @see TrimSolver
  */
 public class Trimming {
 	
 	private static final Logger logger = LogManager.getLogger(Trimming.class);
 	
-	private static EnumMap<InitialConditions, Double> initialConditions;
-	private static EnumMap<FlightControl, Double> initialControls;
-	private static Map<EnvironmentParameters, Double> environmentParams;
-	private static Aircraft aircraft;
-	private static Aerodynamics aero;
-	
 	/**
-	 * Trims an aircraft longitudinally for a forward velocity and altitude specified in 
+	 * Trims an aircraft for level flight at the forward velocity and altitude specified in 
+	 * 
+	 * <p> SimConfig/SimulationConfiguration.json </p>
+	 * 
+	 * by setting the elevator, aileron, rudder, throttle, body velocities and attitude. If unable to reach a given trim condition, 
+	 * the values closest to trim are used. As long as the test mode boolean flag is false, these values are then saved to 
 	 * 
-	 * <p> SimConfig/InitialConditions.txt </p>
+	 * <p> SimConfig/SimulationConfiguration.json </p>
 	 * 
-	 * by setting the elevator, throttle and pitch attitude. These values are calculated by statically equating forces and moments.
-	 * If unable to reach a given trim condition, the method will return the maximum values for each control and pitch attitude.
-	 * These values are then saved to 
+	 * if they differ from those already saved, and any new trim point is saved to
 	 * 
-	 * <p> SimConfig/InitialConditions.txt </p>
-	 * and 
-	 * <p> SimConfig/InitialControls.txt </p>
+	 * <p> SimConfig/TrimCache.json </p>
 	 * 
-	 * as long as the test mode boolean flag is false; otherwise the results will be displayed in the console
+	 * otherwise the results will be displayed in the console
 	 * 
 	 * @param configuration
 	 * @param testMode
 	 */
 	public static void trimSim(SimulationConfiguration configuration, boolean testMode) {
-		Aircraft aircraft = FileUtilities.readAircraftConfiguration(configuration.getSelectedAircraft());
-		aero = new Aerodynamics(aircraft);
-		
-		initialConditions = configuration.getInitialConditions();
-		initialControls = configuration.getInitialControls();
-		
-		environmentParams = Environment.getAndUpdateEnvironmentParams(new double[]{0,0,initialConditions.get(InitialConditions.INITD)});
-		
-		double alphaMin = -0.18, alphaMax = 0.18, throttleMin = 0.0, throttleMax = 1.0,
-			   alphaTrim = 0.0, thetaTrim = 0.0, elevTrim = 0.0, throttleTrim = 0.0, wVelocityTrim = 0.0, 
-			   lift = 0.0, drag = 0.0, totalThrust = 0.0, zForce = 100.0;
-		
-		double trueAirspeed = Math.sqrt(Math.pow(initialConditions.get(InitialConditions.INITU), 2) +
-				  			  			Math.pow(initialConditions.get(InitialConditions.INITW), 2));
-		
-		double weight = aircraft.getMassProperty(MassProperties.TOTAL_MASS) * Environment.getGravity();
-		double q = environmentParams.get(EnvironmentParameters.RHO)*Math.pow(trueAirspeed, 2)/2;
-		double s = aircraft.getWingGeometry(WingGeometry.S_WING);
-		
-		int counter = 0;
-		
-		logger.info("Finding trim pitch and elevator...");
-		
-		do {
-			alphaTrim = (alphaMin + alphaMax) / 2;
-			
-			// Break out of loop if trim condition not satisfied after 100 attempts
-			if(counter == 100) {
-				logger.error("Unable to trim elevator and pitch for given conditions!");
-				
-				break;
-			}
-		
-			//=============================================== Pitch ================================================================
-			
-			// Calculate trim pitch by using (theta = alpha + FPA)
-			thetaTrim = alphaTrim + 0; // FPA is zero in level flight
-			
-			double[] windParameters = new double[] {trueAirspeed, 0, alphaTrim};
-			
-			double CL_alpha = aero.calculateInterpStabDer(windParameters, initialControls, StabilityDerivatives.CL_ALPHA);
-			double CL_0 = aero.calculateInterpStabDer(windParameters, initialControls, StabilityDerivatives.CL_0);
-			
-			lift = q * s * ((CL_alpha * alphaTrim) + CL_0);
-			
-			double CD_alpha = aero.calculateInterpStabDer(windParameters, initialControls, StabilityDerivatives.CD_ALPHA);
-			double CD_0 = aero.calculateInterpStabDer(windParameters, initialControls, StabilityDerivatives.CD_0);
-			
-			drag = q * s * ((CD_alpha * alphaTrim) + CD_0);
-			
-			// Calculate zForce to find trim alpha to zero forces
-			zForce = (-lift * Math.cos(alphaTrim)) - (drag * Math.sin(alphaTrim)) + (weight * Math.cos(thetaTrim));
-			
-			if (zForce  > 0)
-				alphaMin = alphaTrim;
-			else
-				alphaMax = alphaTrim;
-					
-			// Recalculate w velocity for new angle of attack
-			wVelocityTrim = windParameters[0] * Math.sin(alphaTrim);
-			
-			//==================================================== Elevator ========================================================
-			
-			// Calculate trim elevator, limiting if necessary
-			double CM_alpha = aero.calculateInterpStabDer(windParameters, initialControls, StabilityDerivatives.CM_ALPHA);
-			double CM_d_elev = aircraft.getStabilityDerivative(StabilityDerivatives.CM_D_ELEV).getValue();
-			double CM_0 = aircraft.getStabilityDerivative(StabilityDerivatives.CM_0).getValue();
-			
-			elevTrim = (CM_0 + (CM_alpha * alphaTrim)) / CM_d_elev;
-			elevTrim = elevTrim > FlightControl.ELEVATOR.getMaximum() ? FlightControl.ELEVATOR.getMaximum() : 
-					   elevTrim < FlightControl.ELEVATOR.getMinimum() ? FlightControl.ELEVATOR.getMinimum() : elevTrim;
-					   
-			counter++;
-					   
-		} while (Math.abs(zForce) > 1);
-		
-		logger.info("...done!");
-
-		//==================================================== Throttle ============================================================
-		
-		Set<Engine> engines = aircraft.getEngines();
+		trimSim(new SimulationContext(configuration), testMode);
+	}
+	
+	/**
+	 * Trims an aircraft for level flight as in {@link Trimming#trimSim(SimulationConfiguration, boolean)}, using the aircraft, 
+	 * environment and engines of a {@link SimulationContext}, so that trimming does not disturb any other simulation running 
+	 * at the same time. The trim values are written into the context's {@link SimulationConfiguration}
+	 * 
+	 * @param context
+	 * @param testMode
+	 */
+	public static void trimSim(SimulationContext context, boolean testMode) {
+		TrimCache trimCache = FileUtilities.readTrimCache();
 		
-		drag = (drag * Math.cos(alphaTrim)) - (lift * Math.sin(alphaTrim)) + (weight * Math.sin(thetaTrim));
+		trimSim(context, trimCache, 0.0, 0.0, testMode);
 		
-		counter = 0;
+		if (!testMode && trimCache.isModified())
+			trimCache.save();
+	}
+	
+	/**
+	 * Trims an aircraft for a steady climb, descent or coordinated turn, looking the trim condition up in the {@link TrimCache} 
+	 * supplied before running {@link TrimSolver}. A converged trim point is added to the cache, but the cache is not saved. 
+	 * The trim values are written into the context's {@link SimulationConfiguration}, which is saved if they changed and 
+	 * the test mode boolean flag is false
+	 * 
+	 * @param context
+	 * @param trimCache
+	 * @param flightPathAngle climb (positive) or descent (negative) angle (rad)
+	 * @param turnRate rate of turn, positive to the right (rad/sec)
+	 * @param testMode
+	 * @return trim point applied to the configuration
+	 */
+	public static TrimPoint trimSim(SimulationContext context, TrimCache trimCache, double flightPathAngle, double turnRate, boolean testMode) {
+		SimulationConfiguration configuration = context.getConfiguration();
+		Aircraft aircraft = context.getAircraft();
 		
-		logger.info("Finding trim throttle...");
+		String key = TrimCache.createKey(aircraft, configuration, flightPathAngle, turnRate);
+		TrimPoint trimPoint = trimCache.get(key);
 		
-		do {
-			throttleTrim = (throttleMin + throttleMax) / 2;
-			
-			// Break out of loop if trim condition not satisfied after 100 attempts
-			if(counter == 100) {
-				logger.error("Unable to trim throttle for given conditions!");
-				
-				break;
-			}
-			
-			initialControls.put(FlightControl.THROTTLE_1, throttleTrim);
-			initialControls.put(FlightControl.THROTTLE_2, throttleTrim);
-			initialControls.put(FlightControl.THROTTLE_3, throttleTrim);
-			initialControls.put(FlightControl.THROTTLE_4, throttleTrim);
-			
-			// Get total thrust, equate it with drag of aircraft to find trim throttle
-			totalThrust = 0.0;
-			for (Engine engine : engines) {
-				engine.updateEngineState(initialControls, environmentParams, new double[]{trueAirspeed,0,0});
-				totalThrust += engine.getEngineThrust()[0];
-			}
-			
-			if (totalThrust < drag)
-				throttleMin = throttleTrim;
-			else
-				throttleMax = throttleTrim;
-			
-			counter++;
+		if (trimPoint != null) {
+			logger.info("Using cached trim for " + key);
+		} else {
+			TrimSolver solver = new TrimSolver(context);
+			solver.setFlightPathAngle(flightPathAngle);
+			solver.setTurnRate(turnRate);
 			
-		} while (Math.abs(totalThrust - drag) > 1);
-		
-		logger.info("...done!");
-		
-		// Update initialControls and initialConditions
-		initialConditions.put(InitialConditions.INITTHETA, thetaTrim);
-		initialConditions.put(InitialConditions.INITW, wVelocityTrim);
+			trimPoint = solver.solve();
+			trimCache.put(key, trimPoint);
+		}
 		
-		initialControls.put(FlightControl.ELEVATOR, -elevTrim);
-		initialControls.put(FlightControl.AILERON, 0.0);
-		initialControls.put(FlightControl.RUDDER, 0.0);
+		boolean changed = trimPoint.applyTo(configuration);
 		
 		logger.info("Finished trimming aircraft!");
-		logger.info(String.format("Trim controls are: \nElevator: %.4f rad\nThrottle: %.4f", elevTrim, throttleTrim));
-		logger.info(String.format("Trim states are: \nW Velocity: %3.4f ft/sec\nTheta: %.4f rad\nAlpha: %.4f rad", wVelocityTrim, thetaTrim, alphaTrim));
 		
 		// In test mode do not write any config settings to files
 		if (!testMode) {
-			logger.info("Updating initial conditions and initial flight controls...");
-			configuration.setInitialConditions(initialConditions);
-			configuration.setInitialControls(initialControls);
-			configuration.save();
+			if (changed) {
+				logger.info("Updating initial conditions and initial flight controls...");
+				configuration.save();
+			}
 		} else {
-			logger.info(Trimming.outputTrimValues());
+			logger.info(Trimming.outputTrimValues(aircraft, configuration.getInitialConditions(), configuration.getInitialControls()));
 		}
+		
+		return trimPoint;
 	}
 	
-	public static String outputTrimValues() {
+	/**
+	 * @param aircraft
+	 * @param initialConditions
+	 * @param initialControls
+	 * @return trim values of the aircraft formatted for output to the console
+	 */
+	public static String outputTrimValues(Aircraft aircraft, Map<InitialConditions, Double> initialConditions, 
+										  Map<FlightControl, Double> initialControls) {
 		StringBuilder sb = new StringBuilder();
 		
 		sb.append("======================\n");
@@ -229,9 +145,15 @@ public class Trimming {
 		
 		sb.append(InitialConditions.INITTHETA.toString()).append(": ").append(initialConditions.get(InitialConditions.INITTHETA)).append("\n\n");
 		
+		sb.append(InitialConditions.INITPHI.toString()).append(": ").append(initialConditions.get(InitialConditions.INITPHI)).append("\n\n");
+		
+		sb.append(InitialConditions.INITU.toString()).append(": ").append(initialConditions.get(InitialConditions.INITU)).append("\n");
+		sb.append(InitialConditions.INITV.toString()).append(": ").append(initialConditions.get(InitialConditions.INITV)).append("\n");
 		sb.append(InitialConditions.INITW.toString()).append(": ").append(initialConditions.get(InitialConditions.INITW)).append("\n\n");
 	
-		sb.append(FlightControl.ELEVATOR.toString()).append(": ").append(initialControls.get(FlightControl.ELEVATOR)).append("\n\n");
+		sb.append(FlightControl.ELEVATOR.toString()).append(": ").append(initialControls.get(FlightControl.ELEVATOR)).append("\n");
+		sb.append(FlightControl.AILERON.toString()).append(": ").append(initialControls.get(FlightControl.AILERON)).append("\n");
+		sb.append(FlightControl.RUDDER.toString()).append(": ").append(initialControls.get(FlightControl.RUDDER)).append("\n\n");
 		sb.append(FlightControl.THROTTLE_1.toString()).append(": ").append(initialControls.get(FlightControl.THROTTLE_1)).append("\n");
 		sb.append(FlightControl.THROTTLE_2.toString()).append(": ").append(initialControls.get(FlightControl.THROTTLE_2)).append("\n");
 		sb.append(FlightControl.THROTTLE_3.toString()).append(": ").append(initialControls.get(FlightControl.THROTTLE_3)).append("\n");
@@ -0,0 +1,296 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.sweep;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.simulation.HeadlessSimulationRunner;
+import com.chrisali.javaflightsim.simulation.SimulationContext;
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.flightcontrols.analysis.AnalysisControls;
+import com.chrisali.javaflightsim.simulation.linear.LinearModel;
+import com.chrisali.javaflightsim.simulation.linear.Linearization;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.setup.TrimCache;
+import com.chrisali.javaflightsim.simulation.setup.Trimming;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+
+/**
+ * Runs a batch of headless simulations, one for each {@link SweepCase} applied to a base {@link SimulationConfiguration}, in parallel
+ * on a {@link ForkJoinPool}. Each case gets its own copy of the configuration and its own {@link SimulationContext}, is optionally 
+ * trimmed, and then runs as fast as possible with {@link HeadlessSimulationRunner}, streaming each step's outputs to a 
+ * {@link SweepResultSink} created for that case. Outputs are not logged in memory, so the size of a sweep is limited only by what 
+ * its sinks keep
+ * <p>
+ * The base aircraft is read once and shared read-only between all cases, except for those that override its weight percentages, 
+ * which get their own copy. Cases share a {@link TrimCache}, which is saved at the end of the sweep, so that cases already trimmed 
+ * for by this or earlier sweeps skip trimming
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class ParameterSweep {
+	
+	private static final Logger logger = LogManager.getLogger(ParameterSweep.class);
+	
+	private final SimulationConfiguration baseConfiguration;
+	private final Aircraft baseAircraft;
+	private final AnalysisControls baseAnalysisControls;
+	private final TrimCache trimCache;
+	
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private boolean trim = true;
+	private SweepProgressListener progressListener;
+	
+	/**
+	 * Creates a sweep whose cases are variants of a base configuration. The aircraft and analysis controls used by cases
+	 * without overrides are read once here
+	 * 
+	 * @param baseConfiguration
+	 */
+	public ParameterSweep(SimulationConfiguration baseConfiguration) {
+		this.baseConfiguration = baseConfiguration;
+		
+		baseAircraft = FileUtilities.readAircraftConfiguration(baseConfiguration.getSelectedAircraft());
+		baseAnalysisControls = FileUtilities.readAnalysisControls();
+		trimCache = FileUtilities.readTrimCache();
+	}
+	
+	/**
+	 * Runs all cases specified, blocking until every case has finished
+	 * 
+	 * @param cases
+	 * @param sinkFactory creates the sink that receives the outputs of a case
+	 * @return results of each case, in the same order as the cases given; a case whose task threw has a failed result
+	 */
+	public List<SweepResult> run(List<SweepCase> cases, Function<SweepCase, SweepResultSink> sinkFactory) {
+		logger.info("Running parameter sweep of " + cases.size() + " cases on " + parallelism + " threads...");
+		
+		final int total = cases.size();
+		final AtomicInteger completed = new AtomicInteger(0);
+		
+		List<Callable<SweepResult>> tasks = new ArrayList<>(total);
+		for (SweepCase sweepCase : cases) {
+			tasks.add(() -> {
+				SweepResult result = runCase(sweepCase, sinkFactory.apply(sweepCase));
+				
+				if (progressListener != null)
+					progressListener.onProgress(result, completed.incrementAndGet(), total);
+				
+				return result;
+			});
+		}
+		
+		List<SweepResult> results = invokeAll(tasks, (i, e) -> new SweepResult(cases.get(i), e, 0, 0));
+		
+		if (trimCache.isModified())
+			trimCache.save();
+		
+		logger.info("...done!");
+		
+		return results;
+	}
+	
+	/**
+	 * Trims each case specified and linearizes its equations of motion about the trim point, in parallel across cases, blocking until 
+	 * every case has finished. This gives a linear model for each point of a sweep grid without running any nonlinear simulations
+	 * 
+	 * @param cases
+	 * @return linear models of each case, in the same order as the cases given; null for any case that could not be linearized
+	 */
+	public List<LinearModel> linearize(List<SweepCase> cases) {
+		logger.info("Linearizing " + cases.size() + " cases on " + parallelism + " threads...");
+		
+		final int total = cases.size();
+		final AtomicInteger completed = new AtomicInteger(0);
+		
+		List<Callable<LinearModel>> tasks = new ArrayList<>(total);
+		for (SweepCase sweepCase : cases) {
+			tasks.add(() -> {
+				long startMS = System.currentTimeMillis();
+				LinearModel model = null;
+				Exception exception = null;
+				
+				try {
+					// Cases are already evaluated in parallel, so each linearization runs on its case's thread
+					Linearization linearization = new Linearization(createContext(sweepCase));
+					linearization.setParallelism(1);
+					
+					model = linearization.linearize();
+				} catch (Exception e) {
+					logger.error("Error linearizing " + sweepCase + "!", e);
+					exception = e;
+				}
+				
+				if (progressListener != null)
+					progressListener.onProgress(new SweepResult(sweepCase, exception, 0, System.currentTimeMillis() - startMS), 
+												completed.incrementAndGet(), total);
+				
+				return model;
+			});
+		}
+		
+		List<LinearModel> models = invokeAll(tasks, (i, e) -> null);
+		
+		if (trimCache.isModified())
+			trimCache.save();
+		
+		logger.info("...done!");
+		
+		return models;
+	}
+	
+	/**
+	 * Runs tasks on a new {@link ForkJoinPool} of {@link #parallelism} threads, blocking until all have finished. A task that throws, 
+	 * or that never ran because the sweep was interrupted, does not shorten the list; its slot holds the result given by onFailure instead
+	 * 
+	 * @param tasks
+	 * @param onFailure result of a failed task from its index and the exception it failed with
+	 * @return result of each task, in the same order as the tasks given
+	 */
+	private <T> List<T> invokeAll(List<Callable<T>> tasks, BiFunction<Integer, Exception, T> onFailure) {
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		List<T> results = new ArrayList<>(tasks.size());
+		
+		try {
+			List<Future<T>> futures = pool.invokeAll(tasks);
+			
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					results.add(futures.get(i).get());
+				} catch (ExecutionException e) {
+					logger.error("Error running parameter sweep task " + i + "!", e.getCause());
+					results.add(onFailure.apply(i, (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e));
+				}
+			}
+		} catch (InterruptedException e) {
+			logger.error("Parameter sweep was interrupted!", e);
+			Thread.currentThread().interrupt();
+			
+			while (results.size() < tasks.size())
+				results.add(onFailure.apply(results.size(), e));
+		} finally {
+			pool.shutdownNow();
+		}
+		
+		return results;
+	}
+	
+	/**
+	 * Creates a context for a case from copies of the base configuration and, if its weight is overridden, the base aircraft, 
+	 * trimming it if enabled
+	 * 
+	 * @param sweepCase
+	 * @return context of the case
+	 */
+	private SimulationContext createContext(SweepCase sweepCase) {
+		SimulationConfiguration configuration = FileUtilities.deepCopy(baseConfiguration, SimulationConfiguration.class);
+		sweepCase.applyTo(configuration);
+		
+		// Outputs of a case are streamed to its sink, if at all, rather than logged
+		Set<Options> options = configuration.getSimulationOptions();
+		options.add(Options.ANALYSIS_MODE);
+		options.add(Options.NO_LOGGING);
+		
+		Aircraft aircraft = baseAircraft;
+		if (sweepCase.hasWeightOverrides()) {
+			aircraft = FileUtilities.deepCopy(baseAircraft, Aircraft.class);
+			sweepCase.applyTo(aircraft);
+		}
+		
+		SimulationContext context = new SimulationContext(configuration, aircraft);
+		
+		if (trim)
+			Trimming.trimSim(context, trimCache, 0.0, 0.0, true);
+		
+		return context;
+	}
+	
+	/**
+	 * Sets up, trims and runs a single case on the calling thread, passing its outputs to the sink
+	 * 
+	 * @param sweepCase
+	 * @param sink
+	 * @return result of the case
+	 */
+	private SweepResult runCase(SweepCase sweepCase, SweepResultSink sink) {
+		long startMS = System.currentTimeMillis();
+		final int[] steps = new int[1];
+		
+		try {
+			SimulationContext context = createContext(sweepCase);
+			
+			AnalysisControls analysisControls = sweepCase.getAnalysisControls() != null ? sweepCase.getAnalysisControls() : baseAnalysisControls;
+			HeadlessSimulationRunner runner = new HeadlessSimulationRunner(context, analysisControls);
+			runner.setOutputConsumer(simOutValues -> {
+				sink.onStep(simOutValues);
+				steps[0]++;
+			});
+			
+			sink.onStart(sweepCase, context.getConfiguration());
+			runner.call();
+			sink.onComplete();
+			
+			return new SweepResult(sweepCase, null, steps[0], System.currentTimeMillis() - startMS);
+		} catch (Exception e) {
+			logger.error("Error running " + sweepCase + "!", e);
+			sink.onError(e);
+			
+			return new SweepResult(sweepCase, e, steps[0], System.currentTimeMillis() - startMS);
+		}
+	}
+	
+	public int getParallelism() { return parallelism; }
+	
+	/**
+	 * @param parallelism maximum number of cases to run at the same time
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be at least 1!");
+		
+		this.parallelism = parallelism;
+	}
+	
+	public boolean isTrim() { return trim; }
+	
+	/**
+	 * @param trim if each case should be trimmed for level flight at its initial conditions before being run
+	 */
+	public void setTrim(boolean trim) { this.trim = trim; }
+	
+	/**
+	 * @param progressListener notified each time a case finishes
+	 */
+	public void setProgressListener(SweepProgressListener progressListener) { this.progressListener = progressListener; }
+}
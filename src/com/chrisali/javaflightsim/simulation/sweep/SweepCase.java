@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.sweep;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.aircraft.MassProperties;
+import com.chrisali.javaflightsim.simulation.enviroment.Environment;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.flightcontrols.analysis.AnalysisControls;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+
+/**
+ * A single case of a {@link ParameterSweep}, consisting of overrides applied to a copy of the sweep's base {@link SimulationConfiguration}
+ * and {@link Aircraft} before the case is trimmed and run. Any value left unset is taken unchanged from the base configuration
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class SweepCase {
+	
+	private final int index;
+	
+	private final EnumMap<InitialConditions, Double> initialConditions = new EnumMap<>(InitialConditions.class);
+	private final EnumMap<FlightControl, Double> initialControls = new EnumMap<>(FlightControl.class);
+	
+	private Double fuelWeightPercent;
+	private Double payloadWeightPercent;
+	
+	private AnalysisControls analysisControls;
+	
+	/**
+	 * @param index position of this case in its sweep, used to identify it in results and outputs
+	 */
+	public SweepCase(int index) {
+		this.index = index;
+	}
+	
+	/**
+	 * Puts this case's initial conditions and initial controls into a configuration
+	 * 
+	 * @param configuration
+	 */
+	public void applyTo(SimulationConfiguration configuration) {
+		configuration.getInitialConditions().putAll(initialConditions);
+		configuration.getInitialControls().putAll(initialControls);
+	}
+	
+	/**
+	 * Updates the weight percentages of an aircraft with those of this case, if any were set. Total mass is then changed by the
+	 * difference in gross weight, so that a case with the aircraft's own weight percentages has the aircraft's own total mass
+	 * 
+	 * @param aircraft
+	 * @return if the aircraft was modified
+	 */
+	public boolean applyTo(Aircraft aircraft) {
+		if (!hasWeightOverrides())
+			return false;
+		
+		double grossWeight = aircraft.calculateGrossWeight();
+		
+		aircraft.updateWeightPercentages(fuelWeightPercent != null ? fuelWeightPercent : aircraft.getMassProperty(MassProperties.WEIGHT_FUEL), 
+										 payloadWeightPercent != null ? payloadWeightPercent : aircraft.getMassProperty(MassProperties.WEIGHT_PAYLOAD));
+		
+		double totalMass = aircraft.getMassProperty(MassProperties.TOTAL_MASS);
+		aircraft.setMassProperty(MassProperties.TOTAL_MASS, totalMass + (aircraft.calculateGrossWeight() - grossWeight) / Environment.getGravity());
+		
+		return true;
+	}
+	
+	public int getIndex() { return index; }
+	
+	public Map<InitialConditions, Double> getInitialConditions() { return initialConditions; }
+	
+	public void setInitialCondition(InitialConditions initialCondition, double value) { initialConditions.put(initialCondition, value); }
+	
+	public Map<FlightControl, Double> getInitialControls() { return initialControls; }
+	
+	public void setInitialControl(FlightControl flightControl, double value) { initialControls.put(flightControl, value); }
+	
+	/**
+	 * @return if fuel or payload weight percentages differ from those of the base aircraft
+	 */
+	public boolean hasWeightOverrides() { return fuelWeightPercent != null || payloadWeightPercent != null; }
+	
+	public Double getFuelWeightPercent() { return fuelWeightPercent; }
+	
+	public void setFuelWeightPercent(Double fuelWeightPercent) { this.fuelWeightPercent = fuelWeightPercent; }
+	
+	public Double getPayloadWeightPercent() { return payloadWeightPercent; }
+	
+	public void setPayloadWeightPercent(Double payloadWeightPercent) { this.payloadWeightPercent = payloadWeightPercent; }
+	
+	/**
+	 * @return analysis control inputs of this case, or null if those of the configuration file are to be used
+	 */
+	public AnalysisControls getAnalysisControls() { return analysisControls; }
+	
+	public void setAnalysisControls(AnalysisControls analysisControls) { this.analysisControls = analysisControls; }
+	
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("Case ").append(index);
+		
+		for (Map.Entry<InitialConditions, Double> entry : initialConditions.entrySet())
+			sb.append(", ").append(entry.getKey()).append("=").append(entry.getValue());
+		
+		for (Map.Entry<FlightControl, Double> entry : initialControls.entrySet())
+			sb.append(", ").append(entry.getKey()).append("=").append(entry.getValue());
+		
+		if (fuelWeightPercent != null)
+			sb.append(", fuel=").append(fuelWeightPercent);
+		
+		if (payloadWeightPercent != null)
+			sb.append(", payload=").append(payloadWeightPercent);
+		
+		if (analysisControls != null)
+			sb.append(", ").append(analysisControls.getAnalysisInputs().size()).append(" analysis inputs");
+		
+		return sb.toString();
+	}
+}
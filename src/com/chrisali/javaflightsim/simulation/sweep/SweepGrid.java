@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.sweep;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.flightcontrols.analysis.AnalysisControls;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+
+/**
+ * Builds the {@link SweepCase}s of a {@link ParameterSweep} as the cartesian product of the values given for each swept parameter.
+ * Parameters are varied in the order that they were added, with the last parameter added varying fastest
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class SweepGrid {
+	
+	private final List<List<Consumer<SweepCase>>> axes = new ArrayList<>();
+	
+	/**
+	 * Sweeps an initial condition over the values specified
+	 * 
+	 * @param initialCondition
+	 * @param values
+	 * @return this grid
+	 */
+	public SweepGrid addInitialCondition(InitialConditions initialCondition, double... values) {
+		List<Consumer<SweepCase>> axis = new ArrayList<>();
+		
+		for (double value : values)
+			axis.add(sweepCase -> sweepCase.setInitialCondition(initialCondition, value));
+		
+		return addAxis(axis);
+	}
+	
+	/**
+	 * Sweeps an initial control over the values specified. Controls set by trimming (elevator and throttles) will be overwritten 
+	 * unless the sweep is run without trimming
+	 * 
+	 * @param flightControl
+	 * @param values
+	 * @return this grid
+	 */
+	public SweepGrid addInitialControl(FlightControl flightControl, double... values) {
+		List<Consumer<SweepCase>> axis = new ArrayList<>();
+		
+		for (double value : values)
+			axis.add(sweepCase -> sweepCase.setInitialControl(flightControl, value));
+		
+		return addAxis(axis);
+	}
+	
+	/**
+	 * Sweeps the aircraft's fuel weight percentage over the values specified (0.0 - 1.0)
+	 * 
+	 * @param values
+	 * @return this grid
+	 */
+	public SweepGrid addFuelWeightPercent(double... values) {
+		List<Consumer<SweepCase>> axis = new ArrayList<>();
+		
+		for (double value : values)
+			axis.add(sweepCase -> sweepCase.setFuelWeightPercent(value));
+		
+		return addAxis(axis);
+	}
+	
+	/**
+	 * Sweeps the aircraft's payload weight percentage over the values specified (0.0 - 1.0)
+	 * 
+	 * @param values
+	 * @return this grid
+	 */
+	public SweepGrid addPayloadWeightPercent(double... values) {
+		List<Consumer<SweepCase>> axis = new ArrayList<>();
+		
+		for (double value : values)
+			axis.add(sweepCase -> sweepCase.setPayloadWeightPercent(value));
+		
+		return addAxis(axis);
+	}
+	
+	/**
+	 * Runs each case with each of the analysis control inputs specified
+	 * 
+	 * @param analysisControls
+	 * @return this grid
+	 */
+	public SweepGrid addAnalysisControls(AnalysisControls... analysisControls) {
+		List<Consumer<SweepCase>> axis = new ArrayList<>();
+		
+		for (AnalysisControls controls : Arrays.asList(analysisControls))
+			axis.add(sweepCase -> sweepCase.setAnalysisControls(controls));
+		
+		return addAxis(axis);
+	}
+	
+	private SweepGrid addAxis(List<Consumer<SweepCase>> axis) {
+		if (axis.isEmpty())
+			throw new IllegalArgumentException("At least one value must be specified for each swept parameter!");
+		
+		axes.add(axis);
+		
+		return this;
+	}
+	
+	/**
+	 * @return number of cases in this grid
+	 */
+	public int size() {
+		int size = 1;
+		
+		for (List<Consumer<SweepCase>> axis : axes)
+			size *= axis.size();
+		
+		return size;
+	}
+	
+	/**
+	 * @return list of every combination of the swept parameters' values, indexed from 0
+	 */
+	public List<SweepCase> getCases() {
+		int size = size();
+		List<SweepCase> cases = new ArrayList<>(size);
+		
+		for (int index = 0; index < size; index++) {
+			SweepCase sweepCase = new SweepCase(index);
+			
+			// Decompose the case index into a position along each axis, with the last axis varying fastest
+			int remainder = index;
+			for (int axisIdx = axes.size() - 1; axisIdx >= 0; axisIdx--) {
+				List<Consumer<SweepCase>> axis = axes.get(axisIdx);
+				
+				axis.get(remainder % axis.size()).accept(sweepCase);
+				remainder /= axis.size();
+			}
+			
+			cases.add(sweepCase);
+		}
+		
+		return cases;
+	}
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.sweep;
+
+/**
+ * Outcome of running a single {@link SweepCase}
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class SweepResult {
+	
+	private final SweepCase sweepCase;
+	private final Exception exception;
+	private final int steps;
+	private final long elapsedMS;
+	
+	public SweepResult(SweepCase sweepCase, Exception exception, int steps, long elapsedMS) {
+		this.sweepCase = sweepCase;
+		this.exception = exception;
+		this.steps = steps;
+		this.elapsedMS = elapsedMS;
+	}
+	
+	public SweepCase getSweepCase() { return sweepCase; }
+	
+	/**
+	 * @return if the case ran to its end time without error
+	 */
+	public boolean isSuccessful() { return exception == null; }
+	
+	/**
+	 * @return exception that stopped the case, or null if successful
+	 */
+	public Exception getException() { return exception; }
+	
+	/**
+	 * @return number of simulation steps passed to the case's sink
+	 */
+	public int getSteps() { return steps; }
+	
+	/**
+	 * @return wall clock time taken to trim and run the case
+	 */
+	public long getElapsedMS() { return elapsedMS; }
+	
+	@Override
+	public String toString() {
+		return sweepCase + (isSuccessful() ? " completed " + steps + " steps" : " failed: " + exception) + " in " + elapsedMS + " ms";
+	}
+}
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.sweep;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+
+/**
+ * Receives the outputs of a single {@link SweepCase} as it runs, so that the outputs of a large sweep can be written out or
+ * reduced as they are produced rather than held in memory. Each case gets its own sink, whose methods are only ever called by 
+ * the thread running that case
+ * 
+ * @author Christopher Ali
+ *
+ */
+public interface SweepResultSink {
+	
+	/**
+	 * Called once the case has been trimmed, before the first step is run
+	 * 
+	 * @param sweepCase
+	 * @param configuration trimmed configuration of the case
+	 */
+	default void onStart(SweepCase sweepCase, SimulationConfiguration configuration) { }
+	
+	/**
+	 * Called after each simulation step
+	 * 
+	 * @param simOutValues outputs of the step, indexed by {@link SimOuts} ordinal; overwritten by the next step, so must be copied if kept
+	 */
+	void onStep(double[] simOutValues);
+	
+	/**
+	 * Called once the case has run to its end time
+	 */
+	default void onComplete() { }
+	
+	/**
+	 * Called if the case could not be set up or failed while running, in place of {@link #onComplete()}
+	 * 
+	 * @param e
+	 */
+	default void onError(Exception e) { }
+}
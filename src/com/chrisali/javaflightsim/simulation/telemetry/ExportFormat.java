@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.telemetry;
+
+/**
+ *	Delimited text formats that {@link TelemetryExporter} can write simulation outputs in
+ */
+public enum ExportFormat {
+	CSV ("Comma Separated Values", ',', ".csv"),
+	TSV ("Tab Separated Values", '\t', ".tsv");
+	
+	private final String exportFormat;
+	private final char delimiter;
+	private final String extension;
+	
+	ExportFormat(String exportFormat, char delimiter, String extension) {
+		this.exportFormat = exportFormat;
+		this.delimiter = delimiter;
+		this.extension = extension;
+	}
+	
+	public char getDelimiter() {return delimiter;}
+	
+	public String getExtension() {return extension;}
+	
+	/**
+	 * @param fileName
+	 * @return {@link #TSV} if the file name has a .tsv extension, optionally followed by .gz, otherwise {@link #CSV}
+	 */
+	public static ExportFormat fromFileName(String fileName) {
+		String name = fileName.toLowerCase();
+		
+		if (name.endsWith(TelemetryExporter.GZIP_EXTENSION))
+			name = name.substring(0, name.length() - TelemetryExporter.GZIP_EXTENSION.length());
+		
+		return name.endsWith(TSV.extension) ? TSV : CSV;
+	}
+	
+	public String toString() {return exportFormat;}
+}
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.telemetry;
+
+import java.io.File;
+import java.util.EventListener;
+
+/**
+ * Receives the progress of an export started with {@link TelemetryExporter#exportInBackground(File, ExportListener)}. Methods are 
+ * called on the export thread, so user interfaces must hand them over to their own threads to update anything 
+ */
+public interface ExportListener extends EventListener {
+	
+	/**
+	 * Called periodically as rows are written
+	 * 
+	 * @param rowsWritten
+	 * @param totalRows number of rows being exported
+	 */
+	public void onExportProgress(long rowsWritten, long totalRows);
+	
+	/**
+	 * Called once all rows have been written and the file closed
+	 * 
+	 * @param file
+	 * @param rowsWritten
+	 */
+	public void onExportComplete(File file, long rowsWritten);
+	
+	/**
+	 * Called if the export could not be completed; the partly written file is deleted
+	 * 
+	 * @param file
+	 * @param e
+	 */
+	public void onExportFailed(File file, Exception e);
+	
+	/**
+	 * Called if the export was stopped with {@link TelemetryExporter#cancel()}; the partly written file is deleted
+	 * 
+	 * @param file
+	 */
+	public default void onExportCancelled(File file) {}
+}
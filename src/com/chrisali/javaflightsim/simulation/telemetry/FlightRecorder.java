@@ -0,0 +1,452 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.telemetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.interfaces.Steppable;
+import com.chrisali.javaflightsim.simulation.aircraft.LandingGear;
+import com.chrisali.javaflightsim.simulation.integration.GroundContactListener;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.RateGroup;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.telemetry.FlightRecording.RecordedEvent;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+import com.chrisali.javaflightsim.simulation.utilities.SimDirectories;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Records every step of the simulation, including its flight control inputs, and events such as touchdowns to memory mapped, 
+ * append-only binary files that can be read with {@link FlightRecording} once the flight is over, when {@link Options#RECORD_FLIGHT} 
+ * is enabled. Outputs are stored in blocks of rows, with each channel's values stored together within a block; once a file reaches 
+ * the size set by {@link SimulationConfiguration#getRecorderFileSizeMB()}, recording rolls over to a new file
+ * 
+ * <p>Stepping the recorder only copies the outputs of the latest step into a queue, and never waits; a recorder thread of its own 
+ * writes the queued rows to file. Should the recorder thread fall so far behind that the queue fills, rows are dropped and counted 
+ * rather than holding up the simulation</p>
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class FlightRecorder implements Steppable, GroundContactListener {
+	
+	private static final Logger logger = LogManager.getLogger(FlightRecorder.class);
+	
+	private static final SimOuts[] CHANNELS = SimOuts.values();
+	private static final int QUEUE_ROWS = 8192;
+	private static final int ROWS_PER_BLOCK = 256;
+	private static final long IDLE_NANOS = 1000000L;
+	private static final long BYTES_PER_MB = 1024 * 1024;
+	
+	// Source of outputs, overwritten by the simulation each step
+	private final double[] simOutValues;
+	private double lastRecordedTime = Double.NaN;
+	
+	// File naming and header
+	private final Path directory;
+	private final String baseName;
+	private final long maxFileBytes;
+	private final String aircraft;
+	private final long configurationHash;
+	private final double dt;
+	private final long startTimeMillis;
+	
+	// Queue of rows from the simulation thread to the recorder thread, written only by the simulation, read only by the recorder
+	private final double[] queue = new double[QUEUE_ROWS * CHANNELS.length];
+	private volatile long queueHead = 0;
+	private volatile long queueTail = 0;
+	private volatile long droppedRows = 0;
+	private final Queue<RecordedEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+	
+	// Recorder thread
+	private Thread recorderThread;
+	private volatile boolean recording = false;
+	private final double[][] block = new double[CHANNELS.length][ROWS_PER_BLOCK];
+	private int blockRows = 0;
+	private volatile long rowsRecorded = 0;
+	
+	// Current file
+	private FileChannel file;
+	private MappedByteBuffer mapped;
+	private int fileNumber = 0;
+	private long fileRows = 0;
+	private final List<Path> recordedFiles = Collections.synchronizedList(new ArrayList<>());
+	
+	/**
+	 * Creates a flight recorder that records to the {@link SimDirectories#RECORDINGS} directory
+	 * 
+	 * @param configuration
+	 * @param simOutValues outputs of the simulation, indexed by {@link SimOuts#ordinal()}, which are recorded each step
+	 */
+	public FlightRecorder(SimulationConfiguration configuration, double[] simOutValues) {
+		this(configuration, simOutValues, Paths.get(FileUtilities.FILE_ROOT + SimDirectories.RECORDINGS.toString()));
+	}
+	
+	/**
+	 * Creates a flight recorder that records to the directory given
+	 * 
+	 * @param configuration
+	 * @param simOutValues outputs of the simulation, indexed by {@link SimOuts#ordinal()}, which are recorded each step
+	 * @param directory
+	 */
+	public FlightRecorder(SimulationConfiguration configuration, double[] simOutValues, Path directory) {
+		this.simOutValues = simOutValues;
+		this.directory = directory;
+		
+		aircraft = configuration.getSelectedAircraft();
+		dt = configuration.getIntegratorConfig().get(IntegratorConfig.DT);
+		startTimeMillis = System.currentTimeMillis();
+		maxFileBytes = Math.max(BYTES_PER_MB, Math.min((long) configuration.getRecorderFileSizeMB() * BYTES_PER_MB, Integer.MAX_VALUE));
+		configurationHash = hashConfiguration(configuration);
+		baseName = aircraft + "_" + new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date(startTimeMillis));
+	}
+	
+	/**
+	 * @return CRC-32 of the configuration serialized as JSON, or 0 if it could not be serialized
+	 */
+	private static long hashConfiguration(SimulationConfiguration configuration) {
+		try {
+			CRC32 crc = new CRC32();
+			crc.update(new ObjectMapper().writeValueAsBytes(configuration));
+			
+			return crc.getValue();
+		} catch (IOException e) {
+			logger.warn("Could not hash simulation configuration for flight recording header!", e);
+			
+			return 0;
+		}
+	}
+	
+	/**
+	 * Opens the first recording file and starts the recorder thread
+	 * 
+	 * @throws IOException if the recording file could not be created
+	 */
+	public void start() throws IOException {
+		Files.createDirectories(directory);
+		openFile();
+		
+		recording = true;
+		recorderThread = new Thread(this::record, "Flight Recorder");
+		recorderThread.setDaemon(true);
+		recorderThread.start();
+		
+		logger.info("Recording flight to " + directory.toAbsolutePath() + File.separator + baseName + "...");
+	}
+	
+	/**
+	 * Stops recording once every row and event queued has been written, and closes the recording file
+	 */
+	public void stop() {
+		if (!recording)
+			return;
+		
+		recording = false;
+		LockSupport.unpark(recorderThread);
+		
+		try {
+			recorderThread.join();
+		} catch (InterruptedException e) {
+			logger.warn("Interrupted while waiting for flight recorder to stop!");
+			Thread.currentThread().interrupt();
+		}
+		
+		logger.info("Flight recorded " + rowsRecorded + " steps to " + recordedFiles.size() + " file(s)" 
+					+ (droppedRows > 0 ? ", dropping " + droppedRows + " steps" : ""));
+	}
+	
+	//================================= Simulation thread ====================================================
+	
+	/**
+	 * Queues the outputs of the latest step of the simulation to be recorded; steps that have already been recorded, such as while 
+	 * paused, are skipped 
+	 */
+	@Override
+	public void step() {
+		final double time = simOutValues[SimOuts.TIME.ordinal()];
+		
+		if (!recording || time == lastRecordedTime)
+			return;
+		
+		final long tail = queueTail;
+		if (tail - queueHead >= QUEUE_ROWS) {
+			droppedRows++;
+			return;
+		}
+		
+		System.arraycopy(simOutValues, 0, queue, (int) (tail % QUEUE_ROWS) * CHANNELS.length, CHANNELS.length);
+		lastRecordedTime = time;
+		
+		// Publishes the row to the recorder thread; as a volatile write, the copy above cannot move past it
+		queueTail = tail + 1;
+	}
+	
+	@Override
+	public RateGroup getRateGroup() { return RateGroup.PHYSICS; }
+	
+	@Override
+	public void onGroundContact(LandingGear gear, boolean touchdown, double time, double verticalSpeed) {
+		recordEvent(time, gear + (touchdown ? " touchdown at " + String.format("%.2f", verticalSpeed) + " ft/sec" : " liftoff"));
+	}
+	
+	/**
+	 * Queues an event to be recorded, along with the index of the next row queued, which is the row of the step the event occurred in or 
+	 * the one after it, so that replay can find the event even if simulation time was reset; can be called from any thread
+	 * 
+	 * @param time simulation time of the event [sec]
+	 * @param description
+	 */
+	public void recordEvent(double time, String description) {
+		if (recording)
+			pendingEvents.add(new RecordedEvent(time, queueTail, description));
+	}
+	
+	//================================= Recorder thread ======================================================
+	
+	/**
+	 * Writes queued rows and events to file until stopped, then writes any left in the queue and closes the file
+	 */
+	private void record() {
+		try {
+			while (true) {
+				boolean wroteRows = writeQueuedRows();
+				boolean wroteEvents = writeQueuedEvents();
+				
+				if (!wroteRows && !wroteEvents) {
+					if (!recording)
+						break;
+					
+					LockSupport.parkNanos(IDLE_NANOS);
+				}
+			}
+			
+			writeBlock();
+		} catch (Exception e) {
+			logger.error("Flight recorder encountered an error! Recording stopped", e);
+			recording = false;
+		} finally {
+			closeFile();
+		}
+	}
+	
+	private boolean writeQueuedRows() throws IOException {
+		final long tail = queueTail;
+		long head = queueHead;
+		
+		if (head == tail)
+			return false;
+		
+		for (; head < tail; head++) {
+			final int offset = (int) (head % QUEUE_ROWS) * CHANNELS.length;
+			
+			for (int channel = 0; channel < CHANNELS.length; channel++)
+				block[channel][blockRows] = queue[offset + channel];
+			
+			// Frees the row in the queue for the simulation to reuse
+			queueHead = head + 1;
+			
+			if (++blockRows == ROWS_PER_BLOCK)
+				writeBlock();
+		}
+		
+		return true;
+	}
+	
+	private boolean writeQueuedEvents() throws IOException {
+		RecordedEvent event;
+		boolean wroteEvents = false;
+		
+		while ((event = pendingEvents.poll()) != null) {
+			ensureCapacity(Integer.BYTES + Double.BYTES + Long.BYTES + FlightRecording.stringLength(event.getDescription()));
+			
+			mapped.putInt(FlightRecording.EVENT_BLOCK);
+			mapped.putDouble(event.getTime());
+			mapped.putLong(event.getRowIndex());
+			FlightRecording.putString(mapped, event.getDescription());
+			
+			updateHeader();
+			wroteEvents = true;
+		}
+		
+		return wroteEvents;
+	}
+	
+	/**
+	 * Writes the rows collected in the current block to file, storing each channel's values together 
+	 */
+	private void writeBlock() throws IOException {
+		if (blockRows == 0)
+			return;
+		
+		ensureCapacity(Integer.BYTES + Long.BYTES + Integer.BYTES + CHANNELS.length * blockRows * Double.BYTES);
+		
+		mapped.putInt(FlightRecording.DATA_BLOCK);
+		mapped.putLong(rowsRecorded);
+		mapped.putInt(blockRows);
+		
+		for (int channel = 0; channel < CHANNELS.length; channel++) {
+			mapped.asDoubleBuffer().put(block[channel], 0, blockRows);
+			mapped.position(mapped.position() + blockRows * Double.BYTES);
+		}
+		
+		rowsRecorded += blockRows;
+		fileRows += blockRows;
+		blockRows = 0;
+		
+		updateHeader();
+	}
+	
+	/**
+	 * Marks the data written so far as complete in the header of the file, so that it can be read even if recording stops unexpectedly
+	 */
+	private void updateHeader() {
+		mapped.putLong(FlightRecording.ROW_COUNT_OFFSET, fileRows);
+		mapped.putLong(FlightRecording.DATA_END_OFFSET, mapped.position());
+	}
+	
+	/**
+	 * Rolls over to a new file if the current file does not have room for the number of bytes given
+	 */
+	private void ensureCapacity(int bytes) throws IOException {
+		if (mapped.remaining() < bytes) {
+			closeFile();
+			fileNumber++;
+			openFile();
+		}
+	}
+	
+	private void openFile() throws IOException {
+		Path path = directory.resolve(String.format("%s_%03d%s", baseName, fileNumber, FlightRecording.EXTENSION));
+		
+		file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, 
+								StandardOpenOption.READ, StandardOpenOption.WRITE);
+		mapped = file.map(FileChannel.MapMode.READ_WRITE, 0, maxFileBytes);
+		fileRows = 0;
+		
+		mapped.putLong(FlightRecording.MAGIC);
+		mapped.putInt(FlightRecording.VERSION);
+		mapped.putInt(0); // header length, filled in below
+		mapped.putLong(0);
+		mapped.putLong(0);
+		
+		FlightRecording.putString(mapped, aircraft);
+		mapped.putLong(configurationHash);
+		mapped.putDouble(dt);
+		mapped.putLong(startTimeMillis);
+		mapped.putInt(fileNumber);
+		mapped.putInt(ROWS_PER_BLOCK);
+		
+		mapped.putInt(CHANNELS.length);
+		for (SimOuts channel : CHANNELS) {
+			FlightRecording.putString(mapped, channel.name());
+			FlightRecording.putString(mapped, unitOf(channel));
+		}
+		
+		mapped.putInt(FlightRecording.HEADER_LENGTH_OFFSET, mapped.position());
+		updateHeader();
+		
+		recordedFiles.add(path);
+	}
+	
+	/**
+	 * Flushes the current file to disk and trims it to the length of the data written
+	 */
+	private void closeFile() {
+		if (file == null)
+			return;
+		
+		final long dataEnd = mapped.position();
+		
+		try {
+			mapped.force();
+			
+			// Fails on platforms that cannot truncate mapped files; the header still marks where the data ends
+			try {
+				file.truncate(dataEnd);
+			} catch (IOException e) {
+				logger.debug("Could not trim flight recording file", e);
+			}
+			
+			file.close();
+		} catch (IOException e) {
+			logger.error("Error closing flight recording file!", e);
+		} finally {
+			file = null;
+		}
+	}
+	
+	/**
+	 * @return unit given in square brackets in the description of an output, or an empty string if it has none  
+	 */
+	private static String unitOf(SimOuts channel) {
+		String description = channel.toString();
+		int start = description.indexOf('[');
+		
+		if (start < 0)
+			return "";
+		
+		int end = description.indexOf(']', start);
+		
+		return description.substring(start + 1, (end < 0) ? description.length() : end).trim();
+	}
+	
+	//================================= Statistics ===========================================================
+	
+	/**
+	 * @return if the recorder is running
+	 */
+	public boolean isRecording() { return recording; }
+	
+	/**
+	 * @return number of steps recorded to file so far
+	 */
+	public long getRowsRecorded() { return rowsRecorded; }
+	
+	/**
+	 * @return number of steps not recorded because the recorder thread had fallen too far behind
+	 */
+	public long getDroppedRows() { return droppedRows; }
+	
+	/**
+	 * @return files that have been recorded to, in order
+	 */
+	public List<Path> getRecordedFiles() { return new ArrayList<>(recordedFiles); }
+}
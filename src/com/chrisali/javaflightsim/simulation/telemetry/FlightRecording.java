@@ -0,0 +1,351 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.telemetry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+
+/**
+ * Reads a flight recording file written by {@link FlightRecorder}, without simulating the flight again. Each file begins with a 
+ * header describing its contents, followed by blocks appended as the flight was recorded:
+ * 
+ * <p>Header: magic number, format version, header length, end of the last complete block and number of rows recorded, then the 
+ * aircraft name, hash of the simulation configuration, time step [sec], time recording started [epoch ms], number of the file in 
+ * its sequence of files, rows per block and the name and unit of each channel</p>
+ * 
+ * <p>Data block: index of the first row, number of rows, then the values of each row for each channel in turn, so that each 
+ * channel's values are stored together</p>
+ * 
+ * <p>Event block: simulation time [sec], index of the row recorded at or just after the event (from version 2) and description of an event, 
+ * such as a touchdown</p>
+ * 
+ * <p>All numbers are big endian, and strings are UTF-8 preceded by their length in bytes as a short. Data up to the end of the last 
+ * complete block given in the header is always readable, even if recording stopped unexpectedly</p>
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class FlightRecording {
+	
+	public static final long MAGIC = 0x4A46535245433031L; // "JFSREC01"
+	public static final int VERSION = 2;
+	public static final String EXTENSION = ".jfsrec";
+	
+	// Offsets of fields in the header; the data end and row count are updated as blocks are appended
+	static final int VERSION_OFFSET   = 8;
+	static final int HEADER_LENGTH_OFFSET = 12;
+	static final int DATA_END_OFFSET  = 16;
+	static final int ROW_COUNT_OFFSET = 24;
+	static final int FIXED_HEADER_LENGTH = 32;
+	
+	static final int DATA_BLOCK  = 1;
+	static final int EVENT_BLOCK = 2;
+	
+	/**
+	 * Location of a block of data within the file 
+	 */
+	public static class DataBlock {
+		private final long firstIndex;
+		private final int rows;
+		private final int position;
+		
+		private DataBlock(long firstIndex, int rows, int position) {
+			this.firstIndex = firstIndex;
+			this.rows = rows;
+			this.position = position;
+		}
+		
+		public long getFirstIndex() { return firstIndex; }
+		
+		public int getRows() { return rows; }
+	}
+	
+	/**
+	 * Event recorded at a time during the flight
+	 */
+	public static class RecordedEvent {
+		private final double time;
+		private final long rowIndex;
+		private final String description;
+		
+		public RecordedEvent(double time, String description) {
+			this(time, -1, description);
+		}
+		
+		/**
+		 * @param time simulation time of the event [sec]
+		 * @param rowIndex index of the row recorded at or just after the event, counted from the first row of the flight; -1 if not known
+		 * @param description
+		 */
+		public RecordedEvent(double time, long rowIndex, String description) {
+			this.time = time;
+			this.rowIndex = rowIndex;
+			this.description = description;
+		}
+		
+		/**
+		 * @return simulation time of the event as recorded [sec], which repeats if the simulation was reset during the flight
+		 */
+		public double getTime() { return time; }
+		
+		/**
+		 * @return index of the row recorded at or just after the event, counted from the first row of the flight; -1 if not known, as for 
+		 * events read from version 1 recordings
+		 */
+		public long getRowIndex() { return rowIndex; }
+		
+		public String getDescription() { return description; }
+		
+		@Override
+		public String toString() { return time + " sec: " + description; }
+	}
+	
+	private final Path path;
+	private final ByteBuffer buffer;
+	
+	private final String aircraft;
+	private final long configurationHash;
+	private final double dt;
+	private final long startTimeMillis;
+	private final int fileNumber;
+	private final long rowCount;
+	
+	private final List<String> channelNames = new ArrayList<>();
+	private final List<String> channelUnits = new ArrayList<>();
+	
+	// Channel of the file holding each SimOuts value, or -1 if it was not recorded
+	private final int[] channelsBySimOut = new int[SimOuts.values().length];
+	
+	private final List<DataBlock> dataBlocks = new ArrayList<>();
+	private final List<RecordedEvent> events = new ArrayList<>();
+	
+	/**
+	 * Opens a flight recording file and reads its header, and the location of each of its blocks
+	 * 
+	 * @param path
+	 * @throws IOException if the file cannot be read or is not a flight recording
+	 */
+	public FlightRecording(Path path) throws IOException {
+		this.path = path;
+		
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer = mapped;
+		}
+		
+		if (buffer.limit() < FIXED_HEADER_LENGTH || buffer.getLong(0) != MAGIC)
+			throw new IOException(path + " is not a flight recording!");
+		
+		final int version = buffer.getInt(VERSION_OFFSET);
+		if (version > VERSION)
+			throw new IOException(path + " was recorded with a newer version of the flight recording format!");
+		
+		final int headerLength = buffer.getInt(HEADER_LENGTH_OFFSET);
+		final int dataEnd = (int) Math.min(buffer.getLong(DATA_END_OFFSET), buffer.limit());
+		rowCount = buffer.getLong(ROW_COUNT_OFFSET);
+		
+		buffer.position(FIXED_HEADER_LENGTH);
+		aircraft = getString(buffer);
+		configurationHash = buffer.getLong();
+		dt = buffer.getDouble();
+		startTimeMillis = buffer.getLong();
+		fileNumber = buffer.getInt();
+		buffer.getInt(); // rows per block
+		
+		final int channels = buffer.getInt();
+		for (int i = 0; i < channels; i++) {
+			channelNames.add(getString(buffer));
+			channelUnits.add(getString(buffer));
+		}
+		
+		for (SimOuts simOut : SimOuts.values())
+			channelsBySimOut[simOut.ordinal()] = channelNames.indexOf(simOut.name());
+		
+		// Index each block, so that rows can be read without reading all rows before them
+		buffer.position(headerLength);
+		while (buffer.position() < dataEnd) {
+			int type = buffer.getInt();
+			
+			if (type == DATA_BLOCK) {
+				long firstIndex = buffer.getLong();
+				int rows = buffer.getInt();
+				
+				dataBlocks.add(new DataBlock(firstIndex, rows, buffer.position()));
+				buffer.position(buffer.position() + rows * channels * Double.BYTES);
+			} else if (type == EVENT_BLOCK) {
+				double time = buffer.getDouble();
+				long rowIndex = (version >= 2) ? buffer.getLong() : -1;
+				events.add(new RecordedEvent(time, rowIndex, getString(buffer)));
+			} else {
+				throw new IOException("Unknown block type " + type + " found in " + path + "!");
+			}
+		}
+	}
+	
+	/**
+	 * Opens every file recorded in the same flight as the file given, which {@link FlightRecorder} names with the same aircraft and 
+	 * start time, numbered in the order it rolled over to them
+	 * 
+	 * @param path any file of the flight
+	 * @return recordings of the flight in the order recorded
+	 * @throws IOException if any file of the flight cannot be read
+	 */
+	public static List<FlightRecording> openFlight(Path path) throws IOException {
+		final FlightRecording opened = new FlightRecording(path);
+		final String fileName = path.getFileName().toString();
+		final Path directory = path.toAbsolutePath().getParent();
+		
+		// Files of a flight are named <aircraft>_<start time>_<file number>.jfsrec
+		final int numberStart = fileName.lastIndexOf('_');
+		if (numberStart < 0 || !fileName.endsWith(EXTENSION))
+			return Collections.singletonList(opened);
+		
+		final String baseName = fileName.substring(0, numberStart + 1);
+		final List<FlightRecording> recordings = new ArrayList<>();
+		
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, baseName + "*" + EXTENSION)) {
+			for (Path file : files) {
+				FlightRecording recording = file.equals(path.toAbsolutePath()) ? opened : new FlightRecording(file);
+				
+				if (recording.startTimeMillis == opened.startTimeMillis && recording.aircraft.equals(opened.aircraft))
+					recordings.add(recording);
+			}
+		}
+		
+		recordings.sort(Comparator.comparingInt(FlightRecording::getFileNumber));
+		
+		return recordings;
+	}
+	
+	static void putString(ByteBuffer buffer, String string) {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		buffer.putShort((short) bytes.length);
+		buffer.put(bytes);
+	}
+	
+	static int stringLength(String string) {
+		return Short.BYTES + string.getBytes(StandardCharsets.UTF_8).length;
+	}
+	
+	private static String getString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+		buffer.get(bytes);
+		
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Copies one row of a block of data
+	 * 
+	 * @param block
+	 * @param row row within the block
+	 * @param values array indexed by {@link SimOuts#ordinal()} to copy values to; outputs not recorded in this file are set to NaN
+	 */
+	public void readRow(DataBlock block, int row, double[] values) {
+		for (SimOuts simOut : SimOuts.values()) {
+			int channel = channelsBySimOut[simOut.ordinal()];
+			
+			values[simOut.ordinal()] = (channel < 0) ? Double.NaN 
+													 : buffer.getDouble(block.position + (channel * block.rows + row) * Double.BYTES);
+		}
+	}
+	
+	/**
+	 * Reads every row of this recording into a {@link TelemetryStore}, so that it can be plotted, shown in a console or exported 
+	 * like the outputs of a simulation run
+	 * 
+	 * @param store store to append rows to
+	 * @return store
+	 */
+	public TelemetryStore readInto(TelemetryStore store) {
+		final double[] values = new double[SimOuts.values().length];
+		
+		for (DataBlock block : dataBlocks) {
+			for (int row = 0; row < block.rows; row++) {
+				readRow(block, row, values);
+				store.append(values);
+			}
+		}
+		
+		return store;
+	}
+	
+	/**
+	 * Reads every row of this recording into a new {@link TelemetryStore} large enough to hold them all
+	 * 
+	 * @return store of all rows recorded
+	 */
+	public TelemetryStore read() {
+		return readInto(new TelemetryStore((int) Math.max(1, Math.min(rowCount, Integer.MAX_VALUE >> 1)), Integer.MAX_VALUE >> 1));
+	}
+	
+	public Path getPath() { return path; }
+	
+	public String getAircraft() { return aircraft; }
+
+	/**
+	 * @return hash of the simulation configuration that the flight was recorded with, to match recordings to configurations
+	 */
+	public long getConfigurationHash() { return configurationHash; }
+
+	/**
+	 * @return time step of the simulation that was recorded [sec]
+	 */
+	public double getDt() { return dt; }
+
+	/**
+	 * @return time that recording started [epoch ms]
+	 */
+	public long getStartTimeMillis() { return startTimeMillis; }
+
+	/**
+	 * @return number of this file in the sequence of files that the flight was recorded to, from 0
+	 */
+	public int getFileNumber() { return fileNumber; }
+
+	/**
+	 * @return number of rows recorded in this file
+	 */
+	public long getRowCount() { return rowCount; }
+
+	public List<String> getChannelNames() { return Collections.unmodifiableList(channelNames); }
+
+	public List<String> getChannelUnits() { return Collections.unmodifiableList(channelUnits); }
+
+	/**
+	 * @return location of each block of data in this file, in the order recorded
+	 */
+	public List<DataBlock> getDataBlocks() { return Collections.unmodifiableList(dataBlocks); }
+
+	public List<RecordedEvent> getEvents() { return Collections.unmodifiableList(events); }
+}
@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.telemetry;
+
+/**
+ * Reduces a series of (x, y) samples, appended in order of increasing time, to at most two points for each of a bounded number of
+ * buckets spanning equal ranges of time, keeping the samples of minimum and maximum y of each bucket in the order they occurred.
+ * Drawn as a line, the decimated series covers the same extremes as the full series, so with about one bucket per pixel column of a
+ * plot against time it looks the same on screen, however many samples there are. For plots against time, x is the time of each sample
+ *
+ * <p>Buckets start narrow, and whenever there come to be more than the maximum number of buckets, their width is doubled and pairs of
+ * neighboring buckets are merged, so appending a sample is O(1) amortized and the decimated series never holds more than twice the
+ * maximum number of buckets of points. Buckets that no samples fell in are not stored, so gaps in time cost nothing. Consumers can
+ * find which points changed since they last looked with {@link #getChangedFrom()}, so that they only redraw those</p>
+ *
+ * @author Christopher Ali
+ *
+ */
+public class MinMaxDecimator {
+
+	private final int maxBuckets;
+	private final double initialBucketWidth;
+
+	// Index of each bucket held from the origin, and the samples of minimum and maximum y within it
+	private final long[] bucketIndices;
+	private final double[] minT, minX, minY, maxT, maxX, maxY;
+
+	private double origin = Double.NaN;
+	private double bucketWidth;
+	private int buckets = 0;
+	private int changedFrom = 0;
+
+	/**
+	 * @param maxBuckets greatest number of buckets held, such as the width of a plot in pixels
+	 * @param initialBucketWidth width of the range of time that each bucket first spans, no larger than the spacing of samples
+	 */
+	public MinMaxDecimator(int maxBuckets, double initialBucketWidth) {
+		if (maxBuckets < 1)
+			throw new IllegalArgumentException("There must be at least one bucket!");
+		if (!(initialBucketWidth > 0))
+			throw new IllegalArgumentException("Bucket width must be greater than 0!");
+
+		this.maxBuckets = maxBuckets;
+		this.initialBucketWidth = initialBucketWidth;
+
+		bucketIndices = new long[maxBuckets + 1];
+		minT = new double[maxBuckets + 1];
+		minX = new double[maxBuckets + 1];
+		minY = new double[maxBuckets + 1];
+		maxT = new double[maxBuckets + 1];
+		maxX = new double[maxBuckets + 1];
+		maxY = new double[maxBuckets + 1];
+
+		clear();
+	}
+
+	/**
+	 * Adds a sample of a plot against time
+	 *
+	 * @param time
+	 * @param y
+	 */
+	public void add(double time, double y) {
+		add(time, time, y);
+	}
+
+	/**
+	 * Adds a sample to the bucket its time falls in; samples whose time is earlier than the newest bucket are added to that bucket,
+	 * and samples with a NaN value are skipped
+	 *
+	 * @param time
+	 * @param x
+	 * @param y
+	 */
+	public void add(double time, double x, double y) {
+		if (Double.isNaN(time) || Double.isNaN(x) || Double.isNaN(y))
+			return;
+
+		if (Double.isNaN(origin))
+			origin = time;
+
+		final long index = (long) Math.floor((time - origin) / bucketWidth);
+		final int newest = buckets - 1;
+
+		if (buckets > 0 && index <= bucketIndices[newest]) {
+			if (y < minY[newest]) {
+				minT[newest] = time;
+				minX[newest] = x;
+				minY[newest] = y;
+			}
+			if (y > maxY[newest]) {
+				maxT[newest] = time;
+				maxX[newest] = x;
+				maxY[newest] = y;
+			}
+
+			changedFrom = Math.min(changedFrom, newest);
+			return;
+		}
+
+		bucketIndices[buckets] = index;
+		minT[buckets] = maxT[buckets] = time;
+		minX[buckets] = maxX[buckets] = x;
+		minY[buckets] = maxY[buckets] = y;
+		changedFrom = Math.min(changedFrom, buckets);
+		buckets++;
+
+		// Buckets further apart than their width only merge once they are wide enough
+		while (buckets > maxBuckets)
+			mergeBuckets();
+	}
+
+	/**
+	 * Doubles the width of buckets, merging each pair of buckets that now fall in the same wider bucket
+	 */
+	private void mergeBuckets() {
+		bucketWidth *= 2;
+
+		int merged = -1;
+		for (int bucket = 0; bucket < buckets; bucket++) {
+			long index = Math.floorDiv(bucketIndices[bucket], 2);
+
+			if (merged >= 0 && bucketIndices[merged] == index) {
+				if (minY[bucket] < minY[merged]) {
+					minT[merged] = minT[bucket];
+					minX[merged] = minX[bucket];
+					minY[merged] = minY[bucket];
+				}
+				if (maxY[bucket] > maxY[merged]) {
+					maxT[merged] = maxT[bucket];
+					maxX[merged] = maxX[bucket];
+					maxY[merged] = maxY[bucket];
+				}
+			} else {
+				merged++;
+				bucketIndices[merged] = index;
+				minT[merged] = minT[bucket];
+				minX[merged] = minX[bucket];
+				minY[merged] = minY[bucket];
+				maxT[merged] = maxT[bucket];
+				maxX[merged] = maxX[bucket];
+				maxY[merged] = maxY[bucket];
+			}
+		}
+
+		buckets = merged + 1;
+		changedFrom = 0;
+	}
+
+	/**
+	 * Removes all samples, and returns buckets to their initial width
+	 */
+	public void clear() {
+		origin = Double.NaN;
+		bucketWidth = initialBucketWidth;
+		buckets = 0;
+		changedFrom = 0;
+	}
+
+	/**
+	 * @return number of points in the decimated series, two for each bucket
+	 */
+	public int size() { return buckets * 2; }
+
+	/**
+	 * @param point
+	 * @return x of a point of the decimated series, in order of increasing time
+	 */
+	public double getX(int point) {
+		return isMinimum(point) ? minX[point / 2] : maxX[point / 2];
+	}
+
+	/**
+	 * @param point
+	 * @return y of a point of the decimated series, in order of increasing time
+	 */
+	public double getY(int point) {
+		return isMinimum(point) ? minY[point / 2] : maxY[point / 2];
+	}
+
+	/**
+	 * @return if a point is the sample of minimum y of its bucket, which comes first if it occurred first
+	 */
+	private boolean isMinimum(int point) {
+		final int bucket = point / 2;
+		return (point % 2 == 0) == (minT[bucket] <= maxT[bucket]);
+	}
+
+	/**
+	 * @return first point of the decimated series that has changed or been added since the last call to {@link #clearChanges()};
+	 * {@link #size()} if none have
+	 */
+	public int getChangedFrom() { return Math.min(changedFrom * 2, size()); }
+
+	/**
+	 * Marks all points of the decimated series as unchanged
+	 */
+	public void clearChanges() { changedFrom = buckets; }
+
+	/**
+	 * @return current width of the range of time that each bucket spans
+	 */
+	public double getBucketWidth() { return bucketWidth; }
+}
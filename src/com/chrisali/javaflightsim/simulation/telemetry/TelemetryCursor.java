@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.telemetry;
+
+import java.util.List;
+import java.util.Map;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+
+/**
+ * Follows simulation outputs as they are logged, copying only the rows appended since it last read, so that a plot or console
+ * refreshed while the simulation runs does work in proportion to the new rows rather than to the length of the run. Reads the
+ * {@link TelemetryStore} behind a list returned by {@link TelemetryStore#asList()} directly; any other list of outputs is read by
+ * position from where the last read ended
+ *
+ * @author Christopher Ali
+ *
+ */
+public class TelemetryCursor {
+
+	private final TelemetryStore store;
+	private final List<Map<SimOuts, Double>> logsOut;
+
+	private long nextIndex = 0;
+
+	/**
+	 * @param store store to follow, from its oldest row held
+	 */
+	public TelemetryCursor(TelemetryStore store) {
+		this.store = store;
+		this.logsOut = null;
+	}
+
+	/**
+	 * @param logsOut list of simulation outputs to follow, from its first row
+	 */
+	public TelemetryCursor(List<Map<SimOuts, Double>> logsOut) {
+		if (logsOut instanceof TelemetryList) {
+			this.store = ((TelemetryList) logsOut).getStore();
+			this.logsOut = null;
+		} else {
+			this.store = null;
+			this.logsOut = logsOut;
+		}
+	}
+
+	/**
+	 * Copies the values of channels for up to the number of rows given appended since the last read, and moves past them. Rows
+	 * evicted from a store before they were read are skipped; if a list has been cleared, reading starts again from its first row
+	 *
+	 * @param maxRows greatest number of rows to copy
+	 * @param channels channels to copy; all channels if none are given
+	 * @return columns of values copied, with no rows if none have been appended
+	 */
+	public TelemetrySnapshot readNew(int maxRows, SimOuts... channels) {
+		final TelemetrySnapshot snapshot;
+		if (store != null) {
+			final long from = Math.max(nextIndex, store.getFirstIndex());
+			snapshot = store.snapshot(from, from + maxRows, channels);
+		} else {
+			snapshot = copyFromList(maxRows, channels);
+		}
+
+		nextIndex = Math.max(nextIndex, snapshot.getEndIndex());
+
+		return snapshot;
+	}
+
+	private TelemetrySnapshot copyFromList(int maxRows, SimOuts... channels) {
+		if (channels.length == 0)
+			channels = SimOuts.values();
+
+		final int size = logsOut.size();
+		if (nextIndex > size)
+			nextIndex = 0;
+
+		final int from = (int) nextIndex;
+		final int rows = Math.min(maxRows, size - from);
+		final double[][] copied = new double[SimOuts.values().length][];
+
+		for (SimOuts channel : channels)
+			copied[channel.ordinal()] = new double[rows];
+
+		for (int row = 0; row < rows; row++) {
+			Map<SimOuts, Double> outputs = logsOut.get(from + row);
+
+			for (SimOuts channel : channels) {
+				Double value = outputs.get(channel);
+				copied[channel.ordinal()][row] = (value != null) ? value : Double.NaN;
+			}
+		}
+
+		return new TelemetrySnapshot(from, rows, copied);
+	}
+
+	/**
+	 * Moves past all rows held, so that only rows appended afterwards are read
+	 */
+	public void skipToEnd() {
+		nextIndex = (store != null) ? store.getEndIndex() : logsOut.size();
+	}
+
+	/**
+	 * Moves back to the oldest row held, so that all rows held are read again
+	 */
+	public void rewind() {
+		nextIndex = 0;
+	}
+}
@@ -0,0 +1,372 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.telemetry;
+
+import java.util.Arrays;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+
+/**
+ * Multi-resolution envelope of channels of a {@link TelemetryStore}, holding the minimum and maximum value of each channel, and the
+ * first and last {@link SimOuts#TIME}, of buckets of rows. Buckets of the finest level hold {@link #ROWS_PER_BUCKET} rows, and those
+ * of each coarser level hold the rows of two buckets of the level below, so that a plot of any span of time can be drawn from about
+ * one bucket per pixel column of the level that suits it, at a cost that does not depend on how many rows the span holds. Rows too
+ * finely spaced for the finest level can be read from the store itself for as long as it holds them
+ *
+ * <p>Each call to {@link #update(int)} reads only the rows appended since the last, updating the buckets of each level they fall in,
+ * so the envelope can follow a running simulation. Whenever time goes back, as when the simulation is reset, the envelope starts
+ * again from that row. Buckets are kept after the store evicts their rows, so the envelope covers the whole run since it started.
+ * Values are kept as floats, which are precise enough to plot, to halve the memory used. An envelope is updated and read from one
+ * thread</p>
+ *
+ * @author Christopher Ali
+ *
+ */
+public class TelemetryEnvelope {
+
+	public static final int ROWS_PER_BUCKET = 8;
+
+	private static final int INITIAL_BUCKETS = 256;
+
+	/**
+	 * Buckets of one level, with the values of each channel indexed by the channel's position in {@link TelemetryEnvelope#channels}
+	 */
+	private static class Level {
+		private double[] startTimes;
+		private double[] endTimes;
+		private float[][] minValues;
+		private float[][] maxValues;
+		private int buckets = 0;
+
+		private Level(int channels) {
+			startTimes = new double[INITIAL_BUCKETS];
+			endTimes = new double[INITIAL_BUCKETS];
+			minValues = new float[channels][INITIAL_BUCKETS];
+			maxValues = new float[channels][INITIAL_BUCKETS];
+		}
+
+		private void ensureCapacity(int capacity) {
+			if (capacity <= startTimes.length)
+				return;
+
+			final int grown = Math.max(capacity, startTimes.length * 2);
+
+			startTimes = Arrays.copyOf(startTimes, grown);
+			endTimes = Arrays.copyOf(endTimes, grown);
+			for (int channel = 0; channel < minValues.length; channel++) {
+				minValues[channel] = Arrays.copyOf(minValues[channel], grown);
+				maxValues[channel] = Arrays.copyOf(maxValues[channel], grown);
+			}
+		}
+	}
+
+	private final TelemetryStore store;
+	private final TelemetryCursor cursor;
+	private final SimOuts[] channels;
+	private final SimOuts[] readChannels;
+
+	// Position of each channel in channels, indexed by SimOuts.ordinal(); -1 if the channel is not enveloped
+	private final int[] positions;
+
+	private Level[] levels;
+	private int levelCount;
+
+	private long firstIndex;
+	private long endIndex;
+	private double lastTime = Double.NaN;
+	private int resets = 0;
+
+	/**
+	 * @param store store to follow, from its oldest row held
+	 * @param channels channels to envelope
+	 */
+	public TelemetryEnvelope(TelemetryStore store, SimOuts... channels) {
+		this.store = store;
+		this.cursor = new TelemetryCursor(store);
+		this.channels = channels.clone();
+
+		readChannels = Arrays.copyOf(channels, channels.length + 1);
+		readChannels[channels.length] = SimOuts.TIME;
+
+		positions = new int[SimOuts.values().length];
+		Arrays.fill(positions, -1);
+		for (int position = 0; position < channels.length; position++)
+			positions[channels[position].ordinal()] = position;
+
+		clearLevels(store.getFirstIndex());
+	}
+
+	private void clearLevels(long index) {
+		levels = new Level[] { new Level(channels.length) };
+		levelCount = 1;
+		firstIndex = endIndex = index;
+		lastTime = Double.NaN;
+	}
+
+	//================================= Updating =============================================================
+
+	/**
+	 * Adds up to the number of rows given appended to the store since the last update to the envelope
+	 *
+	 * @param maxRows greatest number of rows to read
+	 * @return number of rows added
+	 */
+	public int update(int maxRows) {
+		final TelemetrySnapshot snapshot = cursor.readNew(maxRows, readChannels);
+		if (snapshot.size() == 0)
+			return 0;
+
+		final double[] times = snapshot.getColumn(SimOuts.TIME);
+		final double[][] values = new double[channels.length][];
+		for (int position = 0; position < channels.length; position++)
+			values[position] = snapshot.getColumn(channels[position]);
+
+		// Rows evicted from the store before they were read leave a gap, which starts the envelope again
+		if (snapshot.getFirstIndex() != endIndex)
+			restart(snapshot.getFirstIndex());
+
+		int changedFrom = levels[0].buckets;
+
+		for (int row = 0; row < snapshot.size(); row++) {
+			final double time = times[row];
+
+			if (time < lastTime) {
+				restart(snapshot.getFirstIndex() + row);
+				changedFrom = 0;
+			}
+
+			final int bucket = (int) ((endIndex - firstIndex) / ROWS_PER_BUCKET);
+			final Level level = levels[0];
+
+			if (bucket == level.buckets) {
+				level.ensureCapacity(bucket + 1);
+				level.startTimes[bucket] = time;
+				for (int position = 0; position < channels.length; position++) {
+					level.minValues[position][bucket] = Float.POSITIVE_INFINITY;
+					level.maxValues[position][bucket] = Float.NEGATIVE_INFINITY;
+				}
+				level.buckets++;
+			}
+
+			level.endTimes[bucket] = time;
+			for (int position = 0; position < channels.length; position++) {
+				final float value = (float) values[position][row];
+
+				if (value < level.minValues[position][bucket])
+					level.minValues[position][bucket] = value;
+				if (value > level.maxValues[position][bucket])
+					level.maxValues[position][bucket] = value;
+			}
+
+			changedFrom = Math.min(changedFrom, bucket);
+			lastTime = time;
+			endIndex++;
+		}
+
+		updateCoarserLevels(changedFrom);
+
+		return snapshot.size();
+	}
+
+	private void restart(long index) {
+		clearLevels(index);
+		resets++;
+	}
+
+	/**
+	 * Recomputes the buckets of each coarser level covering the buckets of the finest level changed, adding levels until the coarsest
+	 * holds a single bucket
+	 */
+	private void updateCoarserLevels(int changedFrom) {
+		int from = changedFrom;
+
+		for (int coarser = 1; levels[coarser - 1].buckets > 1; coarser++) {
+			if (coarser == levelCount) {
+				if (levelCount == levels.length)
+					levels = Arrays.copyOf(levels, levelCount * 2);
+
+				levels[levelCount++] = new Level(channels.length);
+			}
+
+			final Level finer = levels[coarser - 1];
+			final Level level = levels[coarser];
+
+			from /= 2;
+			level.buckets = (finer.buckets + 1) / 2;
+			level.ensureCapacity(level.buckets);
+
+			for (int bucket = from; bucket < level.buckets; bucket++) {
+				final int first = bucket * 2;
+				final int last = Math.min(first + 1, finer.buckets - 1);
+
+				level.startTimes[bucket] = finer.startTimes[first];
+				level.endTimes[bucket] = finer.endTimes[last];
+				for (int position = 0; position < channels.length; position++) {
+					level.minValues[position][bucket] = Math.min(finer.minValues[position][first], finer.minValues[position][last]);
+					level.maxValues[position][bucket] = Math.max(finer.maxValues[position][first], finer.maxValues[position][last]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Empties the envelope, so that it covers only the rows appended to the store afterwards
+	 */
+	public void clear() {
+		cursor.skipToEnd();
+		restart(store.getEndIndex());
+	}
+
+	//================================= Reading ==============================================================
+
+	/**
+	 * @return store whose rows are enveloped
+	 */
+	public TelemetryStore getStore() { return store; }
+
+	/**
+	 * @return channels enveloped
+	 */
+	public SimOuts[] getChannels() { return channels.clone(); }
+
+	/**
+	 * @param channel
+	 * @return if the channel is enveloped
+	 */
+	public boolean hasChannel(SimOuts channel) { return positions[channel.ordinal()] >= 0; }
+
+	/**
+	 * @return number of times the envelope has started again, as when time went back or rows were missed; changes whenever any
+	 * buckets held before have been discarded
+	 */
+	public int getResets() { return resets; }
+
+	/**
+	 * @return index in the store of the first row enveloped
+	 */
+	public long getFirstIndex() { return firstIndex; }
+
+	/**
+	 * @return one greater than the index in the store of the last row enveloped
+	 */
+	public long getEndIndex() { return endIndex; }
+
+	/**
+	 * @return if no rows have been enveloped
+	 */
+	public boolean isEmpty() { return endIndex == firstIndex; }
+
+	/**
+	 * @return time of the first row enveloped [sec]; NaN if none have been
+	 */
+	public double getStartTime() { return isEmpty() ? Double.NaN : levels[0].startTimes[0]; }
+
+	/**
+	 * @return time of the last row enveloped [sec]; NaN if none have been
+	 */
+	public double getEndTime() { return isEmpty() ? Double.NaN : lastTime; }
+
+	/**
+	 * @return number of levels, from the finest, 0, to the coarsest
+	 */
+	public int getLevels() { return levelCount; }
+
+	/**
+	 * @param level
+	 * @return number of rows each bucket of the level holds
+	 */
+	public static long getRowsPerBucket(int level) { return (long) ROWS_PER_BUCKET << level; }
+
+	/**
+	 * @param level
+	 * @return number of buckets held at the level
+	 */
+	public int getBuckets(int level) { return levels[level].buckets; }
+
+	public double getStartTime(int level, int bucket) { return levels[level].startTimes[bucket]; }
+
+	public double getEndTime(int level, int bucket) { return levels[level].endTimes[bucket]; }
+
+	/**
+	 * @param channel
+	 * @param level
+	 * @param bucket
+	 * @return least value of the channel in the bucket; positive infinity if all were NaN
+	 */
+	public double getMin(SimOuts channel, int level, int bucket) { return levels[level].minValues[position(channel)][bucket]; }
+
+	/**
+	 * @param channel
+	 * @param level
+	 * @param bucket
+	 * @return greatest value of the channel in the bucket; negative infinity if all were NaN
+	 */
+	public double getMax(SimOuts channel, int level, int bucket) { return levels[level].maxValues[position(channel)][bucket]; }
+
+	private int position(SimOuts channel) {
+		final int position = positions[channel.ordinal()];
+
+		if (position < 0)
+			throw new IllegalArgumentException(channel + " is not enveloped!");
+
+		return position;
+	}
+
+	/**
+	 * @param level
+	 * @param time [sec]
+	 * @return last bucket of the level starting at or before the time given, or 0 if the time is before the first bucket; -1 if
+	 * the level holds no buckets
+	 */
+	public int findBucket(int level, double time) {
+		final Level found = levels[level];
+
+		int bucket = Arrays.binarySearch(found.startTimes, 0, found.buckets, time);
+		if (bucket < 0)
+			bucket = -bucket - 2;
+
+		return Math.min(Math.max(bucket, 0), found.buckets - 1);
+	}
+
+	/**
+	 * Finds the last row at or before the time given by searching the finest level, and then the rows of the bucket found in the store
+	 *
+	 * @param time [sec]
+	 * @return index in the store of the last row enveloped at or before the time given, or of the first row enveloped if the time is
+	 * before it; -1 if no rows have been enveloped or the rows of the bucket found are no longer held by the store
+	 */
+	public long findIndex(double time) {
+		if (isEmpty())
+			return -1;
+
+		final long bucketIndex = firstIndex + (long) findBucket(0, time) * ROWS_PER_BUCKET;
+		final TelemetrySnapshot rows = store.snapshot(bucketIndex, Math.min(bucketIndex + ROWS_PER_BUCKET, endIndex), SimOuts.TIME);
+
+		if (rows.getFirstIndex() != bucketIndex || rows.size() == 0)
+			return -1;
+
+		final double[] times = rows.getColumn(SimOuts.TIME);
+		int row = 0;
+		while (row + 1 < rows.size() && times[row + 1] <= time)
+			row++;
+
+		return bucketIndex + row;
+	}
+}
@@ -0,0 +1,500 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.telemetry;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.telemetry.FlightRecording.DataBlock;
+
+/**
+ * Streams simulation outputs to a delimited text file, one row per step, with a header line naming each channel exported. Rows are
+ * read in chunks from a {@link TelemetryStore}, {@link FlightRecording} files or a List of Maps, and written out column by column in
+ * the order the channels were selected, so that every value lines up with its header regardless of how the source orders them
+ *
+ * <p>Values are formatted straight into a reusable buffer, either with full precision, which reads back as exactly the same double,
+ * or rounded to a fixed number of decimal places, which is formatted without creating any Strings. Output can be gzip compressed, and
+ * the export can be run on a thread of its own with {@link #exportInBackground(File, ExportListener)} so that user interfaces are
+ * not held up while it runs</p>
+ *
+ * @author Christopher Ali
+ *
+ */
+public class TelemetryExporter {
+
+	private static final Logger logger = LogManager.getLogger(TelemetryExporter.class);
+
+	public static final String GZIP_EXTENSION = ".gz";
+
+	/**
+	 * Precision that formats each value with as many digits as needed to read it back exactly
+	 */
+	public static final int FULL_PRECISION = -1;
+
+	public static final int MAX_DECIMAL_PLACES = 9;
+
+	private static final int CHUNK_ROWS = 4096;
+	private static final int BUFFER_BYTES = 1 << 16;
+
+	// Longest value written, such as -1.2345678901234567E-100, plus its delimiter
+	private static final int MAX_VALUE_BYTES = 32;
+
+	// Scaled values below this are exactly representable as both a double and a long
+	private static final double MAX_SCALED_VALUE = 1e15;
+
+	private static final long[] POWERS_OF_TEN = new long[MAX_DECIMAL_PLACES + 1];
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++)
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+	}
+
+	/**
+	 * Reads chunks of rows for a single export
+	 */
+	private interface RowSource {
+
+		/**
+		 * @return number of rows expected to be read, to report progress
+		 */
+		long getRowCount();
+
+		/**
+		 * Copies the values of the next rows into columns, one column for each channel given
+		 *
+		 * @param channels
+		 * @param columns arrays to copy each channel's values to, all of the same length
+		 * @return number of rows copied; 0 once all rows have been read
+		 */
+		int read(SimOuts[] channels, double[][] columns);
+	}
+
+	private final Supplier<RowSource> sources;
+
+	private SimOuts[] channels = SimOuts.values();
+	private ExportFormat format = ExportFormat.CSV;
+	private int precision = FULL_PRECISION;
+	private boolean compressed = false;
+
+	private volatile boolean cancelled = false;
+
+	/**
+	 * Exports the rows held in a telemetry store when each export starts; rows evicted while an export runs are skipped
+	 *
+	 * @param store
+	 */
+	public TelemetryExporter(TelemetryStore store) {
+		sources = () -> new StoreSource(store);
+	}
+
+	/**
+	 * Exports the rows of flight recording files in the order given, such as each file recorded in a flight
+	 *
+	 * @param recordings
+	 */
+	public TelemetryExporter(FlightRecording... recordings) {
+		sources = () -> new RecordingSource(recordings);
+	}
+
+	/**
+	 * Exports a list of simulation outputs, such as logsOut; lists that are views of a {@link TelemetryStore} are read directly from
+	 * the store. Channels missing from a row are written as NaN
+	 *
+	 * @param logsOut
+	 */
+	public TelemetryExporter(List<Map<SimOuts, Double>> logsOut) {
+		if (logsOut instanceof TelemetryList) {
+			TelemetryStore store = ((TelemetryList) logsOut).getStore();
+			sources = () -> new StoreSource(store);
+		} else {
+			sources = () -> new ListSource(logsOut);
+		}
+	}
+
+	//================================= Export ===============================================================
+
+	/**
+	 * Writes the selected channels to a file, replacing it if it exists, and blocks until done
+	 *
+	 * @param file
+	 * @return number of rows written
+	 * @throws IOException if the file could not be written; the partly written file is deleted
+	 * @throws CancellationException if {@link #cancel()} was called during the export; the partly written file is deleted
+	 */
+	public long export(File file) throws IOException {
+		cancelled = false;
+
+		return export(file, null);
+	}
+
+	/**
+	 * Writes the selected channels to a file on a new thread, reporting progress to a listener
+	 *
+	 * @param file
+	 * @param listener
+	 * @return export thread, which has been started
+	 */
+	public Thread exportInBackground(File file, ExportListener listener) {
+		cancelled = false;
+
+		Thread exportThread = new Thread(() -> {
+			try {
+				long rowsWritten = export(file, listener);
+				listener.onExportComplete(file, rowsWritten);
+			} catch (CancellationException e) {
+				listener.onExportCancelled(file);
+			} catch (Exception e) {
+				logger.error("Unable to export to: " + file.getAbsolutePath(), e);
+				listener.onExportFailed(file, e);
+			}
+		}, "Telemetry Export");
+
+		exportThread.setDaemon(true);
+		exportThread.start();
+
+		return exportThread;
+	}
+
+	/**
+	 * Stops the export running, which deletes the file it was writing
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	private long export(File file, ExportListener listener) throws IOException {
+		logger.info("Exporting " + channels.length + " channels to: " + file.getAbsolutePath());
+
+		long rowsWritten = 0;
+
+		try (OutputStream out = open(file)) {
+			RowSource source = sources.get();
+			long totalRows = source.getRowCount();
+
+			double[][] columns = new double[channels.length][CHUNK_ROWS];
+			byte[] buffer = new byte[Math.max(BUFFER_BYTES, (channels.length + 1) * MAX_VALUE_BYTES)];
+			int position = 0;
+
+			writeHeader(out);
+
+			int rows;
+			while ((rows = source.read(channels, columns)) > 0) {
+				if (cancelled)
+					throw new CancellationException("Export cancelled");
+
+				for (int row = 0; row < rows; row++) {
+					if (buffer.length - position < channels.length * MAX_VALUE_BYTES) {
+						out.write(buffer, 0, position);
+						position = 0;
+					}
+
+					for (int channel = 0; channel < channels.length; channel++) {
+						if (channel > 0)
+							buffer[position++] = (byte) format.getDelimiter();
+
+						position = writeValue(columns[channel][row], buffer, position);
+					}
+
+					buffer[position++] = '\n';
+				}
+
+				rowsWritten += rows;
+
+				if (listener != null)
+					listener.onExportProgress(rowsWritten, Math.max(totalRows, rowsWritten));
+			}
+
+			out.write(buffer, 0, position);
+		} catch (IOException | RuntimeException e) {
+			if (!file.delete())
+				logger.debug("Could not delete partly written: " + file.getAbsolutePath());
+
+			throw e;
+		}
+
+		logger.info(rowsWritten + " rows exported to " + file.getName() + " successfully!");
+
+		return rowsWritten;
+	}
+
+	private OutputStream open(File file) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+
+		try {
+			return compressed ? new GZIPOutputStream(out, BUFFER_BYTES) : out;
+		} catch (IOException e) {
+			out.close();
+			throw e;
+		}
+	}
+
+	private void writeHeader(OutputStream out) throws IOException {
+		StringBuilder header = new StringBuilder();
+		for (int channel = 0; channel < channels.length; channel++) {
+			if (channel > 0)
+				header.append(format.getDelimiter());
+
+			header.append(channels[channel].toString());
+		}
+		header.append('\n');
+
+		out.write(header.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	//================================= Formatting ===========================================================
+
+	/**
+	 * Formats a value into the buffer at the position given
+	 *
+	 * @return position after the value
+	 */
+	private int writeValue(double value, byte[] buffer, int position) {
+		if (precision == FULL_PRECISION)
+			return writeFullPrecision(value, buffer, position);
+
+		final double scaled = Math.abs(value) * POWERS_OF_TEN[precision];
+
+		// NaN, infinite and very large values
+		if (!(scaled < MAX_SCALED_VALUE))
+			return writeFullPrecision(value, buffer, position);
+
+		final long digits = Math.round(scaled);
+
+		if (value < 0 && digits != 0)
+			buffer[position++] = '-';
+
+		position = writeDigits(digits / POWERS_OF_TEN[precision], 1, buffer, position);
+
+		if (precision > 0) {
+			buffer[position++] = '.';
+			position = writeDigits(digits % POWERS_OF_TEN[precision], precision, buffer, position);
+		}
+
+		return position;
+	}
+
+	/**
+	 * Writes the digits of a non-negative number, padded with leading zeros to at least the width given
+	 *
+	 * @return position after the digits
+	 */
+	private static int writeDigits(long number, int width, byte[] buffer, int position) {
+		int length = 1;
+		for (long remaining = number / 10; remaining > 0; remaining /= 10)
+			length++;
+		length = Math.max(length, width);
+
+		for (int i = position + length - 1; i >= position; i--) {
+			buffer[i] = (byte) ('0' + number % 10);
+			number /= 10;
+		}
+
+		return position + length;
+	}
+
+	private static int writeFullPrecision(double value, byte[] buffer, int position) {
+		final String formatted = Double.toString(value);
+
+		for (int i = 0; i < formatted.length(); i++)
+			buffer[position++] = (byte) formatted.charAt(i);
+
+		return position;
+	}
+
+	//================================= Sources ==============================================================
+
+	private static class StoreSource implements RowSource {
+
+		private final TelemetryStore store;
+		private final long endIndex;
+		private final long rowCount;
+
+		private long nextIndex;
+
+		private StoreSource(TelemetryStore store) {
+			this.store = store;
+
+			endIndex = store.getEndIndex();
+			nextIndex = store.getFirstIndex();
+			rowCount = Math.max(0, endIndex - nextIndex);
+		}
+
+		@Override
+		public long getRowCount() { return rowCount; }
+
+		@Override
+		public int read(SimOuts[] channels, double[][] columns) {
+			TelemetrySnapshot snapshot = store.snapshot(nextIndex, Math.min(endIndex, nextIndex + columns[0].length), channels);
+
+			for (int channel = 0; channel < channels.length; channel++)
+				System.arraycopy(snapshot.getColumn(channels[channel]), 0, columns[channel], 0, snapshot.size());
+
+			nextIndex = snapshot.getEndIndex();
+
+			return snapshot.size();
+		}
+	}
+
+	private static class RecordingSource implements RowSource {
+
+		private final FlightRecording[] recordings;
+		private final double[] row = new double[SimOuts.values().length];
+		private final long rowCount;
+
+		private int recording = 0;
+		private int block = 0;
+		private int blockRow = 0;
+
+		private RecordingSource(FlightRecording[] recordings) {
+			this.recordings = recordings;
+
+			long rows = 0;
+			for (FlightRecording flightRecording : recordings)
+				rows += flightRecording.getRowCount();
+			rowCount = rows;
+		}
+
+		@Override
+		public long getRowCount() { return rowCount; }
+
+		@Override
+		public int read(SimOuts[] channels, double[][] columns) {
+			int rows = 0;
+
+			while (rows < columns[0].length && recording < recordings.length) {
+				List<DataBlock> dataBlocks = recordings[recording].getDataBlocks();
+
+				if (block >= dataBlocks.size()) {
+					recording++;
+					block = 0;
+					continue;
+				}
+
+				DataBlock dataBlock = dataBlocks.get(block);
+
+				if (blockRow >= dataBlock.getRows()) {
+					block++;
+					blockRow = 0;
+					continue;
+				}
+
+				recordings[recording].readRow(dataBlock, blockRow++, row);
+
+				for (int channel = 0; channel < channels.length; channel++)
+					columns[channel][rows] = row[channels[channel].ordinal()];
+
+				rows++;
+			}
+
+			return rows;
+		}
+	}
+
+	private static class ListSource implements RowSource {
+
+		private final Iterator<Map<SimOuts, Double>> iterator;
+		private final long rowCount;
+
+		private ListSource(List<Map<SimOuts, Double>> logsOut) {
+			iterator = logsOut.iterator();
+			rowCount = logsOut.size();
+		}
+
+		@Override
+		public long getRowCount() { return rowCount; }
+
+		@Override
+		public int read(SimOuts[] channels, double[][] columns) {
+			int rows = 0;
+
+			while (rows < columns[0].length && iterator.hasNext()) {
+				Map<SimOuts, Double> simOut = iterator.next();
+
+				for (int channel = 0; channel < channels.length; channel++) {
+					Double value = simOut.get(channels[channel]);
+					columns[channel][rows] = (value != null) ? value : Double.NaN;
+				}
+
+				rows++;
+			}
+
+			return rows;
+		}
+	}
+
+	//================================= Settings =============================================================
+
+	public SimOuts[] getChannels() { return Arrays.copyOf(channels, channels.length); }
+
+	/**
+	 * @param channels channels to export, in the order their columns are written; all channels if none are given
+	 */
+	public void setChannels(SimOuts... channels) {
+		this.channels = (channels.length == 0) ? SimOuts.values() : Arrays.copyOf(channels, channels.length);
+	}
+
+	public ExportFormat getFormat() { return format; }
+
+	public void setFormat(ExportFormat format) { this.format = format; }
+
+	public int getPrecision() { return precision; }
+
+	/**
+	 * @param precision number of decimal places to round values to, from 0 to {@link #MAX_DECIMAL_PLACES}, or {@link #FULL_PRECISION}
+	 */
+	public void setPrecision(int precision) {
+		if (precision != FULL_PRECISION && (precision < 0 || precision > MAX_DECIMAL_PLACES))
+			throw new IllegalArgumentException("Precision must be between 0 and " + MAX_DECIMAL_PLACES + " decimal places!");
+
+		this.precision = precision;
+	}
+
+	public boolean isCompressed() { return compressed; }
+
+	/**
+	 * @param compressed if output should be gzip compressed
+	 */
+	public void setCompressed(boolean compressed) { this.compressed = compressed; }
+
+	/**
+	 * Sets the format and compression of output from the extension of the file name, such as .csv, .tsv or .csv.gz
+	 *
+	 * @param file
+	 */
+	public void setOutputFromFileName(File file) {
+		format = ExportFormat.fromFileName(file.getName());
+		compressed = file.getName().toLowerCase().endsWith(GZIP_EXTENSION);
+	}
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.telemetry;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+
+/**
+ * Live, read-only view of the rows held by a {@link TelemetryStore} as a List of Maps, for code that reads simulation outputs as the 
+ * logsOut list of {@link SimOuts} EnumMaps that the simulation used to keep. Element 0 is always the oldest row held, so as rows are 
+ * evicted the elements of this list move towards its start, as they did in logsOut. Each element returned is a {@link TelemetryRow} 
+ * copied from the store when it is requested
+ * 
+ * <p>Iterators walk the rows that were held when they were created, by their index in the store, and skip ahead past any rows that 
+ * are evicted before they are reached</p>
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class TelemetryList extends AbstractList<Map<SimOuts, Double>> implements RandomAccess {
+	
+	private static final int CHANNELS = SimOuts.values().length;
+	
+	private final TelemetryStore store;
+	
+	TelemetryList(TelemetryStore store) {
+		this.store = store;
+	}
+
+	@Override
+	public Map<SimOuts, Double> get(int row) {
+		double[] values = new double[CHANNELS];
+		
+		// Retry if the row is evicted while being copied, as the row at this position is then a newer one
+		while (true) {
+			long first = store.getFirstIndex();
+			
+			if (row < 0 || row >= store.getEndIndex() - first)
+				throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size());
+			
+			if (store.read(first + row, values))
+				return new TelemetryRow(first + row, values);
+		}
+	}
+
+	@Override
+	public int size() { return store.size(); }
+	
+	@Override
+	public Iterator<Map<SimOuts, Double>> iterator() {
+		return new Iterator<Map<SimOuts, Double>>() {
+			private long index = store.getFirstIndex();
+			private final long end = store.getEndIndex();
+			
+			@Override
+			public boolean hasNext() { return Math.max(index, store.getFirstIndex()) < end; }
+
+			@Override
+			public Map<SimOuts, Double> next() {
+				double[] values = new double[CHANNELS];
+				
+				while (hasNext()) {
+					index = Math.max(index, store.getFirstIndex());
+					
+					if (index < end && store.read(index, values))
+						return new TelemetryRow(index++, values);
+				}
+				
+				throw new NoSuchElementException();
+			}
+		};
+	}
+	
+	/**
+	 * @return store that this list is a view of
+	 */
+	public TelemetryStore getStore() { return store; }
+}
@@ -0,0 +1,389 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.telemetry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.interfaces.Steppable;
+import com.chrisali.javaflightsim.simulation.datatransfer.FlightData;
+import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataListener;
+import com.chrisali.javaflightsim.simulation.datatransfer.SimulationState;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.RateGroup;
+import com.chrisali.javaflightsim.simulation.telemetry.FlightRecording.RecordedEvent;
+
+/**
+ * Plays back recorded simulation outputs, publishing them through {@link FlightData} to any registered {@link FlightDataListener},
+ * just as {@link Integrate6DOFEquations} does, so that the out the window display, instruments and sounds can show a past flight
+ * without simulating it again. Each time the replay is stepped, replay time advances by the wall clock time passed multiplied by
+ * the replay speed, unless paused, and the outputs published are interpolated between the two recorded rows either side of it,
+ * so that playback is smooth at any display rate or speed
+ *
+ * <p>Rows are found by searching a time index built from {@link SimOuts#TIME} when the replay is created, so seeking to any time is
+ * O(log n). Where recorded time steps backwards, as when the simulation was reset during the flight, the index carries on from where
+ * it was, so that replay time always increases through the recording; recorded events are moved onto replay time in the same way 
+ * (see {@link #getReplayTime(RecordedEvent)}). Speed, pausing and seeking may be set from any thread, and
+ * take effect when the replay is next stepped</p>
+ *
+ * @author Christopher Ali
+ *
+ */
+public class TelemetryReplay implements Steppable {
+
+	private static final Logger logger = LogManager.getLogger(TelemetryReplay.class);
+
+	private static final double NANOS_PER_SEC = 1e9;
+	private static final long NO_SEEK = Double.doubleToRawLongBits(Double.NaN);
+
+	private final TelemetryStore store;
+	private final List<RecordedEvent> events;
+
+	// Replay time of each row, increasing with each row, the index in the store of the first row, and the index of the first row 
+	// counted from the first row of the flight, by which recorded events are numbered
+	private final double[] times;
+	private final long firstIndex;
+	private final long firstFlightIndex;
+
+	// The two rows either side of the replay time, numbered by the first of them
+	private final double[] row = new double[SimOuts.values().length];
+	private final SimulationState earlierRow = new SimulationState();
+	private final SimulationState laterRow = new SimulationState();
+	private int bracket = -1;
+
+	private final double[] replayValues = new double[SimOuts.values().length];
+	private final FlightData flightData = new FlightData();
+	private final List<FlightDataListener> flightDataListeners = new ArrayList<>();
+
+	private volatile double speed = 1.0;
+	private volatile boolean paused = false;
+	private final AtomicLong seekTime = new AtomicLong(NO_SEEK);
+
+	private double time;
+	private volatile double publishedTime;
+	private long lastStepNanos = 0;
+
+	/**
+	 * Replays the rows held in a telemetry store when the replay is created, such as the outputs of the latest simulation run
+	 *
+	 * @param store
+	 */
+	public TelemetryReplay(TelemetryStore store) {
+		this(store, Collections.emptyList(), 0);
+	}
+
+	/**
+	 * Replays the files of a recorded flight in the order given, such as those opened by {@link FlightRecording#openFlight(java.nio.file.Path)}
+	 *
+	 * @param recordings
+	 */
+	public TelemetryReplay(List<FlightRecording> recordings) {
+		this(readAll(recordings), eventsOf(recordings), firstFlightIndexOf(recordings));
+	}
+
+	/**
+	 * @param store rows to replay
+	 * @param events events recorded during the flight
+	 * @param firstFlightIndex index of the first row of the store counted from the first row of the flight
+	 */
+	TelemetryReplay(TelemetryStore store, List<RecordedEvent> events, long firstFlightIndex) {
+		this.store = store;
+		this.events = events;
+		this.firstFlightIndex = firstFlightIndex;
+
+		TelemetrySnapshot snapshot = store.snapshot(0, Long.MAX_VALUE, SimOuts.TIME);
+		if (snapshot.size() == 0)
+			throw new IllegalArgumentException("There are no rows to replay!");
+
+		firstIndex = snapshot.getFirstIndex();
+		times = indexTimes(snapshot.getColumn(SimOuts.TIME));
+		time = publishedTime = times[0];
+
+		logger.info("Replaying " + times.length + " rows, " + String.format("%.1f", getEndTime() - getStartTime()) + " sec long...");
+	}
+
+	private static TelemetryStore readAll(List<FlightRecording> recordings) {
+		long rows = 0;
+		for (FlightRecording recording : recordings)
+			rows += recording.getRowCount();
+
+		TelemetryStore store = new TelemetryStore((int) Math.max(1, Math.min(rows, Integer.MAX_VALUE >> 1)), Integer.MAX_VALUE >> 1);
+		for (FlightRecording recording : recordings)
+			recording.readInto(store);
+
+		return store;
+	}
+
+	private static List<RecordedEvent> eventsOf(List<FlightRecording> recordings) {
+		List<RecordedEvent> events = new ArrayList<>();
+		for (FlightRecording recording : recordings)
+			events.addAll(recording.getEvents());
+
+		return events;
+	}
+
+	private static long firstFlightIndexOf(List<FlightRecording> recordings) {
+		for (FlightRecording recording : recordings) {
+			if (!recording.getDataBlocks().isEmpty())
+				return recording.getDataBlocks().get(0).getFirstIndex();
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Makes the recorded times of each row increase from row to row, carrying on by the last time step wherever they do not
+	 *
+	 * @param recordedTimes
+	 * @return replay time of each row
+	 */
+	private static double[] indexTimes(double[] recordedTimes) {
+		final double[] indexed = Arrays.copyOf(recordedTimes, recordedTimes.length);
+
+		double offset = 0;
+		double lastStep = 0;
+
+		for (int i = 1; i < indexed.length; i++) {
+			double indexedTime = recordedTimes[i] + offset;
+
+			if (!(indexedTime > indexed[i - 1])) {
+				double carriedOn = (lastStep > 0) ? indexed[i - 1] + lastStep : Math.nextUp(indexed[i - 1]);
+
+				offset += carriedOn - indexedTime;
+				indexedTime = carriedOn;
+			} else {
+				lastStep = indexedTime - indexed[i - 1];
+			}
+
+			indexed[i] = indexedTime;
+		}
+
+		return indexed;
+	}
+
+	//================================= Playback =============================================================
+
+	@Override
+	public RateGroup getRateGroup() { return RateGroup.DISPLAY; }
+
+	/**
+	 * Advances replay time by the wall clock time passed since the last step multiplied by the replay speed, unless paused or a
+	 * seek is pending, and publishes the outputs at that time
+	 */
+	@Override
+	public void step() {
+		final long nowNanos = System.nanoTime();
+		final double seek = Double.longBitsToDouble(seekTime.getAndSet(NO_SEEK));
+
+		if (!Double.isNaN(seek))
+			time = seek;
+		else if (!paused && lastStepNanos != 0)
+			time += speed * (nowNanos - lastStepNanos) / NANOS_PER_SEC;
+
+		lastStepNanos = nowNanos;
+		time = clampTime(time);
+
+		publish(time);
+	}
+
+	/**
+	 * Publishes the outputs at the replay time given straight away, in place of stepping the replay, for a replay that follows
+	 * another clock such as that of a live simulation
+	 *
+	 * @param replayTime [sec]
+	 */
+	public void replayAt(double replayTime) {
+		time = clampTime(replayTime);
+
+		publish(time);
+	}
+
+	private double clampTime(double replayTime) {
+		return Math.max(getStartTime(), Math.min(getEndTime(), replayTime));
+	}
+
+	/**
+	 * Interpolates the outputs at the replay time given between the recorded rows either side of it, and publishes them to listeners
+	 */
+	private void publish(double replayTime) {
+		final int earlier = findRow(replayTime);
+		final int later = Math.min(earlier + 1, times.length - 1);
+
+		// Rows only need to be read again when replay time moves past either of them
+		if (earlier != bracket) {
+			if (store.read(firstIndex + earlier, row))
+				earlierRow.update(row, 0);
+			if (store.read(firstIndex + later, row))
+				laterRow.update(row, 0);
+
+			bracket = earlier;
+		}
+
+		final double span = times[later] - times[earlier];
+		final double alpha = (span > 0) ? Math.max(0.0, Math.min(1.0, (replayTime - times[earlier]) / span)) : 1.0;
+
+		SimulationState.interpolate(earlierRow, laterRow, alpha, replayValues);
+		flightData.updateData(replayValues);
+		publishedTime = replayTime;
+
+		flightDataListeners.forEach(listener -> listener.onFlightDataReceived(flightData));
+	}
+
+	/**
+	 * @param replayTime
+	 * @return number of the last row recorded at or before the replay time given
+	 */
+	private int findRow(double replayTime) {
+		// Most steps move replay time forward within the same pair of rows, or onto the next pair
+		if (bracket >= 0 && bracket + 1 < times.length && times[bracket] <= replayTime) {
+			if (replayTime < times[bracket + 1])
+				return bracket;
+			if (bracket + 2 < times.length && replayTime < times[bracket + 2])
+				return bracket + 1;
+		}
+
+		int found = Arrays.binarySearch(times, replayTime);
+		if (found < 0)
+			found = -found - 2;
+
+		return Math.max(0, Math.min(times.length - 1, found));
+	}
+
+	//================================= Controls =============================================================
+
+	/**
+	 * Moves replay to the time given when it is next stepped
+	 *
+	 * @param replayTime [sec], limited to between {@link #getStartTime()} and {@link #getEndTime()}
+	 */
+	public void seek(double replayTime) {
+		seekTime.set(Double.doubleToRawLongBits(clampTime(replayTime)));
+	}
+
+	/**
+	 * Moves replay to the time of a recorded event, such as a touchdown, when it is next stepped
+	 *
+	 * @param event
+	 */
+	public void seek(RecordedEvent event) {
+		seek(getReplayTime(event));
+	}
+
+	/**
+	 * Finds the replay time of a recorded event. Recorded times repeat if the simulation was reset during the flight, while replay
+	 * time carries on, so the event's time is moved by as much as the replay time of the row it was recorded at was moved. Events
+	 * without a row, as from version 1 recordings, are placed at the first row recorded at or after their time
+	 *
+	 * @param event
+	 * @return replay time of the event [sec], limited to between {@link #getStartTime()} and {@link #getEndTime()}
+	 */
+	public double getReplayTime(RecordedEvent event) {
+		int row;
+		if (event.getRowIndex() >= 0) {
+			row = (int) Math.max(0, Math.min(times.length - 1, event.getRowIndex() - firstFlightIndex));
+		} else {
+			final double[] recordedTimes = store.snapshot(firstIndex, firstIndex + times.length, SimOuts.TIME).getColumn(SimOuts.TIME);
+
+			row = 0;
+			while (row < times.length - 1 && recordedTimes[row] < event.getTime())
+				row++;
+		}
+
+		final double recordedTime = store.snapshot(firstIndex + row, firstIndex + row + 1, SimOuts.TIME).getColumn(SimOuts.TIME)[0];
+
+		return clampTime(event.getTime() + (times[row] - recordedTime));
+	}
+
+	public boolean isPaused() { return paused; }
+
+	public void setPaused(boolean paused) { this.paused = paused; }
+
+	public double getSpeed() { return speed; }
+
+	/**
+	 * @param speed replay time passed per unit of wall clock time; 1.0 for real time, negative to play backwards
+	 */
+	public void setSpeed(double speed) {
+		if (!Double.isFinite(speed))
+			throw new IllegalArgumentException("Replay speed must be a finite number!");
+
+		this.speed = speed;
+	}
+
+	/**
+	 * @return replay time of the outputs last published [sec]
+	 */
+	public double getTime() { return publishedTime; }
+
+	/**
+	 * @return replay time of the first row [sec]
+	 */
+	public double getStartTime() { return times[0]; }
+
+	/**
+	 * @return replay time of the last row [sec]
+	 */
+	public double getEndTime() { return times[times.length - 1]; }
+
+	/**
+	 * @return if replay time has reached the end of the recording in the direction it is playing
+	 */
+	public boolean isFinished() {
+		return (speed >= 0) ? publishedTime >= getEndTime() : publishedTime <= getStartTime();
+	}
+
+	//================================= Outputs ==============================================================
+
+	/**
+	 * @return outputs last published, indexed by {@link SimOuts#ordinal()}; only to be read by the thread that steps the replay
+	 */
+	public double[] getReplayValues() { return replayValues; }
+
+	public FlightData getFlightData() { return flightData; }
+
+	/**
+	 * @return store of all rows being replayed, to plot, show in a console or export
+	 */
+	public TelemetryStore getTelemetry() { return store; }
+
+	/**
+	 * @return events recorded during the flight, such as touchdowns, in the order recorded
+	 */
+	public List<RecordedEvent> getEvents() { return Collections.unmodifiableList(events); }
+
+	/**
+	 * Adds a {@link FlightDataListener} to be sent the outputs each time they are published
+	 *
+	 * @param dataListener
+	 */
+	public void addFlightDataListener(FlightDataListener dataListener) {
+		if (dataListener != null) {
+			logger.info("Adding flight data listener: " + dataListener.getClass());
+			flightDataListeners.add(dataListener);
+		}
+	}
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.telemetry;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+
+/**
+ * Read-only Map of the simulation outputs of one row of a {@link TelemetryStore}, backed by a primitive copy of the row, so that 
+ * values are only boxed as they are read
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class TelemetryRow extends AbstractMap<SimOuts, Double> {
+	
+	private static final SimOuts[] CHANNELS = SimOuts.values();
+	
+	private final long index;
+	private final double[] values;
+	
+	private final Set<Entry<SimOuts, Double>> entrySet = new AbstractSet<Entry<SimOuts, Double>>() {
+		@Override
+		public Iterator<Entry<SimOuts, Double>> iterator() {
+			return new Iterator<Entry<SimOuts, Double>>() {
+				private int channel = 0;
+				
+				@Override
+				public boolean hasNext() { return channel < CHANNELS.length; }
+
+				@Override
+				public Entry<SimOuts, Double> next() {
+					if (!hasNext())
+						throw new NoSuchElementException();
+					
+					SimOuts key = CHANNELS[channel];
+					return new SimpleImmutableEntry<>(key, values[channel++]);
+				}
+			};
+		}
+
+		@Override
+		public int size() { return CHANNELS.length; }
+	};
+	
+	TelemetryRow(long index, double[] values) {
+		this.index = index;
+		this.values = values;
+	}
+	
+	/**
+	 * @return index of this row in its {@link TelemetryStore}
+	 */
+	public long getIndex() { return index; }
+	
+	/**
+	 * @param channel
+	 * @return value of the channel in this row
+	 */
+	public double getValue(SimOuts channel) { return values[channel.ordinal()]; }
+	
+	@Override
+	public Double get(Object key) {
+		return (key instanceof SimOuts) ? values[((SimOuts) key).ordinal()] : null;
+	}
+	
+	@Override
+	public boolean containsKey(Object key) { return key instanceof SimOuts; }
+	
+	@Override
+	public int size() { return CHANNELS.length; }
+
+	@Override
+	public Set<Entry<SimOuts, Double>> entrySet() { return entrySet; }
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.telemetry;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+
+/**
+ * Consistent copy of a range of rows of a {@link TelemetryStore}, holding a column of values for each {@link SimOuts} channel that 
+ * was copied. Rows are numbered from 0 within the snapshot, and keep their index in the store as {@link #getFirstIndex()} + row
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class TelemetrySnapshot {
+	
+	private final long firstIndex;
+	private final int size;
+	private final double[][] columns;
+	
+	TelemetrySnapshot(long firstIndex, int size, double[][] columns) {
+		this.firstIndex = firstIndex;
+		this.size = size;
+		this.columns = columns;
+	}
+	
+	/**
+	 * @return index in the {@link TelemetryStore} of the first row of this snapshot
+	 */
+	public long getFirstIndex() { return firstIndex; }
+	
+	/**
+	 * @return one greater than the index in the {@link TelemetryStore} of the last row of this snapshot, from which to copy the 
+	 * rows appended after it
+	 */
+	public long getEndIndex() { return firstIndex + size; }
+	
+	/**
+	 * @return number of rows in this snapshot
+	 */
+	public int size() { return size; }
+	
+	/**
+	 * @param channel
+	 * @return if the channel was copied into this snapshot
+	 */
+	public boolean hasChannel(SimOuts channel) { return columns[channel.ordinal()] != null; }
+	
+	/**
+	 * @param row row within this snapshot, from 0
+	 * @param channel
+	 * @return value of the channel at the row
+	 */
+	public double get(int row, SimOuts channel) { return getColumn(channel)[row]; }
+	
+	/**
+	 * @param channel
+	 * @return values of the channel for each row of this snapshot
+	 * @throws IllegalArgumentException if the channel was not copied into this snapshot
+	 */
+	public double[] getColumn(SimOuts channel) {
+		double[] column = columns[channel.ordinal()];
+		
+		if (column == null)
+			throw new IllegalArgumentException(channel + " was not copied into this snapshot!");
+		
+		return column;
+	}
+}
@@ -0,0 +1,310 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.telemetry;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+
+/**
+ * Columnar time series store of simulation outputs, holding one primitive ring of doubles for each {@link SimOuts} channel. Each 
+ * row appended is given an index one greater than the last, which it keeps for as long as it is held; rows are evicted from the 
+ * oldest end, either when the store reaches its maximum number of rows or explicitly with {@link #evictOlderThan(double)}, 
+ * so that appending and evicting are both O(1). Storage starts small and doubles as needed, up to the maximum number of rows 
+ * 
+ * <p>One thread, the simulation, may append and evict rows, while any number of other threads read them at the same time without 
+ * locking, using {@link #read(long, double[])} for single rows or {@link #snapshot(long, long, SimOuts...)} for ranges of rows. 
+ * Readers copy the values they need and then check that the rows copied were not evicted and overwritten while they did so, discarding
+ * any that were. {@link #asList()} presents the rows as a List of Maps for code that reads simulation outputs that way</p>
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class TelemetryStore {
+	
+	private static final SimOuts[] CHANNELS = SimOuts.values();
+	private static final int DEFAULT_CAPACITY = 1024;
+	
+	// Largest power of two that an array can hold
+	private static final int MAX_STORAGE = 1 << 30;
+	
+	/**
+	 * Ring storage of each channel, replaced rather than resized when it grows so that readers of the old rings are unaffected 
+	 */
+	private static class Columns {
+		private final double[][] data;
+		private final int mask;
+		
+		private Columns(int capacity) {
+			data = new double[CHANNELS.length][capacity];
+			mask = capacity - 1;
+		}
+	}
+	
+	private final int maxRows;
+	
+	private volatile Columns columns;
+	
+	// Index of the oldest row held, and one past the index of the newest; rows are held from firstIndex up to endIndex
+	private final AtomicLong firstIndex = new AtomicLong(0);
+	private volatile long endIndex = 0;
+	
+	/**
+	 * Creates a store that holds every row appended to it, until cleared
+	 */
+	public TelemetryStore() {
+		this(DEFAULT_CAPACITY, MAX_STORAGE);
+	}
+	
+	/**
+	 * Creates a store that holds up to maxRows rows, evicting the oldest row as each new row is appended once full
+	 * 
+	 * @param initialCapacity number of rows that storage is first allocated for
+	 * @param maxRows
+	 */
+	public TelemetryStore(int initialCapacity, int maxRows) {
+		if (maxRows < 1 || maxRows > MAX_STORAGE)
+			throw new IllegalArgumentException("Maximum rows must be between 1 and " + MAX_STORAGE + "!");
+		
+		this.maxRows = maxRows;
+		columns = new Columns(ceilingPowerOfTwo(Math.max(1, Math.min(initialCapacity, maxRows))));
+	}
+	
+	/**
+	 * Finds the store behind a list returned by {@link #asList()}, or copies any other list of simulation outputs into a new store
+	 *
+	 * @param logsOut
+	 * @return store holding the rows of logsOut
+	 */
+	public static TelemetryStore of(List<Map<SimOuts, Double>> logsOut) {
+		if (logsOut instanceof TelemetryList)
+			return ((TelemetryList) logsOut).getStore();
+		
+		final TelemetryStore store = new TelemetryStore(Math.max(1, logsOut.size()), MAX_STORAGE);
+		final double[] row = new double[CHANNELS.length];
+		
+		for (Map<SimOuts, Double> outputs : logsOut) {
+			for (SimOuts channel : CHANNELS) {
+				Double value = outputs.get(channel);
+				row[channel.ordinal()] = (value != null) ? value : Double.NaN;
+			}
+			
+			store.append(row);
+		}
+		
+		return store;
+	}
+	
+	private static int ceilingPowerOfTwo(int value) {
+		return (value <= 1) ? 1 : Integer.highestOneBit(value - 1) << 1;
+	}
+	
+	//================================= Writer ===============================================================
+	
+	/**
+	 * Appends a row of simulation outputs, evicting the oldest row if the store is full; called only by the thread that writes to 
+	 * this store
+	 * 
+	 * @param values outputs indexed by {@link SimOuts#ordinal()}
+	 */
+	public void append(double[] values) {
+		final long index = endIndex;
+		
+		if (index - firstIndex.get() >= maxRows)
+			evictBefore(index - maxRows + 1);
+		
+		Columns current = columns;
+		if (index - firstIndex.get() > current.mask)
+			current = grow(current, index);
+		
+		final int slot = (int) (index & current.mask);
+		for (int channel = 0; channel < CHANNELS.length; channel++)
+			current.data[channel][slot] = values[channel];
+		
+		// Publishes the row; as a volatile write, none of the writes above can move past it
+		endIndex = index + 1;
+	}
+	
+	/**
+	 * Evicts rows from the oldest end whose {@link SimOuts#TIME} is earlier than the time given, to hold a fixed span of time; 
+	 * called only by the thread that writes to this store
+	 * 
+	 * @param time [sec]
+	 */
+	public void evictOlderThan(double time) {
+		final Columns current = columns;
+		final double[] times = current.data[SimOuts.TIME.ordinal()];
+		final long end = endIndex;
+		
+		long first = firstIndex.get();
+		while (first < end && times[(int) (first & current.mask)] < time)
+			first++;
+		
+		evictBefore(first);
+	}
+	
+	/**
+	 * Evicts all rows held; indices of rows appended afterwards continue from those evicted
+	 */
+	public void clear() {
+		evictBefore(endIndex);
+	}
+	
+	/**
+	 * Moves the oldest row held forward to the index given, if it is not already past it. Readers that copy an evicted row are 
+	 * certain to see this change when they check the oldest row after copying 
+	 */
+	private void evictBefore(long index) {
+		firstIndex.accumulateAndGet(index, Math::max);
+		
+		// Keep the writes that overwrite evicted rows from moving ahead of the eviction 
+		VarHandle.storeStoreFence();
+	}
+	
+	/**
+	 * Doubles the storage of each channel, copying over the rows held
+	 */
+	private Columns grow(Columns current, long endIndex) {
+		Columns grown = new Columns(Math.min((current.mask + 1) * 2, MAX_STORAGE));
+		
+		for (int channel = 0; channel < CHANNELS.length; channel++) {
+			for (long index = firstIndex.get(); index < endIndex; index++)
+				grown.data[channel][(int) (index & grown.mask)] = current.data[channel][(int) (index & current.mask)];
+		}
+		
+		columns = grown;
+		
+		return grown;
+	}
+	
+	//================================= Readers ==============================================================
+	
+	/**
+	 * @return index of the oldest row held
+	 */
+	public long getFirstIndex() { return firstIndex.get(); }
+	
+	/**
+	 * @return one greater than the index of the newest row held, which is the index the next row appended will have 
+	 */
+	public long getEndIndex() { return endIndex; }
+	
+	/**
+	 * @return number of rows held
+	 */
+	public int size() {
+		final long end = endIndex;
+		return (int) Math.max(0, end - firstIndex.get());
+	}
+	
+	/**
+	 * @return maximum number of rows held before the oldest are evicted
+	 */
+	public int getMaxRows() { return maxRows; }
+	
+	/**
+	 * Copies a row of outputs
+	 * 
+	 * @param index index of the row, between {@link #getFirstIndex()} and {@link #getEndIndex()}
+	 * @param row array indexed by {@link SimOuts#ordinal()} to copy outputs into
+	 * @return if the row was held and copied; false if it has been evicted or not yet appended
+	 */
+	public boolean read(long index, double[] row) {
+		if (index >= endIndex || index < firstIndex.get())
+			return false;
+		
+		final Columns current = columns;
+		final int slot = (int) (index & current.mask);
+		for (int channel = 0; channel < CHANNELS.length; channel++)
+			row[channel] = current.data[channel][slot];
+		
+		// Keep the copy above from moving past the check for eviction below
+		VarHandle.loadLoadFence();
+		
+		return index >= firstIndex.get();
+	}
+	
+	/**
+	 * Copies the values of channels for a range of rows; rows no longer held are skipped
+	 * 
+	 * @param fromIndex index of the first row, inclusive
+	 * @param toIndex index of the last row, exclusive
+	 * @param channels channels to copy; all channels if none are given
+	 * @return columns of values copied
+	 */
+	public TelemetrySnapshot snapshot(long fromIndex, long toIndex, SimOuts... channels) {
+		final long end = endIndex;
+		final Columns current = columns;
+		
+		final long from = Math.max(fromIndex, firstIndex.get());
+		final long to = Math.min(toIndex, end);
+		
+		if (channels.length == 0)
+			channels = CHANNELS;
+		
+		final int rows = (int) Math.max(0, to - from);
+		final double[][] copied = new double[CHANNELS.length][];
+		
+		for (SimOuts channel : channels)
+			copied[channel.ordinal()] = copyRange(current.data[channel.ordinal()], current.mask, from, rows);
+		
+		VarHandle.loadLoadFence();
+		
+		// Discard rows at the start of the range that were evicted, and so may have been overwritten, while they were copied 
+		final int evicted = (int) Math.min(rows, Math.max(0, firstIndex.get() - from));
+		if (evicted > 0) {
+			for (SimOuts channel : channels)
+				copied[channel.ordinal()] = Arrays.copyOfRange(copied[channel.ordinal()], evicted, rows);
+		}
+		
+		return new TelemetrySnapshot(from + evicted, rows - evicted, copied);
+	}
+	
+	/**
+	 * Copies a snapshot of all channels of all rows held
+	 * 
+	 * @return columns of values copied
+	 */
+	public TelemetrySnapshot snapshot() {
+		return snapshot(0, Long.MAX_VALUE);
+	}
+	
+	private static double[] copyRange(double[] ring, int mask, long from, int rows) {
+		final double[] copy = new double[rows];
+		final int start = (int) (from & mask);
+		final int firstPart = Math.min(rows, mask + 1 - start);
+		
+		System.arraycopy(ring, start, copy, 0, firstPart);
+		System.arraycopy(ring, 0, copy, firstPart, rows - firstPart);
+		
+		return copy;
+	}
+	
+	/**
+	 * @return live, read-only view of the rows held as a List of Maps
+	 */
+	public List<Map<SimOuts, Double>> asList() {
+		return new TelemetryList(this);
+	}
+}
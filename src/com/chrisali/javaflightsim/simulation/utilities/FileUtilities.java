@@ -38,6 +38,8 @@ import com.chrisali.javaflightsim.simulation.flightcontrols.analysis.AnalysisCon
 import com.chrisali.javaflightsim.simulation.integration.SimOuts;
 import com.chrisali.javaflightsim.simulation.setup.ControlsConfiguration;
 import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.setup.TrimCache;
+import com.chrisali.javaflightsim.simulation.telemetry.TelemetryExporter;
 import com.chrisali.javaflightsim.swing.plotting.PlotConfiguration;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
@@ -147,6 +149,25 @@ public class FileUtilities {
 		return configuration;
 	}
 	
+	/**
+	 * Creates a {@link TrimCache} object by deserializing a JSON file in the SimConfig directory called TrimCache.json, or an 
+	 * empty cache if nothing has been trimmed yet
+	 * 
+	 * @return deserialized {@link TrimCache}
+	 */
+	public static TrimCache readTrimCache() {
+		File file = new File(FILE_ROOT + SimDirectories.SIM_CONFIG.toString() + File.separator + TrimCache.class.getSimpleName() + CONFIG_EXT);
+		
+		if (!file.exists())
+			return new TrimCache();
+		
+		TrimCache trimCache = deserializeJson(TrimCache.class.getSimpleName(), 
+											  SimDirectories.SIM_CONFIG.toString(), 
+											  TrimCache.class);
+		
+		return trimCache != null ? trimCache : new TrimCache();
+	}
+	
 	/**
 	 * Deserializes an JSON file into a T object based on the file name, file path and class provided
 	 * 
@@ -177,6 +198,26 @@ public class FileUtilities {
 		return objToDeserialize;
 	}
 		
+	/**
+	 * Creates a deep copy of an object by serializing it to JSON and deserializing the result into a new T object. Used
+	 * to vary copies of configuration objects without affecting the original
+	 * 
+	 * @param objToCopy
+	 * @param klasse
+	 * @return deep copy of objToCopy, or null if it could not be copied
+	 */
+	public static <T> T deepCopy(T objToCopy, Class<T> klasse) {
+		ObjectMapper mapper = new ObjectMapper();
+		
+		try {
+			return mapper.readValue(mapper.writeValueAsBytes(objToCopy), klasse);
+		} catch (IOException e) {
+			logger.error("Could not copy " + klasse.getSimpleName() + "!", e);
+			
+			return null;
+		}
+	}
+		
 	/**
 	 * @param fileName
 	 * @return string containing the file's extension 
@@ -224,36 +265,16 @@ public class FileUtilities {
 	}
 			
 	/**
-	 * Writes a CSV file from data contained within the logsOut ArrayList 
+	 * Writes a CSV file from data contained within the logsOut ArrayList, with a column for each {@link SimOuts} channel; 
+	 * see {@link TelemetryExporter} to select channels, formats and precision, or to export in the background 
 	 * 
 	 * @param file
 	 * @param logsOut
 	 * @throws IOException
 	 */
 	public static void saveToCSVFile(File file, List<Map<SimOuts, Double>> logsOut) throws IOException {
-		
-		logger.info("Saving output to: " + file.getAbsolutePath());
-		
-		BufferedWriter bw = new BufferedWriter(new FileWriter(file.getPath()));
-		
-		// First line of CSV file should have the names of each parameter
-		StringBuilder sb_line1 = new StringBuilder();
-		for (SimOuts simOut : SimOuts.values()) {
-			sb_line1.append(simOut.toString()).append(",");
-		}
-		bw.write(sb_line1.append("\n").toString());
-		
-		// Subsequent lines contain data
-		for (Map<SimOuts, Double> simOut : logsOut) {
-			StringBuilder sb = new StringBuilder();
-			for (Map.Entry<?,Double> entry : simOut.entrySet()) {
-				sb.append(entry.getValue().toString()).append(",");
-			}
-			bw.write(sb.append("\n").toString());
-		}
-		
-		bw.close();
-		
-		logger.info(file.getName() + " saved successfully!");
+		TelemetryExporter exporter = new TelemetryExporter(logsOut);
+		exporter.setOutputFromFileName(file);
+		exporter.export(file);
 	}
 }
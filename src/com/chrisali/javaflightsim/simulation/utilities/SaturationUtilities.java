@@ -93,129 +93,156 @@ public class SaturationUtilities {
 	 *  @return linearVelocities
 	 */
 	public static double[] limitLinearVelocities(double[] linearVelocities) {
-		double u = linearVelocities[0];
-		double v = linearVelocities[1];
-		double w = linearVelocities[2];
-		
-		// Airborne limits
-		if (linearVelocities[0] < 0.5)
-			u = 0.5;
-		else if (linearVelocities[0] > 1000)
-			u = 1000;
-		
-		if (linearVelocities[1] < -1000)
-			v = -1000;
-		else if (linearVelocities[1] > 1000)
-			v = 1000;
-		
-		if (linearVelocities[2] < -1000)
-			w = -1000;
-		else if (linearVelocities[2] > 1000)
-			w = 1000;
-		
-		linearVelocities[0] = u;
-		linearVelocities[1] = v;
-		linearVelocities[2] = w;
+		linearVelocities[0] = limitU(linearVelocities[0]);
+		linearVelocities[1] = limitVW(linearVelocities[1]);
+		linearVelocities[2] = limitVW(linearVelocities[2]);
 		
 		return linearVelocities;
 	}
 	
+	/**
+	 *  Limits the u, v and w velocity columns of n aircraft in place, as {@link SaturationUtilities#limitLinearVelocities(double[])} does
+	 *  for a single aircraft
+	 *  @param u
+	 *  @param v
+	 *  @param w
+	 *  @param n number of aircraft
+	 */
+	public static void limitLinearVelocities(double[] u, double[] v, double[] w, int n) {
+		for (int i = 0; i < n; i++) {
+			u[i] = limitU(u[i]);
+			v[i] = limitVW(v[i]);
+			w[i] = limitVW(w[i]);
+		}
+	}
+	
+	private static double limitU(double u) {
+		return u < 0.5  ? 0.5  : 
+			   u > 1000 ? 1000 : u;
+	}
+	
+	private static double limitVW(double velocity) {
+		return velocity < -1000 ? -1000 : 
+			   velocity >  1000 ?  1000 : velocity;
+	}
+	
 	/**
 	 *  Limits angular rates for p, q and r to +/-10 rad/sec
 	 *  @return angularRates
 	 *  @return angularRates
 	 */
 	public static double[] limitAngularRates(double[] angularRates) {
-		double p = angularRates[0];
-		double q = angularRates[1];
-		double r = angularRates[2];
-		
-		if (angularRates[0] < -10)
-			p = -10;
-		else if (angularRates[0] > 10)
-			p = 10;
-		
-		if (angularRates[1] < -10)
-			q = -10;
-		else if (angularRates[1] > 10)
-			q = -10;
-		
-		if (angularRates[2] < -10)
-			r = -10;
-		else if (angularRates[2] > 10)
-			r = 10;
-		
-		angularRates[0] = p;
-		angularRates[1] = q;
-		angularRates[2] = r;
+		angularRates[0] = limitPR(angularRates[0]);
+		angularRates[1] = limitQ(angularRates[1]);
+		angularRates[2] = limitPR(angularRates[2]);
 		
 		return angularRates;
 	}
 	
+	/**
+	 *  Limits the p, q and r angular rate columns of n aircraft in place, as {@link SaturationUtilities#limitAngularRates(double[])} does
+	 *  for a single aircraft
+	 *  @param p
+	 *  @param q
+	 *  @param r
+	 *  @param n number of aircraft
+	 */
+	public static void limitAngularRates(double[] p, double[] q, double[] r, int n) {
+		for (int i = 0; i < n; i++) {
+			p[i] = limitPR(p[i]);
+			q[i] = limitQ(q[i]);
+			r[i] = limitPR(r[i]);
+		}
+	}
+	
+	private static double limitPR(double rate) {
+		return rate < -10 ? -10 : 
+			   rate >  10 ?  10 : rate;
+	}
+	
+	private static double limitQ(double q) {
+		return q < -10 ? -10 : 
+			   q >  10 ? -10 : q;
+	}
+	
 	/**
 	 *  Limits accelerations in all directions to +/-1000 ft/sec^2
 	 *  @param linearAccelerations
 	 *  @return linearAccelerations
 	 */
 	public static double[] limitLinearAccelerations(double[] linearAccelerations) {
-		double a_x = linearAccelerations[0];
-		double a_y = linearAccelerations[1];
-		double a_z = linearAccelerations[2];
-		
-		if (linearAccelerations[0] < -1000)
-			a_x = -1000;
-		else if (linearAccelerations[0] > 1000)
-			a_x = 1000;
-		
-		if (linearAccelerations[1] < -1000)
-			a_y = -1000;
-		else if (linearAccelerations[1] > 1000)
-			a_y = -1000;
-		
-		if (linearAccelerations[2] < -1000)
-			a_z = -1000;
-		else if (linearAccelerations[2] > 1000)
-			a_z = 1000;
-		
-		linearAccelerations[0] = a_x;
-		linearAccelerations[1] = a_y;
-		linearAccelerations[2] = a_z;
+		linearAccelerations[0] = limitAxAz(linearAccelerations[0]);
+		linearAccelerations[1] = limitAy(linearAccelerations[1]);
+		linearAccelerations[2] = limitAxAz(linearAccelerations[2]);
 		
 		return linearAccelerations;
 	}
 	
+	/**
+	 *  Limits the a_x, a_y and a_z acceleration columns of n aircraft in place, as {@link SaturationUtilities#limitLinearAccelerations(double[])} 
+	 *  does for a single aircraft
+	 *  @param a_x
+	 *  @param a_y
+	 *  @param a_z
+	 *  @param n number of aircraft
+	 */
+	public static void limitLinearAccelerations(double[] a_x, double[] a_y, double[] a_z, int n) {
+		for (int i = 0; i < n; i++) {
+			a_x[i] = limitAxAz(a_x[i]);
+			a_y[i] = limitAy(a_y[i]);
+			a_z[i] = limitAxAz(a_z[i]);
+		}
+	}
+	
+	private static double limitAxAz(double acceleration) {
+		return acceleration < -1000 ? -1000 : 
+			   acceleration >  1000 ?  1000 : acceleration;
+	}
+	
+	private static double limitAy(double a_y) {
+		return a_y < -1000 ? -1000 : 
+			   a_y >  1000 ? -1000 : a_y;
+	}
+	
 	/**
 	 *  Limits moments in all directions to +/-100000 lb*ft
 	 *  @return linearMoments
 	 *  @return linearMoments
 	 */
 	public static double[] limitTotalMoments(double[] totalMoments) {
-		double m_x = totalMoments[0];
-		double m_y = totalMoments[1];
-		double m_z = totalMoments[2];
-		
-		if (totalMoments[0] < -100000)
-			m_x = -100000;
-		else if (totalMoments[0] > 100000)
-			m_x = 100000;
-		
-		if (totalMoments[1] < -100000)
-			m_y = -100000;
-		else if (totalMoments[1] > 100000)
-			m_y = -100000;
-		
-		if (totalMoments[2] < -100000)
-			m_z = -100000;
-		else if (totalMoments[2] > 100000)
-			m_z = 100000;
-		
-		totalMoments[0] = m_x;
-		totalMoments[1] = m_y;
-		totalMoments[2] = m_z;
+		totalMoments[0] = limitMxMz(totalMoments[0]);
+		totalMoments[1] = limitMy(totalMoments[1]);
+		totalMoments[2] = limitMxMz(totalMoments[2]);
 		
 		return totalMoments;
 	}
 	
+	/**
+	 *  Limits the m_x, m_y and m_z moment columns of n aircraft in place, as {@link SaturationUtilities#limitTotalMoments(double[])} 
+	 *  does for a single aircraft
+	 *  @param m_x
+	 *  @param m_y
+	 *  @param m_z
+	 *  @param n number of aircraft
+	 */
+	public static void limitTotalMoments(double[] m_x, double[] m_y, double[] m_z, int n) {
+		for (int i = 0; i < n; i++) {
+			m_x[i] = limitMxMz(m_x[i]);
+			m_y[i] = limitMy(m_y[i]);
+			m_z[i] = limitMxMz(m_z[i]);
+		}
+	}
+	
+	private static double limitMxMz(double moment) {
+		return moment < -100000 ? -100000 : 
+			   moment >  100000 ?  100000 : moment;
+	}
+	
+	private static double limitMy(double m_y) {
+		return m_y < -100000 ? -100000 : 
+			   m_y >  100000 ? -100000 : m_y;
+	}
+	
 	/**
 	 *  Limits true airspeed to 0.5-1000 ft/sec, beta to +/-Pi/4 and alpha to +/-Pi/12 
 	 *  @param windParameters
@@ -223,37 +250,48 @@ public class SaturationUtilities {
 	 */
 	public static double[] limitWindParameters(double[] windParameters) {
 		double vTrue = windParameters[0];
-		double beta  = windParameters[1];
-		double alpha = windParameters[2];
 		
-		if (windParameters[0] < 0.5)
-			vTrue = 0.5;
-		else if (windParameters[0] > 1000)
-			vTrue = 1000;
-		
-		if (windParameters[1] < -Math.PI/4)
-			beta = -Math.PI/4;
-		else if (windParameters[1] > Math.PI/4)
-			beta = Math.PI/4;
-		
-		if (windParameters[2] < -Math.PI/12)
-			alpha = -Math.PI/12;
-		else if (windParameters[2] > Math.PI/12)
-			alpha = Math.PI/12;
-		
-		// At slow speeds zero alpha and beta to prevent incorrectly large values of alpha and beta
-		if (windParameters[0] < 30) {
-			beta = 0.0;
-			alpha = 0.0;
-		}
-		
-		windParameters[0] = vTrue;
-		windParameters[1] = beta;
-		windParameters[2] = alpha;
+		windParameters[0] = limitVTrue(vTrue);
+		windParameters[1] = limitBeta(vTrue, windParameters[1]);
+		windParameters[2] = limitAlpha(vTrue, windParameters[2]);
 		
 		return windParameters;
 	}
 	
+	/**
+	 *  Limits the true airspeed, beta and alpha columns of n aircraft in place, as {@link SaturationUtilities#limitWindParameters(double[])} 
+	 *  does for a single aircraft
+	 *  @param vTrue
+	 *  @param beta
+	 *  @param alpha
+	 *  @param n number of aircraft
+	 */
+	public static void limitWindParameters(double[] vTrue, double[] beta, double[] alpha, int n) {
+		for (int i = 0; i < n; i++) {
+			beta[i]  = limitBeta(vTrue[i], beta[i]);
+			alpha[i] = limitAlpha(vTrue[i], alpha[i]);
+			vTrue[i] = limitVTrue(vTrue[i]);
+		}
+	}
+	
+	private static double limitVTrue(double vTrue) {
+		return vTrue < 0.5  ? 0.5  : 
+			   vTrue > 1000 ? 1000 : vTrue;
+	}
+	
+	// At slow speeds zero alpha and beta to prevent incorrectly large values of alpha and beta
+	private static double limitBeta(double vTrue, double beta) {
+		return vTrue < 30 		 ? 0.0 		  : 
+			   beta < -Math.PI/4 ? -Math.PI/4 : 
+			   beta >  Math.PI/4 ?  Math.PI/4 : beta;
+	}
+	
+	private static double limitAlpha(double vTrue, double alpha) {
+		return vTrue < 30 			? 0.0 		   : 
+			   alpha < -Math.PI/12 ? -Math.PI/12 : 
+			   alpha >  Math.PI/12 ?  Math.PI/12 : alpha;
+	}
+	
 	/**
 	 * Prevents from sinking too far below ground
 	 * 
@@ -268,6 +306,20 @@ public class SaturationUtilities {
 		
 		return NEDPosition;
 	}
+	
+	/**
+	 * Prevents n aircraft from sinking too far below ground, limiting their altitude column in place
+	 * 
+	 * @param altitude (ft)
+	 * @param terrainHeight height of terrain (ft) below each aircraft
+	 * @param n number of aircraft
+	 */
+	public static void limitNEDPosition(double[] altitude, double[] terrainHeight, int n) {
+		for (int i = 0; i < n; i++) {
+			if (altitude[i] < terrainHeight[i]-10)
+				altitude[i] = terrainHeight[i]-10;
+		}
+	}
 
 	/**
 	 * @param percent
@@ -19,10 +19,9 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.simulation.utilities;
 
-import java.util.Map;
 
 import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
-import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
+import com.chrisali.javaflightsim.simulation.enviroment.AtmosphereState;
 import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
 
 /**
@@ -33,24 +32,46 @@ import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
  */
 public class SixDOFUtilities {
 	
+	// WGS84 Parameters
+	private static final double WGS84_R = 6378137;    // Earth's radius [m]
+	private static final double WGS84_E = 0.08181919; // Earth's eccentricity (e)
+	private static final double FT_TO_M = 0.3048;
+	
 	/**
 	 * Calculates the direction cosine matrix needed to convert from body to NED coordinate axes 
 	 * @see <i>Source Small Unmanned Aircraft: Theory and Practice by Beard, R.W. and McLain, T.W.</i>
 	 */
 	public static double[][] body2Ned(double[] eulerAngles) {
-		double body2NedDCM[][] = new double[3][3]; //[column][row]
+		return body2Ned(eulerAngles[0], eulerAngles[1], eulerAngles[2], new double[3][3]);
+	}
+	
+	/**
+	 * Calculates the direction cosine matrix needed to convert from body to NED coordinate axes, writing the result into 
+	 * the body2NedDCM array supplied so that no allocation is needed each step of integration
+	 * 
+	 * @param phi
+	 * @param theta
+	 * @param psi
+	 * @param body2NedDCM [column][row]
+	 * @return body2NedDCM
+	 * @see <i>Source Small Unmanned Aircraft: Theory and Practice by Beard, R.W. and McLain, T.W.</i>
+	 */
+	public static double[][] body2Ned(double phi, double theta, double psi, double[][] body2NedDCM) {
+		double sinPhi = Math.sin(phi), cosPhi = Math.cos(phi);
+		double sinTheta = Math.sin(theta), cosTheta = Math.cos(theta);
+		double sinPsi = Math.sin(psi), cosPsi = Math.cos(psi);
 		
-		body2NedDCM[0][0] =  Math.cos(eulerAngles[1])*Math.cos(eulerAngles[2]);
-		body2NedDCM[1][0] =  Math.cos(eulerAngles[1])*Math.sin(eulerAngles[2]);
-		body2NedDCM[2][0] = -Math.sin(eulerAngles[1]);
+		body2NedDCM[0][0] =  cosTheta*cosPsi;
+		body2NedDCM[1][0] =  cosTheta*sinPsi;
+		body2NedDCM[2][0] = -sinTheta;
 		
-		body2NedDCM[0][1] =  Math.sin(eulerAngles[0])*Math.sin(eulerAngles[1])*Math.cos(eulerAngles[2]) - Math.cos(eulerAngles[0])*Math.sin(eulerAngles[2]);
-		body2NedDCM[1][1] =  Math.sin(eulerAngles[0])*Math.sin(eulerAngles[1])*Math.sin(eulerAngles[2]) + Math.cos(eulerAngles[0])*Math.cos(eulerAngles[2]);
-		body2NedDCM[2][1] =  Math.sin(eulerAngles[0])*Math.cos(eulerAngles[1]);
+		body2NedDCM[0][1] =  sinPhi*sinTheta*cosPsi - cosPhi*sinPsi;
+		body2NedDCM[1][1] =  sinPhi*sinTheta*sinPsi + cosPhi*cosPsi;
+		body2NedDCM[2][1] =  sinPhi*cosTheta;
 		
-		body2NedDCM[0][2] =  Math.cos(eulerAngles[0])*Math.sin(eulerAngles[1])*Math.cos(eulerAngles[2]) + Math.sin(eulerAngles[0])*Math.sin(eulerAngles[2]);
-		body2NedDCM[1][2] =  Math.cos(eulerAngles[0])*Math.sin(eulerAngles[1])*Math.sin(eulerAngles[2]) - Math.sin(eulerAngles[0])*Math.cos(eulerAngles[2]);
-		body2NedDCM[2][2] =  Math.cos(eulerAngles[0])*Math.cos(eulerAngles[1]);
+		body2NedDCM[0][2] =  cosPhi*sinTheta*cosPsi + sinPhi*sinPsi;
+		body2NedDCM[1][2] =  cosPhi*sinTheta*sinPsi - sinPhi*cosPsi;
+		body2NedDCM[2][2] =  cosPhi*cosTheta;
 				
 		return body2NedDCM;
 	}
@@ -61,18 +82,28 @@ public class SixDOFUtilities {
 	 *  @see <i>Source Small Unmanned Aircraft: Theory and Practice by Beard, R.W. and McLain, T.W.</i>
 	 */
 	public static double[] calculateInertiaCoeffs(double[] inertiaVals) { //inertiaVals[]{Ix,Iy,Iz,Ixz}
-		double[] inertiaCoeffs = new double[9];
-		
-		double gamma = (inertiaVals[0]*inertiaVals[2])-(Math.pow(inertiaVals[3], 2));
+		return calculateInertiaCoeffs(inertiaVals, new double[9]);
+	}
+	
+	/**
+	 *  Calculates the inertia coefficients used in the calculation of p, q and r dot in {@link Integrate6DOFEquations}, 
+	 *  writing the result into the inertiaCoeffs array supplied
+	 *  
+	 *  @param inertiaVals {Ix,Iy,Iz,Ixz}
+	 *  @param inertiaCoeffs
+	 *  @return inertiaCoeffs
+	 */
+	public static double[] calculateInertiaCoeffs(double[] inertiaVals, double[] inertiaCoeffs) {
+		double gamma = (inertiaVals[0]*inertiaVals[2])-(inertiaVals[3]*inertiaVals[3]);
 		
-		inertiaCoeffs[0] = (((inertiaVals[1]-inertiaVals[2])*inertiaVals[2])-(Math.pow(inertiaVals[3], 2)))/gamma;
+		inertiaCoeffs[0] = (((inertiaVals[1]-inertiaVals[2])*inertiaVals[2])-(inertiaVals[3]*inertiaVals[3]))/gamma;
 		inertiaCoeffs[1] = (inertiaVals[0]-inertiaVals[1]+inertiaVals[2])*inertiaVals[3]/gamma;
 		inertiaCoeffs[2] = inertiaVals[2]/gamma;
 		inertiaCoeffs[3] = inertiaVals[3]/gamma;
 		inertiaCoeffs[4] = (inertiaVals[2]-inertiaVals[0])/inertiaVals[1];
 		inertiaCoeffs[5] = inertiaVals[3]/inertiaVals[1];
 		inertiaCoeffs[6] = 1/inertiaVals[1];
-		inertiaCoeffs[7] = (inertiaVals[0]*(inertiaVals[0]-inertiaVals[1])+(Math.pow(inertiaVals[3], 2)))/gamma;
+		inertiaCoeffs[7] = (inertiaVals[0]*(inertiaVals[0]-inertiaVals[1])+(inertiaVals[3]*inertiaVals[3]))/gamma;
 		inertiaCoeffs[8] = inertiaVals[0]/gamma;
 		
 		return inertiaCoeffs;
@@ -83,19 +114,32 @@ public class SixDOFUtilities {
 	 * @see <i>Source Small Unmanned Aircraft: Theory and Practice by Beard, R.W. and McLain, T.W.</i>
 	 */
 	public static double[][] wind2Body(double[] windParameters) {
-		double wind2BodyDCM[][] = new double[3][3]; //[row][column]
+		return wind2Body(windParameters, new double[3][3]);
+	}
+	
+	/**
+	 * Calculates the direction cosine matrix needed to convert from wind to body coordinate axes, writing the result into 
+	 * the wind2BodyDCM array supplied
+	 * 
+	 * @param windParameters {vTrue,beta,alpha}
+	 * @param wind2BodyDCM [row][column]
+	 * @return wind2BodyDCM
+	 */
+	public static double[][] wind2Body(double[] windParameters, double[][] wind2BodyDCM) {
+		double sinBeta = Math.sin(windParameters[1]), cosBeta = Math.cos(windParameters[1]);
+		double sinAlpha = Math.sin(windParameters[2]), cosAlpha = Math.cos(windParameters[2]);
 		
-		wind2BodyDCM[0][0] =  Math.cos(windParameters[1])*Math.cos(windParameters[2]);
-		wind2BodyDCM[1][0] =  Math.sin(windParameters[1]);  
-		wind2BodyDCM[2][0] =  Math.cos(windParameters[1])*Math.sin(windParameters[2]);
+		wind2BodyDCM[0][0] =  cosBeta*cosAlpha;
+		wind2BodyDCM[1][0] =  sinBeta;  
+		wind2BodyDCM[2][0] =  cosBeta*sinAlpha;
 		
-		wind2BodyDCM[0][1] = -Math.sin(windParameters[1])*Math.cos(windParameters[2]);										
-		wind2BodyDCM[1][1] =  Math.cos(windParameters[1]);
-		wind2BodyDCM[2][1] = -Math.sin(windParameters[1])*Math.sin(windParameters[2]);
+		wind2BodyDCM[0][1] = -sinBeta*cosAlpha;										
+		wind2BodyDCM[1][1] =  cosBeta;
+		wind2BodyDCM[2][1] = -sinBeta*sinAlpha;
 		
-		wind2BodyDCM[0][2] = -Math.sin(windParameters[2]);
+		wind2BodyDCM[0][2] = -sinAlpha;
 		wind2BodyDCM[1][2] =  0; 
-		wind2BodyDCM[2][2] =  Math.cos(windParameters[2]);
+		wind2BodyDCM[2][2] =  cosAlpha;
 				
 		return wind2BodyDCM;
 	}
@@ -105,21 +149,126 @@ public class SixDOFUtilities {
 	 * @see Source: <i>G. Cai et al., Unmanned Rotorcraft Systems</i>
 	 */
 	public static double[] ned2LLA(double[] y) {
-		double[] ned2LLA = new double[2]; // Conversion factors for latitude (lambda), longitude (phi) and altitude (h)
+		return ned2LLA(y, new double[2]);
+	}
+	
+	/**
+	 * Calculates the conversion factors needed to convert between lat/lon dot and N/E dot, writing the result into 
+	 * the ned2LLA array supplied. The WGS-84 radii of curvature are in meters, so altitude is converted from feet before 
+	 * being added to them, and the factors are converted back to radians per foot of N/E position
+	 * 
+	 * @param y states ordered as in {@link com.chrisali.javaflightsim.simulation.setup.InitialConditions}, of which altitude (y[5], ft) 
+	 * and latitude (y[12], rad) are used
+	 * @param ned2LLA {phi_dot/N_dot, lambda_dot/E_dot} (rad/ft)
+	 * @return ned2LLA
+	 */
+	public static double[] ned2LLA(double[] y, double[] ned2LLA) {
+		ned2LLA[0] = latitudeRateFactor(y[12], y[5]);  // phi_dot/N_dot
+		ned2LLA[1] = longitudeRateFactor(y[12], y[5]); // lambda_dot/E_dot
+		
+		return ned2LLA;		
+	}
+	
+	/**
+	 * @param latitude (rad)
+	 * @param altitude (ft)
+	 * @return phi_dot/N_dot (rad/ft)
+	 */
+	private static double latitudeRateFactor(double latitude, double altitude) {
+		double sinLat = Math.sin(latitude);
+		double eSqSinSq = (WGS84_E*WGS84_E)*(sinLat*sinLat); //(e^2)sin^2(phi)
+		
+		double meridianRadiusCurvature = (WGS84_R*(1-(WGS84_E*WGS84_E)))/(Math.pow((1-eSqSinSq), 1.50));
 		
-		// WGS84 Parameters
-		double rEarth = 6378137; // Earth's radius [m]
-		double e = 0.08181919; // Earth's eccentricity (e)
+		return FT_TO_M/(meridianRadiusCurvature+altitude*FT_TO_M);
+	}
+	
+	/**
+	 * @param latitude (rad)
+	 * @param altitude (ft)
+	 * @return lambda_dot/E_dot (rad/ft)
+	 */
+	private static double longitudeRateFactor(double latitude, double altitude) {
+		double sinLat = Math.sin(latitude);
+		double eSqSinSq = (WGS84_E*WGS84_E)*(sinLat*sinLat); //(e^2)sin^2(phi)
 		
-		double eSqSinSq = Math.pow(e, 2.0)*Math.pow(Math.sin(y[4]),2.0); //(e^2)sin^2(phi)
+		double verticalRadiusCurvature = WGS84_R/Math.sqrt(1-eSqSinSq);
 		
-		double meridianRadiusCurvature = (rEarth*(1-Math.pow(e, 2.0)))/(Math.pow((1-eSqSinSq), 1.50));
-		double verticalRadiusCurvature = rEarth/Math.sqrt(1-eSqSinSq);
+		return FT_TO_M/((verticalRadiusCurvature+altitude*FT_TO_M)*Math.cos(latitude));
+	}
+	
+	/**
+	 * Calculates the 14 (12 6DOF + 2 lat/lon) state derivatives of n aircraft from the linear accelerations and total moments acting 
+	 * on them, writing them into yDot. States and derivatives are held in structure-of-arrays form, with one column of n values per state, 
+	 * and each group of equations is calculated in its own loop over the columns. Used by both {@link Integrate6DOFEquations} (with n = 1) 
+	 * and {@link com.chrisali.javaflightsim.simulation.integration.BatchIntegrate6DOFEquations}, so that single aircraft and batches of them 
+	 * integrate the same equations
+	 * 
+	 * @param y [state][aircraft] states ordered as in {@link com.chrisali.javaflightsim.simulation.setup.InitialConditions}
+	 * @param linearAccelerations [3][aircraft] {a_x, a_y, a_z} (ft/sec^2)
+	 * @param totalMoments [3][aircraft] {L, M, N} (lb ft)
+	 * @param inertiaCoeffs calculated by {@link SixDOFUtilities#calculateInertiaCoeffs(double[], double[])}
+	 * @param gravity (ft/sec^2)
+	 * @param windSpeedN north component of wind speed (ft/sec)
+	 * @param windSpeedE east component of wind speed (ft/sec)
+	 * @param windSpeedD down component of wind speed (ft/sec)
+	 * @param yDot [state][aircraft]
+	 * @param n number of aircraft
+	 * @return yDot
+	 * @see Source: <i>Small Unmanned Aircraft: Theory and Practice by Beard, R.W. and McLain, T.W.</i>
+	 */
+	public static double[][] calculateDerivatives(double[][] y,
+												  double[][] linearAccelerations,
+												  double[][] totalMoments,
+												  double[] inertiaCoeffs,
+												  double gravity,
+												  double windSpeedN,
+												  double windSpeedE,
+												  double windSpeedD,
+												  double[][] yDot,
+												  int n) {
+		final double[] u = y[0], v = y[1], w = y[2], alt = y[5], phi = y[6], theta = y[7], psi = y[8], p = y[9], q = y[10], r = y[11], lat = y[12];
+		final double[] uDot = yDot[0], vDot = yDot[1], wDot = yDot[2], nDot = yDot[3], eDot = yDot[4], dDot = yDot[5];
+		final double[] phiDot = yDot[6], thetaDot = yDot[7], psiDot = yDot[8], pDot = yDot[9], qDot = yDot[10], rDot = yDot[11];
+		final double[] latDot = yDot[12], lonDot = yDot[13];
 		
-		ned2LLA[0] = 1/(meridianRadiusCurvature+y[5]); 				    // phi_dot/N_dot
-		ned2LLA[1] = 1/((verticalRadiusCurvature+y[5]*Math.cos(y[4]))); // lambda_dot/E_dot
+		final double[] a_x = linearAccelerations[0], a_y = linearAccelerations[1], a_z = linearAccelerations[2];
+		final double[] l = totalMoments[0], m = totalMoments[1], nn = totalMoments[2];
+		final double[] c = inertiaCoeffs;
 		
-		return ned2LLA;		
+		// Translational and attitude kinematics, with the body to NED direction cosine matrix expanded in place
+		for (int i = 0; i < n; i++) {
+			final double sinPhi   = Math.sin(phi[i]),   cosPhi   = Math.cos(phi[i]);
+			final double sinTheta = Math.sin(theta[i]), cosTheta = Math.cos(theta[i]);
+			final double sinPsi   = Math.sin(psi[i]),   cosPsi   = Math.cos(psi[i]);
+			
+			uDot[i] = (r[i]*v[i])-(q[i]*w[i])-(gravity*sinTheta)       +a_x[i];    // u (ft/sec)
+			vDot[i] = (p[i]*w[i])-(r[i]*u[i])+(gravity*sinPhi*cosTheta)+a_y[i];    // v (ft/sec)
+			wDot[i] = (q[i]*u[i])-(p[i]*v[i])+(gravity*cosPhi*cosTheta)+a_z[i];    // w (ft/sec)
+			
+			nDot[i] =    (u[i]*cosTheta*cosPsi+v[i]*(sinPhi*sinTheta*cosPsi-cosPhi*sinPsi)+w[i]*(cosPhi*sinTheta*cosPsi+sinPhi*sinPsi))+windSpeedN; // N (ft)
+			eDot[i] =    (u[i]*cosTheta*sinPsi+v[i]*(sinPhi*sinTheta*sinPsi+cosPhi*cosPsi)+w[i]*(cosPhi*sinTheta*sinPsi-sinPhi*cosPsi))+windSpeedE; // E (ft)
+			dDot[i] = -1*(u[i]*(-sinTheta)    +v[i]*(sinPhi*cosTheta)                     +w[i]*(cosPhi*cosTheta))                     +windSpeedD; // D (ft)
+			
+			phiDot[i]   =  p[i]+(Math.tan(theta[i])*((q[i]*sinPhi)+(r[i]*cosPhi))); // phi (rad)
+			thetaDot[i] = (q[i]*cosPhi)-(r[i]*sinPhi);                          // theta (rad)
+			psiDot[i]   = ((q[i]*sinPhi)+(r[i]*cosPhi))/cosTheta;               // psi (rad)
+		}
+		
+		// Rotational dynamics
+		for (int i = 0; i < n; i++) {
+			pDot[i] = ((c[1]*p[i]*q[i]) - (c[0]*q[i])*r[i]) + (c[2]*l[i])+(c[3]*nn[i]);   // p (rad/sec)
+			qDot[i] =  (c[4]*p[i]*r[i]) - (c[5]*((p[i]*p[i])-(r[i]*r[i])))  +(c[6]*m[i]);  // q (rad/sec)
+			rDot[i] = ((c[7]*p[i]*q[i]) - (c[1]*q[i]*r[i])) + (c[3]*l[i])+(c[8]*nn[i]);   // r (rad/sec)
+		}
+		
+		// Geodetic position from the N/E rates
+		for (int i = 0; i < n; i++) {
+			latDot[i] = nDot[i]*latitudeRateFactor(lat[i], alt[i]);  // Latitude  (rad)
+			lonDot[i] = eDot[i]*longitudeRateFactor(lat[i], alt[i]); // Longitude (rad)
+		}
+		
+		return yDot;
 	}
 	
 	/**
@@ -127,11 +276,45 @@ public class SixDOFUtilities {
 	 * @see <i>Source Small Unmanned Aircraft: Theory and Practice by Beard, R.W. and McLain, T.W.</i>
 	 */
 	public static double[] calculateWindParameters(double[] linearVelocities) {
-		double vTrue = Math.sqrt(Math.pow(linearVelocities[0],2) + Math.pow(linearVelocities[1],2) + Math.pow(linearVelocities[2],2));
-		double beta = Math.asin(linearVelocities[1]/vTrue);
-		double alpha = Math.atan(linearVelocities[2]/linearVelocities[0]);
+		return calculateWindParameters(linearVelocities, new double[3]);
+	}
+	
+	/**
+	 * Calculates true airspeed, angle of sideslip and angle of attack, writing the result into the windParameters array supplied
+	 * 
+	 * @param linearVelocities
+	 * @param windParameters {vTrue,beta,alpha}
+	 * @return windParameters
+	 */
+	public static double[] calculateWindParameters(double[] linearVelocities, double[] windParameters) {
+		double vTrue = Math.sqrt((linearVelocities[0]*linearVelocities[0]) + (linearVelocities[1]*linearVelocities[1]) + (linearVelocities[2]*linearVelocities[2]));
+		
+		windParameters[0] = vTrue;
+		windParameters[1] = Math.asin(linearVelocities[1]/vTrue);
+		windParameters[2] = Math.atan(linearVelocities[2]/linearVelocities[0]);
 		
-		return SaturationUtilities.limitWindParameters(new double[] {vTrue,beta,alpha});
+		return SaturationUtilities.limitWindParameters(windParameters);
+	}
+	
+	/**
+	 * Calculates the true airspeed, angle of sideslip and angle of attack columns of n aircraft from their u, v and w velocity columns
+	 * 
+	 * @param u
+	 * @param v
+	 * @param w
+	 * @param vTrue
+	 * @param beta
+	 * @param alpha
+	 * @param n number of aircraft
+	 */
+	public static void calculateWindParameters(double[] u, double[] v, double[] w, double[] vTrue, double[] beta, double[] alpha, int n) {
+		for (int i = 0; i < n; i++) {
+			vTrue[i] = Math.sqrt((u[i]*u[i]) + (v[i]*v[i]) + (w[i]*w[i]));
+			beta[i]  = Math.asin(v[i]/vTrue[i]);
+			alpha[i] = Math.atan(w[i]/u[i]);
+		}
+		
+		SaturationUtilities.limitWindParameters(vTrue, beta, alpha, n);
 	}
 	
 	/**
@@ -140,15 +323,30 @@ public class SixDOFUtilities {
 	 */
 	public static double calculateAlphaDot(double[] linearVelocities, double[] sixDOFDerivatives) {
 		return ((linearVelocities[0]*sixDOFDerivatives[2])-(linearVelocities[2]*sixDOFDerivatives[0]))
-				/((Math.pow(linearVelocities[0], 2)+(Math.pow(linearVelocities[2], 2))));// = u*w_dot-w*u_dot/(u^2+w^2)
+				/((linearVelocities[0]*linearVelocities[0])+(linearVelocities[2]*linearVelocities[2]));// = u*w_dot-w*u_dot/(u^2+w^2)
+	}
+	
+	/**
+	 * Calculates the rate of change of angle of attack of n aircraft from their u and w velocity and derivative columns
+	 * 
+	 * @param u
+	 * @param w
+	 * @param uDot
+	 * @param wDot
+	 * @param alphaDot
+	 * @param n number of aircraft
+	 */
+	public static void calculateAlphaDot(double[] u, double[] w, double[] uDot, double[] wDot, double[] alphaDot, int n) {
+		for (int i = 0; i < n; i++)
+			alphaDot[i] = ((u[i]*wDot[i])-(w[i]*uDot[i]))/((u[i]*u[i])+(w[i]*w[i]));
 	}
 	
 	/**
 	 * Calculates Mach number
 	 * @see <i>Source Small Unmanned Aircraft: Theory and Practice by Beard, R.W. and McLain, T.W.</i>
 	 */
-	public static double calculateMach(double[] windParameters, Map<EnvironmentParameters, Double> environmentParameters) {
-		return windParameters[0]/environmentParameters.get(EnvironmentParameters.A);
+	public static double calculateMach(double[] windParameters, AtmosphereState atmosphereState) {
+		return windParameters[0]/atmosphereState.getSpeedOfSound();
 	}
 	
 	/**
@@ -23,13 +23,21 @@ import java.io.File;
 
 import javax.swing.filechooser.FileFilter;
 
+import com.chrisali.javaflightsim.simulation.telemetry.TelemetryExporter;
 import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
 
 public class CSVFileFilter extends FileFilter {
 
 	@Override
 	public boolean accept(File file) {
-		if (file.isDirectory() || FileUtilities.getFileExtension(file.getName()).contains("csv"))
+		String fileName = file.getName().toLowerCase();
+		
+		if (fileName.endsWith(TelemetryExporter.GZIP_EXTENSION))
+			fileName = fileName.substring(0, fileName.length() - TelemetryExporter.GZIP_EXTENSION.length());
+		
+		String extension = FileUtilities.getFileExtension(fileName);
+		
+		if (file.isDirectory() || extension.contains("csv") || extension.contains("tsv"))
 			return true;
 		else
 			return false;
@@ -37,7 +45,7 @@ public class CSVFileFilter extends FileFilter {
 
 	@Override
 	public String getDescription() {
-		return "Comma-separated values (.csv) file";
+		return "Comma or tab separated values (.csv, .tsv, .csv.gz) file";
 	}
 
 }
@@ -20,6 +20,7 @@
 package com.chrisali.javaflightsim.swing.consoletable;
 
 import java.awt.BorderLayout;
+import java.awt.Rectangle;
 
 import java.util.List;
 import java.util.Map;
@@ -27,52 +28,84 @@ import java.util.Map;
 import javax.swing.JComponent;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
-import javax.swing.SwingWorker;
+import javax.swing.Timer;
 
 import com.chrisali.javaflightsim.simulation.integration.SimOuts;
 
+/**
+ * Table of all simulation outputs, which is updated with rows as they are logged while refreshing. When auto scrolling, the table 
+ * scrolls to the newest row as rows are added; when frozen, no rows are added or removed until it is unfrozen  
+ */
 public class ConsoleTableComponent extends JComponent {
 
-    private static final long serialVersionUID = 1L;
+	private static final long serialVersionUID = 1L;
+	
+	private static final int REFRESH_PERIOD_MS = 100;
 
-    private JTable table;
-    private ConsoleTableModel consoleTableModel;
-    private SwingWorker<Void, Integer> tableRefreshWorker;
+	private JTable table;
+	private ConsoleTableModel consoleTableModel;
+	private Timer tableRefreshTimer;
+	
+	private boolean autoScroll = true;
+	private boolean frozen = false;
 
-    public ConsoleTableComponent(List<Map<SimOuts, Double>> logsOut) {
-        consoleTableModel = new ConsoleTableModel();
+	public ConsoleTableComponent(List<Map<SimOuts, Double>> logsOut) {
+		consoleTableModel = new ConsoleTableModel();
 		consoleTableModel.setData(logsOut);
 		
 		setLayout(new BorderLayout());
-        
+		
 		table = new JTable(consoleTableModel);
 		table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
 		table.setColumnSelectionAllowed(true);
-        table.setRowSelectionAllowed(true);
-
-        tableRefreshWorker = new SwingWorker<Void, Integer>() {
-			@Override
-			protected void done() {}
+		table.setRowSelectionAllowed(true);
 
-			@Override
-			protected Void doInBackground() throws Exception {
-				while (true) {
-					consoleTableModel.fireTableDataChanged();
-					Thread.sleep(100);
-				}
-			}
-		};
-        
-        setPreferredSize(getToolkit().getScreenSize());
-    
-        add(new JScrollPane(table), BorderLayout.CENTER);
-    }
+		// Runs on the event dispatch thread, and does nothing unless rows were logged or evicted
+		tableRefreshTimer = new Timer(REFRESH_PERIOD_MS, ev -> refreshTable());
+		
+		setPreferredSize(getToolkit().getScreenSize());
+	
+		add(new JScrollPane(table), BorderLayout.CENTER);
+	}
+	
+	private void refreshTable() {
+		if (frozen)
+			return;
+		
+		if (consoleTableModel.refresh() > 0 && autoScroll) {
+			Rectangle visible = table.getVisibleRect();
+			Rectangle newest = table.getCellRect(consoleTableModel.getRowCount() - 1, 0, true);
+			
+			table.scrollRectToVisible(new Rectangle(visible.x, newest.y, visible.width, newest.height));
+		}
+	}
 
-    public void startTableRefresh() {
-		tableRefreshWorker.execute();
+	public void startTableRefresh() {
+		tableRefreshTimer.start();
 	}
 
 	public void stopTableRefresh() {
-		tableRefreshWorker.cancel(true);
+		tableRefreshTimer.stop();
+	}
+	
+	public boolean isAutoScroll() { return autoScroll; }
+
+	/**
+	 * @param autoScroll if the table should scroll to the newest row as rows are added
+	 */
+	public void setAutoScroll(boolean autoScroll) {
+		this.autoScroll = autoScroll;
+	}
+	
+	public boolean isFrozen() { return frozen; }
+
+	/**
+	 * @param frozen if the table should stop adding and removing rows, to inspect those it has
+	 */
+	public void setFrozen(boolean frozen) {
+		this.frozen = frozen;
+		
+		if (!frozen)
+			refreshTable();
 	}
-}
\ No newline at end of file
+}
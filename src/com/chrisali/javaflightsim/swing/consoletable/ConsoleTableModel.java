@@ -19,22 +19,90 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.swing.consoletable;
 
+import java.text.DecimalFormat;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 import javax.swing.table.AbstractTableModel;
 
 import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.telemetry.TelemetryStore;
 
+/**
+ * Table model with a row for each row of simulation outputs held in a {@link TelemetryStore}, read directly from the store, and 
+ * a column for each {@link SimOuts} channel. {@link #refresh()} checks which rows the store holds without taking any locks, and
+ * notifies the table only of the rows evicted or appended since it was last called, so that the table repaints only the rows
+ * that changed. A row is read from the store once as the table paints it, and each of its cells formatted only if painted, with
+ * formatters owned by this model 
+ */
 public class ConsoleTableModel extends AbstractTableModel {
 
 	private static final long serialVersionUID = 4210192628630933689L;
 	
-	private List<Map<SimOuts, Double>> logsOut;
+	private static final String NO_VALUE = "-";
+	
 	private SimOuts[] columnNames = SimOuts.values();
+	private DecimalFormat[] formats = new DecimalFormat[columnNames.length];
+	
+	private TelemetryStore store;
+	
+	// Index in the store of the first row of the table, and the number of rows the table has been notified of
+	private long firstIndex = 0;
+	private int rowCount = 0;
+	
+	// Row of the store last read, with its cells formatted as they are painted
+	private long cachedIndex = -1;
+	private boolean cachedRowHeld = false;
+	private double[] cachedRow = new double[columnNames.length];
+	private String[] cachedCells = new String[columnNames.length];
+	
+	public ConsoleTableModel() {
+		// DecimalFormat is not thread safe, so this model formats with copies of its own
+		for (int col = 0; col < columnNames.length; col++)
+			formats[col] = (DecimalFormat) columnNames[col].getFormat().clone();
+	}
 	
 	protected void setData(List<Map<SimOuts, Double>> list) {
-		this.logsOut = list;
+		store = TelemetryStore.of(list);
+		firstIndex = store.getFirstIndex();
+		rowCount = 0;
+		cachedIndex = -1;
+		
+		fireTableDataChanged();
+		refresh();
+	}
+	
+	/**
+	 * Notifies the table of the rows evicted from the store, and then of the rows appended to it, since last called
+	 * 
+	 * @return number of rows appended
+	 */
+	protected int refresh() {
+		if (store == null)
+			return 0;
+		
+		final long endIndex = store.getEndIndex();
+		final long first = Math.min(store.getFirstIndex(), endIndex);
+		
+		if (first > firstIndex) {
+			int evicted = (int) Math.min(rowCount, first - firstIndex);
+			
+			firstIndex = first;
+			if (evicted > 0) {
+				rowCount -= evicted;
+				fireTableRowsDeleted(0, evicted - 1);
+			}
+		}
+		
+		int appended = (int) Math.min(endIndex - firstIndex, Integer.MAX_VALUE) - rowCount;
+		if (appended > 0) {
+			int fromRow = rowCount;
+			rowCount += appended;
+			fireTableRowsInserted(fromRow, rowCount - 1);
+		}
+		
+		return Math.max(appended, 0);
 	}
 
 	@Override
@@ -44,19 +112,26 @@ public class ConsoleTableModel extends AbstractTableModel {
 
 	@Override
 	public int getRowCount() {
-		return (logsOut == null) ? 0 : logsOut.size();
+		return rowCount;
 	}
 
 	@Override
 	public Object getValueAt(int row, int col) {
-		try {
-			Map<SimOuts, Double> simOutMap = logsOut.get(row);
-			SimOuts simOut = SimOuts.getByIndex(col);
-			
-			return simOut.getFormat().format(simOutMap.get(simOut));
-		} catch (IllegalArgumentException e) {
-			return "-";
+		final long index = firstIndex + row;
+		
+		if (index != cachedIndex) {
+			cachedRowHeld = store.read(index, cachedRow);
+			cachedIndex = index;
+			Arrays.fill(cachedCells, null);
 		}
+		
+		if (!cachedRowHeld || Double.isNaN(cachedRow[col]))
+			return NO_VALUE;
+		
+		if (cachedCells[col] == null)
+			cachedCells[col] = formats[col].format(cachedRow[col]);
+		
+		return cachedCells[col];
 	}
 	
 	@Override
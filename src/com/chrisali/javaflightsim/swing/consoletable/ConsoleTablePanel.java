@@ -25,9 +25,11 @@ import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.io.File;
 import java.util.List;
 import java.util.Map;
 
+import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JMenu;
@@ -35,21 +37,22 @@ import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
 
 import com.chrisali.javaflightsim.simulation.integration.SimOuts;
-import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
-
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import com.chrisali.javaflightsim.simulation.telemetry.ExportListener;
+import com.chrisali.javaflightsim.simulation.telemetry.TelemetryExporter;
+import com.chrisali.javaflightsim.swing.plotting.ProgressDialog;
 
 public class ConsoleTablePanel extends JFrame {
 
 	private static final long serialVersionUID = 555700867777925736L;
 	
-	private static final Logger logger = LogManager.getLogger(ConsoleTablePanel.class);
+	private static final int PROGRESS_STEPS = 100;
 
 	private List<Map<SimOuts, Double>> logsOut;
 	private ConsoleTableComponent tableComponent;
+	private ExportOptionsPanel exportOptionsPanel = new ExportOptionsPanel();
 	
 	/**
 	 * Generates a Swing window with a JTable to display a table of all simulation outputs
@@ -105,15 +108,8 @@ public class ConsoleTablePanel extends JFrame {
 		exportItem.setMnemonic(KeyEvent.VK_E);
 		exportItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_E, ActionEvent.CTRL_MASK));
 		exportItem.addActionListener(ev -> {
-			if (fileChooser.showSaveDialog(ConsoleTablePanel.this) == JFileChooser.APPROVE_OPTION) {
-				try {
-					FileUtilities.saveToCSVFile(fileChooser.getSelectedFile(), logsOut);
-				} catch (Exception ex) {
-					JOptionPane.showMessageDialog(ConsoleTablePanel.this, 
-							"Could not save data to file", "Error", JOptionPane.ERROR_MESSAGE);
-					logger.error("Unable to save CSV file!", ex);
-				}
-			}
+			if (fileChooser.showSaveDialog(ConsoleTablePanel.this) == JFileChooser.APPROVE_OPTION && showExportOptions())
+				exportDataTable(fileChooser.getSelectedFile());
 		});
 		fileMenu.add(exportItem);
 		
@@ -127,13 +123,88 @@ public class ConsoleTablePanel extends JFrame {
 		});
 		fileMenu.add(exitItem);
 		
+		//+++++++++++++++++++++++++ View Menu ++++++++++++++++++++++++++++++++++++++++++
+		
+		JMenu viewMenu = new JMenu("View");
+		viewMenu.setMnemonic(KeyEvent.VK_V);
+		
+		//------------------- Auto Scroll Item ----------------------------
+		
+		JCheckBoxMenuItem autoScrollItem = new JCheckBoxMenuItem("Auto Scroll", tableComponent.isAutoScroll());
+		autoScrollItem.setMnemonic(KeyEvent.VK_A);
+		autoScrollItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_A, ActionEvent.CTRL_MASK | ActionEvent.SHIFT_MASK));
+		autoScrollItem.addActionListener(ev -> tableComponent.setAutoScroll(autoScrollItem.isSelected()));
+		viewMenu.add(autoScrollItem);
+		
+		//----------------------- Freeze Item -----------------------------
+		
+		JCheckBoxMenuItem freezeItem = new JCheckBoxMenuItem("Freeze", tableComponent.isFrozen());
+		freezeItem.setMnemonic(KeyEvent.VK_F);
+		freezeItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_F, ActionEvent.CTRL_MASK));
+		freezeItem.addActionListener(ev -> tableComponent.setFrozen(freezeItem.isSelected()));
+		viewMenu.add(freezeItem);
+		
 		//===========================================================================
 		//                              Menu Bar
 		//===========================================================================
 		
 		JMenuBar menuBar = new JMenuBar();
 		menuBar.add(fileMenu);
+		menuBar.add(viewMenu);
 		
 		return menuBar;
 	}
+	
+	/**
+	 * Shows an {@link ExportOptionsPanel} to select the channels and precision to export
+	 * 
+	 * @return if the export was confirmed with at least one channel selected
+	 */
+	private boolean showExportOptions() {
+		int result = JOptionPane.showConfirmDialog(this, exportOptionsPanel, "Export Options", 
+												   JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+		
+		return result == JOptionPane.OK_OPTION && exportOptionsPanel.hasSelectedChannels();
+	}
+	
+	/**
+	 * Exports the channels selected in the export options from logsOut to a file on a background thread, showing its progress in a {@link ProgressDialog} whose cancel button stops 
+	 * the export
+	 * 
+	 * @param file
+	 */
+	private void exportDataTable(File file) {
+		TelemetryExporter exporter = new TelemetryExporter(logsOut);
+		exporter.setOutputFromFileName(file);
+		exportOptionsPanel.applyTo(exporter);
+		
+		ProgressDialog progressDialog = new ProgressDialog(this, "Exporting Data");
+		progressDialog.setMaximum(PROGRESS_STEPS);
+		progressDialog.setProgressDialogListener(() -> exporter.cancel());
+		progressDialog.setVisible(true);
+		
+		exporter.exportInBackground(file, new ExportListener() {
+			@Override
+			public void onExportProgress(long rowsWritten, long totalRows) {
+				SwingUtilities.invokeLater(() -> progressDialog.setValue((int) (PROGRESS_STEPS * rowsWritten / totalRows)));
+			}
+			
+			@Override
+			public void onExportComplete(File file, long rowsWritten) {
+				progressDialog.setVisible(false);
+			}
+			
+			@Override
+			public void onExportFailed(File file, Exception e) {
+				progressDialog.setVisible(false);
+				SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(ConsoleTablePanel.this, 
+						"Could not save data to file", "Error", JOptionPane.ERROR_MESSAGE));
+			}
+			
+			@Override
+			public void onExportCancelled(File file) {
+				progressDialog.setVisible(false);
+			}
+		});
+	}
 }
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.swing.consoletable;
+
+import java.awt.Dimension;
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.awt.Insets;
+
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.ListSelectionModel;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.telemetry.TelemetryExporter;
+
+/**
+ * Panel shown before exporting console output, which selects the {@link SimOuts} channels to export and the number of decimal places
+ * to round their values to, and sets them on a {@link TelemetryExporter}
+ */
+public class ExportOptionsPanel extends JPanel {
+	
+	private static final long serialVersionUID = -6135716843212480514L;
+	
+	private static final String FULL_PRECISION = "Full";
+	
+	/** Decimal places selected when the panel is shown; finer than any of the formats of {@link SimOuts} */
+	private static final int DEFAULT_DECIMAL_PLACES = 6;
+	
+	private JList<SimOuts> channelList;
+	private JComboBox<String> precisionComboBox;
+	
+	public ExportOptionsPanel() {
+		setLayout(new GridBagLayout());
+		
+		int margins = 5;
+		Insets spacer = new Insets(margins, margins, margins, margins);
+		
+		GridBagConstraints gc = new GridBagConstraints();
+		gc.insets = spacer;
+		gc.gridy = 0;
+		
+		//------------------- Channels List ----------------------------
+		
+		gc.gridx = 0;
+		gc.anchor = GridBagConstraints.NORTHEAST;
+		add(new JLabel("Channels:"), gc);
+		
+		gc.gridx = 1;
+		gc.anchor = GridBagConstraints.WEST;
+		gc.fill = GridBagConstraints.BOTH;
+		gc.weightx = 1;
+		gc.weighty = 1;
+		channelList = new JList<>(SimOuts.values());
+		channelList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+		channelList.setSelectionInterval(0, SimOuts.values().length - 1);
+		JScrollPane channelScrollPane = new JScrollPane(channelList);
+		channelScrollPane.setPreferredSize(new Dimension(250, 300));
+		add(channelScrollPane, gc);
+		
+		//------------------- Precision Combo Box ----------------------
+		gc.gridy++;
+		
+		gc.gridx = 0;
+		gc.anchor = GridBagConstraints.EAST;
+		gc.fill = GridBagConstraints.NONE;
+		gc.weightx = 0;
+		gc.weighty = 0;
+		add(new JLabel("Decimal Places:"), gc);
+		
+		gc.gridx = 1;
+		gc.anchor = GridBagConstraints.WEST;
+		precisionComboBox = new JComboBox<>();
+		for (int places = 0; places <= TelemetryExporter.MAX_DECIMAL_PLACES; places++)
+			precisionComboBox.addItem(String.valueOf(places));
+		precisionComboBox.addItem(FULL_PRECISION);
+		precisionComboBox.setSelectedItem(String.valueOf(DEFAULT_DECIMAL_PLACES));
+		add(precisionComboBox, gc);
+	}
+	
+	/**
+	 * @return if any channels are selected to export
+	 */
+	public boolean hasSelectedChannels() {
+		return !channelList.isSelectionEmpty();
+	}
+	
+	/**
+	 * Sets the channels and precision selected on an exporter
+	 *
+	 * @param exporter
+	 */
+	public void applyTo(TelemetryExporter exporter) {
+		exporter.setChannels(channelList.getSelectedValuesList().toArray(new SimOuts[0]));
+		
+		String precision = (String) precisionComboBox.getSelectedItem();
+		exporter.setPrecision(FULL_PRECISION.equals(precision) ? TelemetryExporter.FULL_PRECISION : Integer.parseInt(precision));
+	}
+}
@@ -35,6 +35,7 @@ import javax.swing.JMenuItem;
 import javax.swing.JTabbedPane;
 import javax.swing.KeyStroke;
 import javax.swing.SwingWorker;
+import javax.swing.Timer;
 import javax.swing.WindowConstants;
 
 import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
@@ -43,16 +44,22 @@ import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
 import com.chrisali.javaflightsim.swing.plotting.PlotConfiguration.SubPlotBundle;
 
 /**
- * Generates a window of JFreeChart plots in tabs containing relevant data from the simulation
+ * Generates a window of JFreeChart plots in tabs containing relevant data from the simulation. While the window is 
+ * shown, the plots are updated with data logged since they were last updated every {@link #REFRESH_PERIOD_MS}
  */
 public class PlotWindow extends JFrame implements ProgressDialogListener {
 
 	private static final long serialVersionUID = -4197697777449504415L;
+	
+	private static final int REFRESH_PERIOD_MS = 125;
 		
 	private JTabbedPane tabPane;
 	private SwingWorker<Void, Integer> tabPaneWorker;
-	private Thread refreshPlotThread;
+	private Timer refreshPlotTimer;
 	private ProgressDialog progressDialog;
+	
+	// Added to by tabPaneWorker while the plots may be cleared on the event dispatch thread
+	private List<SimulationPlot> simulationPlots = new CopyOnWriteArrayList<>();
 
 	private PlotConfiguration plotConfiguration;
 	private List<Map<SimOuts, Double>> logsOut;
@@ -82,6 +89,17 @@ public class PlotWindow extends JFrame implements ProgressDialogListener {
 				PlotWindow.this.setSize(tabPane.getMinimumSize());
 		});
 
+		// Stops once the window is hidden, as when it is replaced by a new window for a new simulation
+		refreshPlotTimer = new Timer(REFRESH_PERIOD_MS, ev -> {
+			if (!isVisible()) {
+				refreshPlotTimer.stop();
+				return;
+			}
+			
+			for (SimulationPlot plot : simulationPlots)
+				plot.updateXYSeriesData();
+		});
+		
 		if (logsOut != null && plotConfiguration != null)
 			initializePlots();
 		
@@ -98,8 +116,7 @@ public class PlotWindow extends JFrame implements ProgressDialogListener {
 			public void windowClosing(WindowEvent e) {
 				setVisible(false);
 				
-				if (refreshPlotThread != null)
-					refreshPlotThread.interrupt();
+				refreshPlotTimer.stop();
 				if (tabPaneWorker != null)
 					tabPaneWorker.cancel(true);
 			}
@@ -147,10 +164,8 @@ public class PlotWindow extends JFrame implements ProgressDialogListener {
 		clearPlotsItem.setMnemonic(KeyEvent.VK_E);
 		clearPlotsItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_E, ActionEvent.CTRL_MASK));
 		clearPlotsItem.addActionListener(ev -> {
-			logsOut.clear();
-			
-			if (logsOut != null && plotConfiguration != null)
-				initializePlots();
+			for (SimulationPlot plot : simulationPlots)
+				plot.clear();
 		});
 		plotsMenu.add(clearPlotsItem);
 		
@@ -169,6 +184,8 @@ public class PlotWindow extends JFrame implements ProgressDialogListener {
 	 * Initalizes the plot window by generating plot objects and adding them to a tabbed pane 
 	 */
 	private void initializePlots() {
+		refreshPlotTimer.stop();
+		
 		//-------------- Progress Dialog ----------------------------
 		progressDialog = new ProgressDialog(this, "Refreshing Plots");
 		progressDialog.setProgressDialogListener(this);
@@ -187,6 +204,8 @@ public class PlotWindow extends JFrame implements ProgressDialogListener {
 				
 				if (!isVisible())
 					setVisible(true);
+				
+				refreshPlotTimer.start();
 			}
 			
 			@Override
@@ -197,27 +216,26 @@ public class PlotWindow extends JFrame implements ProgressDialogListener {
 			
 			@Override
 			protected Void doInBackground() throws Exception {
-				try {
-					int count = 0;
-					
-					tabPane.removeAll();
+				int count = 0;
+				
+				tabPane.removeAll();
+				simulationPlots.clear();
+				
+				Map<String, SubPlotBundle> subPlotBundles = plotConfiguration.getSubPlotBundles();
+				
+				// Each plot reads the rows it needs from logsOut, so it is not copied
+				for (Map.Entry<String, SubPlotBundle> entry : subPlotBundles.entrySet()) {
+					if (isCancelled())
+						break;
 					
-					Map<String, SubPlotBundle> subPlotBundles = plotConfiguration.getSubPlotBundles();
+					SimulationPlot plotObject = new SimulationPlot(logsOut, entry.getValue());
 					
-					// Copy to thread-safe ArrayList
-					CopyOnWriteArrayList<Map<SimOuts, Double>> cowLogsOut = new CopyOnWriteArrayList<>(logsOut);
+					tabPane.add(entry.getKey(), plotObject);
+					simulationPlots.add(plotObject);
 					
-					for (Map.Entry<String, SubPlotBundle> entry : subPlotBundles.entrySet()) {
-						SimulationPlot plotObject = new SimulationPlot(cowLogsOut, entry.getValue());
-						
-						Thread.sleep(125);
-						
-						tabPane.add(entry.getKey(), plotObject);
-						
-						count++;
-						publish(count);
-					}
-				} catch (InterruptedException e) {}
+					count++;
+					publish(count);
+				}
 				
 				return null;
 			}
@@ -228,6 +246,7 @@ public class PlotWindow extends JFrame implements ProgressDialogListener {
 	
 	@Override
 	public void ProgressDialogCancelled() {
-		refreshPlotThread.interrupt();
+		if (tabPaneWorker != null)
+			tabPaneWorker.cancel(true);
 	}
 }
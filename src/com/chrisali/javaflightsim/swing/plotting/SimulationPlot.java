@@ -21,7 +21,6 @@ package com.chrisali.javaflightsim.swing.plotting;
 
 import java.awt.BorderLayout;
 import java.awt.Dimension;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -42,6 +41,9 @@ import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
 
 import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.telemetry.MinMaxDecimator;
+import com.chrisali.javaflightsim.simulation.telemetry.TelemetryCursor;
+import com.chrisali.javaflightsim.simulation.telemetry.TelemetrySnapshot;
 import com.chrisali.javaflightsim.swing.plotting.PlotConfiguration.SubPlotBundle;
 import com.chrisali.javaflightsim.swing.plotting.PlotConfiguration.SubPlotOptions;
 
@@ -49,6 +51,10 @@ import com.chrisali.javaflightsim.swing.plotting.PlotConfiguration.SubPlotOption
  * Contains a {@link CombinedDomainXYPlot} object, consisting of group of {@link XYPlot} objects.   
  * It generates a plot in Swing as a JComponent used in the JTabbedPane of {@link PlotWindow}. 
  * The plot created depends on the settings contained in {@link SubPlotBundle}
+ * 
+ * <p>Each time the plot is updated, only the rows logged since it was last updated are read, and each series is decimated to the 
+ * minimum and maximum values in a bucket of time about a pixel column wide with {@link MinMaxDecimator}, so updating the plot takes 
+ * the same time and each series holds at most a few thousand points, however long the simulation has run</p>
  */
 public class SimulationPlot extends JComponent {
 
@@ -56,6 +62,14 @@ public class SimulationPlot extends JComponent {
 
 	private static final Logger logger = LogManager.getLogger(SimulationPlot.class);
 	
+	// Rows read at once when updating, to bound the memory used to read a long run
+	private static final int MAX_ROWS_PER_READ = 65536;
+	
+	// Narrower than any simulation time step, so that buckets are first merged only once there are too many
+	private static final double INITIAL_BUCKET_WIDTH = 1e-3;
+	
+	private static final int MIN_BUCKETS = 100;
+	
 	private List<XYPlot> plotList;
 	
 	private Map<SimOuts, XYSeries> xySeriesData;
@@ -69,6 +83,16 @@ public class SimulationPlot extends JComponent {
 	private CombinedDomainXYPlot combinedDomPlot;
 
 	private JFreeChart chart;
+	
+	private TelemetryCursor cursor;
+	
+	private SimOuts xData;
+	
+	private SimOuts[] channels;
+	
+	private Map<SimOuts, MinMaxDecimator> decimators;
+	
+	private double lastTime = Double.NaN;
 
 	/**
 	 * Creates plots for data contained in the logsOut List using configuration defined in
@@ -84,9 +108,11 @@ public class SimulationPlot extends JComponent {
 		xySeriesData = new LinkedHashMap<>();
 		xyCollections = new LinkedHashMap<>();
 		rangeAxes = new LinkedHashMap<>();
+		decimators = new LinkedHashMap<>();
+		cursor = new TelemetryCursor(logsOut);
 		
 		try {
-			createPlots(logsOut, bundle);			
+			createPlots(bundle);			
 		} catch (Exception e) {
 			logger.error("An error occurred while trying to create the " + bundle.getTitle() + " plots!", e);
 		}
@@ -127,16 +153,19 @@ public class SimulationPlot extends JComponent {
 	 * puts the XYPlot objects into {@link plotList}. The types of {@link XYPlot} objects generated 
 	 * comes from settings in {@link SubPlotBundle}
 	 * 
-	 * @param logsOut
 	 * @param bundle
 	 */
-	private void createPlots(List<Map<SimOuts, Double>> logsOut, SubPlotBundle bundle) {		
+	private void createPlots(SubPlotBundle bundle) {		
+		final int maxBuckets = Math.max(MIN_BUCKETS, bundle.getSizeXPixels());
+		
 		for (SubPlotOptions option : bundle.getSubPlots()) {
 			XYSeriesCollection collection = new XYSeriesCollection();
 			
+			// Points are kept in the order logged, so that plots against values other than time are drawn as a path
 			for (SimOuts simout : option.getyData()) {
-				XYSeries series = new XYSeries(simout.toString());
+				XYSeries series = new XYSeries(simout.toString(), false, true);
 				xySeriesData.put(simout, series);
+				decimators.put(simout, new MinMaxDecimator(maxBuckets, INITIAL_BUCKET_WIDTH));
 				collection.addSeries(series);				
 			}
 						
@@ -148,7 +177,14 @@ public class SimulationPlot extends JComponent {
 		
 		combinedDomPlot = new CombinedDomainXYPlot(domainAxis);
 		
-		updateXYSeriesData(logsOut, bundle);
+		xData = bundle.getSubPlots().get(0).getxData();
+		
+		List<SimOuts> channelList = new LinkedList<>(xySeriesData.keySet());
+		channelList.add(xData);
+		channelList.add(SimOuts.TIME);
+		channels = channelList.toArray(new SimOuts[channelList.size()]);
+		
+		updateXYSeriesData();
 
 		for (Map.Entry<String, XYSeriesCollection> entry : xyCollections.entrySet()) {
 			logger.info("Creating a subplot called: " + entry.getKey() + "...");
@@ -163,42 +199,86 @@ public class SimulationPlot extends JComponent {
 	}
 	
 	/**
-	 * Update {@link XYSeries} objects with new data from a thread-safe logsOut list
-	 * 
-	 * @param logsOut
-	 * @param bundle
+	 * Update {@link XYSeries} objects with the data logged since they were last updated. If time has gone back since then, as when 
+	 * the simulation is reset, the plots are cleared and start again from the reset
 	 */
-	protected void updateXYSeriesData(List<Map<SimOuts, Double>> logsOut, SubPlotBundle bundle) {
-		// Clear old XV series values 
-		for (Map.Entry<SimOuts, XYSeries> entry : xySeriesData.entrySet())
-			entry.getValue().clear();
+	public synchronized void updateXYSeriesData() {
+		TelemetrySnapshot snapshot;
 		
-		// Only notify of a SeriesChangeEvent at the end of the loop
-		for (Iterator<Map<SimOuts, Double>> logsOutItr = logsOut.iterator(); logsOutItr.hasNext();) {
-			Map<SimOuts, Double> simOut = logsOutItr.next();
+		while ((snapshot = cursor.readNew(MAX_ROWS_PER_READ, channels)).size() > 0) {
+			double[] time = snapshot.getColumn(SimOuts.TIME);
+			double[] x = snapshot.getColumn(xData);
 			
-			for (Map.Entry<SimOuts, XYSeries> entry : xySeriesData.entrySet()) {
-				SimOuts yVal = entry.getKey();
-				SimOuts xVal = bundle.getSubPlots().get(0).getxData();
+			// Only the rows since the last reset are kept
+			int firstRow = 0;
+			for (int row = 0; row < snapshot.size(); row++) {
+				if (time[row] < lastTime) {
+					decimators.values().forEach(MinMaxDecimator::clear);
+					firstRow = row;
+				}
+				
+				lastTime = time[row];
+			}
 			
-				entry.getValue().add(simOut.get(xVal), simOut.get(yVal), !logsOutItr.hasNext());
-			}						
+			for (Map.Entry<SimOuts, MinMaxDecimator> entry : decimators.entrySet()) {
+				double[] y = snapshot.getColumn(entry.getKey());
+				MinMaxDecimator decimator = entry.getValue();
+				
+				for (int row = firstRow; row < snapshot.size(); row++)
+					decimator.add(time[row], x[row], y[row]);
+			}
 		}
 		
-		// Bound the minimum X Axis value to the first time value in the data series
+		updateSeries();
+	}
+	
+	/**
+	 * Replaces only the points of each {@link XYSeries} changed since it was last updated with those of its decimator, notifying  
+	 * the plots once for each series, and bounds the X Axis to the data series
+	 */
+	private void updateSeries() {
+		double minX = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		
 		for (Map.Entry<SimOuts, XYSeries> entry : xySeriesData.entrySet()) {
 			XYSeries series = entry.getValue();
-			domainAxis.setRange(series.getMinX(), series.getMaxX());
-		}
+			MinMaxDecimator decimator = decimators.get(entry.getKey());
+			
+			int changedFrom = decimator.getChangedFrom();
+			if (changedFrom < decimator.size() || changedFrom < series.getItemCount()) {
+				series.setNotify(false);
+				
+				if (changedFrom < series.getItemCount())
+					series.delete(changedFrom, series.getItemCount() - 1);
+				
+				for (int point = changedFrom; point < decimator.size(); point++)
+					series.add(decimator.getX(point), decimator.getY(point), false);
 				
-		// Update with new time axis
-		combinedDomPlot.setDomainAxis(domainAxis);
-		for (int i = 0; i < combinedDomPlot.getRangeAxisCount(); i++) {
-			if (combinedDomPlot.getRangeAxis(i) != null) {
-				combinedDomPlot.getRangeAxis(i).setAutoRange(false);
-				combinedDomPlot.getRangeAxis(i).resizeRange(3);
+				series.setNotify(true);
+			}
+			
+			decimator.clearChanges();
+			
+			if (series.getItemCount() > 0) {
+				minX = Math.min(minX, series.getMinX());
+				maxX = Math.max(maxX, series.getMaxX());
 			}
 		}
+		
+		// Bound the minimum X Axis value to the first time value in the data series
+		if (minX < maxX)
+			domainAxis.setRange(minX, maxX);
+	}
+	
+	/**
+	 * Clears all plots, so that only data logged afterwards is plotted
+	 */
+	public synchronized void clear() {
+		cursor.skipToEnd();
+		lastTime = Double.NaN;
+		
+		decimators.values().forEach(MinMaxDecimator::clear);
+		updateSeries();
 	}
 
 	/**
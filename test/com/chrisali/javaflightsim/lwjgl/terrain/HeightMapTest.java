@@ -0,0 +1,109 @@
+package com.chrisali.javaflightsim.lwjgl.terrain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.lwjgl.utilities.OTWDirectories;
+import com.chrisali.javaflightsim.lwjgl.utilities.OTWFiles;
+
+public class HeightMapTest {
+
+	private static final String HEIGHT_MAP = "heightMap";
+	private static final float MAX_PIXEL_COLOR = 256 * 256 * 256;
+
+	private static BufferedImage readImage() throws IOException {
+		return ImageIO.read(new File(OTWDirectories.RESOURCES.toString() + File.separator + OTWDirectories.TERRAIN.toString()
+									 + File.separator + HEIGHT_MAP + OTWFiles.TEXTURE_EXT.toString()));
+	}
+
+	/**
+	 * Height of a vertex as Terrain calculated it before height maps were cached, reading the image through getRGB
+	 */
+	private static float heightFromImage(int x, int z, BufferedImage image) {
+		if (x < 0 || x >= image.getHeight() || z < 0 || z >= image.getWidth())
+			return 0;
+
+		float height = image.getRGB(x, z);
+		height += MAX_PIXEL_COLOR/2f;
+		height /= MAX_PIXEL_COLOR/2f;
+		height *= Terrain.getMaxHeight();
+
+		return height;
+	}
+
+	/**
+	 * Normal of a vertex as Terrain calculated it before height maps were cached
+	 */
+	private static float[] normalFromImage(int x, int z, BufferedImage image) {
+		float normalX = heightFromImage(x-1, z, image) - heightFromImage(x+1, z, image);
+		float normalY = 2f;
+		float normalZ = heightFromImage(x, z-1, image) - heightFromImage(x, z+1, image);
+		float length = (float) Math.sqrt(normalX * normalX + normalY * normalY + normalZ * normalZ);
+
+		return new float[] {normalX / length, normalY / length, normalZ / length};
+	}
+
+	@Test
+	public void HeightsAndNormalsTest() throws IOException {
+		BufferedImage image = readImage();
+		HeightMap heightMap = HeightMap.load(HEIGHT_MAP, OTWDirectories.TERRAIN.toString());
+
+		assertNotNull(heightMap);
+		assertSame("Height maps should be cached", heightMap, HeightMap.load(HEIGHT_MAP, OTWDirectories.TERRAIN.toString()));
+		assertEquals(image.getHeight(), heightMap.getSize());
+
+		// Corners, edges and a spread of interior vertices
+		int last = heightMap.getSize() - 1;
+		int[] samples = {0, 1, 17, 64, 127, 128, 200, last - 1, last};
+		float[] normal = new float[3];
+
+		for (int x : samples) {
+			for (int z : samples) {
+				assertEquals("Height at " + x + ", " + z, heightFromImage(x, z, image), heightMap.getHeight(x, z), 0);
+
+				float[] expected = normalFromImage(x, z, image);
+				heightMap.calculateNormal(x, z, normal, 0);
+				for (int i = 0; i < 3; i++)
+					assertEquals("Normal at " + x + ", " + z, expected[i], normal[i], 1e-6);
+			}
+		}
+
+		assertEquals(0, heightMap.getHeight(-1, 0), 0);
+		assertEquals(0, heightMap.getHeight(0, last + 1), 0);
+	}
+
+	@Test
+	public void MeshDataTest() throws IOException {
+		BufferedImage image = readImage();
+		TerrainMeshData mesh = new TerrainMeshData(HeightMap.load(HEIGHT_MAP, OTWDirectories.TERRAIN.toString()));
+
+		int vertexCount = image.getHeight();
+		assertEquals(vertexCount * vertexCount * 3, mesh.getVertices().length);
+		assertEquals(6 * (vertexCount - 1) * (vertexCount - 1), mesh.getIndices().length);
+
+		// Vertices are laid out row by row along z
+		int[] samples = {0, 33, 150, vertexCount - 1};
+		for (int x : samples) {
+			for (int z : samples) {
+				int vertex = (z * vertexCount + x) * 3;
+				float[] expected = normalFromImage(x, z, image);
+
+				assertEquals(x / (vertexCount - 1f) * Terrain.getSize(), mesh.getVertices()[vertex], 1e-3);
+				assertEquals(heightFromImage(x, z, image), mesh.getVertices()[vertex + 1], 0);
+				assertEquals(z / (vertexCount - 1f) * Terrain.getSize(), mesh.getVertices()[vertex + 2], 1e-3);
+
+				for (int i = 0; i < 3; i++)
+					assertEquals(expected[i], mesh.getNormals()[vertex + i], 1e-6);
+			}
+		}
+	}
+}
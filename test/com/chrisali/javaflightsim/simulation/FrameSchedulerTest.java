@@ -0,0 +1,102 @@
+package com.chrisali.javaflightsim.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.EnumMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.interfaces.Steppable;
+import com.chrisali.javaflightsim.simulation.setup.RateGroup;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+
+public class FrameSchedulerTest {
+
+	private static class CountingSteppable implements Steppable {
+		private final RateGroup rateGroup;
+		private int steps = 0;
+
+		private CountingSteppable(RateGroup rateGroup) { this.rateGroup = rateGroup; }
+
+		@Override
+		public void step() { steps++; }
+
+		@Override
+		public RateGroup getRateGroup() { return rateGroup; }
+	}
+
+	private static SimulationConfiguration createConfiguration() {
+		SimulationConfiguration configuration = FileUtilities.readSimulationConfiguration();
+		configuration.setSimulationRateHz(120);
+
+		EnumMap<RateGroup, Integer> rates = new EnumMap<>(RateGroup.class);
+		rates.put(RateGroup.CONTROLS, 60);
+		rates.put(RateGroup.LOGGING,  30);
+		rates.put(RateGroup.AUDIO,    30);
+		rates.put(RateGroup.DISPLAY,  60);
+		configuration.setRateGroupRates(rates);
+
+		return configuration;
+	}
+
+	@Test
+	public void MultiRateScheduleTest() {
+		AtomicInteger timeMS = new AtomicInteger(0);
+		FrameScheduler scheduler = new FrameScheduler(createConfiguration(), timeMS);
+
+		EnumMap<RateGroup, CountingSteppable> components = new EnumMap<>(RateGroup.class);
+		for (RateGroup rateGroup : RateGroup.values()) {
+			components.put(rateGroup, new CountingSteppable(rateGroup));
+			scheduler.add(components.get(rateGroup));
+		}
+
+		// One second of simulation time
+		for (int i = 0; i < 120; i++)
+			scheduler.runMinorFrame();
+
+		assertEquals(120, scheduler.getMinorFrameRateHz());
+		assertEquals(4, scheduler.getMinorFramesPerMajorFrame());
+		assertEquals(1000, timeMS.get());
+
+		assertEquals(120, components.get(RateGroup.PHYSICS).steps);
+		assertEquals(60,  components.get(RateGroup.CONTROLS).steps);
+		assertEquals(60,  components.get(RateGroup.DISPLAY).steps);
+		assertEquals(30,  components.get(RateGroup.AUDIO).steps);
+		assertEquals(30,  components.get(RateGroup.LOGGING).steps);
+
+		// Groups at the same rate should be spread across different minor frames
+		assertNotEquals(scheduler.getGroup(RateGroup.DISPLAY).getPhaseOffset(), scheduler.getGroup(RateGroup.CONTROLS).getPhaseOffset());
+		assertNotEquals(scheduler.getGroup(RateGroup.AUDIO).getPhaseOffset(), scheduler.getGroup(RateGroup.LOGGING).getPhaseOffset());
+	}
+
+	@Test
+	public void OverrunDetectionTest() {
+		FrameScheduler scheduler = new FrameScheduler(createConfiguration(), new AtomicInteger(0));
+		scheduler.add(new CountingSteppable(RateGroup.PHYSICS));
+		scheduler.add(new Steppable() {
+			@Override
+			public void step() {
+				try {
+					Thread.sleep(2);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
+			@Override
+			public RateGroup getRateGroup() { return RateGroup.AUDIO; }
+		});
+		scheduler.setBudgetNanos(RateGroup.AUDIO, 1000000);
+
+		for (int i = 0; i < 8; i++)
+			scheduler.runMinorFrame();
+
+		ScheduledGroup audio = scheduler.getGroup(RateGroup.AUDIO);
+		assertEquals(2, audio.getExecutions());
+		assertEquals(2, audio.getOverruns());
+		assertEquals(0, scheduler.getGroup(RateGroup.PHYSICS).getOverruns());
+	}
+}
@@ -0,0 +1,77 @@
+package com.chrisali.javaflightsim.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.enviroment.AtmosphereState;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.tests.TestFixtures;
+
+public class SimulationContextTest {
+
+	private static final int RUNS = 4;
+
+	private static final double DURATION = 10;
+
+	@Test
+	public void IndependentEnvironmentsAndEnginesTest() {
+		SimulationConfiguration configuration = TestFixtures.readConfiguration(DURATION);
+		Aircraft aircraft = TestFixtures.readSelectedAircraft();
+
+		SimulationContext first  = new SimulationContext(configuration, aircraft);
+		SimulationContext second = new SimulationContext(TestFixtures.readConfiguration(DURATION), aircraft);
+
+		first.getEnvironment().setWindSpeed(20);
+		first.getEnvironment().setDeltaIsa(30);
+
+		AtmosphereState firstParams  = first.getEnvironment().getAndUpdateAtmosphereState(new double[] {0, 0, 5000});
+		AtmosphereState secondParams = second.getEnvironment().getAndUpdateAtmosphereState(new double[] {0, 0, 5000});
+
+		assertNotSame(firstParams, secondParams);
+		assertNotEquals(firstParams.getTemperature(), secondParams.getTemperature(), 1e-6);
+		assertEquals(0.0, secondParams.getWindSpeedN(), 0.0);
+
+		assertEquals(aircraft.getEngines().size(), first.getEngines().size());
+		assertNotSame(first.getEngines().iterator().next(), second.getEngines().iterator().next());
+	}
+
+	@Test
+	public void ConcurrentRunsMatchSequentialRunTest() throws Exception {
+		SimulationConfiguration configuration = TestFixtures.readConfiguration(DURATION);
+		Aircraft aircraft = TestFixtures.readSelectedAircraft();
+
+		List<Map<SimOuts, Double>> expected = HeadlessSimulationRunner.run(configuration);
+		Map<SimOuts, Double> expectedLast = expected.get(expected.size() - 1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(RUNS);
+		List<Future<List<Map<SimOuts, Double>>>> results = new ArrayList<>();
+
+		try {
+			for (int i = 0; i < RUNS; i++)
+				results.add(executor.submit(new HeadlessSimulationRunner(new SimulationContext(TestFixtures.readConfiguration(DURATION), aircraft))));
+
+			for (Future<List<Map<SimOuts, Double>>> result : results) {
+				List<Map<SimOuts, Double>> logsOut = result.get();
+
+				assertEquals(expected.size(), logsOut.size());
+
+				for (SimOuts simOut : SimOuts.values())
+					assertEquals(simOut.toString(), expectedLast.get(simOut), logsOut.get(logsOut.size() - 1).get(simOut), 0.0);
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
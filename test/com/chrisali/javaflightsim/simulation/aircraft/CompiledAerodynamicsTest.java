@@ -0,0 +1,111 @@
+package com.chrisali.javaflightsim.simulation.aircraft;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.enviroment.AtmosphereState;
+import com.chrisali.javaflightsim.simulation.enviroment.Environment;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+
+public class CompiledAerodynamicsTest {
+	
+	private static final double TOLERANCE = 1e-9;
+	
+	private static final String[] AIRCRAFT = {"Navion", "TwinNavion"};
+	
+	private static final double[] VTRUE  = {80, 220};
+	private static final double[] ALPHAS = {-0.3, -0.1, -0.02, 0.0, 0.05, 0.12, 0.2, 0.35};
+	private static final double[] BETAS  = {-0.2, 0.0, 0.15};
+	
+	// {p, q, r}
+	private static final double[][] RATES = {{0, 0, 0}, {0.5, -0.2, 0.1}, {-0.3, 0.4, -0.6}};
+	
+	// {elevator, aileron, rudder}
+	private static final double[][] SURFACES = {{0, 0, 0}, {-0.3, 0.2, -0.1}, {0.2, -0.25, 0.25}};
+	
+	private static final double[] FLAPS 	 = {0.0, 0.2, Math.toRadians(30)};
+	private static final double[] GEAR 		 = {0.0, 1.0};
+	private static final double[] ALPHA_DOTS = {-0.2, 0.0, 0.3};
+	
+	// Heights near the ground, where ground effect applies, as well as at altitude
+	private static final double[] HEIGHTS_AGL = {0.5, 3, 10, 25, 40, 5000};
+	
+	/**
+	 * Compares both models over every combination of rates, controls and alphaDot at one airspeed, alpha, beta and height
+	 */
+	private static void assertMatches(String aircraftName, Aerodynamics aerodynamics, CompiledAerodynamics compiled, double[] windParameters, 
+									  AtmosphereState atmosphereState, double heightAGL) {
+		Map<FlightControl, Double> controls = new EnumMap<>(FlightControl.class);
+		for (FlightControl control : FlightControl.values())
+			controls.put(control, 0.0);
+		
+		double mach = windParameters[0] / atmosphereState.getSpeedOfSound();
+		double[] forces   = new double[3];
+		double[] moments  = new double[3];
+		double[] actual   = new double[6];
+		
+		for (double[] rates : RATES) {
+			for (double[] surfaces : SURFACES) {
+				controls.put(FlightControl.ELEVATOR, surfaces[0]);
+				controls.put(FlightControl.AILERON,  surfaces[1]);
+				controls.put(FlightControl.RUDDER,   surfaces[2]);
+				
+				for (double flaps : FLAPS) {
+					controls.put(FlightControl.FLAPS, flaps);
+					
+					for (double gear : GEAR) {
+						controls.put(FlightControl.GEAR, gear);
+						
+						for (double alphaDot : ALPHA_DOTS) {
+							aerodynamics.calculateBodyForces(windParameters, rates, atmosphereState, controls, alphaDot, heightAGL, forces);
+							aerodynamics.calculateAeroMoments(windParameters, rates, atmosphereState, controls, alphaDot, moments);
+							compiled.calculateForcesAndMoments(windParameters, rates, atmosphereState.getDensity(), mach, heightAGL, 
+															   controls, alphaDot, heightAGL, actual);
+							
+							String message = aircraftName + " at alpha " + windParameters[2] + ", beta " + windParameters[1] 
+										   + ", height " + heightAGL + ", rates " + Arrays.toString(rates) 
+										   + ", surfaces " + Arrays.toString(surfaces) + ", flaps " + flaps + ", gear " + gear 
+										   + ", alphaDot " + alphaDot + ", component ";
+							
+							for (int i = 0; i < 3; i++) {
+								assertEquals(message + i, forces[i],  actual[i], 	 TOLERANCE * Math.max(1.0, Math.abs(forces[i])));
+								assertEquals(message + (i + 3), moments[i], actual[i + 3], TOLERANCE * Math.max(1.0, Math.abs(moments[i])));
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Forces and moments calculated by CompiledAerodynamics should match those of the Aerodynamics model it was compiled from
+	 */
+	@Test
+	public void MatchesAerodynamicsTest() {
+		Environment environment = new Environment();
+		
+		for (String aircraftName : AIRCRAFT) {
+			Aircraft aircraft = FileUtilities.readAircraftConfiguration(aircraftName);
+			Aerodynamics aerodynamics = new Aerodynamics(aircraft);
+			CompiledAerodynamics compiled = new CompiledAerodynamics(aircraft);
+			
+			for (double heightAGL : HEIGHTS_AGL) {
+				AtmosphereState atmosphereState = environment.getAndUpdateAtmosphereState(new double[] {0, 0, heightAGL});
+				
+				for (double vTrue : VTRUE) {
+					for (double alpha : ALPHAS) {
+						for (double beta : BETAS)
+							assertMatches(aircraftName, aerodynamics, compiled, new double[] {vTrue, beta, alpha}, atmosphereState, heightAGL);
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package com.chrisali.javaflightsim.simulation.aircraft;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class GriddedTableTest {
+	
+	private static final double TOLERANCE = 1e-9;
+	
+	private static final int ALPHA = LookupParameter.ALPHA.ordinal();
+	private static final int MACH  = LookupParameter.MACH.ordinal();
+	private static final int FLAPS = LookupParameter.FLAPS.ordinal();
+	
+	// Unevenly spaced breakpoints, so that the tests do not rely on a uniform grid
+	private static final double[] ALPHA_BREAKPOINTS = {-0.2, -0.05, 0.0, 0.1, 0.25, 0.4};
+	private static final double[] MACH_BREAKPOINTS  = {0.0, 0.3, 0.5, 0.9};
+	private static final double[] FLAPS_BREAKPOINTS = {0.0, 0.2, 0.7};
+	
+	private static double[] parameters(double alpha, double mach, double flaps) {
+		double[] parameters = new double[LookupParameter.values().length];
+		parameters[ALPHA] = alpha;
+		parameters[MACH]  = mach;
+		parameters[FLAPS] = flaps;
+		
+		return parameters;
+	}
+	
+	/**
+	 * Creates a table of alpha, mach and flaps whose values are those of the function at each breakpoint
+	 */
+	private static GriddedTable createTable(ToDoubleFunction<double[]> function, InterpolationType interpolation, ExtrapolationType extrapolation) {
+		List<GriddedTable.Axis> axes = Arrays.asList(new GriddedTable.Axis(LookupParameter.ALPHA, ALPHA_BREAKPOINTS),
+													 new GriddedTable.Axis(LookupParameter.MACH,  MACH_BREAKPOINTS),
+													 new GriddedTable.Axis(LookupParameter.FLAPS, FLAPS_BREAKPOINTS));
+		
+		double[] values = new double[ALPHA_BREAKPOINTS.length * MACH_BREAKPOINTS.length * FLAPS_BREAKPOINTS.length];
+		int index = 0;
+		for (double alpha : ALPHA_BREAKPOINTS) {
+			for (double mach : MACH_BREAKPOINTS) {
+				for (double flaps : FLAPS_BREAKPOINTS)
+					values[index++] = function.applyAsDouble(parameters(alpha, mach, flaps));
+			}
+		}
+		
+		return new GriddedTable(axes, values, interpolation, extrapolation);
+	}
+	
+	private static double multilinear(double[] p) {
+		double a = p[ALPHA], m = p[MACH], f = p[FLAPS];
+		
+		return 1.0 + 2.0*a - m + 0.5*f + 0.25*a*m - a*f + 3.0*m*f - 1.5*a*m*f;
+	}
+	
+	@Test
+	public void MultilinearFunctionReproducedTest() {
+		GriddedTable table = createTable(GriddedTableTest::multilinear, InterpolationType.LINEAR, ExtrapolationType.CLAMP);
+		Random random = new Random(1);
+		
+		for (int i = 0; i < 1000; i++) {
+			double[] p = parameters(-0.2 + 0.6*random.nextDouble(), 0.9*random.nextDouble(), 0.7*random.nextDouble());
+			assertEquals(multilinear(p), table.interpolate(p), TOLERANCE);
+		}
+	}
+	
+	@Test
+	public void CubicPolynomialReproducedTest() {
+		// Cubic in alpha and mach; flaps has only 3 breakpoints, so the function must be linear in it to be reproduced
+		ToDoubleFunction<double[]> cubic = p -> { 
+			double a = p[ALPHA], m = p[MACH], f = p[FLAPS];
+			return 0.5 - a + 2.0*a*a - 3.0*a*a*a + m*m*m - 0.7*a*a*m*m + 0.4*a*m*m*m + f*(1.0 + a*a*a - 2.0*m*m);
+		};
+		GriddedTable table = createTable(cubic, InterpolationType.CUBIC, ExtrapolationType.CLAMP);
+		Random random = new Random(2);
+		
+		for (int i = 0; i < 1000; i++) {
+			double[] p = parameters(-0.2 + 0.6*random.nextDouble(), 0.9*random.nextDouble(), 0.7*random.nextDouble());
+			assertEquals(cubic.applyAsDouble(p), table.interpolate(p), TOLERANCE);
+		}
+	}
+	
+	@Test
+	public void CubicFallsBackToLinearTest() {
+		// Quadratic in flaps, which has fewer than 4 breakpoints, so it should be interpolated linearly along that axis
+		ToDoubleFunction<double[]> quadratic = p -> p[FLAPS]*p[FLAPS] + p[ALPHA];
+		GriddedTable table = createTable(quadratic, InterpolationType.CUBIC, ExtrapolationType.CLAMP);
+		
+		double flaps = 0.45;
+		double t = (flaps - FLAPS_BREAKPOINTS[1]) / (FLAPS_BREAKPOINTS[2] - FLAPS_BREAKPOINTS[1]);
+		double linear = (1 - t)*FLAPS_BREAKPOINTS[1]*FLAPS_BREAKPOINTS[1] + t*FLAPS_BREAKPOINTS[2]*FLAPS_BREAKPOINTS[2];
+		
+		assertEquals(0.1 + linear, table.interpolate(parameters(0.1, 0.4, flaps)), TOLERANCE);
+		assertTrue("Flaps should not be interpolated as a cubic", Math.abs(0.1 + flaps*flaps - table.interpolate(parameters(0.1, 0.4, flaps))) > 0.01);
+	}
+	
+	@Test
+	public void ExtrapolationTest() {
+		ToDoubleFunction<double[]> linearFunction = p -> 1.0 + 2.0*p[ALPHA] - 3.0*p[MACH] + 0.5*p[FLAPS];
+		
+		for (InterpolationType interpolation : InterpolationType.values()) {
+			GriddedTable clamp  = createTable(linearFunction, interpolation, ExtrapolationType.CLAMP);
+			GriddedTable linear = createTable(linearFunction, interpolation, ExtrapolationType.LINEAR);
+			
+			double[] below = parameters(-0.5, -0.2, -0.1);
+			double[] above = parameters( 0.8,  1.5,  1.0);
+			
+			assertEquals(interpolation + " clamped below the table", linearFunction.applyAsDouble(parameters(-0.2, 0.0, 0.0)), clamp.interpolate(below), TOLERANCE);
+			assertEquals(interpolation + " clamped above the table", linearFunction.applyAsDouble(parameters( 0.4, 0.9, 0.7)), clamp.interpolate(above), TOLERANCE);
+			
+			assertEquals(interpolation + " extrapolated below the table", linearFunction.applyAsDouble(below), linear.interpolate(below), TOLERANCE);
+			assertEquals(interpolation + " extrapolated above the table", linearFunction.applyAsDouble(above), linear.interpolate(above), TOLERANCE);
+		}
+	}
+	
+	@Test
+	public void NonMonotoneQueriesTest() {
+		Random random = new Random(3);
+		ToDoubleFunction<double[]> noise = p -> random.nextDouble();
+		
+		for (InterpolationType interpolation : InterpolationType.values()) {
+			GriddedTable table = createTable(noise, interpolation, ExtrapolationType.LINEAR);
+			
+			// Jumps backwards and forwards across cells, repeats points and leaves the table, each of which a table with no 
+			// remembered brackets should agree with
+			double[] alphas = {0.35, -0.15, 0.3, 0.3, -0.3, 0.05, 0.5, -0.01, 0.2, -0.2, 0.4, 0.0, 0.12};
+			for (int i = 0; i < alphas.length; i++) {
+				double[] p = parameters(alphas[i], MACH_BREAKPOINTS[3] * (alphas.length - i) / alphas.length, 0.7 * ((i * 5) % alphas.length) / alphas.length);
+				
+				assertEquals(interpolation + " query " + i, table.copy().interpolate(p), table.interpolate(p), 0.0);
+			}
+		}
+	}
+	
+	@Test
+	public void LookupTableFromJsonTest() throws IOException {
+		String json = "{\"name\": \"CL_ALPHA\", \"interpolation\": \"LINEAR\", \"extrapolation\": \"CLAMP\","
+					+ " \"axes\": [{\"parameter\": \"ALPHA\", \"breakPoints\": [0.0, 0.1]},"
+					+ "            {\"parameter\": \"MACH\", \"breakPoints\": [0.2, 0.4, 0.6]},"
+					+ "            {\"parameter\": \"FLAPS\", \"breakPoints\": [0.0, 0.5]}],"
+					+ " \"values\": [ 1,  2,  3,  4,  5,  6,"
+					+ "              7,  8,  9, 10, 11, 12]}";
+		
+		LookupTable lookup = new ObjectMapper().readValue(json, LookupTable.class);
+		assertTrue(lookup.isInterpolating());
+		
+		// Values are row-major, with flaps varying fastest
+		assertEquals(1.0,  lookup.interpolate(parameters(0.0, 0.2, 0.0)), TOLERANCE);
+		assertEquals(2.0,  lookup.interpolate(parameters(0.0, 0.2, 0.5)), TOLERANCE);
+		assertEquals(3.0,  lookup.interpolate(parameters(0.0, 0.4, 0.0)), TOLERANCE);
+		assertEquals(12.0, lookup.interpolate(parameters(0.1, 0.6, 0.5)), TOLERANCE);
+		assertEquals(6.5,  lookup.interpolate(parameters(0.05, 0.4, 0.25)), TOLERANCE);
+		
+		// Two dimensional interpolation of alpha and flaps leaves mach at zero, which is clamped to the first breakpoint
+		assertEquals(4.5, lookup.interpolate(0.05, 0.25), TOLERANCE);
+		
+		// Serializing and reading back the table should give the same table
+		LookupTable copy = FileUtilities.deepCopy(lookup, LookupTable.class);
+		assertEquals(lookup.interpolate(parameters(0.07, 0.33, 0.1)), copy.interpolate(parameters(0.07, 0.33, 0.1)), 0.0);
+	}
+}
@@ -0,0 +1,69 @@
+package com.chrisali.javaflightsim.simulation.aircraft;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.math3.analysis.interpolation.PiecewiseBicubicSplineInterpolatingFunction;
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+
+public class PiecewiseBicubicInterpolatorTest {
+	
+	private static final StabilityDerivatives[] TABLES = {StabilityDerivatives.CL_ALPHA, StabilityDerivatives.CM_ALPHA};
+	
+	@Test
+	public void MatchesApacheCommonsInsideTableTest() {
+		Aircraft aircraft = FileUtilities.readAircraftConfiguration("Navion");
+		
+		for (StabilityDerivatives stabDer : TABLES) {
+			LookupTable lookup = aircraft.getStabilityDerivative(stabDer);
+			double[] angles = lookup.getBreakPointAngle();
+			double[] flaps  = lookup.getBreakPointFlap();
+			
+			PiecewiseBicubicSplineInterpolatingFunction pbsif = new PiecewiseBicubicSplineInterpolatingFunction(angles, flaps, lookup.getLookupValues());
+			PiecewiseBicubicInterpolator interpolator = new PiecewiseBicubicInterpolator(angles, flaps, lookup.getLookupValues(), ExtrapolationType.CLAMP);
+			
+			int steps = 400;
+			for (int i = 0; i <= steps; i++) {
+				double angle = angles[0] + (angles[angles.length-1] - angles[0]) * i / steps;
+				
+				for (int j = 0; j <= steps / 10; j++) {
+					double flap = flaps[0] + (flaps[flaps.length-1] - flaps[0]) * j / (steps / 10);
+					
+					assertEquals(stabDer + " should match at " + angle + ", " + flap, pbsif.value(angle, flap), interpolator.interpolate(angle, flap), 0.0);
+				}
+			}
+			
+			// Breakpoints themselves, including the upper bounds
+			for (double angle : angles) {
+				for (double flap : flaps)
+					assertEquals(stabDer + " should match at breakpoint", pbsif.value(angle, flap), interpolator.interpolate(angle, flap), 0.0);
+			}
+		}
+	}
+	
+	@Test
+	public void ExtrapolatesOutsideTableTest() {
+		LookupTable lookup = FileUtilities.readAircraftConfiguration("Navion").getStabilityDerivative(StabilityDerivatives.CL_ALPHA);
+		double[] angles = lookup.getBreakPointAngle();
+		double[] flaps  = lookup.getBreakPointFlap();
+		double maxAngle = angles[angles.length-1];
+		
+		PiecewiseBicubicInterpolator clamp  = new PiecewiseBicubicInterpolator(angles, flaps, lookup.getLookupValues(), ExtrapolationType.CLAMP);
+		PiecewiseBicubicInterpolator linear = new PiecewiseBicubicInterpolator(angles, flaps, lookup.getLookupValues(), ExtrapolationType.LINEAR);
+		
+		assertEquals("Clamped value should equal value at bound", clamp.interpolate(maxAngle, flaps[0]), clamp.interpolate(maxAngle + 1, flaps[0]), 0.0);
+		
+		double atBound = linear.interpolate(maxAngle, flaps[0]);
+		double delta1  = linear.interpolate(maxAngle + 0.1, flaps[0]) - atBound;
+		double delta2  = linear.interpolate(maxAngle + 0.2, flaps[0]) - atBound;
+		
+		assertTrue("Extrapolated values should be finite", Double.isFinite(delta1) && Double.isFinite(delta2));
+		assertEquals("Extrapolation should be linear", 2 * delta1, delta2, 1e-12);
+		
+		double[] out = linear.interpolate(new double[] {angles[0], maxAngle + 0.1}, new double[] {flaps[0], flaps[0]}, new double[2]);
+		assertEquals("Batch interpolation should match single", linear.interpolate(angles[0], flaps[0]), out[0], 0.0);
+		assertEquals("Batch interpolation should match single", atBound + delta1, out[1], 0.0);
+	}
+}
@@ -0,0 +1,96 @@
+package com.chrisali.javaflightsim.simulation.clock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.setup.LateFramePolicy;
+
+public class SimulationClockTest {
+
+	private static final double NANOS_PER_SEC = 1e9;
+
+	/**
+	 * Runs frames paced by a clock, with a little work done each frame, and returns the wall clock time taken [sec]
+	 */
+	private static double runFrames(SimulationClock clock, int frameRateHz, int frames) throws InterruptedException {
+		long startNanos = System.nanoTime();
+
+		clock.start(frameRateHz);
+		for (int i = 0; i < frames; i++) {
+			clock.awaitNextFrame();
+
+			long workNanos = System.nanoTime() + 200000;
+			while (System.nanoTime() < workNanos)
+				Thread.onSpinWait();
+		}
+
+		return (System.nanoTime() - startNanos) / NANOS_PER_SEC;
+	}
+
+	@Test
+	public void RealTimePacingTest() throws InterruptedException {
+		SimulationClock clock = new RealTimeClock(1.0, LateFramePolicy.CATCH_UP);
+
+		// 201 frames span 200 frame periods, or 1 second at 200 Hz; pacing can only run late, never early, so only the lower bound is tight
+		double elapsed = runFrames(clock, 200, 201);
+
+		assertTrue("Frames should not run ahead of real time", elapsed >= 1.0);
+		assertTrue("Frames should be paced near real time", elapsed < 3.0);
+
+		ClockStatistics statistics = clock.getStatistics();
+		assertEquals(201, statistics.getFrames());
+		assertEquals("Catching up should not skip frames", 0, statistics.getSkippedFrames());
+	}
+
+	@Test
+	public void TimeScaledPacingTest() throws InterruptedException {
+		SimulationClock clock = new RealTimeClock(4.0, LateFramePolicy.CATCH_UP);
+
+		// At 4 times real time, 200 frame periods at 200 Hz should take a quarter of a second
+		double elapsed = runFrames(clock, 200, 201);
+
+		assertTrue("Frames should not run ahead of scaled time", elapsed >= 0.25);
+		assertTrue("Frames should be paced faster than real time", elapsed < 0.75);
+		assertEquals(201, clock.getStatistics().getFrames());
+	}
+
+	@Test
+	public void LateFrameSkipTest() throws InterruptedException {
+		SimulationClock clock = new RealTimeClock(1.0, LateFramePolicy.SKIP);
+
+		clock.start(100);
+		clock.awaitNextFrame();
+
+		// Stall for about 5 frames
+		Thread.sleep(50);
+
+		clock.awaitNextFrame();
+		clock.awaitNextFrame();
+
+		ClockStatistics statistics = clock.getStatistics();
+		assertTrue("Missed deadlines should be skipped", statistics.getSkippedFrames() >= 3);
+		assertTrue("The frame after the stall should be late", statistics.getLateFrames() >= 1);
+		assertEquals(3, statistics.getFrames());
+	}
+
+	@Test
+	public void ExternalClockTest() throws InterruptedException {
+		ExternalClock clock = new ExternalClock();
+		clock.start(100);
+
+		Thread ticker = new Thread(() -> {
+			for (int i = 0; i < 10; i++)
+				clock.tick();
+		});
+		ticker.start();
+
+		for (int i = 0; i < 10; i++)
+			clock.awaitNextFrame();
+
+		ticker.join();
+
+		assertEquals(10, clock.getStatistics().getFrames());
+	}
+}
@@ -0,0 +1,70 @@
+package com.chrisali.javaflightsim.simulation.datatransfer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+
+public class FlightDataTest {
+
+	private static final int UPDATES = 200000;
+
+	@Test
+	public void ConsistentSnapshotTest() throws InterruptedException {
+		FlightData flightData = new FlightData();
+
+		// Writer sets every output to the same step number on each update
+		Thread writer = new Thread(() -> {
+			double[] simOutValues = new double[SimOuts.values().length];
+			for (int step = 1; step <= UPDATES; step++) {
+				simOutValues[SimOuts.NORTH.ordinal()] = step;
+				simOutValues[SimOuts.EAST.ordinal()] = step;
+				simOutValues[SimOuts.RPM_1.ordinal()] = step;
+				simOutValues[SimOuts.RPM_2.ordinal()] = step;
+				flightData.updateData(simOutValues);
+			}
+		});
+		writer.start();
+
+		FlightDataSnapshot snapshot = new FlightDataSnapshot();
+		long lastSequence = 0;
+		while (snapshot.getValue(FlightDataType.NORTH) < UPDATES) {
+			flightData.read(snapshot);
+
+			double north = snapshot.getValue(FlightDataType.NORTH);
+			assertEquals("Snapshot mixes values of different updates", north, snapshot.getValue(FlightDataType.EAST), 0);
+			assertEquals("Snapshot mixes values of different updates", north, snapshot.getValue(FlightDataType.RPM_1), 0);
+			assertEquals("Snapshot mixes values of different updates", north, snapshot.getValue(FlightDataType.RPM_2), 0);
+
+			assertTrue("Sequence should be even once read", snapshot.getSequence() % 2 == 0);
+			assertTrue("Sequence went backwards", snapshot.getSequence() >= lastSequence);
+			lastSequence = snapshot.getSequence();
+		}
+
+		writer.join();
+
+		assertEquals(2L * UPDATES, flightData.getSequence());
+	}
+
+	@Test
+	public void MapAdapterTest() {
+		FlightData flightData = new FlightData();
+
+		double[] simOutValues = new double[SimOuts.values().length];
+		simOutValues[SimOuts.ALT.ordinal()] = 1500.0;
+		simOutValues[SimOuts.PSI.ordinal()] = Math.PI;
+		flightData.updateData(simOutValues);
+
+		Map<FlightDataType, Double> map = flightData.getFlightData();
+
+		assertEquals(FlightDataType.values().length, map.size());
+		assertEquals(1500.0, map.get(FlightDataType.ALTITUDE), 1e-9);
+		assertEquals(180.0, map.get(FlightDataType.HEADING), 1e-9);
+		assertEquals(180.0, flightData.get(FlightDataType.HEADING), 1e-9);
+		assertEquals(map.size(), map.entrySet().stream().filter(entry -> entry.getValue() != null).count());
+	}
+}
@@ -0,0 +1,78 @@
+package com.chrisali.javaflightsim.simulation.datatransfer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+
+public class TripleBufferTest {
+
+	private static final int PUBLISHES = 200000;
+
+	@Test
+	public void ConsistentHandoffTest() throws InterruptedException {
+		TripleBuffer<long[]> buffer = new TripleBuffer<>(() -> new long[64]);
+
+		// Writer fills every element of each buffer with the same sequence number before publishing it
+		Thread writer = new Thread(() -> {
+			for (long sequence = 1; sequence <= PUBLISHES; sequence++) {
+				long[] data = buffer.getWriteBuffer();
+				for (int i = 0; i < data.length; i++)
+					data[i] = sequence;
+				buffer.publish();
+			}
+		});
+		writer.start();
+
+		long lastSequence = 0;
+		int updates = 0;
+		while (lastSequence < PUBLISHES) {
+			if (!buffer.update())
+				continue;
+
+			long[] data = buffer.getReadBuffer();
+			for (int i = 1; i < data.length; i++)
+				assertEquals("Buffer read while being written", data[0], data[i]);
+
+			assertTrue("Sequence went backwards", data[0] > lastSequence);
+			lastSequence = data[0];
+			updates++;
+		}
+
+		writer.join();
+
+		assertFalse("Nothing new was published", buffer.update());
+		assertEquals(PUBLISHES, buffer.getReadBuffer()[0]);
+		assertTrue(updates > 0);
+	}
+
+	@Test
+	public void InterpolateHeadingWrapTest() {
+		double[] values = new double[SimOuts.values().length];
+		SimulationState previous = new SimulationState();
+		SimulationState current = new SimulationState();
+
+		values[SimOuts.NORTH.ordinal()] = 100.0;
+		values[SimOuts.PSI.ordinal()] = Math.toRadians(350);
+		values[SimOuts.TAS.ordinal()] = 150.0;
+		previous.update(values, 0);
+
+		values[SimOuts.NORTH.ordinal()] = 200.0;
+		values[SimOuts.PSI.ordinal()] = Math.toRadians(20);
+		values[SimOuts.TAS.ordinal()] = 160.0;
+		current.update(values, 1000);
+
+		double[] result = SimulationState.interpolate(previous, current, 0.5, new double[values.length]);
+
+		assertEquals(150.0, result[SimOuts.NORTH.ordinal()], 1e-9);
+		assertEquals("Heading should pass through north", 5.0, Math.toDegrees(result[SimOuts.PSI.ordinal()]), 1e-9);
+		assertEquals("Outputs not interpolated should hold the latest value", 160.0, result[SimOuts.TAS.ordinal()], 1e-9);
+
+		result = SimulationState.interpolate(previous, current, 0.25, result);
+
+		assertEquals(357.5, Math.toDegrees(result[SimOuts.PSI.ordinal()]), 1e-9);
+	}
+}
@@ -0,0 +1,118 @@
+package com.chrisali.javaflightsim.simulation.enviroment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class EnvironmentTest {
+
+	private static void assertCalculatedDirectly(AtmosphereState state, double altitude, double deltaIsa) {
+		String condition = "altitude " + altitude + " ft, delta ISA " + deltaIsa + " deg F";
+
+		assertEquals(condition, Environment.calculateTemperature(altitude, deltaIsa), state.getTemperature(), 0.0);
+		assertEquals(condition, Environment.calculatePressure(altitude), state.getPressure(), 0.0);
+		assertEquals(condition, Environment.calculateDensity(altitude), state.getDensity(), 0.0);
+		assertEquals(condition, Environment.calculateSpeedOfSound(altitude, deltaIsa), state.getSpeedOfSound(), 0.0);
+		assertEquals(condition, Environment.calculateGravity(altitude), state.getGravity(), 0.0);
+	}
+
+	private static void assertMatchesModel(Environment environment, double altitude) {
+		AtmosphereState state = environment.getAndUpdateAtmosphereState(new double[] {0, 0, altitude});
+		String condition = "altitude " + altitude + " ft";
+
+		assertEquals(condition, environment.calculateTemperature(altitude), state.getTemperature(), 0.05);
+		assertEquals(condition, Environment.calculatePressure(altitude), state.getPressure(), Environment.calculatePressure(altitude) * 1e-6);
+		assertEquals(condition, Environment.calculateDensity(altitude), state.getDensity(), Environment.calculateDensity(altitude) * 1e-6);
+		assertEquals(condition, environment.calculateSpeedOfSound(altitude), state.getSpeedOfSound(), 0.05);
+	}
+
+	@Test
+	public void TableMatchesStandardAtmosphereTest() {
+		Environment environment = new Environment();
+
+		for (double deltaIsa : new double[] {0, 27, -18}) {
+			environment.setDeltaIsa(deltaIsa);
+
+			for (double altitude = -3000; altitude < 110000; altitude += 7.3) {
+				AtmosphereState state = environment.getAndUpdateAtmosphereState(new double[] {0, 0, altitude});
+
+				assertEquals(environment.calculateTemperature(altitude), state.getTemperature(), 0.05);
+				assertEquals(Environment.calculatePressure(altitude), state.getPressure(), Environment.calculatePressure(altitude) * 1e-6);
+				assertEquals(Environment.calculateDensity(altitude), state.getDensity(), Environment.calculateDensity(altitude) * 1e-6);
+				assertEquals(environment.calculateSpeedOfSound(altitude), state.getSpeedOfSound(), 0.05);
+				assertEquals(Environment.calculateGravity(altitude), state.getGravity(), 1e-6);
+			}
+		}
+	}
+
+	@Test
+	public void StateAndWindAreUpdatedInPlaceTest() {
+		Environment environment = new Environment();
+		AtmosphereState state = environment.getAndUpdateAtmosphereState(new double[] {0, 0, 0});
+
+		assertEquals(0.0, state.getWindSpeedN(), 0.0);
+
+		environment.setWindSpeed(20);
+		environment.setWindDir(270);
+
+		assertSame(state, environment.getAndUpdateAtmosphereState(new double[] {0, 0, 5000}));
+		assertEquals(environment.getWindSpeedNorth(), state.getWindSpeedN(), 0.0);
+		assertEquals(environment.getWindSpeedEast(), state.get(EnvironmentParameters.WIND_SPEED_E), 0.0);
+		assertEquals(33.76, Math.hypot(state.getWindSpeedN(), state.getWindSpeedE()), 0.01);
+		assertEquals(0.0, state.getWindSpeedD(), 0.0);
+	}
+
+	/**
+	 * The sample interval containing the tropopause, where pressure and density are discontinuous, and altitudes outside of the table
+	 * are not interpolated, but calculated directly
+	 */
+	@Test
+	public void TropopauseAndOutOfTableAreCalculatedDirectlyTest() {
+		for (double deltaIsa : new double[] {0, 27}) {
+			AtmosphereTable table = AtmosphereTable.forDeltaIsa(deltaIsa);
+			AtmosphereState state = new AtmosphereState();
+
+			double tropopauseIntervalStart = AtmosphereTable.MIN_ALTITUDE
+										   + Math.floor((Environment.HT_TROP - AtmosphereTable.MIN_ALTITUDE) / AtmosphereTable.RESOLUTION) * AtmosphereTable.RESOLUTION;
+
+			for (double altitude = tropopauseIntervalStart; altitude < tropopauseIntervalStart + AtmosphereTable.RESOLUTION; altitude += 0.5)
+				assertCalculatedDirectly(table.lookup(altitude, state), altitude, deltaIsa);
+
+			for (double altitude : new double[] {-10000, -2000.5, AtmosphereTable.MAX_ALTITUDE, 100000.5, 150000})
+				assertCalculatedDirectly(table.lookup(altitude, state), altitude, deltaIsa);
+		}
+	}
+
+	/**
+	 * Either side of the tropopause interval, and at the edges of the table, interpolated values stay close to the model
+	 */
+	@Test
+	public void TableIsContinuousAroundTropopauseAndEdgesTest() {
+		Environment environment = new Environment();
+
+		for (double altitude = Environment.HT_TROP - 30; altitude <= Environment.HT_TROP + 30; altitude += 1)
+			assertMatchesModel(environment, altitude);
+
+		for (double altitude : new double[] {AtmosphereTable.MIN_ALTITUDE, -1999.5, 99990, 99999.5})
+			assertMatchesModel(environment, altitude);
+	}
+
+	/**
+	 * Density and speed of sound looked up for a column of altitudes should match those looked up one altitude at a time
+	 */
+	@Test
+	public void ColumnLookupMatchesScalarLookupTest() {
+		AtmosphereTable table = AtmosphereTable.forDeltaIsa(-18);
+		double[] altitudes = {-5000, -2000, 0, 5000.3, Environment.HT_TROP, Environment.HT_TROP + 15, 99999.5, 100000, 120000};
+		double[] densities = new double[altitudes.length];
+		double[] speedsOfSound = new double[altitudes.length];
+
+		table.lookup(altitudes, densities, speedsOfSound, altitudes.length);
+
+		for (int i = 0; i < altitudes.length; i++) {
+			assertEquals(table.getDensity(altitudes[i]), densities[i], 0.0);
+			assertEquals(table.getSpeedOfSound(altitudes[i]), speedsOfSound[i], 0.0);
+		}
+	}
+}
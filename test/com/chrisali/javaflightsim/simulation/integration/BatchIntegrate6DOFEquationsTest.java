@@ -0,0 +1,111 @@
+package com.chrisali.javaflightsim.simulation.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.SimulationContext;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsState;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorType;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+
+public class BatchIntegrate6DOFEquationsTest {
+
+	private static final double END_TIME = 10.0;
+	private static final double TOLERANCE = 1e-6;
+
+	private static final SimOuts[] EULER_ANGLE_OUTS = {SimOuts.PHI, SimOuts.THETA, SimOuts.PSI};
+
+	// {altitude (ft), phi (rad), psi (rad), elevator (rad)} of each aircraft in the batch; the third starts in the sample interval of
+	// the atmosphere table containing the tropopause
+	private static final double[][] AIRCRAFT = {{5000, 0.3, 2*Math.PI - 0.05, 0.0}, {1500, -0.2, 1.0, -0.02}, {36085, 0.0, 3.0, 0.01}};
+
+	private static SimulationConfiguration readConfiguration(double[] aircraft) {
+		SimulationConfiguration configuration = FileUtilities.readSimulationConfiguration();
+		configuration.setIntegratorType(IntegratorType.RUNGE_KUTTA_4);
+		configuration.getSimulationOptions().remove(Options.PAUSED);
+		configuration.getSimulationOptions().add(Options.NO_LOGGING);
+
+		Map<InitialConditions, Double> initialConditions = configuration.getInitialConditions();
+		initialConditions.put(InitialConditions.INITD, aircraft[0]);
+		initialConditions.put(InitialConditions.INITPHI, aircraft[1]);
+		initialConditions.put(InitialConditions.INITPSI, aircraft[2]);
+		initialConditions.put(InitialConditions.INITLAT, Math.toRadians(40.0));
+
+		configuration.getInitialControls().put(FlightControl.GEAR, 0.0);
+		configuration.getInitialControls().put(FlightControl.ELEVATOR, 
+											   configuration.getInitialControls().get(FlightControl.ELEVATOR) + aircraft[3]);
+
+		return configuration;
+	}
+
+	/**
+	 * Each aircraft in a batch should follow the same trajectory as Integrate6DOFEquations with the Runge-Kutta stepper started from
+	 * its initial conditions and controls, while airborne with its gear up. A banked start heading just short of 2*pi checks that 
+	 * heading is bounded the same way in both
+	 */
+	@Test
+	public void BatchMatchesIntegrate6DOFEquationsTest() {
+		Integrate6DOFEquations[] simulations = new Integrate6DOFEquations[AIRCRAFT.length];
+		BatchIntegrate6DOFEquations batch = null;
+		double dt = 0;
+
+		for (int i = 0; i < AIRCRAFT.length; i++) {
+			SimulationConfiguration configuration = readConfiguration(AIRCRAFT[i]);
+			SimulationContext context = new SimulationContext(configuration);
+			simulations[i] = new Integrate6DOFEquations(new FlightControlsState(configuration), context);
+
+			if (batch == null) {
+				dt = configuration.getIntegratorConfig().get(IntegratorConfig.DT);
+				batch = new BatchIntegrate6DOFEquations(context.getAircraft(), configuration.getInitialConditions(),
+														configuration.getInitialControls(), AIRCRAFT.length,
+														configuration.getIntegratorConfig().get(IntegratorConfig.STARTTIME), dt);
+			}
+
+			for (InitialConditions ic : InitialConditions.values())
+				batch.setState(ic.ordinal(), i, configuration.getInitialConditions().get(ic));
+
+			for (Map.Entry<FlightControl, Double> control : configuration.getInitialControls().entrySet())
+				batch.setControl(control.getKey(), i, control.getValue());
+		}
+
+		int steps = (int) Math.round(END_TIME / dt);
+		for (int step = 0; step < steps; step++) {
+			for (Integrate6DOFEquations simulation : simulations)
+				simulation.step();
+			batch.step();
+		}
+
+		for (int i = 0; i < AIRCRAFT.length; i++) {
+			double[] states = simulations[i].getStates();
+			double[] simOuts = simulations[i].getSimOutValues();
+
+			for (int s = 0; s < BatchIntegrate6DOFEquations.DIMENSION; s++) {
+				if (s >= BatchIntegrate6DOFEquations.PHI && s <= BatchIntegrate6DOFEquations.PSI)
+					continue;
+
+				assertEquals("Aircraft " + i + " state " + s, states[s], batch.getState(s, i), TOLERANCE*Math.max(1.0, Math.abs(states[s])));
+			}
+
+			// Euler angles of Integrate6DOFEquations are bounded in its outputs rather than its states
+			for (int s = BatchIntegrate6DOFEquations.PHI; s <= BatchIntegrate6DOFEquations.PSI; s++) {
+				double expected = simOuts[EULER_ANGLE_OUTS[s - BatchIntegrate6DOFEquations.PHI].ordinal()];
+				assertEquals("Aircraft " + i + " state " + s, expected, batch.getState(s, i), TOLERANCE);
+			}
+
+			assertEquals(simOuts[SimOuts.TAS.ordinal()], batch.getTrueAirspeed()[i], TOLERANCE*simOuts[SimOuts.TAS.ordinal()]);
+			assertEquals(simOuts[SimOuts.MACH.ordinal()], batch.getMach()[i], TOLERANCE);
+		}
+
+		double psi = batch.getState(BatchIntegrate6DOFEquations.PSI, 0);
+		assertTrue("Heading should have turned past north and been bounded, but was " + psi, psi > 0 && psi < Math.PI);
+	}
+}
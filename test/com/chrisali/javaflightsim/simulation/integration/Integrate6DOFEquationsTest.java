@@ -0,0 +1,77 @@
+package com.chrisali.javaflightsim.simulation.integration;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.SimulationContext;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsState;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorType;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+
+public class Integrate6DOFEquationsTest {
+
+	private static final int WARM_UP_STEPS = 30000;
+	private static final int MEASURED_STEPS = 1000;
+	private static final int MEASURED_WINDOWS = 5;
+
+	private static Integrate6DOFEquations createSimulation(IntegratorType integratorType) {
+		SimulationConfiguration configuration = FileUtilities.readSimulationConfiguration();
+		configuration.setIntegratorType(integratorType);
+		configuration.getSimulationOptions().remove(Options.PAUSED);
+		configuration.getSimulationOptions().add(Options.NO_LOGGING);
+		configuration.getInitialConditions().put(InitialConditions.INITD, 5000.0);
+
+		Integrate6DOFEquations simulation = new Integrate6DOFEquations(new FlightControlsState(configuration),
+																	   new SimulationContext(configuration));
+		simulation.addFlightDataListener(flightData -> {});
+
+		return simulation;
+	}
+
+	/**
+	 * Once warmed up, stepping the simulation and publishing flight data to listeners should not allocate on the heap. Recompilation 
+	 * by the JIT can briefly run the step without escape analysis, so several windows of steps are measured; an allocation made by
+	 * every step would show in all of them
+	 */
+	private static void assertStepDoesNotAllocate(IntegratorType integratorType) {
+		Integrate6DOFEquations simulation = createSimulation(integratorType);
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+
+		for (int i = 0; i < WARM_UP_STEPS; i++)
+			simulation.step();
+
+		long leastAllocated = Long.MAX_VALUE;
+		for (int window = 0; window < MEASURED_WINDOWS && leastAllocated > 0; window++) {
+			long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+			for (int i = 0; i < MEASURED_STEPS; i++)
+				simulation.step();
+			long allocatedAfter = threadBean.getThreadAllocatedBytes(threadId);
+
+			leastAllocated = Math.min(leastAllocated, allocatedAfter - allocatedBefore);
+		}
+
+		assertEquals("Bytes allocated over " + MEASURED_STEPS + " steps with " + integratorType, 0, leastAllocated);
+	}
+
+	@Test
+	public void RungeKuttaStepDoesNotAllocateTest() {
+		assertStepDoesNotAllocate(IntegratorType.RUNGE_KUTTA_4);
+	}
+
+	@Test
+	public void AdamsBashforthMoultonStepDoesNotAllocateTest() {
+		assertStepDoesNotAllocate(IntegratorType.ADAMS_BASHFORTH_MOULTON);
+	}
+
+	@Test
+	public void AdamsBashforthStepDoesNotAllocateTest() {
+		assertStepDoesNotAllocate(IntegratorType.ADAMS_BASHFORTH);
+	}
+}
@@ -0,0 +1,71 @@
+package com.chrisali.javaflightsim.simulation.integration;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.SimulationContext;
+import com.chrisali.javaflightsim.simulation.aircraft.LandingGear;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsState;
+import com.chrisali.javaflightsim.simulation.setup.GroundReactionSolver;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+
+public class IntegrateGroundReactionTest {
+
+	private static final double END_TIME = 20.0;
+
+	/**
+	 * Drops the aircraft onto the runway from 3 ft with throttle idle and rolls it out, using a time step several times larger
+	 * than the default
+	 */
+	private static Integrate6DOFEquations dropOntoRunway(double dt, Set<LandingGear> touchdowns) {
+		SimulationConfiguration configuration = FileUtilities.readSimulationConfiguration();
+		configuration.setGroundReactionSolver(GroundReactionSolver.BACKWARD_EULER);
+		configuration.getIntegratorConfig().put(IntegratorConfig.DT, dt);
+
+		Map<InitialConditions, Double> initialConditions = configuration.getInitialConditions();
+		initialConditions.put(InitialConditions.INITU, 30.0);
+		initialConditions.put(InitialConditions.INITW, 0.0);
+		initialConditions.put(InitialConditions.INITD, 3.0);
+		initialConditions.put(InitialConditions.INITTHETA, 0.0);
+		initialConditions.put(InitialConditions.INITPSI, 0.0);
+
+		configuration.getInitialControls().put(FlightControl.THROTTLE_1, 0.0);
+		configuration.getInitialControls().put(FlightControl.ELEVATOR, 0.0);
+
+		Integrate6DOFEquations simulation = new Integrate6DOFEquations(new FlightControlsState(configuration),
+																	   new SimulationContext(configuration));
+		simulation.addGroundContactListener((gear, touchdown, time, verticalSpeed) -> {
+			if (touchdown)
+				touchdowns.add(gear);
+		});
+
+		int steps = (int) Math.round(END_TIME / dt);
+		for (int i = 0; i < steps; i++) {
+			simulation.step();
+			assertFalse("States should remain finite", Double.isNaN(simulation.getStates()[InitialConditions.INITD.ordinal()]));
+		}
+
+		return simulation;
+	}
+
+	@Test
+	public void BackwardEulerLargeStepTest() {
+		Set<LandingGear> touchdowns = EnumSet.noneOf(LandingGear.class);
+		double[] states = dropOntoRunway(0.2, touchdowns).getStates();
+
+		double altitude = states[InitialConditions.INITD.ordinal()];
+		assertTrue("Aircraft should settle on its gear, but altitude was " + altitude, altitude > 1.4 && altitude < 2.0);
+		assertTrue("Aircraft should slow down on the runway", states[InitialConditions.INITU.ordinal()] < 30.0);
+		assertTrue("All gear should touch down", touchdowns.containsAll(EnumSet.allOf(LandingGear.class)));
+	}
+}
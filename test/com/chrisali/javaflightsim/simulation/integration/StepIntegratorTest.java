@@ -0,0 +1,108 @@
+package com.chrisali.javaflightsim.simulation.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.math3.ode.FirstOrderDifferentialEquations;
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.setup.IntegratorType;
+
+public class StepIntegratorTest {
+	
+	private static final double END_TIME = 10.0;
+	
+	/**
+	 * Undamped harmonic oscillator x'' = -x, whose solution from x = 1, x' = 0 is x = cos(t) 
+	 */
+	private static class Oscillator implements FirstOrderDifferentialEquations {
+		private int evaluations = 0;
+		
+		@Override
+		public void computeDerivatives(double t, double[] y, double[] yDot) {
+			yDot[0] = y[1];
+			yDot[1] = -y[0];
+			evaluations++;
+		}
+
+		@Override
+		public int getDimension() { return 2; }
+	}
+	
+	private static double integrationError(IntegratorType type, double dt, Oscillator equations) {
+		StepIntegrator integrator = StepIntegrator.create(type, equations.getDimension());
+		
+		double[] y = {1.0, 0.0};
+		double[] yDot = new double[2];
+		double t = 0;
+		double maxError = 0;
+		
+		int steps = (int) Math.round(END_TIME / dt);
+		for (int i = 0; i < steps; i++) {
+			// Supply derivatives at the start of each step, as Integrate6DOFEquations does
+			equations.computeDerivatives(t, y, yDot);
+			integrator.singleStep(equations, t, y, yDot, t + dt, y);
+			t += dt;
+			
+			maxError = Math.max(maxError, Math.abs(y[0] - Math.cos(t)));
+		}
+		
+		return maxError;
+	}
+	
+	@Test
+	public void RungeKuttaFourthOrderConvergenceTest() {
+		double coarse = integrationError(IntegratorType.RUNGE_KUTTA_4, 0.1,  new Oscillator());
+		double fine   = integrationError(IntegratorType.RUNGE_KUTTA_4, 0.05, new Oscillator());
+		
+		assertTrue("Halving dt should reduce error by about 16 times, but was " + coarse/fine, coarse/fine > 12);
+	}
+	
+	@Test
+	public void AdamsBashforthMoultonFourthOrderConvergenceTest() {
+		double coarse = integrationError(IntegratorType.ADAMS_BASHFORTH_MOULTON, 0.1,  new Oscillator());
+		double fine   = integrationError(IntegratorType.ADAMS_BASHFORTH_MOULTON, 0.05, new Oscillator());
+		
+		assertTrue("Halving dt should reduce error by about 16 times, but was " + coarse/fine, coarse/fine > 12);
+	}
+	
+	@Test
+	public void AdamsBashforthFourthOrderConvergenceTest() {
+		double coarse = integrationError(IntegratorType.ADAMS_BASHFORTH, 0.1,  new Oscillator());
+		double fine   = integrationError(IntegratorType.ADAMS_BASHFORTH, 0.05, new Oscillator());
+		
+		assertTrue("Halving dt should reduce error by about 16 times, but was " + coarse/fine, coarse/fine > 12);
+	}
+	
+	@Test
+	public void RungeKuttaEvaluationCountTest() {
+		Oscillator equations = new Oscillator();
+		integrationError(IntegratorType.RUNGE_KUTTA_4, 0.1, equations);
+		
+		// One evaluation per step to supply derivatives (k1), and three more for the remaining stages
+		assertEquals(100 + 3*100, equations.evaluations);
+	}
+	
+	@Test
+	public void AdamsBashforthMoultonEvaluationCountTest() {
+		Oscillator equations = new Oscillator();
+		integrationError(IntegratorType.ADAMS_BASHFORTH_MOULTON, 0.1, equations);
+		
+		// One evaluation per step to supply derivatives, one by the corrector for all but the three starting steps, which take three each
+		assertEquals(100 + 97 + 3*3, equations.evaluations);
+	}
+	
+	@Test
+	public void AdamsBashforthSingleEvaluationTest() {
+		Oscillator equations = new Oscillator();
+		integrationError(IntegratorType.ADAMS_BASHFORTH, 0.1, equations);
+		
+		// Only the evaluation per step to supply derivatives, apart from the three starting steps, which take three more each
+		assertEquals(100 + 3*3, equations.evaluations);
+	}
+	
+	@Test
+	public void DormandPrinceToleranceTest() {
+		assertTrue(integrationError(IntegratorType.DORMAND_PRINCE, 1.0, new Oscillator()) < 1e-5);
+	}
+}
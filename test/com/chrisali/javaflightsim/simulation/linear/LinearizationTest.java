@@ -0,0 +1,114 @@
+package com.chrisali.javaflightsim.simulation.linear;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.SimulationContext;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.TrimCache;
+import com.chrisali.javaflightsim.simulation.setup.Trimming;
+import com.chrisali.javaflightsim.simulation.sweep.ParameterSweep;
+import com.chrisali.javaflightsim.simulation.sweep.SweepCase;
+import com.chrisali.javaflightsim.simulation.sweep.SweepGrid;
+import com.chrisali.javaflightsim.tests.TestFixtures;
+
+public class LinearizationTest {
+
+	private static SimulationContext createTrimmedContext() {
+		SimulationContext context = new SimulationContext(TestFixtures.readConfiguration(), TestFixtures.readSelectedAircraft());
+		Trimming.trimSim(context, new TrimCache(), 0.0, 0.0, true);
+
+		return context;
+	}
+
+	@Test
+	public void ParallelLinearizationMatchesSerialTest() {
+		SimulationContext context = createTrimmedContext();
+
+		Linearization serial = new Linearization(context);
+		serial.setParallelism(1);
+		LinearModel expected = serial.linearize();
+
+		Linearization parallel = new Linearization(context);
+		parallel.setParallelism(4);
+		LinearModel actual = parallel.linearize();
+
+		for (int i = 0; i < expected.getA().length; i++) {
+			assertArrayEquals(expected.getA()[i], actual.getA()[i], 0.0);
+			assertArrayEquals(expected.getB()[i], actual.getB()[i], 0.0);
+		}
+
+		// Trimmed, so body accelerations are close to zero
+		double[] trimDerivatives = expected.getTrimDerivatives();
+		for (InitialConditions state : new InitialConditions[] {InitialConditions.INITU, InitialConditions.INITV, InitialConditions.INITW})
+			assertEquals(state.toString(), 0.0, trimDerivatives[state.ordinal()], 1e-3);
+
+		// Classic stability derivative signs: speed damping, pitch damping and elevator control power
+		assertTrue(expected.getA(InitialConditions.INITU, InitialConditions.INITU) < 0);
+		assertTrue(expected.getA(InitialConditions.INITQ, InitialConditions.INITQ) < 0);
+		assertTrue(expected.getB(InitialConditions.INITQ, FlightControl.ELEVATOR) != 0);
+		assertTrue(expected.getB(InitialConditions.INITU, FlightControl.THROTTLE_1) > 0);
+	}
+
+	@Test
+	public void ModalAnalysisFindsClassicModesTest() {
+		LinearModel model = new Linearization(createTrimmedContext()).linearize();
+
+		Map<ModeType, Mode> modes = new EnumMap<>(ModeType.class);
+		for (Mode mode : model.getModes())
+			modes.put(mode.getType(), mode);
+
+		for (ModeType type : new ModeType[] {ModeType.SHORT_PERIOD, ModeType.PHUGOID, ModeType.DUTCH_ROLL, ModeType.ROLL, ModeType.SPIRAL})
+			assertNotNull(type.toString(), modes.get(type));
+
+		Mode shortPeriod = modes.get(ModeType.SHORT_PERIOD);
+		Mode phugoid = modes.get(ModeType.PHUGOID);
+
+		assertTrue(shortPeriod.isStable());
+		assertTrue(shortPeriod.getNaturalFrequency() > 5 * phugoid.getNaturalFrequency());
+		assertTrue(modes.get(ModeType.ROLL).isStable());
+		assertTrue(Math.abs(modes.get(ModeType.ROLL).getReal()) > Math.abs(modes.get(ModeType.SPIRAL).getReal()));
+
+		// Short period is mostly pitch rate and angle of attack, Dutch roll mostly yaw rate and sideslip
+		Map<InitialConditions, Double> shortPeriodShape = shortPeriod.getModeShape();
+		assertTrue(shortPeriodShape.get(InitialConditions.INITQ) > shortPeriodShape.get(InitialConditions.INITP));
+		Map<InitialConditions, Double> dutchRollShape = modes.get(ModeType.DUTCH_ROLL).getModeShape();
+		assertTrue(dutchRollShape.get(InitialConditions.INITR) > dutchRollShape.get(InitialConditions.INITQ));
+	}
+
+	@Test
+	public void SweepLinearizesEachCaseTest() {
+		List<SweepCase> cases = new SweepGrid().addInitialCondition(InitialConditions.INITU, 150, 200).getCases();
+
+		ParameterSweep sweep = new ParameterSweep(TestFixtures.readConfiguration());
+		sweep.setParallelism(2);
+		List<LinearModel> models = sweep.linearize(cases);
+
+		assertEquals(2, models.size());
+		for (LinearModel model : models)
+			assertNotNull(model);
+
+		// Faster flight means a faster short period
+		double slow = findMode(models.get(0), ModeType.SHORT_PERIOD).getNaturalFrequency();
+		double fast = findMode(models.get(1), ModeType.SHORT_PERIOD).getNaturalFrequency();
+		assertTrue(fast > slow);
+	}
+
+	private static Mode findMode(LinearModel model, ModeType type) {
+		for (Mode mode : model.getModes()) {
+			if (mode.getType() == type)
+				return mode;
+		}
+
+		return null;
+	}
+}
@@ -0,0 +1,110 @@
+package com.chrisali.javaflightsim.simulation.setup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.HeadlessSimulationRunner;
+import com.chrisali.javaflightsim.simulation.SimulationContext;
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+import com.chrisali.javaflightsim.tests.TestFixtures;
+
+public class TrimSolverTest {
+
+	private static final double DURATION = 10;
+
+	private static final Aircraft AIRCRAFT = TestFixtures.readSelectedAircraft();
+
+	private static SimulationContext createContext() {
+		SimulationConfiguration configuration = TestFixtures.readConfiguration(DURATION);
+		configuration.getSimulationOptions().add(Options.NO_LOGGING);
+
+		return new SimulationContext(configuration, AIRCRAFT);
+	}
+
+	private static TrimPoint solve(SimulationContext context, double flightPathAngle, double turnRate) {
+		TrimSolver solver = new TrimSolver(context);
+		solver.setFlightPathAngle(flightPathAngle);
+		solver.setTurnRate(turnRate);
+
+		return solver.solve();
+	}
+
+	@Test
+	public void LevelTrimHoldsAltitudeAndAttitudeTest() {
+		SimulationContext context = createContext();
+		TrimPoint trimPoint = solve(context, 0.0, 0.0);
+
+		assertTrue(trimPoint.isConverged());
+		assertEquals(0.0, trimPoint.getInitialConditions().get(InitialConditions.INITPHI), 0.0);
+
+		trimPoint.applyTo(context.getConfiguration());
+		double altitude = context.getConfiguration().getInitialConditions().get(InitialConditions.INITD);
+
+		HeadlessSimulationRunner runner = new HeadlessSimulationRunner(context);
+		runner.call();
+		double[] out = runner.getSimOutValues();
+
+		assertEquals(altitude, out[SimOuts.ALT.ordinal()], 5.0);
+		assertEquals(trimPoint.getInitialConditions().get(InitialConditions.INITTHETA), out[SimOuts.THETA.ordinal()], 0.01);
+		assertEquals(0.0, out[SimOuts.PHI.ordinal()], 0.01);
+	}
+
+	@Test
+	public void ClimbingAndTurningTrimsConvergeTest() {
+		TrimPoint level = solve(createContext(), 0.0, 0.0);
+		TrimPoint climb = solve(createContext(), Math.toRadians(1), 0.0);
+		SimulationContext turnContext = createContext();
+		TrimPoint turn  = solve(turnContext, 0.0, Math.toRadians(3));
+
+		assertTrue(climb.isConverged());
+		assertTrue(turn.isConverged());
+
+		Map<InitialConditions, Double> climbStates = climb.getInitialConditions();
+		double climbAlpha = Math.atan(climbStates.get(InitialConditions.INITW) / climbStates.get(InitialConditions.INITU));
+
+		// Pitch attitude is angle of attack plus flight path angle in a wings-level climb, which needs more power than level flight
+		assertEquals(climbAlpha + Math.toRadians(1), climbStates.get(InitialConditions.INITTHETA), 1e-6);
+		assertTrue(climb.getInitialControls().get(FlightControl.THROTTLE_1) 
+				 > level.getInitialControls().get(FlightControl.THROTTLE_1));
+
+		// A right turn is made banked to the right, yawing to the right
+		assertTrue(turn.getInitialConditions().get(InitialConditions.INITPHI) > 0);
+		assertTrue(turn.getInitialConditions().get(InitialConditions.INITR) > 0);
+
+		// Steady turn holds its bank angle and altitude
+		turn.applyTo(turnContext.getConfiguration());
+
+		HeadlessSimulationRunner runner = new HeadlessSimulationRunner(turnContext);
+		runner.call();
+		double[] out = runner.getSimOutValues();
+
+		assertEquals(turn.getInitialConditions().get(InitialConditions.INITPHI), out[SimOuts.PHI.ordinal()], 0.01);
+		assertEquals(turnContext.getConfiguration().getInitialConditions().get(InitialConditions.INITD), out[SimOuts.ALT.ordinal()], 5.0);
+	}
+
+	@Test
+	public void TrimCacheSkipsSolverForSameConditionTest() {
+		TrimCache trimCache = new TrimCache();
+		SimulationContext first = createContext();
+
+		TrimPoint trimPoint = Trimming.trimSim(first, trimCache, 0.0, 0.0, true);
+		assertTrue(trimCache.isModified());
+		assertEquals(1, trimCache.getTrimPoints().size());
+
+		assertSame(trimPoint, Trimming.trimSim(createContext(), trimCache, 0.0, 0.0, true));
+
+		// Round trip through JSON as when saved
+		TrimCache copy = FileUtilities.deepCopy(trimCache, TrimCache.class);
+		String key = trimCache.getTrimPoints().keySet().iterator().next();
+		assertEquals(trimPoint.getInitialControls(), copy.get(key).getInitialControls());
+		assertEquals(trimPoint.getInitialConditions(), copy.get(key).getInitialConditions());
+	}
+}
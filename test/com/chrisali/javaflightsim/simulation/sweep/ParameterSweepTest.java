@@ -0,0 +1,132 @@
+package com.chrisali.javaflightsim.simulation.sweep;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.aircraft.MassProperties;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+import com.chrisali.javaflightsim.tests.TestFixtures;
+
+public class ParameterSweepTest {
+
+	private static final double DURATION = 5;
+
+	private static SweepGrid createGrid() {
+		return new SweepGrid().addInitialCondition(InitialConditions.INITU, 150, 180)
+							  .addInitialCondition(InitialConditions.INITD, 3000, 5000, 7000)
+							  .addFuelWeightPercent(0.2, 0.9);
+	}
+
+	private static Map<Integer, double[]> runSweep(List<SweepCase> cases, AtomicInteger progress) {
+		Map<Integer, double[]> lastOutputs = new ConcurrentHashMap<>();
+
+		ParameterSweep sweep = new ParameterSweep(TestFixtures.readConfiguration(DURATION));
+		sweep.setParallelism(4);
+		sweep.setProgressListener((result, completed, total) -> progress.incrementAndGet());
+
+		List<SweepResult> results = sweep.run(cases, sweepCase -> new SweepResultSink() {
+			@Override
+			public void onStep(double[] simOutValues) {
+				lastOutputs.put(sweepCase.getIndex(), simOutValues.clone());
+			}
+		});
+
+		assertEquals(cases.size(), results.size());
+		for (SweepResult result : results) {
+			assertTrue(result.toString(), result.isSuccessful());
+			assertTrue(result.getSteps() > 0);
+		}
+
+		return lastOutputs;
+	}
+
+	@Test
+	public void GridIsCartesianProductOfSweptValuesTest() {
+		List<SweepCase> cases = createGrid().getCases();
+
+		assertEquals(12, cases.size());
+
+		// Last parameter added varies fastest
+		assertEquals(0.2, cases.get(0).getFuelWeightPercent(), 0.0);
+		assertEquals(0.9, cases.get(1).getFuelWeightPercent(), 0.0);
+		assertEquals(5000.0, cases.get(2).getInitialConditions().get(InitialConditions.INITD), 0.0);
+		assertEquals(180.0, cases.get(11).getInitialConditions().get(InitialConditions.INITU), 0.0);
+		assertEquals(7000.0, cases.get(11).getInitialConditions().get(InitialConditions.INITD), 0.0);
+	}
+
+	@Test
+	public void WeightOverridesChangeTotalMassByGrossWeightDifferenceTest() {
+		Aircraft aircraft = TestFixtures.readSelectedAircraft();
+		Aircraft copy = FileUtilities.deepCopy(aircraft, Aircraft.class);
+
+		SweepCase sweepCase = new SweepCase(0);
+		sweepCase.setFuelWeightPercent(aircraft.getMassProperty(MassProperties.WEIGHT_FUEL));
+		sweepCase.applyTo(copy);
+
+		assertEquals(aircraft.getMassProperty(MassProperties.TOTAL_MASS), copy.getMassProperty(MassProperties.TOTAL_MASS), 1e-9);
+
+		sweepCase.setFuelWeightPercent(0.0);
+		sweepCase.applyTo(copy);
+
+		assertTrue(copy.getMassProperty(MassProperties.TOTAL_MASS) < aircraft.getMassProperty(MassProperties.TOTAL_MASS));
+	}
+
+	@Test
+	public void ParallelSweepIsRepeatableTest() {
+		List<SweepCase> cases = createGrid().getCases().subList(0, 6);
+		AtomicInteger progress = new AtomicInteger();
+
+		Map<Integer, double[]> first = runSweep(cases, progress);
+		Map<Integer, double[]> second = runSweep(cases, progress);
+
+		assertEquals(2 * cases.size(), progress.get());
+
+		for (SweepCase sweepCase : cases)
+			assertArrayEquals(sweepCase.toString(), first.get(sweepCase.getIndex()), second.get(sweepCase.getIndex()), 0.0);
+
+		// Cases at different altitudes should not end up in the same state
+		assertNotEquals(first.get(0)[SimOuts.ALT.ordinal()], first.get(2)[SimOuts.ALT.ordinal()], 1.0);
+	}
+
+	@Test
+	public void FailedCaseKeepsItsPlaceInResultsTest() {
+		List<SweepCase> cases = createGrid().getCases().subList(0, 4);
+		SweepCase failedCase = cases.get(1);
+
+		ParameterSweep sweep = new ParameterSweep(TestFixtures.readConfiguration(DURATION));
+		sweep.setParallelism(4);
+
+		List<SweepResult> results = sweep.run(cases, sweepCase -> {
+			if (sweepCase == failedCase)
+				throw new IllegalStateException("No sink for " + sweepCase);
+
+			return new SweepResultSink() {
+				@Override
+				public void onStep(double[] simOutValues) {}
+			};
+		});
+
+		assertEquals(cases.size(), results.size());
+		for (int i = 0; i < cases.size(); i++) {
+			SweepResult result = results.get(i);
+
+			assertSame(result.toString(), cases.get(i), result.getSweepCase());
+			assertEquals(result.toString(), cases.get(i) != failedCase, result.isSuccessful());
+		}
+
+		assertTrue(results.get(1).getException() instanceof IllegalStateException);
+	}
+}
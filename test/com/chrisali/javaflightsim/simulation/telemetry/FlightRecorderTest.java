@@ -0,0 +1,94 @@
+package com.chrisali.javaflightsim.simulation.telemetry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.aircraft.LandingGear;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.telemetry.FlightRecording.RecordedEvent;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+
+public class FlightRecorderTest {
+
+	private static final int STEPS = 2000;
+
+	@Test
+	public void RecordAndRollOverTest() throws IOException {
+		SimulationConfiguration configuration = FileUtilities.readSimulationConfiguration();
+		configuration.setRecorderFileSizeMB(1);
+
+		Path directory = Files.createTempDirectory("recordings");
+		double[] simOutValues = new double[SimOuts.values().length];
+		FlightRecorder recorder = new FlightRecorder(configuration, simOutValues, directory);
+		recorder.start();
+
+		for (int step = 0; step < STEPS; step++) {
+			simOutValues[SimOuts.TIME.ordinal()] = step * 0.01;
+			simOutValues[SimOuts.ALT.ordinal()] = 5000 - step;
+			recorder.step();
+
+			// Paused steps are not recorded again
+			recorder.step();
+
+			if (step == 1500)
+				recorder.onGroundContact(LandingGear.NOSE, true, step * 0.01, -2.5);
+		}
+
+		recorder.stop();
+
+		assertEquals(0, recorder.getDroppedRows());
+		assertEquals(STEPS, recorder.getRowsRecorded());
+
+		// About 1.3 MB of outputs should roll over into a second 1 MB file
+		List<Path> files = recorder.getRecordedFiles();
+		assertTrue("Recording should roll over to a new file", files.size() > 1);
+
+		TelemetryStore store = new TelemetryStore();
+		List<RecordedEvent> events = new ArrayList<>();
+
+		for (Path file : files) {
+			FlightRecording recording = new FlightRecording(file);
+
+			assertEquals(configuration.getSelectedAircraft(), recording.getAircraft());
+			assertEquals(configuration.getIntegratorConfig().get(IntegratorConfig.DT), recording.getDt(), 0);
+			assertEquals(SimOuts.values().length, recording.getChannelNames().size());
+			assertEquals("ft", recording.getChannelUnits().get(SimOuts.ALT.ordinal()));
+
+			recording.readInto(store);
+			events.addAll(recording.getEvents());
+		}
+
+		assertEquals(STEPS, store.size());
+
+		TelemetrySnapshot snapshot = store.snapshot();
+		for (int row = 0; row < STEPS; row++) {
+			assertEquals(row * 0.01, snapshot.get(row, SimOuts.TIME), 0);
+			assertEquals(5000 - row, snapshot.get(row, SimOuts.ALT), 0);
+		}
+
+		assertEquals(1, events.size());
+		assertEquals(15.0, events.get(0).getTime(), 0);
+		assertTrue("Event should be recorded with the row it occurred at", Math.abs(events.get(0).getRowIndex() - 1500) <= 1);
+		assertTrue(events.get(0).getDescription().contains("touchdown"));
+
+		// Every file of the flight is found from any one of them, in the order recorded
+		List<FlightRecording> flight = FlightRecording.openFlight(files.get(files.size() - 1));
+		assertEquals(files.size(), flight.size());
+		for (int fileNumber = 0; fileNumber < flight.size(); fileNumber++)
+			assertEquals(fileNumber, flight.get(fileNumber).getFileNumber());
+
+		for (Path file : files)
+			Files.delete(file);
+		Files.delete(directory);
+	}
+}
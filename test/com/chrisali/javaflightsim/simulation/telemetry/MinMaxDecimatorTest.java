@@ -0,0 +1,77 @@
+package com.chrisali.javaflightsim.simulation.telemetry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class MinMaxDecimatorTest {
+
+	@Test
+	public void BoundedExtremesTest() {
+		MinMaxDecimator decimator = new MinMaxDecimator(500, 1e-3);
+
+		// An hour at 100 Hz, with a single spike that must survive decimation
+		for (int i = 0; i < 360000; i++) {
+			double time = i * 0.01;
+			decimator.add(time, (i == 123457) ? 50.0 : Math.sin(time));
+		}
+
+		assertTrue("Series should hold at most two points per bucket", decimator.size() <= 1000);
+
+		double maxY = Double.NEGATIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		for (int point = 0; point < decimator.size(); point++) {
+			maxY = Math.max(maxY, decimator.getY(point));
+			minY = Math.min(minY, decimator.getY(point));
+
+			if (point > 0)
+				assertTrue("Points should be in order of time", decimator.getX(point) >= decimator.getX(point - 1));
+		}
+
+		assertEquals(50.0, maxY, 0);
+		assertEquals(-1.0, minY, 1e-6);
+	}
+
+	@Test
+	public void ChangedPointsTest() {
+		MinMaxDecimator decimator = new MinMaxDecimator(100, 1.0);
+
+		decimator.add(0.0, 1.0);
+		decimator.add(1.0, 2.0);
+		assertEquals(0, decimator.getChangedFrom());
+
+		decimator.clearChanges();
+		assertEquals(decimator.size(), decimator.getChangedFrom());
+
+		// Only the newest bucket changes when a sample falls within it
+		decimator.add(1.5, 3.0);
+		assertEquals(2, decimator.getChangedFrom());
+		assertEquals(3.0, decimator.getY(3), 0);
+
+		decimator.clearChanges();
+		decimator.add(2.0, 0.0);
+		assertEquals(4, decimator.getChangedFrom());
+		assertEquals(6, decimator.size());
+
+		decimator.clear();
+		assertEquals(0, decimator.size());
+	}
+
+	@Test
+	public void PathOrderTest() {
+		MinMaxDecimator decimator = new MinMaxDecimator(10, 1.0);
+
+		// A path doubling back on itself in x keeps the order its samples were taken in
+		decimator.add(0.0, 5.0, 0.0);
+		decimator.add(0.5, 4.0, 1.0);
+		decimator.add(1.0, 3.0, 2.0);
+		decimator.add(1.5, 6.0, -1.0);
+
+		assertEquals(4, decimator.size());
+		assertEquals(5.0, decimator.getX(0), 0);
+		assertEquals(4.0, decimator.getX(1), 0);
+		assertEquals(3.0, decimator.getX(2), 0);
+		assertEquals(6.0, decimator.getX(3), 0);
+	}
+}
@@ -0,0 +1,72 @@
+package com.chrisali.javaflightsim.simulation.telemetry;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+
+public class TelemetryEnvelopeTest {
+
+	private static void append(TelemetryStore store, double time, double altitude) {
+		double[] row = new double[SimOuts.values().length];
+		row[SimOuts.TIME.ordinal()] = time;
+		row[SimOuts.ALT.ordinal()] = altitude;
+		store.append(row);
+	}
+
+	@Test
+	public void LevelsTest() {
+		TelemetryStore store = new TelemetryStore();
+		TelemetryEnvelope envelope = new TelemetryEnvelope(store, SimOuts.ALT);
+
+		// Read in uneven chunks as a running simulation would be
+		for (int i = 0; i < 10000; i++) {
+			append(store, i * 0.01, (i == 4321) ? 1000.0 : Math.sin(i * 0.01));
+
+			if (i % 777 == 0)
+				envelope.update(100);
+		}
+		while (envelope.update(100) > 0);
+
+		assertEquals(10000, envelope.getEndIndex());
+		assertEquals(1250, envelope.getBuckets(0));
+
+		int coarsest = envelope.getLevels() - 1;
+		assertEquals(1, envelope.getBuckets(coarsest));
+		assertEquals(1000.0, envelope.getMax(SimOuts.ALT, coarsest, 0), 0);
+		assertEquals(-1.0, envelope.getMin(SimOuts.ALT, coarsest, 0), 1e-6);
+		assertEquals(0.0, envelope.getStartTime(coarsest, 0), 0);
+		assertEquals(99.99, envelope.getEndTime(coarsest, 0), 1e-9);
+
+		// Each bucket of level 3 holds the rows from 64 * bucket
+		int bucket = envelope.findBucket(3, 43.21);
+		assertEquals(67, bucket);
+		assertEquals(1000.0, envelope.getMax(SimOuts.ALT, 3, bucket), 0);
+
+		assertEquals(4321, envelope.findIndex(43.215));
+	}
+
+	@Test
+	public void ResetTest() {
+		TelemetryStore store = new TelemetryStore();
+		TelemetryEnvelope envelope = new TelemetryEnvelope(store, SimOuts.ALT);
+
+		for (int i = 0; i < 100; i++)
+			append(store, i * 0.1, 5000.0);
+
+		// Time going back starts the envelope again from that row
+		append(store, 0.0, 100.0);
+		append(store, 0.1, 200.0);
+		envelope.update(1000);
+
+		assertEquals(1, envelope.getResets());
+		assertEquals(100, envelope.getFirstIndex());
+		assertEquals(1, envelope.getBuckets(0));
+		assertEquals(200.0, envelope.getMax(SimOuts.ALT, 0, 0), 0);
+
+		envelope.clear();
+		assertEquals(0, envelope.update(1000));
+		assertEquals(Double.NaN, envelope.getEndTime(), 0);
+	}
+}
@@ -0,0 +1,111 @@
+package com.chrisali.javaflightsim.simulation.telemetry;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+
+public class TelemetryExporterTest {
+
+	private static List<String> readLines(File file, boolean compressed) throws IOException {
+		List<String> lines = new ArrayList<>();
+
+		try (InputStream in = compressed ? new GZIPInputStream(new FileInputStream(file)) : new FileInputStream(file);
+			 BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null)
+				lines.add(line);
+		}
+
+		return lines;
+	}
+
+	@Test
+	public void FixedPrecisionCompressedTest() throws IOException {
+		TelemetryStore store = new TelemetryStore();
+		double[] row = new double[SimOuts.values().length];
+
+		for (int i = 0; i < 10000; i++) {
+			row[SimOuts.TIME.ordinal()] = i * 0.01;
+			row[SimOuts.ALT.ordinal()] = -i * 1.23456;
+			row[SimOuts.U.ordinal()] = 1e20;
+			store.append(row);
+		}
+
+		File file = Files.createTempFile("export", ".tsv.gz").toFile();
+
+		try {
+			TelemetryExporter exporter = new TelemetryExporter(store);
+			exporter.setChannels(SimOuts.ALT, SimOuts.TIME, SimOuts.U);
+			exporter.setOutputFromFileName(file);
+			exporter.setPrecision(3);
+
+			assertEquals(10000, exporter.export(file));
+
+			List<String> lines = readLines(file, true);
+			assertEquals(10001, lines.size());
+			assertEquals(SimOuts.ALT + "\t" + SimOuts.TIME + "\t" + SimOuts.U, lines.get(0));
+			assertEquals("0.000\t0.000\t1.0E20", lines.get(1));
+			assertEquals("-1.235\t0.010\t1.0E20", lines.get(2));
+			assertEquals("-12344.365\t99.990\t1.0E20", lines.get(10000));
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void FullPrecisionListTest() throws IOException {
+		List<Map<SimOuts, Double>> logsOut = new ArrayList<>();
+
+		for (int i = 0; i < 100; i++) {
+			// HashMap iteration order does not match the order of SimOuts
+			Map<SimOuts, Double> simOut = new HashMap<>();
+			simOut.put(SimOuts.TIME, i / 3.0);
+			simOut.put(SimOuts.THETA, -Math.PI * i);
+			logsOut.add(simOut);
+		}
+
+		File file = Files.createTempFile("export", ".csv").toFile();
+
+		try {
+			TelemetryExporter exporter = new TelemetryExporter(logsOut);
+			assertEquals(TelemetryExporter.FULL_PRECISION, exporter.getPrecision());
+
+			exporter.setChannels(SimOuts.TIME, SimOuts.THETA, SimOuts.ALT);
+			exporter.export(file);
+
+			List<String> lines = readLines(file, false);
+			assertEquals(101, lines.size());
+
+			for (int i = 0; i < 100; i++) {
+				String[] values = lines.get(i + 1).split(",");
+				assertEquals("Values should read back exactly", i / 3.0, Double.parseDouble(values[0]), 0);
+				assertEquals(-Math.PI * i, Double.parseDouble(values[1]), 0);
+				assertEquals("NaN", values[2]);
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void FileFormatTest() {
+		assertEquals(ExportFormat.TSV, ExportFormat.fromFileName("Output.TSV.gz"));
+		assertEquals(ExportFormat.CSV, ExportFormat.fromFileName("Output.csv"));
+	}
+}
@@ -0,0 +1,111 @@
+package com.chrisali.javaflightsim.simulation.telemetry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataType;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.telemetry.FlightRecording.RecordedEvent;
+
+public class TelemetryReplayTest {
+
+	private static TelemetryStore recordedFlight(int rows, double resetAfter) {
+		TelemetryStore store = new TelemetryStore();
+		double[] row = new double[SimOuts.values().length];
+
+		for (int i = 0; i < rows; i++) {
+			double time = (i * 0.1) % resetAfter;
+
+			row[SimOuts.TIME.ordinal()] = time;
+			row[SimOuts.ALT.ordinal()] = 1000 + 10 * time;
+			row[SimOuts.PSI.ordinal()] = Math.toRadians((350 + 4 * i) % 360);
+			store.append(row);
+		}
+
+		return store;
+	}
+
+	@Test
+	public void InterpolationTest() {
+		TelemetryReplay replay = new TelemetryReplay(recordedFlight(100, Double.MAX_VALUE));
+		double[] altitude = new double[1];
+		replay.addFlightDataListener(flightData -> altitude[0] = flightData.get(FlightDataType.ALTITUDE));
+
+		replay.replayAt(0.25);
+		assertEquals(1002.5, altitude[0], 1e-9);
+		assertEquals(0.25, replay.getReplayValues()[SimOuts.TIME.ordinal()], 1e-9);
+
+		// Heading passing through north is interpolated the short way around, half way from 358 to 2 degrees
+		assertEquals(0.0, Math.IEEEremainder(Math.toDegrees(replay.getReplayValues()[SimOuts.PSI.ordinal()]), 360.0), 1e-6);
+
+		// Replay time is limited to the recording
+		replay.replayAt(100.0);
+		assertEquals(replay.getEndTime(), replay.getTime(), 0);
+		assertEquals(1099.0, altitude[0], 1e-9);
+		assertTrue(replay.isFinished());
+	}
+
+	@Test
+	public void SeekAndPauseTest() {
+		TelemetryReplay replay = new TelemetryReplay(recordedFlight(100, Double.MAX_VALUE));
+
+		replay.setPaused(true);
+		replay.seek(5.0);
+		replay.step();
+		assertEquals(5.0, replay.getTime(), 1e-9);
+
+		// Paused replay holds its time
+		replay.step();
+		assertEquals(5.0, replay.getTime(), 1e-9);
+
+		replay.setSpeed(1000.0);
+		replay.setPaused(false);
+		replay.step();
+		replay.step();
+		assertTrue("Replay should play forwards", replay.getTime() > 5.0);
+
+		replay.setSpeed(-1000.0);
+		for (int i = 0; i < 5; i++)
+			replay.step();
+		assertTrue("Replay should play backwards", replay.getTime() < 9.9);
+	}
+
+	@Test
+	public void ResetTimeIndexTest() {
+		// Simulation reset after 5 seconds, so recorded time runs from 0 to 5 twice
+		TelemetryReplay replay = new TelemetryReplay(recordedFlight(100, 5.0));
+
+		assertEquals(9.9, replay.getEndTime(), 1e-9);
+
+		replay.replayAt(7.5);
+		assertEquals(2.5, replay.getReplayValues()[SimOuts.TIME.ordinal()], 1e-9);
+	}
+
+	@Test
+	public void EventAfterResetTest() {
+		// Simulation reset after 5 seconds, with events at 2 seconds of simulation time before and after the reset
+		RecordedEvent beforeReset = new RecordedEvent(2.0, 20, "before reset");
+		RecordedEvent afterReset = new RecordedEvent(2.0, 70, "after reset");
+		RecordedEvent noRow = new RecordedEvent(2.0, "no row");
+
+		TelemetryReplay replay = new TelemetryReplay(recordedFlight(100, 5.0), Arrays.asList(beforeReset, afterReset, noRow), 0);
+
+		assertEquals(2.0, replay.getReplayTime(beforeReset), 1e-9);
+		assertEquals(7.0, replay.getReplayTime(afterReset), 1e-9);
+		assertEquals(2.0, replay.getReplayTime(noRow), 1e-9);
+
+		replay.setPaused(true);
+		replay.seek(afterReset);
+		replay.step();
+		assertEquals(7.0, replay.getTime(), 1e-9);
+		assertEquals(2.0, replay.getReplayValues()[SimOuts.TIME.ordinal()], 1e-9);
+
+		// Rows of events are counted from the first row of the flight, which need not be the first row replayed
+		replay = new TelemetryReplay(recordedFlight(100, 5.0), Arrays.asList(afterReset), 30);
+		assertEquals(2.0, replay.getReplayTime(afterReset), 1e-9);
+	}
+}
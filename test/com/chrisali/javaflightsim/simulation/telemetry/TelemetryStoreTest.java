@@ -0,0 +1,132 @@
+package com.chrisali.javaflightsim.simulation.telemetry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+
+public class TelemetryStoreTest {
+
+	private static final int CHANNELS = SimOuts.values().length;
+
+	private static double[] row(double value) {
+		double[] row = new double[CHANNELS];
+		Arrays.fill(row, value);
+		return row;
+	}
+
+	@Test
+	public void RingEvictionTest() {
+		TelemetryStore store = new TelemetryStore(4, 5);
+
+		for (int i = 0; i < 10; i++)
+			store.append(row(i));
+
+		assertEquals(5, store.size());
+		assertEquals(5, store.getFirstIndex());
+		assertEquals(10, store.getEndIndex());
+
+		TelemetrySnapshot snapshot = store.snapshot(0, Long.MAX_VALUE, SimOuts.TIME, SimOuts.ALT);
+		assertEquals(5, snapshot.getFirstIndex());
+		assertTrue(Arrays.equals(new double[] {5, 6, 7, 8, 9}, snapshot.getColumn(SimOuts.TIME)));
+		assertFalse(snapshot.hasChannel(SimOuts.U));
+
+		List<Map<SimOuts, Double>> logsOut = store.asList();
+		assertEquals(5, logsOut.size());
+		assertEquals(5.0, logsOut.get(0).get(SimOuts.TIME), 0);
+		assertEquals(9.0, logsOut.get(logsOut.size() - 1).get(SimOuts.ALT), 0);
+
+		double[] evicted = new double[CHANNELS];
+		assertFalse("Evicted rows should not be readable", store.read(4, evicted));
+	}
+
+	@Test
+	public void GrowthAndTimeEvictionTest() {
+		TelemetryStore store = new TelemetryStore(2, Integer.MAX_VALUE >> 1);
+
+		for (int i = 0; i < 1000; i++)
+			store.append(row(i * 0.1));
+
+		assertEquals(1000, store.size());
+		assertEquals(99.9, store.snapshot(999, 1000).get(0, SimOuts.TIME), 1e-9);
+
+		store.evictOlderThan(50.0);
+
+		assertEquals(500, store.getFirstIndex());
+
+		int rows = 0;
+		for (Map<SimOuts, Double> simOut : store.asList()) {
+			assertEquals((500 + rows) * 0.1, simOut.get(SimOuts.TIME), 1e-9);
+			rows++;
+		}
+		assertEquals(500, rows);
+
+		store.clear();
+
+		assertEquals(0, store.size());
+		assertTrue(store.asList().isEmpty());
+	}
+
+	@Test
+	public void ConcurrentSnapshotTest() throws InterruptedException {
+		final int appends = 200000;
+		TelemetryStore store = new TelemetryStore(16, 64);
+
+		// Every channel of each row holds the index of the row
+		Thread writer = new Thread(() -> {
+			for (int i = 0; i < appends; i++)
+				store.append(row(i));
+		});
+		writer.start();
+
+		while (writer.isAlive()) {
+			TelemetrySnapshot snapshot = store.snapshot(store.getFirstIndex(), Long.MAX_VALUE, SimOuts.TIME, SimOuts.GEAR);
+
+			for (int row = 0; row < snapshot.size(); row++) {
+				assertEquals("Row was overwritten while being copied", snapshot.getFirstIndex() + row, snapshot.get(row, SimOuts.TIME), 0);
+				assertEquals("Row was overwritten while being copied", snapshot.getFirstIndex() + row, snapshot.get(row, SimOuts.GEAR), 0);
+			}
+		}
+
+		writer.join();
+
+		assertEquals(64, store.size());
+		assertEquals(appends - 1, store.asList().get(63).get(SimOuts.TIME), 0);
+	}
+
+	@Test
+	public void CursorTest() {
+		TelemetryStore store = new TelemetryStore(4, 5);
+		TelemetryCursor cursor = new TelemetryCursor(store.asList());
+
+		for (int i = 0; i < 3; i++)
+			store.append(row(i));
+
+		assertEquals(3, cursor.readNew(100, SimOuts.TIME).size());
+		assertEquals(0, cursor.readNew(100, SimOuts.TIME).size());
+
+		// Rows evicted before they were read are skipped
+		for (int i = 3; i < 10; i++)
+			store.append(row(i));
+
+		TelemetrySnapshot snapshot = cursor.readNew(3, SimOuts.TIME);
+		assertEquals(5, snapshot.getFirstIndex());
+		assertTrue(Arrays.equals(new double[] {5, 6, 7}, snapshot.getColumn(SimOuts.TIME)));
+		assertEquals(2, cursor.readNew(100, SimOuts.TIME).size());
+
+		// Any other list is followed by position
+		List<Map<SimOuts, Double>> logsOut = new java.util.ArrayList<>(store.asList());
+		TelemetryCursor listCursor = new TelemetryCursor(logsOut);
+		assertEquals(9.0, listCursor.readNew(100, SimOuts.TIME).get(4, SimOuts.TIME), 0);
+
+		logsOut.add(logsOut.get(0));
+		assertEquals(5.0, listCursor.readNew(100, SimOuts.TIME).get(0, SimOuts.TIME), 0);
+	}
+}
@@ -0,0 +1,65 @@
+package com.chrisali.javaflightsim.simulation.utilities;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class SixDOFUtilitiesTest {
+
+	// WGS-84 semi-major axis (m) and first eccentricity squared
+	private static final double A = 6378137.0;
+	private static final double E_SQ = 6.69437999014e-3;
+
+	private static final double FT_TO_M = 0.3048;
+
+	private static double[] states(double latitude, double altitude) {
+		double[] y = new double[14];
+		y[5]  = altitude;
+		y[12] = latitude;
+
+		return y;
+	}
+
+	/**
+	 * Latitude and longitude rates from north and east speeds in ft/sec should match the WGS-84 closed form, which uses the
+	 * meridian radius M = a(1-e^2)/(1-e^2 sin^2(lat))^1.5 and prime vertical radius N = a/sqrt(1-e^2 sin^2(lat)) in meters
+	 */
+	@Test
+	public void Ned2LLAMatchesWGS84Test() {
+		double vNorth = 200.0, vEast = -150.0; // ft/sec
+
+		for (double latitudeDeg : new double[] {0, 30, 45, 60, -72.5}) {
+			for (double altitude : new double[] {0, 10000, 45000}) {
+				double latitude = Math.toRadians(latitudeDeg);
+				double sinLat = Math.sin(latitude);
+				double w = 1 - E_SQ * sinLat * sinLat;
+				double meridianRadius = A * (1 - E_SQ) / Math.pow(w, 1.5);
+				double primeVerticalRadius = A / Math.sqrt(w);
+				double h = altitude * FT_TO_M;
+
+				double expectedLatDot = vNorth * FT_TO_M / (meridianRadius + h);
+				double expectedLonDot = vEast * FT_TO_M / ((primeVerticalRadius + h) * Math.cos(latitude));
+
+				double[] ned2LLA = SixDOFUtilities.ned2LLA(states(latitude, altitude));
+				String condition = "lat " + latitudeDeg + " deg, alt " + altitude + " ft";
+
+				assertEquals("Latitude rate at " + condition, expectedLatDot, vNorth * ned2LLA[0], Math.abs(expectedLatDot) * 1e-8);
+				assertEquals("Longitude rate at " + condition, expectedLonDot, vEast * ned2LLA[1], Math.abs(expectedLonDot) * 1e-8);
+			}
+		}
+	}
+
+	/**
+	 * One minute of latitude at 45 deg is about 1852.2 m, and one minute of longitude at the equator is about 1855.3 m at sea level
+	 */
+	@Test
+	public void Ned2LLAKnownDistancesTest() {
+		double oneMinute = Math.toRadians(1.0 / 60.0);
+
+		double[] ned2LLA = SixDOFUtilities.ned2LLA(states(Math.toRadians(45), 0));
+		assertEquals(1852.2, oneMinute / ned2LLA[0] * FT_TO_M, 0.1);
+
+		ned2LLA = SixDOFUtilities.ned2LLA(states(0, 0));
+		assertEquals(1855.3, oneMinute / ned2LLA[1] * FT_TO_M, 0.1);
+	}
+}
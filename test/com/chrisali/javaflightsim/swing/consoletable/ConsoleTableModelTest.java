@@ -0,0 +1,107 @@
+package com.chrisali.javaflightsim.swing.consoletable;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.swing.event.TableModelEvent;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.telemetry.TelemetryStore;
+
+public class ConsoleTableModelTest {
+
+	private static final int MAX_ROWS = 5;
+
+	private static final int TIME = SimOuts.TIME.ordinal();
+	private static final int ALT = SimOuts.ALT.ordinal();
+
+	private final double[] row = new double[SimOuts.values().length];
+
+	private void append(TelemetryStore store, int fromIndex, int toIndex) {
+		for (int i = fromIndex; i < toIndex; i++) {
+			row[TIME] = i;
+			row[ALT] = i * 10.0;
+			store.append(row);
+		}
+	}
+
+	private static String format(SimOuts channel, double value) {
+		return channel.getFormat().format(value);
+	}
+
+	private static void assertEvents(List<int[]> events, int[]... expected) {
+		assertEquals(expected.length, events.size());
+		for (int i = 0; i < expected.length; i++)
+			assertEquals("Event " + i, Arrays.toString(expected[i]), Arrays.toString(events.get(i)));
+
+		events.clear();
+	}
+
+	/**
+	 * Each refresh should notify the table of the rows evicted from the store, then the rows appended to it, and rows should be read
+	 * by their index in the store, so that a row cached before an eviction is not shown in place of the row that replaced it
+	 */
+	@Test
+	public void RefreshNotifiesEvictedAndAppendedRowsTest() {
+		TelemetryStore store = new TelemetryStore(2, MAX_ROWS);
+		ConsoleTableModel model = new ConsoleTableModel();
+		List<int[]> events = new ArrayList<>();
+
+		model.addTableModelListener(e -> events.add(new int[] {e.getType(), e.getFirstRow(), e.getLastRow()}));
+		model.setData(store.asList());
+
+		assertEvents(events, new int[] {TableModelEvent.UPDATE, 0, Integer.MAX_VALUE});
+		assertEquals(0, model.getRowCount());
+
+		// Appended rows are inserted at the end of the table
+		append(store, 0, 3);
+		assertEquals(3, model.refresh());
+		assertEvents(events, new int[] {TableModelEvent.INSERT, 0, 2});
+		assertEquals(3, model.getRowCount());
+		assertEquals(format(SimOuts.TIME, 0), model.getValueAt(0, TIME));
+		assertEquals(format(SimOuts.ALT, 20), model.getValueAt(2, ALT));
+
+		// Nothing changed since last refresh
+		assertEquals(0, model.refresh());
+		assertEvents(events);
+
+		// Filling the store past its maximum evicts the oldest rows, which read as no value until the table is refreshed
+		assertEquals(format(SimOuts.TIME, 0), model.getValueAt(0, TIME));
+		append(store, 3, 7);
+		assertEquals("-", model.getValueAt(1, TIME));
+
+		assertEquals(4, model.refresh());
+		assertEvents(events, new int[] {TableModelEvent.DELETE, 0, 1}, new int[] {TableModelEvent.INSERT, 1, 4});
+		assertEquals(MAX_ROWS, model.getRowCount());
+
+		for (int tableRow = 0; tableRow < MAX_ROWS; tableRow++) {
+			assertEquals(format(SimOuts.TIME, tableRow + 2), model.getValueAt(tableRow, TIME));
+			assertEquals(format(SimOuts.ALT, (tableRow + 2) * 10.0), model.getValueAt(tableRow, ALT));
+		}
+
+		// Rows cached before another eviction are read again at their new index in the store
+		assertEquals(format(SimOuts.TIME, 2), model.getValueAt(0, TIME));
+		append(store, 7, 8);
+		assertEquals(1, model.refresh());
+		assertEvents(events, new int[] {TableModelEvent.DELETE, 0, 0}, new int[] {TableModelEvent.INSERT, 4, 4});
+		assertEquals(format(SimOuts.TIME, 3), model.getValueAt(0, TIME));
+		assertEquals(format(SimOuts.TIME, 7), model.getValueAt(MAX_ROWS - 1, TIME));
+
+		// Clearing the store deletes every row, and rows appended afterwards continue from the indices cleared
+		store.clear();
+		assertEquals(0, model.refresh());
+		assertEvents(events, new int[] {TableModelEvent.DELETE, 0, MAX_ROWS - 1});
+		assertEquals(0, model.getRowCount());
+
+		append(store, 8, 10);
+		assertEquals(2, model.refresh());
+		assertEvents(events, new int[] {TableModelEvent.INSERT, 0, 1});
+		assertEquals(format(SimOuts.TIME, 8), model.getValueAt(0, TIME));
+		assertEquals(format(SimOuts.ALT, 90), model.getValueAt(1, ALT));
+	}
+}
@@ -20,7 +20,6 @@
 package com.chrisali.javaflightsim.tests;
 
 import java.util.EnumMap;
-import java.util.Map;
 
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
@@ -34,7 +33,7 @@ import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
 
 import com.chrisali.javaflightsim.simulation.enviroment.Environment;
-import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
+import com.chrisali.javaflightsim.simulation.enviroment.AtmosphereState;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
 import com.chrisali.javaflightsim.simulation.propulsion.Engine;
 import com.chrisali.javaflightsim.simulation.propulsion.FixedPitchPropEngine;
@@ -50,7 +49,8 @@ public class TestEngine extends ApplicationFrame {
 		SimulationConfiguration configuration = FileUtilities.readSimulationConfiguration();
 		
 		EnumMap<FlightControl, Double> controls = configuration.getInitialControls();
-		Map<EnvironmentParameters, Double> environmentParameters = Environment.getAndUpdateEnvironmentParams(new double[] {0,0,0});
+		Environment environment = new Environment();
+		AtmosphereState atmosphereState = environment.getAndUpdateAtmosphereState(new double[] {0,0,0});
 		StringBuilder constraint = new StringBuilder();
 		
 		Engine defaultEngine  = new FixedPitchPropEngine();
@@ -79,7 +79,7 @@ public class TestEngine extends ApplicationFrame {
 				
 				for (double vTrue = 0; vTrue < 500; vTrue += 1) {
 					defaultEngine.updateEngineState(controls, 
-													environmentParameters,
+													atmosphereState,
 													new double[] {vTrue, 0, 0});
 					
 					
@@ -108,7 +108,7 @@ public class TestEngine extends ApplicationFrame {
 					controls.put(FlightControl.THROTTLE_1, throttle);
 					
 					defaultEngine.updateEngineState(controls, 
-													environmentParameters,
+													atmosphereState,
 													new double[] {vTrue, 0, 0});
 					
 					thrustXData.add(throttle, defaultEngine.getEngineThrust()[0]);
@@ -134,10 +134,10 @@ public class TestEngine extends ApplicationFrame {
 							  .append(" ft/sec)");
 				
 				for (double altitude = 0; altitude < 20000; altitude += 10) {
-					environmentParameters = Environment.getAndUpdateEnvironmentParams(new double[] {0, 0, altitude});
+					atmosphereState = environment.getAndUpdateAtmosphereState(new double[] {0, 0, altitude});
 					
 					defaultEngine.updateEngineState(controls, 
-													environmentParameters,
+													atmosphereState,
 													new double[] {vTrue, 0, 0});
 					
 					thrustXData.add(altitude, defaultEngine.getEngineThrust()[0]);
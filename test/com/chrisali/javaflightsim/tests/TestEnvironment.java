@@ -19,8 +19,6 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.tests;
 
-import java.util.EnumMap;
-import java.util.Map;
 
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
@@ -34,6 +32,7 @@ import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
 
 import com.chrisali.javaflightsim.simulation.enviroment.Environment;
+import com.chrisali.javaflightsim.simulation.enviroment.AtmosphereState;
 import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
 
 public class TestEnvironment extends ApplicationFrame {
@@ -42,7 +41,8 @@ public class TestEnvironment extends ApplicationFrame {
 	public TestEnvironment() {
 		super("Environment Test");
 		
-		Map<EnvironmentParameters, Double> envData = new EnumMap<EnvironmentParameters, Double>(EnvironmentParameters.class);
+		AtmosphereState envData;
+		Environment environment = new Environment();
 		
 		XYSeries tData       = new XYSeries("T");
 		XYSeries pData       = new XYSeries("P");
@@ -63,9 +63,9 @@ public class TestEnvironment extends ApplicationFrame {
 		XYSeriesCollection windSeries = new XYSeriesCollection();
 		
 		for (double alt=0; alt<60000; alt+=10) {
-			Environment.setWindDir(alt*6/1000);
-			Environment.setWindSpeed(alt/6000);
-			envData = Environment.getAndUpdateEnvironmentParams(new double[] {0, 0, alt});
+			environment.setWindDir(alt*6/1000);
+			environment.setWindSpeed(alt/6000);
+			envData = environment.getAndUpdateAtmosphereState(new double[] {0, 0, alt});
 			
 			// Add envData to each XYSeries
 			tData.add(alt,envData.get(EnvironmentParameters.T));
@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2020 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+
+/**
+ * Configurations and aircraft read from the SimConfig and Aircraft directories, shared by the unit tests that run simulations
+ */
+public class TestFixtures {
+	
+	/**
+	 * @return simulation configuration, as saved in the SimConfig directory
+	 */
+	public static SimulationConfiguration readConfiguration() {
+		return FileUtilities.readSimulationConfiguration();
+	}
+	
+	/**
+	 * Reads the simulation configuration, and sets its end time so that a run lasts for duration
+	 * 
+	 * @param duration (sec)
+	 * @return simulation configuration
+	 */
+	public static SimulationConfiguration readConfiguration(double duration) {
+		SimulationConfiguration configuration = readConfiguration();
+		configuration.getIntegratorConfig().put(IntegratorConfig.ENDTIME, configuration.getIntegratorConfig().get(IntegratorConfig.STARTTIME) + duration);
+		
+		return configuration;
+	}
+	
+	/**
+	 * @return aircraft selected in the simulation configuration
+	 */
+	public static Aircraft readSelectedAircraft() {
+		return FileUtilities.readAircraftConfiguration(readConfiguration().getSelectedAircraft());
+	}
+}
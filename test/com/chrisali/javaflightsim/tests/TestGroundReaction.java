@@ -23,6 +23,7 @@ import java.util.Map;
 
 import org.apache.commons.lang3.ArrayUtils;
 
+import com.chrisali.javaflightsim.simulation.SimulationContext;
 import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
 import com.chrisali.javaflightsim.simulation.integration.IntegrateGroundReaction;
@@ -65,7 +66,7 @@ public class TestGroundReaction {
 													 windParameters,
 													 integratorConfig,
 													 sixDOFDerivatives,
-													 aircraft,
+													 new SimulationContext(configuration, aircraft),
 													 controls);
 	}
 	